@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.xaoxiao.convenientaccess.config.ConfigManager;
+import com.xaoxiao.convenientaccess.operation.LogRollupService;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
@@ -23,16 +24,19 @@ public class ApiRouter extends HttpServlet {
     private final UserApiController userController;
     private final PlayerDataApiController playerDataController;
     private final OperationLogApiController operationLogController;
+    private final DatabaseApiController databaseController;
     private AdminAuthController adminAuthController;
     private final ConfigManager configManager;
     
     public ApiRouter(WhitelistApiController whitelistController, UserApiController userController, 
                      PlayerDataApiController playerDataController, OperationLogApiController operationLogController,
-                     AdminAuthController adminAuthController, ConfigManager configManager) {
+                     DatabaseApiController databaseController, AdminAuthController adminAuthController,
+                     ConfigManager configManager) {
         this.whitelistController = whitelistController;
         this.userController = userController;
         this.playerDataController = playerDataController;
         this.operationLogController = operationLogController;
+        this.databaseController = databaseController;
         this.adminAuthController = adminAuthController;
         this.configManager = configManager;
     }
@@ -164,16 +168,25 @@ public class ApiRouter extends HttpServlet {
                     operationLogController.handleGetOperationLogs(request, response);
                 } else if (path.equals("/api/v1/logs/operations/stats")) {
                     operationLogController.handleGetOperationStats(request, response);
+                } else if (path.equals("/api/v1/logs/operations/export")) {
+                    operationLogController.handleExportOperationLogs(request, response);
+                } else if (path.equals("/api/v1/logs/operations/timeline")) {
+                    operationLogController.handleGetTimeline(request, response, LogRollupService.Source.OPERATION);
                 } else {
                     send404Response(response, "Endpoint not found");
                 }
             }
+            else if (path.equals("/api/v1/logs/auth/timeline")) {
+                operationLogController.handleGetTimeline(request, response, LogRollupService.Source.AUTH);
+            }
             // 白名单相关路由
             else if (path.startsWith("/api/v1/whitelist")) {
                 if (path.equals("/api/v1/whitelist")) {
                     whitelistController.handleGetWhitelist(request, response);
                 } else if (path.equals("/api/v1/whitelist/stats")) {
                     whitelistController.handleGetStats(request, response);
+                } else if (path.equals("/api/v1/whitelist/suggest")) {
+                    whitelistController.handleSuggest(request, response);
                 } else if (path.equals("/api/v1/whitelist/sync/status")) {
                     whitelistController.handleGetSyncStatus(request, response);
                 } else {
@@ -184,6 +197,10 @@ public class ApiRouter extends HttpServlet {
             else if (path.equals("/api/v1/player")) {
                 playerDataController.handleGetPlayerData(request, response);
             }
+            // 数据库诊断路由
+            else if (path.equals("/api/v1/admin/database/queries")) {
+                databaseController.handleGetQueryStats(request, response);
+            }
             // 管理员信息查询路由
             else if (path.equals("/api/v1/admin/me")) {
                 if (adminAuthController != null) {
@@ -225,6 +242,8 @@ public class ApiRouter extends HttpServlet {
                      whitelistController.handleAddPlayer(request, response);
                  } else if (path.equals("/api/v1/whitelist/batch")) {
                      whitelistController.handleBatchOperation(request, response);
+                 } else if (path.equals("/api/v1/whitelist/import")) {
+                     whitelistController.handleImport(request, response);
                  } else if (path.equals("/api/v1/whitelist/sync")) {
                      whitelistController.handleTriggerSync(request, response);
                  } else {
@@ -0,0 +1,198 @@
+package com.xaoxiao.convenientaccess.api;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.xaoxiao.convenientaccess.database.ConnectionPool;
+import com.xaoxiao.convenientaccess.database.DatabaseMaintenance;
+import com.xaoxiao.convenientaccess.database.DatabaseManager;
+import com.xaoxiao.convenientaccess.database.LatencyHistogram;
+import com.xaoxiao.convenientaccess.database.PriorityLaneExecutor;
+import com.xaoxiao.convenientaccess.database.QueryMetrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 数据库诊断API控制器
+ * 提供连接池、执行通道、语句延迟直方图和慢查询日志（白名单库和日志库）
+ */
+public class DatabaseApiController {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseApiController.class);
+    private static final int DEFAULT_TEMPLATE_LIMIT = 50;
+
+    private final DatabaseManager databaseManager;
+    private final Gson gson;
+
+    public DatabaseApiController(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        this.gson = new Gson();
+    }
+
+    /**
+     * 处理GET /api/v1/admin/database/queries - 语句统计和慢查询
+     *
+     * 查询参数:
+     * - limit: 返回的语句模板数（按累计执行时间降序，默认50）
+     */
+    public void handleGetQueryStats(HttpServletRequest request, HttpServletResponse response) {
+        try {
+            int limit = DEFAULT_TEMPLATE_LIMIT;
+            String limitParam = request.getParameter("limit");
+            if (limitParam != null && !limitParam.isEmpty()) {
+                try {
+                    limit = Math.max(1, Integer.parseInt(limitParam));
+                } catch (NumberFormatException e) {
+                    sendJsonResponse(response, 400, ApiResponse.badRequest("limit必须是整数"));
+                    return;
+                }
+            }
+
+            QueryMetrics metrics = databaseManager.getQueryMetrics();
+            JsonObject data = new JsonObject();
+            data.add("pool", poolToJson(databaseManager.getPoolStats()));
+            data.add("read_lanes", lanesToJson(databaseManager.getReadLaneStats()));
+            data.add("write_lanes", lanesToJson(databaseManager.getWriteLaneStats()));
+
+            JsonArray templates = new JsonArray();
+            List<QueryMetrics.TemplateStats> allTemplates = metrics.getTemplates();
+            for (QueryMetrics.TemplateStats stats : allTemplates.subList(0, Math.min(limit, allTemplates.size()))) {
+                JsonObject template = new JsonObject();
+                template.addProperty("sql", stats.getTemplate());
+                template.addProperty("errors", stats.getErrors());
+                template.add("execution", histogramToJson(stats.getExecution()));
+                template.add("queue_wait", histogramToJson(stats.getQueueWait()));
+                templates.add(template);
+            }
+            data.add("templates", templates);
+            data.addProperty("template_count", allTemplates.size());
+
+            JsonObject slow = new JsonObject();
+            slow.addProperty("threshold_ms", metrics.getSlowThresholdMs());
+            slow.addProperty("total", metrics.getSlowQueryCount());
+            JsonArray recent = new JsonArray();
+            for (QueryMetrics.SlowQuery query : metrics.getSlowQueries()) {
+                JsonObject item = new JsonObject();
+                item.addProperty("time", query.getTime().toString());
+                item.addProperty("sql", query.getTemplate());
+                JsonArray types = new JsonArray();
+                query.getParameterTypes().forEach(types::add);
+                item.add("parameter_types", types);
+                item.addProperty("execution_ms", query.getExecutionMs());
+                item.addProperty("plan", query.getPlan());
+                recent.add(item);
+            }
+            slow.add("recent", recent);
+            data.add("slow_queries", slow);
+
+            DatabaseMaintenance maintenance = databaseManager.getMaintenance();
+            if (maintenance != null) {
+                data.add("maintenance", maintenanceToJson(maintenance));
+            }
+
+            // 日志库 (logs.db) 的连接池、执行通道和维护状态，语句统计已合并在 templates 中
+            DatabaseManager logDatabase = databaseManager.getLogDatabase();
+            JsonObject logs = new JsonObject();
+            logs.add("pool", poolToJson(logDatabase.getPoolStats()));
+            logs.add("read_lanes", lanesToJson(logDatabase.getReadLaneStats()));
+            logs.add("write_lanes", lanesToJson(logDatabase.getWriteLaneStats()));
+            if (logDatabase.getMaintenance() != null) {
+                logs.add("maintenance", maintenanceToJson(logDatabase.getMaintenance()));
+            }
+            data.add("log_database", logs);
+
+            sendJsonResponse(response, 200, ApiResponse.success(data, "查询成功"));
+        } catch (Exception e) {
+            logger.error("获取数据库统计失败", e);
+            sendJsonResponse(response, 500, ApiResponse.error("获取数据库统计失败"));
+        }
+    }
+
+    private JsonObject histogramToJson(LatencyHistogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("total_ms", histogram.getTotalMs());
+        json.addProperty("avg_ms", histogram.getAverageMs());
+        json.addProperty("p50_ms", histogram.getPercentileMs(0.50));
+        json.addProperty("p95_ms", histogram.getPercentileMs(0.95));
+        json.addProperty("p99_ms", histogram.getPercentileMs(0.99));
+        json.addProperty("max_ms", histogram.getMaxMs());
+        return json;
+    }
+
+    private JsonObject maintenanceToJson(DatabaseMaintenance maintenance) {
+        JsonObject json = new JsonObject();
+        json.addProperty("runs", maintenance.getRuns());
+        json.addProperty("skips", maintenance.getSkips());
+        json.addProperty("last_run", maintenance.getLastRunAt() != null ? maintenance.getLastRunAt().toString() : null);
+        json.addProperty("last_skip_reason", maintenance.getLastSkipReason());
+        JsonObject costs = new JsonObject();
+        maintenance.getLastRunCosts().forEach(costs::addProperty);
+        json.add("last_run_costs_ms", costs);
+        JsonArray samples = new JsonArray();
+        for (DatabaseMaintenance.SizeSample sample : maintenance.getSamples()) {
+            JsonObject item = new JsonObject();
+            item.addProperty("time", sample.getTime().toString());
+            item.addProperty("database_bytes", sample.getDatabaseBytes());
+            item.addProperty("wal_bytes", sample.getWalBytes());
+            samples.add(item);
+        }
+        json.add("size_trend", samples);
+        return json;
+    }
+
+    private JsonObject poolToJson(ConnectionPool.Stats stats) {
+        JsonObject json = new JsonObject();
+        json.addProperty("max_size", stats.getMaxSize());
+        json.addProperty("active", stats.getActive());
+        json.addProperty("idle", stats.getIdle());
+        json.addProperty("peak_active", stats.getPeakActive());
+        json.addProperty("waiting", stats.getWaiting());
+        json.addProperty("borrows", stats.getBorrows());
+        json.addProperty("avg_wait_ms", stats.getAverageWaitMs());
+        json.addProperty("max_wait_ms", stats.getMaxWaitMs());
+        json.addProperty("timeouts", stats.getTimeouts());
+        json.addProperty("avg_hold_ms", stats.getAverageHoldMs());
+        json.addProperty("utilisation", stats.getUtilisation());
+        json.addProperty("recent_utilisation", stats.getRecentUtilisation());
+        json.addProperty("statement_cache_hits", stats.getStatementHits());
+        json.addProperty("statement_cache_misses", stats.getStatementMisses());
+        return json;
+    }
+
+    private JsonArray lanesToJson(List<PriorityLaneExecutor.LaneStats> lanes) {
+        JsonArray array = new JsonArray();
+        for (PriorityLaneExecutor.LaneStats lane : lanes) {
+            JsonObject json = new JsonObject();
+            json.addProperty("lane", lane.getPriority().name());
+            json.addProperty("queue_depth", lane.getQueueDepth());
+            json.addProperty("peak_queue_depth", lane.getPeakQueueDepth());
+            json.addProperty("running", lane.getRunning());
+            json.addProperty("limit", lane.getLimit());
+            json.addProperty("completed", lane.getCompleted());
+            json.addProperty("avg_wait_ms", lane.getAverageWaitMs());
+            json.addProperty("max_wait_ms", lane.getMaxWaitMs());
+            array.add(json);
+        }
+        return array;
+    }
+
+    /**
+     * 发送JSON响应
+     */
+    private void sendJsonResponse(HttpServletResponse response, int statusCode, ApiResponse<?> apiResponse) {
+        try {
+            response.setStatus(statusCode);
+            response.setContentType("application/json;charset=UTF-8");
+            response.getWriter().write(gson.toJson(apiResponse));
+        } catch (IOException e) {
+            logger.error("发送响应失败", e);
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package com.xaoxiao.convenientaccess.api;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,21 +25,37 @@ import com.google.gson.JsonObject;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import com.xaoxiao.convenientaccess.operation.LogRollupService;
 import com.xaoxiao.convenientaccess.operation.OperationLog;
 import com.xaoxiao.convenientaccess.operation.OperationLogDao;
+import com.xaoxiao.convenientaccess.operation.OperationLogStats;
+import com.xaoxiao.convenientaccess.utils.PageCursor;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * 操作日志API控制器
- * 提供操作日志查询接口
+ * 提供操作日志查询、统计、流式导出接口，以及操作日志和认证日志的时间线
  */
 public class OperationLogApiController {
     private static final Logger logger = LoggerFactory.getLogger(OperationLogApiController.class);
+    // 操作日志游标：按创建时间降序，值为数据库中 CURRENT_TIMESTAMP 写入的原始文本
+    private static final String CURSOR_SORT = "created_at";
+    private static final DateTimeFormatter CURSOR_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // 时间线单次查询的最大时间范围（天）
+    private static final int MAX_HOURLY_TIMELINE_DAYS = 31;
+    private static final int MAX_DAILY_TIMELINE_DAYS = 3660;
+    // 同时进行的导出数：限制并发的日志库扫描和响应流，每页读取后即归还连接，页与页之间不占用连接
+    private static final int MAX_CONCURRENT_EXPORTS = 2;
+    private static final String[] CSV_COLUMNS = {
+        "id", "created_at", "operation_type", "target_uuid", "target_name", "operator_ip",
+        "operator_agent", "response_status", "execution_time", "request_data"
+    };
     
     private final OperationLogDao operationLogDao;
     private final Gson gson;
+    private final Semaphore exportPermits = new Semaphore(MAX_CONCURRENT_EXPORTS);
     
     public OperationLogApiController(OperationLogDao operationLogDao) {
         this.operationLogDao = operationLogDao;
@@ -121,27 +146,64 @@ public class OperationLogApiController {
                 offset = 0;
             }
             
-            // 查询日志
-            List<OperationLog> logs = operationLogDao.queryLogs(
-                operationType, 
-                targetUuid, 
-                targetName,
-                operatorIp, 
-                startTime, 
-                endTime, 
-                limit, 
-                offset
-            );
+            // 游标分页：传入上一页返回的 next_cursor 继续读取，此时忽略 offset
+            String cursorStr = request.getParameter("cursor");
+            PageCursor cursor = null;
+            if (cursorStr != null && !cursorStr.isEmpty()) {
+                try {
+                    cursor = PageCursor.decode(cursorStr);
+                } catch (IllegalArgumentException e) {
+                    sendJsonResponse(response, 400, ApiResponse.badRequest("无效的分页游标"));
+                    return;
+                }
+                if (!CURSOR_SORT.equals(cursor.getSort()) || cursor.isAscending()
+                        || (cursor.getValue() != null && !(cursor.getValue() instanceof String))) {
+                    sendJsonResponse(response, 400, ApiResponse.badRequest("无效的分页游标"));
+                    return;
+                }
+            }
+            boolean includeTotal = !"false".equalsIgnoreCase(request.getParameter("include_total"));
+            
+            // 查询日志，多读一条用于判断是否还有下一页
+            List<OperationLog> logs;
+            if (cursor != null) {
+                logs = operationLogDao.queryLogsAfter(
+                    operationType, 
+                    targetUuid, 
+                    targetName,
+                    operatorIp, 
+                    startTime, 
+                    endTime, 
+                    (String) cursor.getValue(),
+                    cursor.getId(),
+                    limit + 1
+                );
+            } else {
+                logs = operationLogDao.queryLogs(
+                    operationType, 
+                    targetUuid, 
+                    targetName,
+                    operatorIp, 
+                    startTime, 
+                    endTime, 
+                    limit + 1, 
+                    offset
+                );
+            }
+            boolean hasMore = logs.size() > limit;
+            if (hasMore) {
+                logs = logs.subList(0, limit);
+            }
             
-            // 查询总数
-            long totalCount = operationLogDao.countLogs(
+            // 查询总数（include_total=false 时跳过）
+            long totalCount = includeTotal ? operationLogDao.countLogs(
                 operationType, 
                 targetUuid,
                 targetName,
                 operatorIp, 
                 startTime, 
                 endTime
-            );
+            ) : -1;
             
             // 构建响应
             JsonArray logsArray = new JsonArray();
@@ -163,10 +225,17 @@ public class OperationLogApiController {
             
             JsonObject result = new JsonObject();
             result.add("logs", logsArray);
-            result.addProperty("total", totalCount);
+            if (includeTotal) {
+                result.addProperty("total", totalCount);
+            }
             result.addProperty("limit", limit);
-            result.addProperty("offset", offset);
-            result.addProperty("has_more", offset + logs.size() < totalCount);
+            result.addProperty("offset", cursor != null ? 0 : offset);
+            result.addProperty("has_more", hasMore);
+            if (hasMore) {
+                OperationLog last = logs.get(logs.size() - 1);
+                String lastCreatedAt = last.getCreatedAt() != null ? last.getCreatedAt().format(CURSOR_TIME_FORMAT) : null;
+                result.addProperty("next_cursor", new PageCursor(CURSOR_SORT, false, lastCreatedAt, last.getId()).encode());
+            }
             
             sendJsonResponse(response, 200, ApiResponse.success(result, "查询成功"));
             
@@ -178,10 +247,12 @@ public class OperationLogApiController {
     
     /**
      * 处理GET /api/v1/logs/operations/stats - 获取操作日志统计
+     * 指定 window (hour/day/week) 时从内存滚动计数返回，否则按 start_time/end_time 用一次 GROUP BY 统计
      */
     public void handleGetOperationStats(HttpServletRequest request, HttpServletResponse response) throws IOException {
         try {
             // 获取时间范围
+            String windowStr = request.getParameter("window");
             String startTimeStr = request.getParameter("start_time");
             String endTimeStr = request.getParameter("end_time");
             
@@ -206,18 +277,53 @@ public class OperationLogApiController {
                 }
             }
             
+            Map<String, Long> counts;
+            String source = "database";
+            OperationLogStats.Window window = null;
+            if (windowStr != null && !windowStr.isEmpty()) {
+                window = OperationLogStats.Window.fromName(windowStr);
+                if (window == null) {
+                    sendJsonResponse(response, 400, ApiResponse.badRequest("window参数无效，可选值: hour, day, week"));
+                    return;
+                }
+                if (startTime != null || endTime != null) {
+                    sendJsonResponse(response, 400, ApiResponse.badRequest("window不能与start_time/end_time同时使用"));
+                    return;
+                }
+                OperationLogStats rolling = operationLogDao.getStats();
+                if (rolling.isSeeded()) {
+                    counts = rolling.count(window);
+                    source = "memory";
+                } else {
+                    // 启动后历史计数尚未加载完成，临时改用数据库统计
+                    LocalDateTime since = LocalDateTime.now(ZoneOffset.UTC).minusNanos(window.getMillis() * 1_000_000L);
+                    counts = operationLogDao.countByType(since, null);
+                }
+            } else {
+                counts = operationLogDao.countByType(startTime, endTime);
+            }
+            
             // 统计各类型操作数量
             JsonObject stats = new JsonObject();
             
             String[] operationTypes = {"ADD", "REMOVE", "BATCH_ADD", "BATCH_REMOVE", "UPDATE"};
             for (String type : operationTypes) {
-                long count = operationLogDao.countLogs(type, null, null, null, startTime, endTime);
-                stats.addProperty(type.toLowerCase(), count);
+                stats.addProperty(type.toLowerCase(), counts.getOrDefault(type, 0L));
             }
             
-            // 总数
-            long totalCount = operationLogDao.countLogs(null, null, null, null, startTime, endTime);
+            // 其他类型只在有记录时返回，总数包含所有类型
+            long totalCount = 0;
+            for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                if (!stats.has(entry.getKey().toLowerCase())) {
+                    stats.addProperty(entry.getKey().toLowerCase(), entry.getValue());
+                }
+                totalCount += entry.getValue();
+            }
             stats.addProperty("total", totalCount);
+            if (window != null) {
+                stats.addProperty("window", window.getName());
+            }
+            stats.addProperty("source", source);
             
             sendJsonResponse(response, 200, ApiResponse.success(stats, "统计成功"));
             
@@ -227,6 +333,252 @@ public class OperationLogApiController {
         }
     }
     
+    /**
+     * 处理GET /api/v1/logs/operations/export - 流式导出操作日志
+     * 
+     * 查询参数:
+     * - type / target_uuid / target_name / operator_ip / start_time / end_time: 与查询接口相同的筛选条件
+     * - format: csv(默认) 或 ndjson
+     * - gzip: true 时以gzip压缩输出
+     * - order: desc(默认，与查询接口相同) 或 asc
+     * 
+     * 逐行从数据库读取并写入响应流，不分页、不在内存中缓存结果；开始输出后出错只能中断响应
+     */
+    public void handleExportOperationLogs(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String operationType = request.getParameter("type");
+        String targetUuid = request.getParameter("target_uuid");
+        String targetName = request.getParameter("target_name");
+        String operatorIp = request.getParameter("operator_ip");
+        String startTimeStr = request.getParameter("start_time");
+        String endTimeStr = request.getParameter("end_time");
+        
+        String format = request.getParameter("format");
+        boolean csv;
+        if (format == null || format.isEmpty() || "csv".equalsIgnoreCase(format)) {
+            csv = true;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            csv = false;
+        } else {
+            sendJsonResponse(response, 400, ApiResponse.badRequest("format参数无效，可选值: csv, ndjson"));
+            return;
+        }
+        boolean gzip = "true".equalsIgnoreCase(request.getParameter("gzip"));
+        boolean ascending = "asc".equalsIgnoreCase(request.getParameter("order"));
+        
+        LocalDateTime startTime = null;
+        LocalDateTime endTime = null;
+        
+        if (startTimeStr != null && !startTimeStr.isEmpty()) {
+            try {
+                startTime = LocalDateTime.parse(startTimeStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            } catch (DateTimeParseException e) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("start_time格式无效,请使用ISO-8601格式: yyyy-MM-ddTHH:mm:ss"));
+                return;
+            }
+        }
+        
+        if (endTimeStr != null && !endTimeStr.isEmpty()) {
+            try {
+                endTime = LocalDateTime.parse(endTimeStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            } catch (DateTimeParseException e) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("end_time格式无效,请使用ISO-8601格式: yyyy-MM-ddTHH:mm:ss"));
+                return;
+            }
+        }
+        
+        if (!exportPermits.tryAcquire()) {
+            sendJsonResponse(response, 429, ApiResponse.error(429, "导出任务过多，请稍后再试"));
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            String fileName = "operation_logs." + (csv ? "csv" : "ndjson") + (gzip ? ".gz" : "");
+            response.setStatus(200);
+            response.setContentType(gzip ? "application/gzip"
+                    : csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+            
+            OutputStream stream = response.getOutputStream();
+            if (gzip) {
+                stream = new GZIPOutputStream(stream, 8192);
+            }
+            // 出错时不关闭输出流：gzip 缺少结尾，客户端可以发现导出不完整
+            Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 16384);
+            if (csv) {
+                writeCsvRow(out, CSV_COLUMNS);
+            }
+            long rows = operationLogDao.exportLogs(operationType, targetUuid, targetName, operatorIp,
+                    startTime, endTime, ascending, log -> {
+                        if (csv) {
+                            writeCsvRow(out, csvValues(log));
+                        } else {
+                            out.write(toNdjson(log));
+                            out.write('\n');
+                        }
+                    });
+            out.close();
+            logger.info("导出操作日志 {} 条 ({}), 耗时 {} ms", rows, fileName, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            // 通常是客户端中途断开
+            logger.warn("导出操作日志中断: {}", e.getMessage());
+        } catch (Exception e) {
+            logger.error("导出操作日志失败", e);
+            // 尚未输出任何内容时（如获取连接超时）仍可返回错误响应
+            if (!response.isCommitted()) {
+                response.reset();
+                sendJsonResponse(response, 500, ApiResponse.error("导出操作日志失败"));
+            }
+        } finally {
+            exportPermits.release();
+        }
+    }
+    
+    private static String[] csvValues(OperationLog log) {
+        return new String[] {
+            String.valueOf(log.getId()),
+            log.getCreatedAt() != null ? log.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null,
+            log.getOperationType(),
+            log.getTargetUuid(),
+            log.getTargetName(),
+            log.getOperatorIp(),
+            log.getOperatorAgent(),
+            log.getResponseStatus() != null ? String.valueOf(log.getResponseStatus()) : null,
+            log.getExecutionTime() != null ? String.valueOf(log.getExecutionTime()) : null,
+            log.getRequestData()
+        };
+    }
+    
+    /**
+     * 按 RFC 4180 写一行CSV：含逗号、引号或换行的字段加引号，引号双写
+     */
+    private static void writeCsvRow(Writer out, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("\r\n");
+    }
+    
+    private static String toNdjson(OperationLog log) {
+        JsonObject item = new JsonObject();
+        item.addProperty("id", log.getId());
+        item.addProperty("created_at", log.getCreatedAt() != null
+                ? log.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+        item.addProperty("operation_type", log.getOperationType());
+        item.addProperty("target_uuid", log.getTargetUuid());
+        item.addProperty("target_name", log.getTargetName());
+        item.addProperty("operator_ip", log.getOperatorIp());
+        item.addProperty("operator_agent", log.getOperatorAgent());
+        item.addProperty("response_status", log.getResponseStatus());
+        item.addProperty("execution_time", log.getExecutionTime());
+        item.addProperty("request_data", log.getRequestData());
+        // JsonObject.toString() 输出单行紧凑JSON
+        return item.toString();
+    }
+    
+    /**
+     * 处理GET /api/v1/logs/operations/timeline 和 /api/v1/logs/auth/timeline - 按小时/天获取日志时间线
+     * 已汇总的时间段读取汇总表，只有最近未汇总的部分扫描原始日志
+     */
+    public void handleGetTimeline(HttpServletRequest request, HttpServletResponse response,
+                                  LogRollupService.Source source) throws IOException {
+        try {
+            String granularityStr = request.getParameter("granularity");
+            LogRollupService.Granularity granularity = granularityStr == null || granularityStr.isEmpty()
+                    ? LogRollupService.Granularity.HOUR : LogRollupService.Granularity.fromName(granularityStr);
+            if (granularity == null) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("granularity参数无效，可选值: hour, day"));
+                return;
+            }
+            String type = request.getParameter("type");
+            if (type != null && type.isEmpty()) {
+                type = null;
+            }
+            
+            // 获取时间范围，默认最近24小时（按小时）或最近30天（按天）
+            String startTimeStr = request.getParameter("start_time");
+            String endTimeStr = request.getParameter("end_time");
+            
+            LocalDateTime endTime = LocalDateTime.now(ZoneOffset.UTC);
+            if (endTimeStr != null && !endTimeStr.isEmpty()) {
+                try {
+                    endTime = LocalDateTime.parse(endTimeStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+                } catch (DateTimeParseException e) {
+                    sendJsonResponse(response, 400, ApiResponse.badRequest("end_time格式无效"));
+                    return;
+                }
+            }
+            
+            LocalDateTime startTime = granularity == LogRollupService.Granularity.HOUR
+                    ? endTime.minusHours(24) : endTime.minusDays(30);
+            if (startTimeStr != null && !startTimeStr.isEmpty()) {
+                try {
+                    startTime = LocalDateTime.parse(startTimeStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+                } catch (DateTimeParseException e) {
+                    sendJsonResponse(response, 400, ApiResponse.badRequest("start_time格式无效"));
+                    return;
+                }
+            }
+            
+            int maxDays = granularity == LogRollupService.Granularity.HOUR
+                    ? MAX_HOURLY_TIMELINE_DAYS : MAX_DAILY_TIMELINE_DAYS;
+            if (startTime.isAfter(endTime)) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("start_time不能晚于end_time"));
+                return;
+            }
+            if (startTime.plusDays(maxDays).isBefore(endTime)) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("时间范围过大，按" 
+                        + (granularity == LogRollupService.Granularity.HOUR ? "小时" : "天") + "最多查询 " + maxDays + " 天"));
+                return;
+            }
+            
+            List<LogRollupService.Bucket> buckets = operationLogDao.queryTimeline(source, granularity,
+                    startTime, endTime, type);
+            
+            JsonArray items = new JsonArray();
+            for (LogRollupService.Bucket bucket : buckets) {
+                JsonObject item = new JsonObject();
+                item.addProperty("time", bucket.getStart().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                item.addProperty("type", bucket.getType());
+                item.addProperty("count", bucket.getCount());
+                item.addProperty("error_count", bucket.getErrorCount());
+                if (source == LogRollupService.Source.OPERATION) {
+                    item.addProperty("avg_execution_time", Math.round(bucket.getAverageExecutionTime() * 10) / 10.0);
+                    item.addProperty("max_execution_time", bucket.getMaxExecutionTime());
+                }
+                items.add(item);
+            }
+            
+            JsonObject data = new JsonObject();
+            data.addProperty("granularity", granularity.name().toLowerCase());
+            data.addProperty("start_time", startTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            data.addProperty("end_time", endTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            LocalDateTime rolledUntil = operationLogDao.getRollups().getRolledUntil(source);
+            data.addProperty("rolled_until", rolledUntil != null
+                    ? rolledUntil.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+            data.add("buckets", items);
+            
+            sendJsonResponse(response, 200, ApiResponse.success(data, "查询成功"));
+            
+        } catch (Exception e) {
+            logger.error("查询日志时间线失败", e);
+            sendJsonResponse(response, 500, ApiResponse.error("查询日志时间线失败"));
+        }
+    }
+    
     /**
      * 发送JSON响应
      */
@@ -1,8 +1,11 @@
 package com.xaoxiao.convenientaccess.api;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -13,14 +16,19 @@ import org.slf4j.LoggerFactory;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import com.xaoxiao.convenientaccess.operation.OperationLogDao;
+import com.xaoxiao.convenientaccess.utils.PageCursor;
 import com.xaoxiao.convenientaccess.utils.UuidUtils;
 import com.xaoxiao.convenientaccess.whitelist.BatchOperation;
+import com.xaoxiao.convenientaccess.whitelist.PaginatedResult;
 import com.xaoxiao.convenientaccess.whitelist.WhitelistEntry;
 import com.xaoxiao.convenientaccess.whitelist.WhitelistManager;
 
@@ -33,6 +41,10 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 public class WhitelistApiController {
     private static final Logger logger = LoggerFactory.getLogger(WhitelistApiController.class);
+    // 流式导入：每块条目数（一个事务）及返回的错误信息上限
+    private static final int DEFAULT_IMPORT_CHUNK_SIZE = 500;
+    private static final int MAX_IMPORT_CHUNK_SIZE = 5000;
+    private static final int MAX_IMPORT_ERRORS = 100;
     
     private final WhitelistManager whitelistManager;
     private final OperationLogDao operationLogDao;
@@ -84,12 +96,33 @@ public class WhitelistApiController {
             String startDate = request.getParameter("start_date");
             String endDate = request.getParameter("end_date");
             
+            String cursorStr = request.getParameter("cursor");
+            String includeTotalStr = request.getParameter("include_total");
+            
             // 使用前端传入的分页参数，默认值：page=1, size=20
             final int page = (pageStr != null && !pageStr.isEmpty()) ? Integer.parseInt(pageStr) : 1;
             final int size = (sizeStr != null && !sizeStr.isEmpty()) ? Integer.parseInt(sizeStr) : 20;
             
-            // 使用现有的分页查询方法，但获取所有数据
-            whitelistManager.getWhitelistPaginated(page, size, search, source, addedBy, sort, order, startDate, endDate)
+            // 游标分页：传入上一页返回的 next_cursor 继续读取；include_total=false 时不统计总数
+            PageCursor cursor;
+            try {
+                cursor = (cursorStr != null && !cursorStr.isEmpty()) ? PageCursor.decode(cursorStr) : null;
+            } catch (IllegalArgumentException e) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("无效的分页游标"));
+                return;
+            }
+            boolean includeTotal = !"false".equalsIgnoreCase(includeTotalStr);
+            
+            CompletableFuture<PaginatedResult<WhitelistEntry>> future;
+            try {
+                future = whitelistManager.getWhitelistPaginated(page, size, search, source, addedBy, sort, order,
+                        startDate, endDate, cursor, includeTotal);
+            } catch (IllegalArgumentException e) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("无效的分页游标"));
+                return;
+            }
+            
+            future
                 .thenAccept(result -> {
                     // 直接返回所有数据
                     sendJsonResponse(response, 200, ApiResponse.success(result));
@@ -336,6 +369,33 @@ public class WhitelistApiController {
         }
     }
     
+    /**
+     * 处理GET /api/v1/whitelist/suggest - 按前缀补全玩家名
+     */
+    public void handleSuggest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            String prefix = request.getParameter("prefix");
+            if (prefix == null) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("缺少prefix参数"));
+                return;
+            }
+            int limit = Math.max(1, Math.min(getIntParameter(request, "limit", 10), 50));
+            
+            JsonObject result = new JsonObject();
+            result.addProperty("prefix", prefix);
+            JsonArray names = new JsonArray();
+            for (String name : whitelistManager.suggestPlayerNames(prefix, limit)) {
+                names.add(name);
+            }
+            result.add("names", names);
+            sendJsonResponse(response, 200, ApiResponse.success(result));
+            
+        } catch (Exception e) {
+            logger.error("处理名称补全请求失败", e);
+            sendJsonResponse(response, 500, ApiResponse.error("服务器内部错误"));
+        }
+    }
+    
     /**
      * 处理GET /api/v1/whitelist/stats - 获取白名单统计信息
      */
@@ -428,7 +488,7 @@ public class WhitelistApiController {
      * 注意: 为了兼容性,这里只检查基本的长度和非空
      * Minecraft 官方只允许 a-zA-Z0-9_ 但某些服务器可能有特殊配置
      */
-    private boolean isValidPlayerName(String name) {
+    private static boolean isValidPlayerName(String name) {
         if (name == null || name.trim().isEmpty()) {
             return false;
         }
@@ -618,10 +678,300 @@ public class WhitelistApiController {
          }
      }
       
+    /**
+     * 处理POST /api/v1/whitelist/import - 流式批量导入
+     * 请求体为 NDJSON（每行一个玩家对象）或 JSON 数组，边读取边解析，不限制玩家数量；
+     * 每累计 chunk_size 条提交一次批量操作（一个事务、一次缓存发布），提交的同时继续解析下一块，
+     * 每块完成后以 NDJSON 返回一行进度，最后一行为汇总结果
+     */
+    public void handleImport(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long startTime = System.currentTimeMillis();
+        String operation = request.getParameter("operation");
+        String sourceStr = request.getParameter("source");
+        String addedAtStr = request.getParameter("added_at");
+        String addedByName = request.getParameter("added_by_name");
+        String addedByUuid = request.getParameter("added_by_uuid");
+        
+        final boolean add;
+        if (operation == null || operation.isEmpty() || "add".equalsIgnoreCase(operation)) {
+            add = true;
+        } else if ("remove".equalsIgnoreCase(operation)) {
+            add = false;
+        } else {
+            sendJsonResponse(response, 400, ApiResponse.badRequest("不支持的操作类型: " + operation));
+            return;
+        }
+        
+        WhitelistEntry.Source source = null;
+        LocalDateTime addedAt = LocalDateTime.now();
+        if (add) {
+            if (sourceStr == null || sourceStr.isEmpty()) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("缺少必需参数: source"));
+                return;
+            }
+            try {
+                source = WhitelistEntry.Source.fromString(sourceStr);
+            } catch (IllegalArgumentException e) {
+                sendJsonResponse(response, 400, ApiResponse.badRequest("无效的来源类型: " + sourceStr));
+                return;
+            }
+            if (addedAtStr != null && !addedAtStr.isEmpty()) {
+                try {
+                    addedAt = LocalDateTime.parse(addedAtStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+                } catch (DateTimeParseException e) {
+                    sendJsonResponse(response, 400, ApiResponse.badRequest("added_at格式无效,请使用ISO-8601格式: yyyy-MM-ddTHH:mm:ss"));
+                    return;
+                }
+            }
+        }
+        if (addedByName == null || addedByName.isEmpty()) {
+            addedByName = "API";
+        }
+        if (addedByUuid == null || addedByUuid.isEmpty()) {
+            addedByUuid = "00000000-0000-0000-0000-000000000000";
+        }
+        int chunkSize = Math.max(1, Math.min(getIntParameter(request, "chunk_size", DEFAULT_IMPORT_CHUNK_SIZE), MAX_IMPORT_CHUNK_SIZE));
+        
+        response.setStatus(200);
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter out = response.getWriter();
+        
+        BatchOperation.OperationType type = add ? BatchOperation.OperationType.ADD : BatchOperation.OperationType.REMOVE;
+        ImportProgress progress = new ImportProgress(startTime);
+        BatchOperation chunk = new BatchOperation(type, addedByName, addedByUuid);
+        CompletableFuture<BatchOperation.BatchResult> inFlight = null;
+        String failure = null;
+        boolean disconnected = false;
+        
+        try (JsonReader reader = new JsonReader(request.getReader())) {
+            // 宽松模式允许多个顶层值，即 NDJSON
+            reader.setLenient(true);
+            JsonToken first;
+            try {
+                first = reader.peek();
+            } catch (EOFException e) {
+                first = JsonToken.END_DOCUMENT;
+            }
+            boolean array = first == JsonToken.BEGIN_ARRAY;
+            if (array) {
+                reader.beginArray();
+            } else if (first == JsonToken.END_DOCUMENT) {
+                failure = "玩家列表不能为空";
+            }
+            
+            while (failure == null && (array ? reader.hasNext() : reader.peek() != JsonToken.END_DOCUMENT)) {
+                int record = ++progress.records;
+                String rejected = addImportRecord(chunk, JsonParser.parseReader(reader), record, source, addedAt);
+                if (rejected != null) {
+                    progress.reject(rejected);
+                    continue;
+                }
+                
+                if (chunk.getSize() >= chunkSize) {
+                    inFlight = submitImportChunk(chunk, inFlight, progress, out);
+                    chunk = new BatchOperation(type, addedByName, addedByUuid);
+                    if (inFlight == null) {
+                        failure = progress.chunkError;
+                        break;
+                    }
+                    if (out.checkError()) {
+                        disconnected = true;
+                        failure = "客户端已断开连接";
+                        break;
+                    }
+                }
+            }
+            if (failure == null && array) {
+                reader.endArray();
+            }
+        } catch (JsonParseException | IOException | IllegalStateException e) {
+            failure = "第 " + progress.records + " 条记录附近JSON格式错误: " + e.getMessage();
+        }
+        
+        // 格式错误之前读到的完整记录照常提交，已提交的块不回滚；某块写入失败后不再提交后续的块
+        if (!chunk.isEmpty() && !disconnected) {
+            inFlight = submitImportChunk(chunk, inFlight, progress, out);
+        }
+        if (inFlight != null) {
+            progress.await(inFlight, out);
+        }
+        if (progress.chunkError != null && failure == null) {
+            failure = progress.chunkError;
+        }
+        
+        JsonObject summary = progress.toJson("complete", true);
+        summary.addProperty("operation", add ? "add" : "remove");
+        summary.addProperty("success", failure == null);
+        if (failure != null) {
+            summary.addProperty("error", failure);
+        }
+        out.println(summary);
+        out.flush();
+        
+        logger.info("流式导入完成: {} - 记录 {}, 成功 {}, 失败 {}, 耗时 {} ms",
+                add ? "add" : "remove", progress.records, progress.success, progress.failure,
+                System.currentTimeMillis() - startTime);
+        JsonObject logData = new JsonObject();
+        logData.addProperty("records", progress.records);
+        logData.addProperty("success_count", progress.success);
+        logData.addProperty("failure_count", progress.failure);
+        logData.addProperty("chunk_size", chunkSize);
+        logOperation(add ? "BATCH_ADD" : "BATCH_REMOVE", null, null, request, logData.toString(),
+                failure == null ? 200 : 400, System.currentTimeMillis() - startTime);
+    }
+    
+    /**
+     * 解析一条导入记录并加入当前块（添加或移除由块的操作类型决定）
+     * @return 记录无效时的错误信息，已加入块时返回null
+     */
+    static String addImportRecord(BatchOperation chunk, JsonElement element, int record,
+                                  WhitelistEntry.Source source, LocalDateTime addedAt) {
+        if (!element.isJsonObject()) {
+            return "第 " + record + " 条记录不是JSON对象";
+        }
+        JsonObject player = element.getAsJsonObject();
+        
+        if (chunk.getOperationType() == BatchOperation.OperationType.ADD) {
+            String name = player.has("name") && !player.get("name").isJsonNull() ? player.get("name").getAsString() : null;
+            String providedUuid = player.has("uuid") && !player.get("uuid").isJsonNull() ? player.get("uuid").getAsString() : null;
+            if (!isValidPlayerName(name)) {
+                return "第 " + record + " 条记录玩家名无效: " + name;
+            }
+            try {
+                chunk.addEntry(name, UuidUtils.getOrGenerateUuid(name, providedUuid), source, addedAt);
+            } catch (IllegalArgumentException e) {
+                return "第 " + record + " 条记录UUID无效: " + providedUuid;
+            }
+        } else {
+            String uuid = player.has("uuid") && !player.get("uuid").isJsonNull() ? player.get("uuid").getAsString() : null;
+            if (!isValidUuid(uuid)) {
+                return "第 " + record + " 条记录UUID无效: " + uuid;
+            }
+            WhitelistEntry entry = new WhitelistEntry();
+            entry.setUuid(uuid);
+            chunk.addEntry(entry);
+        }
+        return null;
+    }
+    
+    /**
+     * 提交一块导入数据：先等待上一块完成并输出进度，再提交本块
+     * 同一时刻只有一块在执行，保证各块按请求中的顺序写入
+     * @return 本块的执行结果；上一块写入失败时不提交本块（整块计为失败）并返回null
+     */
+    private CompletableFuture<BatchOperation.BatchResult> submitImportChunk(
+            BatchOperation chunk, CompletableFuture<BatchOperation.BatchResult> previous,
+            ImportProgress progress, PrintWriter out) {
+        if (previous != null && !progress.await(previous, out)) {
+            progress.failure += chunk.getSize();
+            return null;
+        }
+        progress.inFlightEntries = chunk.getSize();
+        return whitelistManager.executeBatchOperation(chunk);
+    }
+    
+    /**
+     * 流式导入进度
+     */
+    static final class ImportProgress {
+        private final long startTime;
+        private final JsonArray errors = new JsonArray();
+        private int records;
+        private int chunks;
+        private int success;
+        private int failure;
+        private int omittedErrors;
+        // 正在执行的块的条目数，以及第一个写入失败的块的错误信息
+        private int inFlightEntries;
+        private String chunkError;
+        
+        ImportProgress(long startTime) {
+            this.startTime = startTime;
+        }
+        
+        void reject(String error) {
+            failure++;
+            addError(error);
+        }
+        
+        /**
+         * 记录一块的结果并输出进度行
+         */
+        void complete(BatchOperation.BatchResult result, PrintWriter out) {
+            chunks++;
+            success += result.getSuccessCount();
+            failure += result.getFailureCount();
+            for (String error : result.getErrors()) {
+                addError(error);
+            }
+            
+            JsonObject line = toJson("progress", false);
+            line.addProperty("chunk", chunks);
+            line.addProperty("chunk_success", result.getSuccessCount());
+            line.addProperty("chunk_failure", result.getFailureCount());
+            out.println(line);
+            out.flush();
+        }
+        
+        /**
+         * 等待一块完成并记录结果
+         * 块的事务执行失败（如数据库错误）时整块计为失败，输出带错误信息的进度行，响应仍能以汇总行结束
+         * @return 该块是否执行成功
+         */
+        boolean await(CompletableFuture<BatchOperation.BatchResult> future, PrintWriter out) {
+            BatchOperation.BatchResult result = future.join();
+            if (!result.isTransactionFailed()) {
+                complete(result, out);
+                return true;
+            }
+            
+            chunks++;
+            failure += inFlightEntries;
+            chunkError = "第 " + chunks + " 块写入失败: " + result.getTransactionError();
+            addError(chunkError);
+            logger.error("流式导入第 {} 块写入失败: {}", chunks, result.getTransactionError());
+            
+            JsonObject line = toJson("progress", false);
+            line.addProperty("chunk", chunks);
+            line.addProperty("chunk_success", 0);
+            line.addProperty("chunk_failure", inFlightEntries);
+            line.addProperty("error", chunkError);
+            out.println(line);
+            out.flush();
+            return false;
+        }
+        
+        JsonObject toJson(String type, boolean includeErrors) {
+            JsonObject json = new JsonObject();
+            json.addProperty("type", type);
+            json.addProperty("records", records);
+            json.addProperty("chunks", chunks);
+            json.addProperty("success_count", success);
+            json.addProperty("failure_count", failure);
+            json.addProperty("elapsed_ms", System.currentTimeMillis() - startTime);
+            if (includeErrors) {
+                json.add("errors", errors);
+                if (omittedErrors > 0) {
+                    json.addProperty("omitted_errors", omittedErrors);
+                }
+            }
+            return json;
+        }
+        
+        private void addError(String error) {
+            if (errors.size() < MAX_IMPORT_ERRORS) {
+                errors.add(error);
+            } else {
+                omittedErrors++;
+            }
+        }
+    }
+    
       /**
        * 验证UUID格式
        */
-      private boolean isValidUuid(String uuid) {
+      private static boolean isValidUuid(String uuid) {
           return uuid != null && uuid.matches("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
       }
       
@@ -23,7 +23,7 @@ public class AdminAuthService {
     public AdminAuthService(DatabaseManager dbManager, RegistrationTokenManager tokenManager, 
                            String systemAdminPassword, LoginAttemptService loginAttemptService) {
         this.adminUserDao = new AdminUserDao(dbManager);
-        this.authLogDao = new AuthLogDao(dbManager);
+        this.authLogDao = new AuthLogDao(dbManager.getLogDatabase());
         this.tokenManager = tokenManager;
         this.loginAttemptService = loginAttemptService;
         this.systemAdminPassword = systemAdminPassword;
@@ -1,6 +1,5 @@
 package com.xaoxiao.convenientaccess.auth;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -18,6 +17,7 @@ import com.xaoxiao.convenientaccess.database.DatabaseManager;
 
 /**
  * 管理员用户数据访问对象
+ * 读操作在读线程池上执行，写操作进入单写线程，调用方同步等待结果
  */
 public class AdminUserDao {
     private static final Logger logger = LoggerFactory.getLogger(AdminUserDao.class);
@@ -34,19 +34,19 @@ public class AdminUserDao {
         String sql = "INSERT INTO admin_users (username, password_hash, display_name, email, is_super_admin, is_active) " +
                      "VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, user.getPasswordHash());
-            pstmt.setString(3, user.getDisplayName());
-            pstmt.setString(4, user.getEmail());
-            pstmt.setBoolean(5, user.isSuperAdmin());
-            pstmt.setBoolean(6, user.isActive());
-            
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
-        } catch (SQLException e) {
+        try {
+            return dbManager.executeWrite(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, user.getUsername());
+                    pstmt.setString(2, user.getPasswordHash());
+                    pstmt.setString(3, user.getDisplayName());
+                    pstmt.setString(4, user.getEmail());
+                    pstmt.setBoolean(5, user.isSuperAdmin());
+                    pstmt.setBoolean(6, user.isActive());
+                    return pstmt.executeUpdate() > 0;
+                }
+            }).get();
+        } catch (Exception e) {
             logger.error("创建管理员用户失败", e);
             return false;
         }
@@ -58,17 +58,16 @@ public class AdminUserDao {
     public Optional<AdminUser> findByUsername(String username) {
         String sql = "SELECT * FROM admin_users WHERE username = ?";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return Optional.of(mapResultSetToAdminUser(rs));
-            }
-            return Optional.empty();
-        } catch (SQLException e) {
+        try {
+            return dbManager.executeRead(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, username);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? Optional.of(mapResultSetToAdminUser(rs)) : Optional.<AdminUser>empty();
+                    }
+                }
+            }).get();
+        } catch (Exception e) {
             logger.error("查找管理员失败", e);
             return Optional.empty();
         }
@@ -80,17 +79,16 @@ public class AdminUserDao {
     public Optional<AdminUser> findById(Long id) {
         String sql = "SELECT * FROM admin_users WHERE id = ?";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return Optional.of(mapResultSetToAdminUser(rs));
-            }
-            return Optional.empty();
-        } catch (SQLException e) {
+        try {
+            return dbManager.executeRead(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setLong(1, id);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? Optional.of(mapResultSetToAdminUser(rs)) : Optional.<AdminUser>empty();
+                    }
+                }
+            }).get();
+        } catch (Exception e) {
             logger.error("查找管理员失败", e);
             return Optional.empty();
         }
@@ -102,18 +100,18 @@ public class AdminUserDao {
     public boolean updateLastLogin(Long adminId, String ipAddress) {
         String sql = "UPDATE admin_users SET last_login_at = ?, last_login_ip = ?, updated_at = ? WHERE id = ?";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            LocalDateTime now = LocalDateTime.now();
-            pstmt.setObject(1, now);
-            pstmt.setString(2, ipAddress);
-            pstmt.setObject(3, now);
-            pstmt.setLong(4, adminId);
-            
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
-        } catch (SQLException e) {
+        try {
+            return dbManager.executeWrite(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    LocalDateTime now = LocalDateTime.now();
+                    pstmt.setObject(1, now);
+                    pstmt.setString(2, ipAddress);
+                    pstmt.setObject(3, now);
+                    pstmt.setLong(4, adminId);
+                    return pstmt.executeUpdate() > 0;
+                }
+            }).get();
+        } catch (Exception e) {
             logger.error("更新最后登录时间失败", e);
             return false;
         }
@@ -125,17 +123,16 @@ public class AdminUserDao {
     public boolean existsByUsername(String username) {
         String sql = "SELECT COUNT(*) FROM admin_users WHERE username = ?";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
-            return false;
-        } catch (SQLException e) {
+        try {
+            return dbManager.executeRead(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, username);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() && rs.getInt(1) > 0;
+                    }
+                }
+            }).get();
+        } catch (Exception e) {
             logger.error("检查用户名是否存在失败", e);
             return false;
         }
@@ -146,20 +143,22 @@ public class AdminUserDao {
      */
     public List<AdminUser> findAll() {
         String sql = "SELECT * FROM admin_users ORDER BY created_at DESC";
-        List<AdminUser> users = new ArrayList<>();
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            
-            while (rs.next()) {
-                users.add(mapResultSetToAdminUser(rs));
-            }
-        } catch (SQLException e) {
+        try {
+            return dbManager.executeRead(conn -> {
+                List<AdminUser> users = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                     ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        users.add(mapResultSetToAdminUser(rs));
+                    }
+                }
+                return users;
+            }).get();
+        } catch (Exception e) {
             logger.error("获取管理员列表失败", e);
+            return new ArrayList<>();
         }
-        
-        return users;
     }
     
     /**
@@ -168,15 +167,15 @@ public class AdminUserDao {
     public boolean deactivateUser(Long adminId) {
         String sql = "UPDATE admin_users SET is_active = FALSE, updated_at = ? WHERE id = ?";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setObject(1, LocalDateTime.now());
-            pstmt.setLong(2, adminId);
-            
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
-        } catch (SQLException e) {
+        try {
+            return dbManager.executeWrite(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setObject(1, LocalDateTime.now());
+                    pstmt.setLong(2, adminId);
+                    return pstmt.executeUpdate() > 0;
+                }
+            }).get();
+        } catch (Exception e) {
             logger.error("停用管理员账号失败", e);
             return false;
         }
@@ -1,8 +1,6 @@
 package com.xaoxiao.convenientaccess.auth;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.SQLException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,19 +33,19 @@ public class AuthLogDao {
         String sql = "INSERT INTO auth_logs (username, action_type, success, ip_address, user_agent, failure_reason) " +
                      "VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, username);
-            pstmt.setString(2, actionType);
-            pstmt.setBoolean(3, success);
-            pstmt.setString(4, ipAddress);
-            pstmt.setString(5, userAgent);
-            pstmt.setString(6, failureReason);
-            
-            int affected = pstmt.executeUpdate();
-            return affected > 0;
-        } catch (SQLException e) {
+        try {
+            return dbManager.executeWrite(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, username);
+                    pstmt.setString(2, actionType);
+                    pstmt.setBoolean(3, success);
+                    pstmt.setString(4, ipAddress);
+                    pstmt.setString(5, userAgent);
+                    pstmt.setString(6, failureReason);
+                    return pstmt.executeUpdate() > 0;
+                }
+            }).get();
+        } catch (Exception e) {
             logger.error("记录认证日志失败", e);
             return false;
         }
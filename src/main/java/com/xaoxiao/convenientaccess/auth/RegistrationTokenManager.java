@@ -1,6 +1,7 @@
 package com.xaoxiao.convenientaccess.auth;
 
 import com.xaoxiao.convenientaccess.database.DatabaseManager;
+import com.xaoxiao.convenientaccess.database.DatabasePriority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,7 +41,7 @@ public class RegistrationTokenManager {
                 String tokenHash = hashToken(token);
                 LocalDateTime expiresAt = LocalDateTime.now().plusHours(expiryHours);
                 
-                boolean saved = databaseManager.executeTransactionAsync(connection -> {
+                boolean saved = databaseManager.executeWrite(connection -> {
                     String sql = """
                         INSERT INTO registration_tokens (token, token_hash, expires_at, is_used)
                         VALUES (?, ?, ?, ?)
@@ -74,7 +75,7 @@ public class RegistrationTokenManager {
      * 验证注册令牌
      */
     public CompletableFuture<TokenValidationResult> validateToken(String token, String clientIp) {
-        return databaseManager.executeAsync(connection -> {
+        return databaseManager.executeRead(connection -> {
             String tokenHash = hashToken(token);
             String sql = """
                 SELECT id, expires_at, is_used, used_at, used_by_ip 
@@ -117,7 +118,7 @@ public class RegistrationTokenManager {
      * 标记令牌为已使用
      */
     public CompletableFuture<Boolean> markTokenAsUsed(long tokenId, String clientIp) {
-        return databaseManager.executeTransactionAsync(connection -> {
+        return databaseManager.executeWrite(connection -> {
             String sql = """
                 UPDATE registration_tokens 
                 SET is_used = ?, used_at = ?, used_by_ip = ? 
@@ -142,7 +143,7 @@ public class RegistrationTokenManager {
      * 清理过期令牌
      */
     public CompletableFuture<Integer> cleanupExpiredTokens() {
-        return databaseManager.executeTransactionAsync(connection -> {
+        return databaseManager.executeWrite(DatabasePriority.BACKGROUND, connection -> {
             String sql = "DELETE FROM registration_tokens WHERE expires_at < ?";
             
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
@@ -28,11 +29,16 @@ import com.xaoxiao.convenientaccess.cache.CacheManager;
 
 /**
  * 数据库备份管理器
- * 负责定时备份数据库文件，并管理备份文件的保留策略
+ * 负责定时备份数据库文件（whitelist.db 和 logs.db），并管理备份文件的保留策略
  */
 public class BackupManager {
     private static final Logger logger = LoggerFactory.getLogger(BackupManager.class);
     
+    private static final String DATABASE_FILE = "whitelist.db";
+    private static final String LOG_DATABASE_FILE = "logs.db";
+    // 非压缩备份时日志库的备份文件名前缀，与同一时间戳的白名单库备份成对
+    private static final String LOG_BACKUP_PREFIX = "logs_backup_";
+    
     private final ConvenientAccessPlugin plugin;
     private final CacheManager cacheManager;
     private final ScheduledExecutorService scheduler;
@@ -278,11 +284,12 @@ public class BackupManager {
                 ensureCacheWarmed();
                 
                 // 获取数据库文件路径
-                File databaseFile = new File(plugin.getDataFolder(), "whitelist.db");
+                File databaseFile = new File(plugin.getDataFolder(), DATABASE_FILE);
                 if (!databaseFile.exists()) {
                     logger.warn("数据库文件不存在，跳过备份");
                     return false;
                 }
+                File logDatabaseFile = new File(plugin.getDataFolder(), LOG_DATABASE_FILE);
                 
                 // 生成备份文件名
                 String timestamp = dateFormat.format(new Date());
@@ -293,9 +300,12 @@ public class BackupManager {
                 
                 // 执行备份
                 if (compressBackup) {
-                    createZipBackup(databaseFile, backupFile);
+                    createZipBackup(backupFile, databaseFile, logDatabaseFile);
                 } else {
                     createPlainBackup(databaseFile, backupFile);
+                    if (logDatabaseFile.exists()) {
+                        createPlainBackup(logDatabaseFile, new File(backupFolder, LOG_BACKUP_PREFIX + timestamp + ".db"));
+                    }
                 }
                 
                 logger.info("数据库备份成功: {}", backupFile.getName());
@@ -325,28 +335,33 @@ public class BackupManager {
     }
     
     /**
-     * 创建ZIP格式的压缩备份
+     * 创建ZIP格式的压缩备份，每个存在的数据库文件一个条目
      */
-    private void createZipBackup(File sourceFile, File zipFile) throws IOException {
+    private void createZipBackup(File zipFile, File... sourceFiles) throws IOException {
         try (FileOutputStream fos = new FileOutputStream(zipFile);
-             ZipOutputStream zos = new ZipOutputStream(fos);
-             FileInputStream fis = new FileInputStream(sourceFile)) {
+             ZipOutputStream zos = new ZipOutputStream(fos)) {
             
-            // 添加数据库文件到ZIP
-            ZipEntry zipEntry = new ZipEntry(sourceFile.getName());
-            zos.putNextEntry(zipEntry);
-            
-            // 复制文件内容
-            byte[] buffer = new byte[8192];
-            int length;
-            while ((length = fis.read(buffer)) > 0) {
-                zos.write(buffer, 0, length);
+            List<String> included = new ArrayList<>();
+            for (File sourceFile : sourceFiles) {
+                if (!sourceFile.exists()) {
+                    continue;
+                }
+                // 添加数据库文件到ZIP
+                zos.putNextEntry(new ZipEntry(sourceFile.getName()));
+                try (FileInputStream fis = new FileInputStream(sourceFile)) {
+                    // 复制文件内容
+                    byte[] buffer = new byte[8192];
+                    int length;
+                    while ((length = fis.read(buffer)) > 0) {
+                        zos.write(buffer, 0, length);
+                    }
+                }
+                zos.closeEntry();
+                included.add(sourceFile.getName());
             }
             
-            zos.closeEntry();
-            
             // 可选：添加备份信息文件
-            addBackupInfo(zos);
+            addBackupInfo(zos, included);
             
             logger.debug("ZIP备份创建成功: {}", zipFile.getName());
         }
@@ -364,7 +379,7 @@ public class BackupManager {
     /**
      * 向ZIP文件添加备份信息
      */
-    private void addBackupInfo(ZipOutputStream zos) throws IOException {
+    private void addBackupInfo(ZipOutputStream zos, List<String> databaseFiles) throws IOException {
         ZipEntry infoEntry = new ZipEntry("backup_info.txt");
         zos.putNextEntry(infoEntry);
         
@@ -373,7 +388,7 @@ public class BackupManager {
         info.append("==================\n");
         info.append("Plugin: ConvenientAccess\n");
         info.append("Backup Time: ").append(new Date()).append("\n");
-        info.append("Database File: whitelist.db\n");
+        info.append("Database Files: ").append(String.join(", ", databaseFiles)).append("\n");
         info.append("Server: ").append(plugin.getServer().getName()).append("\n");
         info.append("Version: ").append(plugin.getServer().getVersion()).append("\n");
         
@@ -387,7 +402,7 @@ public class BackupManager {
     private void cleanupOldBackups() {
         try {
             File[] backupFiles = backupFolder.listFiles((dir, name) -> 
-                name.startsWith("whitelist_backup_") && 
+                (name.startsWith("whitelist_backup_") || name.startsWith(LOG_BACKUP_PREFIX)) && 
                 (name.endsWith(".db") || name.endsWith(".zip"))
             );
             
@@ -468,33 +483,45 @@ public class BackupManager {
                     return false;
                 }
                 
-                File databaseFile = new File(plugin.getDataFolder(), "whitelist.db");
+                File databaseFile = new File(plugin.getDataFolder(), DATABASE_FILE);
+                File logDatabaseFile = new File(plugin.getDataFolder(), LOG_DATABASE_FILE);
+                // 非压缩备份的日志库备份与白名单库备份共用时间戳
+                File logBackupFile = backupFileName.endsWith(".db")
+                    ? new File(backupFolder, backupFileName.replaceFirst("^whitelist_backup_", LOG_BACKUP_PREFIX))
+                    : null;
                 
-                // 创建当前数据库的临时备份
-                File tempBackup = new File(plugin.getDataFolder(), 
-                                          "whitelist.db.restore_backup");
+                // 创建当前数据库的临时备份（旧版本的备份中没有 logs.db，此时日志库保持不变）
+                File tempBackup = new File(plugin.getDataFolder(), DATABASE_FILE + ".restore_backup");
+                File logTempBackup = new File(plugin.getDataFolder(), LOG_DATABASE_FILE + ".restore_backup");
                 if (databaseFile.exists()) {
                     Files.copy(databaseFile.toPath(), tempBackup.toPath(), 
                              StandardCopyOption.REPLACE_EXISTING);
-                    logger.info("已创建当前数据库的临时备份");
                 }
+                if (logDatabaseFile.exists()) {
+                    Files.copy(logDatabaseFile.toPath(), logTempBackup.toPath(), 
+                             StandardCopyOption.REPLACE_EXISTING);
+                }
+                logger.info("已创建当前数据库的临时备份");
                 
                 try {
                     if (backupFileName.endsWith(".zip")) {
                         // 从ZIP恢复
-                        restoreFromZip(backupFile, databaseFile);
+                        restoreFromZip(backupFile, databaseFile, logDatabaseFile);
                     } else {
                         // 从普通备份恢复
                         Files.copy(backupFile.toPath(), databaseFile.toPath(), 
                                  StandardCopyOption.REPLACE_EXISTING);
+                        if (logBackupFile != null && logBackupFile.exists()) {
+                            Files.copy(logBackupFile.toPath(), logDatabaseFile.toPath(), 
+                                     StandardCopyOption.REPLACE_EXISTING);
+                        }
                     }
                     
                     logger.info("数据库恢复成功: {}", backupFileName);
                     
                     // 删除临时备份
-                    if (tempBackup.exists()) {
-                        tempBackup.delete();
-                    }
+                    tempBackup.delete();
+                    logTempBackup.delete();
                     
                     return true;
                     
@@ -505,8 +532,12 @@ public class BackupManager {
                     if (tempBackup.exists()) {
                         Files.copy(tempBackup.toPath(), databaseFile.toPath(), 
                                  StandardCopyOption.REPLACE_EXISTING);
-                        logger.info("已回滚到恢复前的数据库");
                     }
+                    if (logTempBackup.exists()) {
+                        Files.copy(logTempBackup.toPath(), logDatabaseFile.toPath(), 
+                                 StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    logger.info("已回滚到恢复前的数据库");
                     
                     return false;
                 }
@@ -519,15 +550,21 @@ public class BackupManager {
     }
     
     /**
-     * 从ZIP文件恢复数据库
+     * 从ZIP文件恢复数据库，按条目名写回对应的数据库文件，ZIP中没有的文件保持不变
      */
-    private void restoreFromZip(File zipFile, File targetFile) throws IOException {
+    private void restoreFromZip(File zipFile, File... targetFiles) throws IOException {
         try (java.util.zip.ZipInputStream zis = new java.util.zip.ZipInputStream(
                 new FileInputStream(zipFile))) {
             
             java.util.zip.ZipEntry entry;
             while ((entry = zis.getNextEntry()) != null) {
-                if (entry.getName().equals("whitelist.db")) {
+                File targetFile = null;
+                for (File candidate : targetFiles) {
+                    if (entry.getName().equals(candidate.getName())) {
+                        targetFile = candidate;
+                    }
+                }
+                if (targetFile != null) {
                     // 找到数据库文件，开始恢复
                     try (FileOutputStream fos = new FileOutputStream(targetFile)) {
                         byte[] buffer = new byte[8192];
@@ -536,7 +573,6 @@ public class BackupManager {
                             fos.write(buffer, 0, length);
                         }
                     }
-                    break;
                 }
                 zis.closeEntry();
             }
@@ -3,6 +3,7 @@ package com.xaoxiao.convenientaccess.command;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
@@ -12,13 +13,20 @@ import org.bukkit.command.TabCompleter;
 
 import com.xaoxiao.convenientaccess.ConvenientAccessPlugin;
 import com.xaoxiao.convenientaccess.cache.CacheManager;
+import com.xaoxiao.convenientaccess.database.DatabaseBenchmark;
+import com.xaoxiao.convenientaccess.database.DatabaseManager;
+import com.xaoxiao.convenientaccess.database.PriorityLaneExecutor;
+import com.xaoxiao.convenientaccess.whitelist.WhitelistManager;
 
 /**
  * 插件命令处理器
  */
 public class ConvenientAccessCommand implements CommandExecutor, TabCompleter {
     
+    private static final int DEFAULT_BENCHMARK_ROWS = 100_000;
+    
     private final ConvenientAccessPlugin plugin;
+    private final AtomicBoolean benchmarkRunning = new AtomicBoolean(false);
     
     public ConvenientAccessCommand(ConvenientAccessPlugin plugin) {
         this.plugin = plugin;
@@ -53,6 +61,12 @@ public class ConvenientAccessCommand implements CommandExecutor, TabCompleter {
             case "wl":
                 handleWhitelist(sender, args);
                 break;
+            case "dbbench":
+                handleDatabaseBenchmark(sender, args);
+                break;
+            case "dbvacuum":
+                handleDatabaseVacuum(sender, args);
+                break;
             case "help":
                 showHelp(sender);
                 break;
@@ -72,13 +86,21 @@ public class ConvenientAccessCommand implements CommandExecutor, TabCompleter {
         }
         
         if (args.length == 1) {
-            return Arrays.asList("reload", "status", "cache", "backup", "whitelist", "wl", "help");
+            return Arrays.asList("reload", "status", "cache", "backup", "whitelist", "wl", "dbbench", "dbvacuum", "help");
+        } else if (args.length == 2 && "dbvacuum".equals(args[0])) {
+            return Arrays.asList("whitelist", "logs");
         } else if (args.length == 2 && "cache".equals(args[0])) {
             return Arrays.asList("clear", "stats");
         } else if (args.length == 2 && "backup".equals(args[0])) {
             return Arrays.asList("now", "list", "restore");
         } else if (args.length == 2 && ("whitelist".equals(args[0]) || "wl".equals(args[0]))) {
             return Arrays.asList("add", "remove", "list", "check", "sync");
+        } else if (args.length == 3 && ("whitelist".equals(args[0]) || "wl".equals(args[0]))
+                && ("remove".equalsIgnoreCase(args[1]) || "check".equalsIgnoreCase(args[1]))) {
+            // 从内存中的名称前缀树补全白名单玩家名
+            if (plugin.getWhitelistSystem() != null && plugin.getWhitelistSystem().getWhitelistManager() != null) {
+                return plugin.getWhitelistSystem().getWhitelistManager().suggestPlayerNames(args[2], 20);
+            }
         }
         
         return null;
@@ -124,6 +146,63 @@ public class ConvenientAccessCommand implements CommandExecutor, TabCompleter {
                 String.format("总计 %d 项，有效 %d 项", stats.getTotalEntries(), stats.getValidEntries()));
         }
         
+        // 白名单缓存内存占用
+        if (plugin.getWhitelistSystem() != null && plugin.getWhitelistSystem().getWhitelistManager() != null) {
+            WhitelistManager whitelistManager = plugin.getWhitelistSystem().getWhitelistManager();
+            sender.sendMessage(ChatColor.YELLOW + "白名单缓存: " + ChatColor.WHITE + 
+                whitelistManager.getCacheSize() + " 项，快照版本 " + whitelistManager.getCacheVersion() + 
+                (whitelistManager.isCacheAuthoritative() ? "（权威模式）" : ""));
+            sender.sendMessage(ChatColor.YELLOW + "缓存内存: " + ChatColor.WHITE + 
+                whitelistManager.getCacheMemoryReport());
+            if (plugin.getWhitelistSystem().getDatabaseManager() != null) {
+                DatabaseManager databaseManager = plugin.getWhitelistSystem().getDatabaseManager();
+                sender.sendMessage(ChatColor.YELLOW + "存储配置档: " + ChatColor.WHITE + databaseManager.getStorageProfile() + 
+                    ", 日志库 " + databaseManager.getLogDatabase().getStorageProfile().getConfigName());
+                sender.sendMessage(ChatColor.YELLOW + "数据库连接池: " + ChatColor.WHITE + databaseManager.getPoolStats());
+                for (PriorityLaneExecutor.LaneStats lane : databaseManager.getReadLaneStats()) {
+                    sender.sendMessage(ChatColor.YELLOW + "  读通道 " + ChatColor.WHITE + lane);
+                }
+                for (PriorityLaneExecutor.LaneStats lane : databaseManager.getWriteLaneStats()) {
+                    sender.sendMessage(ChatColor.YELLOW + "  写通道 " + ChatColor.WHITE + lane);
+                }
+                sender.sendMessage(ChatColor.YELLOW + "SQL语句: " + ChatColor.WHITE + databaseManager.getQueryMetrics().summary());
+                if (databaseManager.getMaintenance() != null) {
+                    sender.sendMessage(ChatColor.YELLOW + "数据库维护: " + ChatColor.WHITE + 
+                        databaseManager.getMaintenance().summary());
+                }
+                DatabaseManager logDatabase = databaseManager.getLogDatabase();
+                sender.sendMessage(ChatColor.YELLOW + "日志库连接池: " + ChatColor.WHITE + logDatabase.getPoolStats());
+                sender.sendMessage(ChatColor.YELLOW + "日志库写队列: " + ChatColor.WHITE + 
+                    logDatabase.getWriteQueueDepth() + " 个待执行");
+                if (logDatabase.getMaintenance() != null) {
+                    sender.sendMessage(ChatColor.YELLOW + "日志库维护: " + ChatColor.WHITE + 
+                        logDatabase.getMaintenance().summary());
+                }
+            }
+            if (plugin.getWhitelistSystem().getOperationLogDao() != null
+                    && plugin.getWhitelistSystem().getOperationLogDao().getAsyncWriterStats() != null) {
+                sender.sendMessage(ChatColor.YELLOW + "操作日志写入: " + ChatColor.WHITE + 
+                    plugin.getWhitelistSystem().getOperationLogDao().getAsyncWriterStats());
+            }
+            if (plugin.getWhitelistSystem().getOperationLogDao() != null) {
+                sender.sendMessage(ChatColor.YELLOW + "日志汇总: " + ChatColor.WHITE + 
+                    plugin.getWhitelistSystem().getOperationLogDao().getRollups().summary());
+            }
+            if (plugin.getWhitelistSystem().getOperationLogDao() != null
+                    && plugin.getWhitelistSystem().getOperationLogDao().getArchiveStats() != null) {
+                sender.sendMessage(ChatColor.YELLOW + "操作日志归档: " + ChatColor.WHITE + 
+                    plugin.getWhitelistSystem().getOperationLogDao().getArchiveStats());
+            }
+            if (whitelistManager.getWriteBehindStats() != null) {
+                sender.sendMessage(ChatColor.YELLOW + "写后组提交: " + ChatColor.WHITE + 
+                    whitelistManager.getWriteBehindStats());
+            }
+            if (whitelistManager.getStatsDriftCount() > 0) {
+                sender.sendMessage(ChatColor.YELLOW + "统计校对偏差: " + ChatColor.RED + 
+                    whitelistManager.getStatsDriftCount() + " 次");
+            }
+        }
+        
         sender.sendMessage(ChatColor.GOLD + "========================");
     }
     
@@ -205,6 +284,80 @@ public class ConvenientAccessCommand implements CommandExecutor, TabCompleter {
         }
     }
     
+    private void handleDatabaseBenchmark(CommandSender sender, String[] args) {
+        int rows = DEFAULT_BENCHMARK_ROWS;
+        if (args.length >= 2) {
+            try {
+                rows = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                rows = 0;
+            }
+            if (rows < 1000 || rows > 5_000_000) {
+                sender.sendMessage(ChatColor.RED + "行数必须在 1000 到 5000000 之间");
+                return;
+            }
+        }
+        if (!benchmarkRunning.compareAndSet(false, true)) {
+            sender.sendMessage(ChatColor.RED + "数据库基准测试正在进行中");
+            return;
+        }
+        
+        int readerThreads = plugin.getConfigManager().getDatabaseReadThreads();
+        int benchmarkRows = rows;
+        sender.sendMessage(ChatColor.YELLOW + "正在临时数据库上测试各存储配置档（每个 " + rows + " 行），请稍候...");
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return new DatabaseBenchmark(plugin.getDataFolder()).run(benchmarkRows, readerThreads);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }).whenComplete((results, throwable) -> {
+            benchmarkRunning.set(false);
+            if (throwable != null) {
+                plugin.getLogger().severe("数据库基准测试失败: " + throwable.getMessage());
+                sender.sendMessage(ChatColor.RED + "数据库基准测试失败，请查看控制台日志。");
+                return;
+            }
+            String current = plugin.getConfigManager().getDatabaseStorageProfile();
+            sender.sendMessage(ChatColor.GOLD + "=== 数据库基准测试 (当前配置档: " + current + ") ===");
+            for (DatabaseBenchmark.Result result : results) {
+                sender.sendMessage(ChatColor.YELLOW + result.getProfile().toString());
+                sender.sendMessage(ChatColor.WHITE + "  " + result);
+            }
+        });
+    }
+    
+    /**
+     * 把数据库切换为增量回收模式（一次完整 VACUUM，期间该库的写入排队等待）
+     */
+    private void handleDatabaseVacuum(CommandSender sender, String[] args) {
+        if (plugin.getWhitelistSystem() == null || plugin.getWhitelistSystem().getDatabaseManager() == null) {
+            sender.sendMessage(ChatColor.RED + "数据库未初始化！");
+            return;
+        }
+        if (args.length < 2 || !("whitelist".equalsIgnoreCase(args[1]) || "logs".equalsIgnoreCase(args[1]))) {
+            sender.sendMessage(ChatColor.RED + "用法: /ca dbvacuum <whitelist|logs>");
+            return;
+        }
+        
+        DatabaseManager databaseManager = plugin.getWhitelistSystem().getDatabaseManager();
+        boolean logs = "logs".equalsIgnoreCase(args[1]);
+        String name = logs ? "logs.db" : "whitelist.db";
+        DatabaseManager target = logs ? databaseManager.getLogDatabase() : databaseManager;
+        sender.sendMessage(ChatColor.YELLOW + "正在将 " + name + " 切换为增量回收模式，VACUUM 期间该库的写入将排队等待...");
+        target.enableIncrementalVacuum().whenComplete((elapsed, throwable) -> {
+            if (throwable != null) {
+                plugin.getLogger().severe("切换增量回收模式失败: " + throwable.getMessage());
+                sender.sendMessage(ChatColor.RED + "切换失败，请查看控制台日志。");
+            } else if (elapsed < 0) {
+                sender.sendMessage(ChatColor.GREEN + name + " 已是增量回收模式");
+            } else {
+                sender.sendMessage(ChatColor.GREEN + name + " 已切换为增量回收模式，VACUUM 耗时 " + 
+                    String.format("%.1f", elapsed / 1000.0) + " 秒");
+            }
+        });
+    }
+    
     private void showBackupList(CommandSender sender) {
         List<com.xaoxiao.convenientaccess.backup.BackupManager.BackupInfo> backups = 
             plugin.getBackupManager().listBackups();
@@ -396,6 +549,8 @@ public class ConvenientAccessCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.YELLOW + "/ca whitelist list" + ChatColor.WHITE + " - 查看白名单列表");
         sender.sendMessage(ChatColor.YELLOW + "/ca whitelist check <玩家名>" + ChatColor.WHITE + " - 检查是否在白名单");
         sender.sendMessage(ChatColor.YELLOW + "/ca whitelist sync" + ChatColor.WHITE + " - 触发白名单同步");
+        sender.sendMessage(ChatColor.YELLOW + "/ca dbbench [行数]" + ChatColor.WHITE + " - 比较各数据库存储配置档的吞吐");
+        sender.sendMessage(ChatColor.YELLOW + "/ca dbvacuum <whitelist|logs>" + ChatColor.WHITE + " - 将已有数据库切换为增量回收模式（执行一次 VACUUM）");
         sender.sendMessage(ChatColor.YELLOW + "/ca help" + ChatColor.WHITE + " - 显示此帮助信息");
         
         // 显示API端点信息
@@ -225,6 +225,150 @@ public class ConfigManager {
         return config.getString("whitelist.contact-info", "请联系管理员");
     }
     
+    public int getDatabaseReadThreads() {
+        return config.getInt("database.read-threads", 8);
+    }
+    
+    public int getDatabaseInteractiveLaneLimit() {
+        return config.getInt("database.lanes.interactive-limit", 6);
+    }
+    
+    public int getDatabaseBackgroundLaneLimit() {
+        return config.getInt("database.lanes.background-limit", 2);
+    }
+    
+    public int getDatabasePoolMaxSize() {
+        return config.getInt("database.pool.max-size", 10);
+    }
+    
+    public long getDatabasePoolConnectionTimeout() {
+        return config.getLong("database.pool.connection-timeout", 10000);
+    }
+    
+    public long getDatabasePoolMaxLifetime() {
+        return config.getLong("database.pool.max-lifetime", 30);
+    }
+    
+    public long getDatabasePoolValidationInterval() {
+        return config.getLong("database.pool.validation-interval", 30);
+    }
+    
+    public long getDatabasePoolLeakDetectionThreshold() {
+        return config.getLong("database.pool.leak-detection-threshold", 60);
+    }
+    
+    public long getDatabaseSlowQueryThreshold() {
+        return config.getLong("database.slow-query-threshold", 200);
+    }
+    
+    public int getDatabaseStatementCacheSize() {
+        return config.getInt("database.pool.statement-cache-size", 64);
+    }
+    
+    public String getDatabaseStorageProfile() {
+        return config.getString("database.profile", "balanced");
+    }
+    
+    public String getLogDatabaseStorageProfile() {
+        return config.getString("database.logs.profile", "low-memory");
+    }
+    
+    public int getDatabaseMaintenanceInterval() {
+        return config.getInt("database.maintenance.interval", 60);
+    }
+    
+    public double getDatabaseMaintenanceMinTps() {
+        return config.getDouble("database.maintenance.min-tps", 18.0);
+    }
+    
+    public int getDatabaseMaintenanceAnalyzeInterval() {
+        return config.getInt("database.maintenance.analyze-interval", 24);
+    }
+    
+    public int getDatabaseMaintenanceIncrementalVacuumPages() {
+        return config.getInt("database.maintenance.incremental-vacuum-pages", 1000);
+    }
+    
+    public int getLogDatabaseReadThreads() {
+        return config.getInt("database.logs.read-threads", 2);
+    }
+    
+    public int getLogDatabasePoolMaxSize() {
+        return config.getInt("database.logs.pool.max-size", 4);
+    }
+    
+    public int getLogDatabaseMaintenanceInterval() {
+        return config.getInt("database.logs.maintenance.interval", 60);
+    }
+    
+    public int getLogDatabaseMaintenanceIncrementalVacuumPages() {
+        return config.getInt("database.logs.maintenance.incremental-vacuum-pages", 5000);
+    }
+    
+    public int getLogRollupInterval() {
+        return config.getInt("database.logs.rollup.interval", 10);
+    }
+    
+    public boolean isWhitelistCacheAuthoritative() {
+        return config.getBoolean("whitelist.cache.authoritative", false);
+    }
+    
+    public int getWhitelistConsistencyCheckInterval() {
+        return config.getInt("whitelist.cache.consistency-check-interval", 10);
+    }
+    
+    public int getWhitelistIncrementalRefreshInterval() {
+        return config.getInt("whitelist.cache.incremental-refresh-interval", 30);
+    }
+    
+    public int getWhitelistStatsReconcileInterval() {
+        return config.getInt("whitelist.cache.stats-reconcile-interval", 15);
+    }
+    
+    public long getWhitelistWriteBehindMaxDelay() {
+        return config.getLong("whitelist.write-behind.max-delay", 0);
+    }
+    
+    public int getWhitelistWriteBehindBatchSize() {
+        return config.getInt("whitelist.write-behind.batch-size", 200);
+    }
+    
+    public int getOperationLogBufferCapacity() {
+        return config.getInt("operation-log.buffer-capacity", 8192);
+    }
+    
+    public String getOperationLogOverflowPolicy() {
+        return config.getString("operation-log.overflow-policy", "drop-oldest");
+    }
+    
+    public int getOperationLogBatchSize() {
+        return config.getInt("operation-log.batch-size", 500);
+    }
+    
+    public long getOperationLogFlushInterval() {
+        return config.getLong("operation-log.flush-interval", 1000);
+    }
+    
+    public long getOperationLogBlockTimeout() {
+        return config.getLong("operation-log.block-timeout", 100);
+    }
+    
+    public int getOperationLogSampleRate() {
+        return config.getInt("operation-log.sample-rate", 10);
+    }
+    
+    public int getOperationLogArchiveAfterDays() {
+        return config.getInt("operation-log.archive.after-days", 0);
+    }
+    
+    public int getOperationLogArchiveInterval() {
+        return config.getInt("operation-log.archive.interval", 60);
+    }
+    
+    public int getOperationLogArchiveSegmentRows() {
+        return config.getInt("operation-log.archive.segment-rows", 100000);
+    }
+    
     public int getTokenExpiryHours() {
         return config.getInt("whitelist.token-expiry-hours", 24);
     }
@@ -0,0 +1,941 @@
+package com.xaoxiao.convenientaccess.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQLite连接池
+ * 连接创建时执行一次连接级 PRAGMA，之后反复复用；借出数量受信号量限制，等待超时抛出异常。
+ * 空闲较久的连接借出前做健康检查，超过最长存活时间的连接归还时关闭重建，
+ * 借出过久未归还的连接记录泄漏警告及借出位置，并统计等待时间和利用率用于确定连接池大小。
+ *
+ * 每个连接带有预编译语句缓存（按SQL文本LRU）：调用方照常 prepareStatement/close，
+ * close 只把语句重置后放回缓存，同一连接上再次准备相同SQL时直接复用，不再重新解析和生成执行计划。
+ * 启用语句统计时，预编译语句和 createStatement 创建的普通语句的 execute* 调用都计入统计
+ */
+public class ConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+    private static final long HOUSEKEEPING_INTERVAL_SECONDS = 5;
+
+    private final String jdbcUrl;
+    private final String[] connectionPragmas;
+    private final int maxSize;
+    private final long connectionTimeoutMs;
+    private final long maxLifetimeNanos;
+    private final long validationIntervalNanos;
+    private final long leakDetectionThresholdNanos;
+    private final int statementCacheSize;
+    private final QueryMetrics queryMetrics;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // 统计
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong retired = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+    private volatile int peakActive;
+    // 最近一个维护周期内的利用率
+    private volatile double recentUtilisation;
+    private long lastSampleNanos = startNanos;
+    private long lastSampleBusyNanos;
+
+    /**
+     * @param jdbcUrl 数据库连接地址
+     * @param connectionPragmas 每个新连接执行一次的 PRAGMA 语句
+     * @param maxSize 最大连接数
+     * @param connectionTimeoutMs 获取连接的最长等待时间（毫秒）
+     * @param maxLifetimeMs 连接最长存活时间（毫秒），小于等于0表示不限制
+     * @param validationIntervalMs 连接空闲超过该时间后借出前做健康检查（毫秒）
+     * @param leakDetectionThresholdMs 借出超过该时间视为泄漏（毫秒），小于等于0表示关闭泄漏检测
+     * @param statementCacheSize 每个连接缓存的预编译语句数，小于等于0表示不缓存
+     * @param queryMetrics 语句级统计，为null时不统计
+     */
+    public ConnectionPool(String jdbcUrl, String[] connectionPragmas, int maxSize, long connectionTimeoutMs,
+                          long maxLifetimeMs, long validationIntervalMs, long leakDetectionThresholdMs,
+                          int statementCacheSize, QueryMetrics queryMetrics) {
+        this.jdbcUrl = jdbcUrl;
+        this.connectionPragmas = connectionPragmas.clone();
+        this.maxSize = Math.max(1, maxSize);
+        this.connectionTimeoutMs = Math.max(0, connectionTimeoutMs);
+        this.maxLifetimeNanos = maxLifetimeMs > 0 ? TimeUnit.MILLISECONDS.toNanos(maxLifetimeMs) : Long.MAX_VALUE;
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, validationIntervalMs));
+        this.leakDetectionThresholdNanos = leakDetectionThresholdMs > 0
+                ? TimeUnit.MILLISECONDS.toNanos(leakDetectionThresholdMs) : 0;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.queryMetrics = queryMetrics;
+        this.permits = new Semaphore(this.maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "DatabaseManager-Pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_INTERVAL_SECONDS, HOUSEKEEPING_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 借出连接，调用 close() 归还
+     *
+     * @throws SQLTransientConnectionException 等待超时
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("连接池已关闭");
+        }
+
+        long waitStart = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("等待数据库连接时被中断", e);
+        }
+        long waited = System.nanoTime() - waitStart;
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLTransientConnectionException(String.format(
+                    "获取数据库连接超时（%d ms），当前 %d/%d 个连接全部借出", connectionTimeoutMs, borrowed.size(), maxSize));
+        }
+
+        try {
+            PooledConnection pooled = takeHealthyConnection();
+            pooled.borrowedAt = System.nanoTime();
+            pooled.borrowSite = leakDetectionThresholdNanos > 0 ? new Throwable("连接借出位置") : null;
+            pooled.leakReported = false;
+            synchronized (pooled) {
+                pooled.pendingWaitNanos = waited + (queryMetrics != null ? queryMetrics.takeQueueWait() : 0);
+            }
+            borrowed.add(pooled);
+
+            borrows.incrementAndGet();
+            waitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            int active = borrowed.size();
+            if (active > peakActive) {
+                peakActive = active;
+            }
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 取出一个可用连接：优先复用最近归还的连接，过期或健康检查失败的连接关闭后重建
+     */
+    private PooledConnection takeHealthyConnection() throws SQLException {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return createConnection();
+            }
+
+            long now = System.nanoTime();
+            if (now - pooled.createdAt >= maxLifetimeNanos) {
+                retire(pooled);
+                continue;
+            }
+            if (now - pooled.returnedAt >= validationIntervalNanos && !isHealthy(pooled.connection)) {
+                validationFailures.incrementAndGet();
+                logger.warn("数据库连接健康检查失败，已丢弃");
+                retire(pooled);
+                continue;
+            }
+            return pooled;
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(jdbcUrl);
+        try (Statement stmt = connection.createStatement()) {
+            for (String pragma : connectionPragmas) {
+                stmt.execute(pragma);
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        created.incrementAndGet();
+        return new PooledConnection(connection);
+    }
+
+    private boolean isHealthy(Connection connection) {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("SELECT 1");
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 归还连接：回滚未提交的事务并恢复自动提交，过期连接直接关闭
+     */
+    private void release(PooledConnection pooled) {
+        long now = System.nanoTime();
+        borrowed.remove(pooled);
+        busyNanos.addAndGet(now - pooled.borrowedAt);
+        pooled.borrowSite = null;
+        pooled.discardStatementsInUse();
+
+        try {
+            boolean reusable = !closed && now - pooled.createdAt < maxLifetimeNanos && resetState(pooled.connection);
+            if (reusable) {
+                pooled.returnedAt = now;
+                synchronized (idle) {
+                    idle.addFirst(pooled);
+                }
+            } else {
+                retire(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean resetState(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.warn("重置数据库连接状态失败，已丢弃: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void retire(PooledConnection pooled) {
+        retired.incrementAndGet();
+        pooled.clearStatements();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            logger.debug("关闭数据库连接失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定时维护：关闭过期的空闲连接，检测泄漏，采样利用率
+     */
+    private void housekeep() {
+        try {
+            long now = System.nanoTime();
+            synchronized (idle) {
+                idle.removeIf(pooled -> {
+                    if (now - pooled.createdAt >= maxLifetimeNanos) {
+                        retire(pooled);
+                        return true;
+                    }
+                    return false;
+                });
+            }
+
+            if (leakDetectionThresholdNanos > 0) {
+                for (PooledConnection pooled : borrowed) {
+                    long held = now - pooled.borrowedAt;
+                    Throwable site = pooled.borrowSite;
+                    if (held >= leakDetectionThresholdNanos && !pooled.leakReported && site != null) {
+                        pooled.leakReported = true;
+                        leaks.incrementAndGet();
+                        logger.warn("疑似数据库连接泄漏：连接已借出 {} 秒未归还", TimeUnit.NANOSECONDS.toSeconds(held), site);
+                    }
+                }
+            }
+
+            long busy = busyNanos.get();
+            long elapsed = now - lastSampleNanos;
+            if (elapsed > 0) {
+                recentUtilisation = Math.min(1.0, (double) (busy - lastSampleBusyNanos) / ((double) elapsed * maxSize));
+            }
+            lastSampleNanos = now;
+            lastSampleBusyNanos = busy;
+        } catch (RuntimeException e) {
+            logger.error("连接池维护任务失败", e);
+        }
+    }
+
+    /**
+     * 获取连接池统计
+     */
+    public Stats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        long elapsed = Math.max(1, System.nanoTime() - startNanos);
+        return new Stats(maxSize, borrowed.size(), idleCount, peakActive, borrows.get(), waitNanos.get(),
+                maxWaitNanos.get(), timeouts.get(), busyNanos.get(), (double) busyNanos.get() / ((double) elapsed * maxSize),
+                recentUtilisation, created.get(), retired.get(), validationFailures.get(), leaks.get(),
+                permits.getQueueLength(), statementHits.get(), statementMisses.get(), statementEvictions.get());
+    }
+
+    /**
+     * 关闭连接池：关闭所有空闲连接，借出中的连接归还时关闭
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        synchronized (idle) {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                retire(pooled);
+            }
+        }
+        if (!borrowed.isEmpty()) {
+            logger.warn("关闭连接池时仍有 {} 个连接未归还", borrowed.size());
+        }
+    }
+
+    /**
+     * 池中的物理连接
+     */
+    private final class PooledConnection {
+        final Connection connection;
+        final long createdAt = System.nanoTime();
+        volatile long borrowedAt;
+        long returnedAt = createdAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+        private long pendingWaitNanos = -1;
+        // 预编译语句缓存，按访问顺序排列，最久未使用的在前
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * 从缓存取出预编译语句，未命中时准备新语句并放入缓存
+         * 不可缓存的调用形式（key为null）或相同SQL的缓存语句正被使用（嵌套使用同一语句）时返回不缓存的新语句
+         */
+        synchronized PreparedStatement prepare(String key, String sql, Method method, Object[] args) throws Throwable {
+            CachedStatement cached = key != null ? statements.get(key) : null;
+            if (cached != null && !cached.inUse) {
+                statementHits.incrementAndGet();
+                cached.inUse = true;
+                return cached.newHandle(sql);
+            }
+
+            PreparedStatement statement;
+            try {
+                statement = (PreparedStatement) method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (key == null || cached != null || statementCacheSize == 0) {
+                if (key != null) {
+                    statementMisses.incrementAndGet();
+                }
+                // 不缓存的语句只在需要统计时包装
+                return queryMetrics != null ? new CachedStatement(this, null, statement).newHandle(sql) : statement;
+            }
+
+            statementMisses.incrementAndGet();
+            cached = new CachedStatement(this, key, statement);
+            cached.inUse = true;
+            statements.put(key, cached);
+            evictStatements();
+            return cached.newHandle(sql);
+        }
+
+        /**
+         * 取走本次借出的排队等待时间，只计入借出后执行的第一条语句
+         */
+        synchronized long takePendingWait() {
+            long wait = pendingWaitNanos;
+            pendingWaitNanos = -1;
+            return wait;
+        }
+
+        /**
+         * 调用方关闭语句：重置后放回缓存，已被淘汰或重置失败的语句直接关闭
+         */
+        synchronized void returnStatement(CachedStatement cached) {
+            if (cached.key != null && statements.get(cached.key) == cached && reset(cached)) {
+                cached.inUse = false;
+                evictStatements();
+                return;
+            }
+            statements.remove(cached.key, cached);
+            closeQuietly(cached.statement);
+        }
+
+        private void evictStatements() {
+            Iterator<CachedStatement> iterator = statements.values().iterator();
+            while (statements.size() > statementCacheSize && iterator.hasNext()) {
+                CachedStatement eldest = iterator.next();
+                if (!eldest.inUse) {
+                    iterator.remove();
+                    statementEvictions.incrementAndGet();
+                    closeQuietly(eldest.statement);
+                }
+            }
+        }
+
+        /**
+         * 连接归还时仍未关闭的语句不再放回缓存
+         */
+        synchronized void discardStatementsInUse() {
+            statements.values().removeIf(cached -> {
+                if (cached.inUse) {
+                    closeQuietly(cached.statement);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        synchronized void clearStatements() {
+            for (CachedStatement cached : statements.values()) {
+                closeQuietly(cached.statement);
+            }
+            statements.clear();
+        }
+
+        private boolean reset(CachedStatement cached) {
+            try {
+                // 未关闭的结果集会让语句保持在执行中，连接上的读事务也不会结束
+                ResultSet rs = cached.lastResultSet;
+                cached.lastResultSet = null;
+                if (rs != null && !rs.isClosed()) {
+                    rs.close();
+                }
+                cached.statement.clearParameters();
+                return true;
+            } catch (SQLException e) {
+                logger.debug("重置预编译语句失败: {}", e.getMessage());
+                return false;
+            }
+        }
+
+        private void closeQuietly(Statement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                logger.debug("关闭预编译语句失败: {}", e.getMessage());
+            }
+        }
+
+        /**
+         * 为本次借出创建连接句柄，close() 归还到池中，归还后句柄不可再用
+         */
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private PooledConnection pooled;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close" -> {
+                    PooledConnection current;
+                    synchronized (this) {
+                        current = pooled;
+                        pooled = null;
+                    }
+                    if (current != null) {
+                        release(current);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    synchronized (this) {
+                        if (pooled == null) {
+                            return true;
+                        }
+                    }
+                }
+                case "prepareStatement" -> {
+                    PooledConnection current;
+                    synchronized (this) {
+                        current = pooled;
+                    }
+                    if (current == null) {
+                        throw new SQLException("连接已归还到连接池");
+                    }
+                    return current.prepare(statementKey(method, args), (String) args[0], method, args);
+                }
+                case "createStatement" -> {
+                    PooledConnection current;
+                    synchronized (this) {
+                        current = pooled;
+                    }
+                    if (current == null) {
+                        throw new SQLException("连接已归还到连接池");
+                    }
+                    Statement statement;
+                    try {
+                        statement = (Statement) method.invoke(current.connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    // 普通语句不缓存，只在需要统计时包装
+                    return queryMetrics != null
+                            ? (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                                    new Class<?>[]{Statement.class}, new PlainStatementHandle(current, statement))
+                            : statement;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                }
+                default -> {
+                }
+            }
+
+            PooledConnection current;
+            synchronized (this) {
+                current = pooled;
+            }
+            if (current == null) {
+                throw new SQLException("连接已归还到连接池");
+            }
+            try {
+                return method.invoke(current.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 可缓存的 prepareStatement 调用的缓存键：只缓存 (sql) 和 (sql, autoGeneratedKeys) 两种形式
+     */
+    private static String statementKey(Method method, Object[] args) {
+        Class<?>[] types = method.getParameterTypes();
+        if (types.length == 1) {
+            return (String) args[0];
+        }
+        if (types.length == 2 && types[1] == int.class) {
+            return args[1] + ":" + args[0];
+        }
+        return null;
+    }
+
+    /**
+     * 预编译语句，借给调用方时包装为句柄；缓存中的语句（key不为null）close() 时放回缓存，其余直接关闭
+     */
+    private final class CachedStatement {
+        final PooledConnection owner;
+        final String key;
+        final PreparedStatement statement;
+        boolean inUse;
+        ResultSet lastResultSet;
+
+        CachedStatement(PooledConnection owner, String key, PreparedStatement statement) {
+            this.owner = owner;
+            this.key = key;
+            this.statement = statement;
+        }
+
+        PreparedStatement newHandle(String sql) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new StatementHandle(this, sql));
+        }
+    }
+
+    /**
+     * 语句句柄：close() 归还语句；启用统计时记录每次执行的耗时和绑定的参数类型
+     */
+    private final class StatementHandle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final String sql;
+        private final List<String> parameterTypes = new ArrayList<>();
+        private boolean closed;
+
+        StatementHandle(CachedStatement cached, String sql) {
+            this.cached = cached;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        cached.owner.returnStatement(cached);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledStatement[" + sql + "]";
+                }
+                case "clearParameters" -> parameterTypes.clear();
+                default -> {
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        recordParameterType(index, "setNull".equals(name) || args[1] == null
+                                ? "null" : args[1].getClass().getSimpleName());
+                    }
+                }
+            }
+
+            if (closed) {
+                throw new SQLException("语句已关闭");
+            }
+            if (queryMetrics == null || !name.startsWith("execute")) {
+                return invokeStatement(method, args);
+            }
+
+            long wait = cached.owner.takePendingWait();
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invokeStatement(method, args);
+                failed = false;
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                queryMetrics.record(sql, wait, elapsed, failed);
+                if (queryMetrics.isSlow(elapsed)) {
+                    queryMetrics.recordSlow(sql, parameterTypes, elapsed, explain(cached.owner.connection, sql));
+                }
+            }
+        }
+
+        private Object invokeStatement(Method method, Object[] args) throws Throwable {
+            try {
+                Object result = method.invoke(cached.statement, args);
+                if (result instanceof ResultSet rs) {
+                    cached.lastResultSet = rs;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void recordParameterType(int index, String type) {
+            while (parameterTypes.size() < index) {
+                parameterTypes.add("?");
+            }
+            parameterTypes.set(index - 1, type);
+        }
+    }
+
+    /**
+     * 普通语句（createStatement）句柄：SQL 取自 execute* 的参数，executeBatch 按批内第一条SQL记录；
+     * 慢语句只对查询生成执行计划（PRAGMA、DDL 等不能 EXPLAIN QUERY PLAN）
+     */
+    private final class PlainStatementHandle implements InvocationHandler {
+        private final PooledConnection owner;
+        private final Statement statement;
+        private String batchSql;
+
+        PlainStatementHandle(PooledConnection owner, Statement statement) {
+            this.owner = owner;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledPlainStatement@" + Integer.toHexString(System.identityHashCode(proxy));
+                }
+                case "addBatch" -> {
+                    if (batchSql == null) {
+                        batchSql = (String) args[0];
+                    }
+                }
+                case "clearBatch" -> batchSql = null;
+                default -> {
+                }
+            }
+            if (!name.startsWith("execute")) {
+                return invokeStatement(method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : batchSql;
+            if ("executeBatch".equals(name) || "executeLargeBatch".equals(name)) {
+                batchSql = null;
+            }
+            if (sql == null) {
+                return invokeStatement(method, args);
+            }
+            long wait = owner.takePendingWait();
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invokeStatement(method, args);
+                failed = false;
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                queryMetrics.record(sql, wait, elapsed, failed);
+                if (queryMetrics.isSlow(elapsed)) {
+                    String head = sql.stripLeading();
+                    boolean query = head.regionMatches(true, 0, "SELECT", 0, 6)
+                            || head.regionMatches(true, 0, "WITH", 0, 4);
+                    queryMetrics.recordSlow(sql, List.of(), elapsed,
+                            query ? explain(owner.connection, sql) : "非查询语句，无执行计划");
+                }
+            }
+        }
+
+        private Object invokeStatement(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 获取语句的执行计划（EXPLAIN QUERY PLAN），参数未绑定时按NULL生成计划
+     */
+    private static String explain(Connection connection, String sql) {
+        StringBuilder plan = new StringBuilder();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                if (plan.length() > 0) {
+                    plan.append(" | ");
+                }
+                plan.append(rs.getString("detail"));
+            }
+        } catch (SQLException | RuntimeException e) {
+            return "无法获取执行计划: " + e.getMessage();
+        }
+        return plan.toString();
+    }
+
+    /**
+     * 连接池统计快照
+     */
+    public static class Stats {
+        private final int maxSize;
+        private final int active;
+        private final int idle;
+        private final int peakActive;
+        private final long borrows;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long timeouts;
+        private final long totalBusyNanos;
+        private final double utilisation;
+        private final double recentUtilisation;
+        private final long created;
+        private final long retired;
+        private final long validationFailures;
+        private final long leaks;
+        private final int waiting;
+        private final long statementHits;
+        private final long statementMisses;
+        private final long statementEvictions;
+
+        Stats(int maxSize, int active, int idle, int peakActive, long borrows, long totalWaitNanos,
+              long maxWaitNanos, long timeouts, long totalBusyNanos, double utilisation, double recentUtilisation,
+              long created, long retired, long validationFailures, long leaks, int waiting,
+              long statementHits, long statementMisses, long statementEvictions) {
+            this.maxSize = maxSize;
+            this.active = active;
+            this.idle = idle;
+            this.peakActive = peakActive;
+            this.borrows = borrows;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.timeouts = timeouts;
+            this.totalBusyNanos = totalBusyNanos;
+            this.utilisation = utilisation;
+            this.recentUtilisation = recentUtilisation;
+            this.created = created;
+            this.retired = retired;
+            this.validationFailures = validationFailures;
+            this.leaks = leaks;
+            this.waiting = waiting;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+            this.statementEvictions = statementEvictions;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getPeakActive() {
+            return peakActive;
+        }
+
+        public long getBorrows() {
+            return borrows;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getRetired() {
+            return retired;
+        }
+
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        public long getLeaks() {
+            return leaks;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public long getStatementHits() {
+            return statementHits;
+        }
+
+        public long getStatementMisses() {
+            return statementMisses;
+        }
+
+        public long getStatementEvictions() {
+            return statementEvictions;
+        }
+
+        /**
+         * 预编译语句缓存命中率
+         */
+        public double getStatementHitRate() {
+            long total = statementHits + statementMisses;
+            return total > 0 ? (double) statementHits / total : 0;
+        }
+
+        /**
+         * 平均等待时间（毫秒）
+         */
+        public double getAverageWaitMs() {
+            return borrows > 0 ? totalWaitNanos / 1_000_000.0 / borrows : 0;
+        }
+
+        public double getMaxWaitMs() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        /**
+         * 平均占用时间（毫秒）
+         */
+        public double getAverageHoldMs() {
+            return borrows > 0 ? totalBusyNanos / 1_000_000.0 / borrows : 0;
+        }
+
+        /**
+         * 启动以来的利用率（连接占用时间 / (运行时间 × 最大连接数)）
+         */
+        public double getUtilisation() {
+            return utilisation;
+        }
+
+        /**
+         * 最近一个维护周期（5秒）内的利用率
+         */
+        public double getRecentUtilisation() {
+            return recentUtilisation;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("活跃 %d/%d (峰值 %d), 空闲 %d, 等待中 %d; 借出 %d 次, 平均等待 %.2f ms, 最长等待 %.1f ms, 超时 %d 次; "
+                            + "平均占用 %.2f ms, 利用率 %.1f%% (最近 %.1f%%); 创建 %d, 淘汰 %d, 健康检查失败 %d, 疑似泄漏 %d; "
+                            + "语句缓存命中 %d, 未命中 %d (命中率 %.1f%%), 淘汰 %d",
+                    active, maxSize, peakActive, idle, waiting, borrows, getAverageWaitMs(), getMaxWaitMs(), timeouts,
+                    getAverageHoldMs(), utilisation * 100, recentUtilisation * 100, created, retired,
+                    validationFailures, leaks, statementHits, statementMisses, getStatementHitRate() * 100,
+                    statementEvictions);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.xaoxiao.convenientaccess.database;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 存储配置档基准测试
+ * 在数据目录下为每个 {@link StorageProfile} 新建一个临时数据库（表结构与白名单表相同的列和唯一索引），
+ * 依次测量逐条提交的写入、批量事务写入、单线程按UUID查询和多线程并发查询的吞吐，测试完成后删除临时文件。
+ * 结果反映当前机器的磁盘和内存条件，用于选择 database.profile
+ */
+public class DatabaseBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseBenchmark.class);
+    private static final int SINGLE_INSERTS = 1000;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String CREATE_TABLE = """
+        CREATE TABLE whitelist (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            name VARCHAR(16) NOT NULL,
+            uuid VARCHAR(36) UNIQUE,
+            added_by_name VARCHAR(16) NOT NULL,
+            added_by_uuid VARCHAR(36) NOT NULL,
+            added_at TIMESTAMP NOT NULL,
+            source VARCHAR(10) NOT NULL DEFAULT 'PLAYER',
+            is_active BOOLEAN NOT NULL DEFAULT 1
+        )
+    """;
+    private static final String INSERT = """
+        INSERT INTO whitelist (name, uuid, added_by_name, added_by_uuid, added_at, source)
+        VALUES (?, ?, 'CONSOLE', '00000000-0000-0000-0000-000000000000', '2024-01-01 00:00:00', 'ADMIN')
+    """;
+    private static final String LOOKUP = "SELECT is_active FROM whitelist WHERE uuid = ? AND is_active = 1";
+
+    private final File directory;
+
+    public DatabaseBenchmark(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 依次测试所有配置档
+     *
+     * @param rows 每个临时数据库写入的行数，查询次数与之相同
+     * @param readerThreads 并发查询的线程数
+     */
+    public List<Result> run(int rows, int readerThreads) throws SQLException {
+        List<String> uuids = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            uuids.add(UUID.randomUUID().toString());
+        }
+        List<Result> results = new ArrayList<>();
+        for (StorageProfile profile : StorageProfile.values()) {
+            Result result = runProfile(profile, uuids, Math.max(1, readerThreads));
+            logger.info("数据库基准测试 {}", result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private Result runProfile(StorageProfile profile, List<String> uuids, int readerThreads) throws SQLException {
+        File file = new File(directory, "benchmark-" + profile.getConfigName() + ".db");
+        deleteFiles(file);
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+        try {
+            double singleInserts;
+            double batchInserts;
+            try (Connection connection = DriverManager.getConnection(url)) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("PRAGMA page_size = " + profile.getPageSize());
+                    stmt.execute("PRAGMA journal_mode = WAL");
+                    configure(stmt, profile);
+                    stmt.execute(CREATE_TABLE);
+                }
+
+                // 逐条自动提交：每次提交都要写WAL帧，反映 synchronous 和磁盘同步的开销
+                int single = Math.min(SINGLE_INSERTS, uuids.size());
+                long start = System.nanoTime();
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    for (int i = 0; i < single; i++) {
+                        bindInsert(insert, i, uuids.get(i));
+                        insert.executeUpdate();
+                    }
+                }
+                singleInserts = perSecond(single, start);
+
+                // 批量事务：写入吞吐主要取决于页缓存和B树维护
+                start = System.nanoTime();
+                connection.setAutoCommit(false);
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    for (int i = single; i < uuids.size(); i++) {
+                        bindInsert(insert, i, uuids.get(i));
+                        insert.addBatch();
+                        if ((i - single + 1) % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                            connection.commit();
+                        }
+                    }
+                    insert.executeBatch();
+                    connection.commit();
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+                batchInserts = perSecond(uuids.size() - single, start);
+
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                }
+            }
+
+            // 查询使用新连接，与连接池中新建连接的情况一致
+            double lookups = lookups(url, profile, uuids, uuids.size());
+            double concurrentLookups = concurrentLookups(url, profile, uuids, readerThreads);
+            return new Result(profile, uuids.size(), singleInserts, batchInserts, lookups, concurrentLookups,
+                    readerThreads, file.length());
+        } finally {
+            deleteFiles(file);
+        }
+    }
+
+    private double lookups(String url, StorageProfile profile, List<String> uuids, int count) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url)) {
+            try (Statement stmt = connection.createStatement()) {
+                configure(stmt, profile);
+            }
+            long start = System.nanoTime();
+            runLookups(connection, uuids, count);
+            return perSecond(count, start);
+        }
+    }
+
+    private double concurrentLookups(String url, StorageProfile profile, List<String> uuids, int threads)
+            throws SQLException {
+        int perThread = Math.max(1, uuids.size() / threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "DatabaseBenchmark-Reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Connection> connections = new ArrayList<>();
+            try {
+                for (int i = 0; i < threads; i++) {
+                    Connection connection = DriverManager.getConnection(url);
+                    connections.add(connection);
+                    try (Statement stmt = connection.createStatement()) {
+                        configure(stmt, profile);
+                    }
+                }
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>();
+                for (Connection connection : connections) {
+                    futures.add(executor.submit(() -> {
+                        runLookups(connection, uuids, perThread);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                return perSecond((long) perThread * threads, start);
+            } finally {
+                for (Connection connection : connections) {
+                    connection.close();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("基准测试被中断", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("并发查询失败", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void runLookups(Connection connection, List<String> uuids, int count) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int found = 0;
+        try (PreparedStatement lookup = connection.prepareStatement(LOOKUP)) {
+            for (int i = 0; i < count; i++) {
+                lookup.setString(1, uuids.get(random.nextInt(uuids.size())));
+                try (ResultSet rs = lookup.executeQuery()) {
+                    if (rs.next()) {
+                        found++;
+                    }
+                }
+            }
+        }
+        if (found != count) {
+            throw new SQLException("基准测试查询结果不完整: " + found + "/" + count);
+        }
+    }
+
+    private static void configure(Statement stmt, StorageProfile profile) throws SQLException {
+        for (String pragma : profile.connectionPragmas()) {
+            stmt.execute(pragma);
+        }
+    }
+
+    private static void bindInsert(PreparedStatement insert, int index, String uuid) throws SQLException {
+        insert.setString(1, "bench_" + index);
+        insert.setString(2, uuid);
+    }
+
+    private static double perSecond(long operations, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return seconds > 0 ? operations / seconds : 0;
+    }
+
+    private static void deleteFiles(File file) {
+        for (String suffix : new String[] {"", "-wal", "-shm"}) {
+            File target = new File(file.getPath() + suffix);
+            if (target.exists() && !target.delete()) {
+                logger.warn("无法删除基准测试临时文件: {}", target);
+            }
+        }
+    }
+
+    /**
+     * 单个配置档的测试结果（每秒操作数）
+     */
+    public static class Result {
+        private final StorageProfile profile;
+        private final int rows;
+        private final double singleInserts;
+        private final double batchInserts;
+        private final double lookups;
+        private final double concurrentLookups;
+        private final int readerThreads;
+        private final long fileBytes;
+
+        Result(StorageProfile profile, int rows, double singleInserts, double batchInserts, double lookups,
+               double concurrentLookups, int readerThreads, long fileBytes) {
+            this.profile = profile;
+            this.rows = rows;
+            this.singleInserts = singleInserts;
+            this.batchInserts = batchInserts;
+            this.lookups = lookups;
+            this.concurrentLookups = concurrentLookups;
+            this.readerThreads = readerThreads;
+            this.fileBytes = fileBytes;
+        }
+
+        public StorageProfile getProfile() {
+            return profile;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public double getSingleInserts() {
+            return singleInserts;
+        }
+
+        public double getBatchInserts() {
+            return batchInserts;
+        }
+
+        public double getLookups() {
+            return lookups;
+        }
+
+        public double getConcurrentLookups() {
+            return concurrentLookups;
+        }
+
+        public long getFileBytes() {
+            return fileBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: 逐条写入 %.0f/s, 批量写入 %.0f/s, 查询 %.0f/s, 并发查询(%d线程) %.0f/s, 文件 %.1f MB",
+                    profile.getConfigName(), singleInserts, batchInserts, lookups, readerThreads, concurrentLookups,
+                    fileBytes / 1048576.0);
+        }
+    }
+}
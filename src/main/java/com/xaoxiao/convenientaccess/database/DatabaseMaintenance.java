@@ -0,0 +1,313 @@
+package com.xaoxiao.convenientaccess.database;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQLite后台维护
+ * 定时在写线程的后台通道上执行 wal_checkpoint(TRUNCATE)、PRAGMA optimize、定期 ANALYZE 和增量回收空闲页，
+ * 记录每项操作的耗时；服务器TPS过低或数据库有交互请求排队时跳过本轮。
+ * 增量回收只在数据库已是 auto_vacuum = INCREMENTAL 时执行，切换模式需要完整 VACUUM，由管理员手动执行。
+ * 每轮记录数据库文件和WAL文件大小，保留最近48次采样用于观察增长趋势
+ */
+public class DatabaseMaintenance {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseMaintenance.class);
+    private static final int MAX_SAMPLES = 48;
+    // auto_vacuum 模式：2 = INCREMENTAL
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private final DatabaseManager databaseManager;
+    private final File databaseFile;
+    private final File walFile;
+    private final Supplier<Double> tpsSupplier;
+    private final double minTps;
+    private final long analyzeIntervalMillis;
+    private final int incrementalVacuumPages;
+    private ScheduledExecutorService scheduler;
+
+    private final Deque<SizeSample> samples = new ArrayDeque<>();
+    private volatile LocalDateTime lastRunAt;
+    private volatile Map<String, Double> lastRunCosts = Map.of();
+    private volatile String lastSkipReason;
+    private volatile long lastAnalyzeAt;
+    private volatile int runs;
+    private volatile int skips;
+    private volatile boolean vacuumModeHintLogged;
+
+    /**
+     * @param tpsSupplier 当前TPS，未知时返回null（不因TPS跳过）
+     * @param minTps TPS低于该值时跳过维护
+     * @param analyzeIntervalHours ANALYZE 间隔（小时），小于等于0表示不执行
+     * @param incrementalVacuumPages 每轮最多回收的空闲页数，小于等于0表示不回收
+     */
+    DatabaseMaintenance(DatabaseManager databaseManager, String databasePath, Supplier<Double> tpsSupplier,
+                        double minTps, int analyzeIntervalHours, int incrementalVacuumPages) {
+        this.databaseManager = databaseManager;
+        this.databaseFile = new File(databasePath);
+        this.walFile = new File(databasePath + "-wal");
+        this.tpsSupplier = tpsSupplier;
+        this.minTps = minTps;
+        this.analyzeIntervalMillis = analyzeIntervalHours > 0 ? TimeUnit.HOURS.toMillis(analyzeIntervalHours) : 0;
+        this.incrementalVacuumPages = incrementalVacuumPages;
+    }
+
+    /**
+     * 启动定时维护
+     * @param intervalMinutes 维护间隔（分钟）
+     */
+    synchronized void start(int intervalMinutes) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "DatabaseMaintenance-" + databaseFile.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runOnce, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        logger.info("数据库 {} 后台维护已启动，间隔: {} 分钟", databaseFile.getName(), intervalMinutes);
+    }
+
+    synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 执行一轮维护（负载过高时跳过维护操作，但仍记录文件大小）
+     */
+    void runOnce() {
+        try {
+            String skipReason = checkLoad();
+            if (skipReason != null) {
+                skips++;
+                lastSkipReason = skipReason;
+                logger.debug("跳过数据库维护: {}", skipReason);
+            } else {
+                lastSkipReason = null;
+                Map<String, Double> costs = databaseManager.executeMaintenance(this::maintain).get();
+                lastRunCosts = costs;
+                lastRunAt = LocalDateTime.now();
+                runs++;
+                logger.info("数据库 {} 维护完成，耗时: {}", databaseFile.getName(), formatCosts(costs));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("数据库 {} 维护失败", databaseFile.getName(), e);
+        } finally {
+            recordSample();
+        }
+    }
+
+    /**
+     * 检查是否应跳过本轮维护，返回跳过原因，可以执行时返回null
+     */
+    private String checkLoad() {
+        Double tps = tpsSupplier.get();
+        if (tps != null && tps < minTps) {
+            return String.format("TPS %.1f 低于 %.1f", tps, minTps);
+        }
+        for (PriorityLaneExecutor.LaneStats lane : databaseManager.getReadLaneStats()) {
+            if (lane.getPriority() != DatabasePriority.BACKGROUND && lane.getQueueDepth() > 0) {
+                return lane.getPriority().getDisplayName() + "通道有 " + lane.getQueueDepth() + " 个数据库任务排队";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在写连接上（自动提交模式）依次执行维护操作，返回每项操作耗时（毫秒）
+     */
+    private Map<String, Double> maintain(Connection connection) throws SQLException {
+        Map<String, Double> costs = new LinkedHashMap<>();
+        try (Statement stmt = connection.createStatement()) {
+            long start = System.nanoTime();
+            try (ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(TRUNCATE)")) {
+                if (rs.next() && rs.getInt(1) != 0) {
+                    logger.debug("WAL检查点未能完全截断（有读事务正在使用WAL）");
+                }
+            }
+            costs.put("wal_checkpoint", elapsedMs(start));
+
+            long now = System.currentTimeMillis();
+            if (analyzeIntervalMillis > 0 && now - lastAnalyzeAt >= analyzeIntervalMillis) {
+                start = System.nanoTime();
+                stmt.execute("ANALYZE");
+                costs.put("analyze", elapsedMs(start));
+                lastAnalyzeAt = now;
+            } else {
+                start = System.nanoTime();
+                stmt.execute("PRAGMA optimize");
+                costs.put("optimize", elapsedMs(start));
+            }
+
+            if (incrementalVacuumPages > 0) {
+                start = System.nanoTime();
+                if (queryInt(stmt, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+                    if (!vacuumModeHintLogged) {
+                        vacuumModeHintLogged = true;
+                        logger.info("数据库 {} 未使用增量回收模式，跳过空闲页回收；可在低峰期执行 /ca dbvacuum 切换（会执行一次完整 VACUUM）",
+                                databaseFile.getName());
+                    }
+                } else if (queryInt(stmt, "PRAGMA freelist_count") > 0) {
+                    stmt.execute("PRAGMA incremental_vacuum(" + incrementalVacuumPages + ")");
+                    costs.put("incremental_vacuum", elapsedMs(start));
+                }
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * 切换为增量回收模式并执行 VACUUM 使其生效（auto_vacuum 模式只有在重建数据库后才生效）
+     * @return VACUUM 耗时（毫秒），已是增量回收模式时返回 -1
+     */
+    static double enableIncrementalVacuum(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            if (queryInt(stmt, "PRAGMA auto_vacuum") == AUTO_VACUUM_INCREMENTAL) {
+                return -1;
+            }
+            long start = System.nanoTime();
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("VACUUM");
+            double elapsed = elapsedMs(start);
+            logger.info("数据库已切换为增量回收模式（auto_vacuum = INCREMENTAL），VACUUM 耗时 {} ms",
+                    String.format("%.1f", elapsed));
+            return elapsed;
+        }
+    }
+
+    private static int queryInt(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static double elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    private void recordSample() {
+        SizeSample sample = new SizeSample(LocalDateTime.now(), databaseFile.length(), walFile.length());
+        synchronized (samples) {
+            if (samples.size() >= MAX_SAMPLES) {
+                samples.pollFirst();
+            }
+            samples.addLast(sample);
+        }
+    }
+
+    /**
+     * 文件大小采样，最早的在前
+     */
+    public List<SizeSample> getSamples() {
+        synchronized (samples) {
+            return new ArrayList<>(samples);
+        }
+    }
+
+    public LocalDateTime getLastRunAt() {
+        return lastRunAt;
+    }
+
+    /**
+     * 上一次维护各项操作的耗时（毫秒）
+     */
+    public Map<String, Double> getLastRunCosts() {
+        return lastRunCosts;
+    }
+
+    public String getLastSkipReason() {
+        return lastSkipReason;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    public int getSkips() {
+        return skips;
+    }
+
+    /**
+     * 一行摘要，用于 /ca status
+     */
+    public String summary() {
+        long dbBytes = databaseFile.length();
+        long walBytes = walFile.length();
+        String summary = String.format("文件 %.2f MB, WAL %.2f MB", dbBytes / 1048576.0, walBytes / 1048576.0);
+
+        List<SizeSample> history = getSamples();
+        if (!history.isEmpty()) {
+            SizeSample oldest = history.get(0);
+            summary += String.format(" (自 %s 起文件 %+.2f MB)", oldest.getTime().withNano(0),
+                    (dbBytes - oldest.getDatabaseBytes()) / 1048576.0);
+        }
+        summary += String.format("; 已执行 %d 次, 跳过 %d 次", runs, skips);
+        if (lastRunAt != null) {
+            summary += ", 上次 " + lastRunAt.withNano(0) + " 耗时 " + formatCosts(lastRunCosts);
+        }
+        if (lastSkipReason != null) {
+            summary += ", 上次跳过: " + lastSkipReason;
+        }
+        return summary;
+    }
+
+    private static String formatCosts(Map<String, Double> costs) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Double> cost : costs.entrySet()) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(cost.getKey()).append(' ').append(String.format("%.1f ms", cost.getValue()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * 一次文件大小采样
+     */
+    public static class SizeSample {
+        private final LocalDateTime time;
+        private final long databaseBytes;
+        private final long walBytes;
+
+        SizeSample(LocalDateTime time, long databaseBytes, long walBytes) {
+            this.time = time;
+            this.databaseBytes = databaseBytes;
+            this.walBytes = walBytes;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public long getDatabaseBytes() {
+            return databaseBytes;
+        }
+
+        public long getWalBytes() {
+            return walBytes;
+        }
+    }
+}
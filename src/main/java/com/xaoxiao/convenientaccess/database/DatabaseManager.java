@@ -9,40 +9,97 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.xaoxiao.convenientaccess.ConvenientAccessPlugin;
+import com.xaoxiao.convenientaccess.config.ConfigManager;
 
 /**
  * SQLite数据库管理器
  * 负责数据库连接池管理、初始化、迁移和事务管理
+ *
+ * 执行模型：SQLite（WAL模式）允许多个读连接并发，但同一时刻只有一个写事务。
+ * 读操作 {@link #executeRead} 在读线程池上使用连接池中的连接并发执行；
+ * 写操作 {@link #executeWrite} 进入写队列，由唯一的写线程使用专用写连接逐个在事务中执行，
+ * 写入之间排队而不是在 busy_timeout 中互相等待，读操作也不会被阻塞在写锁后面。
+ * 读写队列都按 {@link DatabasePriority} 分通道，登录前检查优先于API请求，API请求优先于后台维护
+ *
+ * 数据文件：白名单等热数据存放在 whitelist.db；操作日志、认证日志、注册令牌和同步任务等追加写为主的表
+ * 存放在 logs.db，由 {@link #getLogDatabase()} 返回的另一个实例管理，拥有独立的连接池、写线程和后台维护，
+ * 日志写入不再与白名单修改争用同一个写锁
  */
 public class DatabaseManager {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
     
     private final ConvenientAccessPlugin plugin;
+    private final DatabaseFile file;
     private final String databasePath;
-    private final ExecutorService executorService;
+    private final DatabaseManager logDatabase;
+    private final PriorityLaneExecutor readExecutor;
+    private final PriorityLaneExecutor writeExecutor;
+    private final ConnectionPool connectionPool;
+    private final ConnectionPool writerConnection;
+    private final QueryMetrics queryMetrics;
+    private final StorageProfile storageProfile;
+    private volatile DatabaseMaintenance maintenance;
     private final AtomicBoolean initialized = new AtomicBoolean(false);
     
     // 数据库版本
-    private static final int CURRENT_VERSION = 2; // 增加版本以支持管理员认证系统
+    private static final int CURRENT_VERSION = 4; // 日志类表迁移到独立的 logs.db
+    private static final int LOG_DATABASE_VERSION = 2; // 日志汇总表
+    
+    // 迁移到 logs.db 的表
+    private static final String[] LOG_TABLES = {"operation_log", "auth_logs", "registration_tokens", "sync_tasks"};
     
     public DatabaseManager(ConvenientAccessPlugin plugin) {
+        this(plugin, DatabaseFile.MAIN, new QueryMetrics(plugin.getConfigManager().getDatabaseSlowQueryThreshold()));
+    }
+    
+    private DatabaseManager(ConvenientAccessPlugin plugin, DatabaseFile file, QueryMetrics queryMetrics) {
         this.plugin = plugin;
-        this.databasePath = plugin.getDataFolder().getAbsolutePath() + File.separator + "whitelist.db";
-        // 增加线程池大小以处理更多并发数据库操作
-        this.executorService = Executors.newFixedThreadPool(8, r -> {
-            Thread thread = new Thread(r, "DatabaseManager-Thread");
-            thread.setDaemon(true);
-            return thread;
-        });
+        this.file = file;
+        this.databasePath = plugin.getDataFolder().getAbsolutePath() + File.separator + file.fileName;
+        ConfigManager config = plugin.getConfigManager();
+        boolean logs = file == DatabaseFile.LOGS;
+        int readThreads = Math.max(1, logs ? config.getLogDatabaseReadThreads() : config.getDatabaseReadThreads());
+        // 登录通道不限并发，交互和后台通道限制并发，始终为登录检查保留线程
+        this.readExecutor = new PriorityLaneExecutor(file.threadPrefix + "-Reader", readThreads,
+                readThreads, config.getDatabaseInteractiveLaneLimit(), config.getDatabaseBackgroundLaneLimit());
+        // 单写线程，同一通道内的写操作按提交顺序执行
+        this.writeExecutor = new PriorityLaneExecutor(file.threadPrefix + "-Writer", 1);
+        
+        // 连接级 PRAGMA 由存储配置档决定，每个连接创建时执行一次（journal_mode 等数据库级设置在初始化时执行）
+        this.storageProfile = StorageProfile.fromConfig(logs ? config.getLogDatabaseStorageProfile()
+                : config.getDatabaseStorageProfile());
+        String[] connectionPragmas = storageProfile.connectionPragmas();
+        long connectionTimeout = config.getDatabasePoolConnectionTimeout();
+        long maxLifetime = TimeUnit.MINUTES.toMillis(config.getDatabasePoolMaxLifetime());
+        long validationInterval = TimeUnit.SECONDS.toMillis(config.getDatabasePoolValidationInterval());
+        long leakThreshold = TimeUnit.SECONDS.toMillis(config.getDatabasePoolLeakDetectionThreshold());
+        int statementCacheSize = config.getDatabaseStatementCacheSize();
+        // 语句统计由两个数据库共用，诊断接口和 /ca status 中统一查看
+        this.queryMetrics = queryMetrics;
+        int poolSize = logs ? config.getLogDatabasePoolMaxSize() : config.getDatabasePoolMaxSize();
+        // 读连接池只用于 executeRead，设置 query_only 使误写入直接报错而不是绕过单写线程
+        String[] readerPragmas = Arrays.copyOf(connectionPragmas, connectionPragmas.length + 1);
+        readerPragmas[connectionPragmas.length] = "PRAGMA query_only = ON";
+        this.connectionPool = new ConnectionPool("jdbc:sqlite:" + databasePath, readerPragmas,
+                poolSize, connectionTimeout, maxLifetime, validationInterval, leakThreshold,
+                statementCacheSize, queryMetrics);
+        // 写连接以 BEGIN IMMEDIATE 开启事务，开始时即取得写锁，避免读后升级写锁时直接返回 SQLITE_BUSY
+        this.writerConnection = new ConnectionPool("jdbc:sqlite:" + databasePath + "?transaction_mode=IMMEDIATE",
+                connectionPragmas, 1, connectionTimeout, maxLifetime, validationInterval, leakThreshold, statementCacheSize,
+                queryMetrics);
+        this.logDatabase = logs ? null : new DatabaseManager(plugin, DatabaseFile.LOGS, queryMetrics);
     }
     
     /**
@@ -50,83 +107,179 @@ public class DatabaseManager {
      */
     public CompletableFuture<Boolean> initialize() {
         return CompletableFuture.supplyAsync(() -> {
-            try {
-                // 确保数据文件夹存在
-                File dataFolder = plugin.getDataFolder();
-                if (!dataFolder.exists()) {
-                    dataFolder.mkdirs();
-                }
-                
-                // 创建数据库连接
-                try (Connection connection = getConnection()) {
-                    // 启用外键约束和优化并发性能
-                    try (Statement stmt = connection.createStatement()) {
-                        stmt.execute("PRAGMA foreign_keys = ON");
-                        stmt.execute("PRAGMA journal_mode = WAL");
-                        stmt.execute("PRAGMA synchronous = NORMAL");
-                        stmt.execute("PRAGMA cache_size = 10000");
-                        stmt.execute("PRAGMA temp_store = MEMORY");
-                        stmt.execute("PRAGMA busy_timeout = 30000"); // 设置30秒的锁等待超时
-                        stmt.execute("PRAGMA wal_autocheckpoint = 1000"); // WAL自动检查点
+            // 先初始化日志库，白名单库从旧版本升级时需要把日志表迁入其中
+            if (logDatabase != null && !logDatabase.initializeFile()) {
+                return false;
+            }
+            return initializeFile();
+        }, readExecutor.lane(DatabasePriority.BACKGROUND));
+    }
+    
+    /**
+     * 建表或迁移当前数据库文件
+     */
+    private boolean initializeFile() {
+        try {
+            // 确保数据文件夹存在
+            File dataFolder = plugin.getDataFolder();
+            if (!dataFolder.exists()) {
+                dataFolder.mkdirs();
+            }
+            
+            // 建表和迁移使用独立连接，不进入连接池
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databasePath)) {
+                // 启用外键约束和优化并发性能
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("PRAGMA foreign_keys = ON");
+                    // 页大小只在数据库文件写入第一页之前生效，必须在切换到WAL之前设置
+                    applyPageSize(stmt);
+                    // 新建的数据库直接使用增量回收模式；已有数据库需要管理员执行 /ca dbvacuum 切换
+                    if (new File(databasePath).length() == 0) {
+                        stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
                     }
-                    
-                    // 检查数据库版本
-                    int currentVersion = getDatabaseVersion(connection);
-                    if (currentVersion == 0) {
-                        // 新数据库，创建所有表
-                        createTables(connection);
-                        setDatabaseVersion(connection, CURRENT_VERSION);
-                        logger.info("数据库初始化完成，版本: {}", CURRENT_VERSION);
-                    } else if (currentVersion < CURRENT_VERSION) {
-                        // 需要升级
-                        migrateDatabaseFrom(connection, currentVersion);
-                        logger.info("数据库升级完成，从版本 {} 升级到 {}", currentVersion, CURRENT_VERSION);
+                    stmt.execute("PRAGMA journal_mode = WAL");
+                    for (String pragma : storageProfile.connectionPragmas()) {
+                        stmt.execute(pragma);
                     }
-                    
-                    initialized.set(true);
-                    return true;
                 }
-            } catch (Exception e) {
-                logger.error("数据库初始化失败", e);
-                return false;
+                
+                // 检查数据库版本
+                int currentVersion = getDatabaseVersion(connection);
+                if (currentVersion == 0) {
+                    // 新数据库，创建所有表
+                    createTables(connection);
+                    setDatabaseVersion(connection, file.version);
+                    logger.info("数据库 {} 初始化完成，版本: {}", file.fileName, file.version);
+                } else if (currentVersion < file.version) {
+                    // 需要升级
+                    migrateDatabaseFrom(connection, currentVersion);
+                    logger.info("数据库 {} 升级完成，从版本 {} 升级到 {}", file.fileName, currentVersion, file.version);
+                }
+                
+                initialized.set(true);
+                return true;
             }
-        }, executorService);
+        } catch (Exception e) {
+            logger.error("数据库 {} 初始化失败", file.fileName, e);
+            return false;
+        }
     }
     
     /**
-     * 获取数据库连接
+     * 新数据库文件按配置档设置页大小；已有文件的页大小保持不变
      */
-    public Connection getConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + databasePath);
-        // 为每个连接设置 busy_timeout，处理并发锁等待
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute("PRAGMA busy_timeout = 30000"); // 30秒超时
-        } catch (SQLException e) {
-            logger.warn("设置 busy_timeout 失败: {}", e.getMessage());
+    private void applyPageSize(Statement stmt) throws SQLException {
+        int current;
+        try (ResultSet rs = stmt.executeQuery("PRAGMA page_size")) {
+            current = rs.next() ? rs.getInt(1) : 0;
+        }
+        if (current == storageProfile.getPageSize()) {
+            return;
+        }
+        if (new File(databasePath).length() == 0) {
+            stmt.execute("PRAGMA page_size = " + storageProfile.getPageSize());
+        } else {
+            logger.info("{} 已使用 {} 字节页，配置档 {} 的页大小 {} 只对新建的数据库文件生效",
+                    file.fileName, current, storageProfile.getConfigName(), storageProfile.getPageSize());
         }
-        return conn;
     }
     
     /**
-     * 异步执行数据库操作
+     * 获取当前数据库文件使用的存储配置档
      */
-    public <T> CompletableFuture<T> executeAsync(DatabaseOperation<T> operation) {
+    public StorageProfile getStorageProfile() {
+        return storageProfile;
+    }
+    
+    /**
+     * 获取日志数据库（logs.db），操作日志、认证日志、注册令牌和同步任务的DAO使用该实例；
+     * 在日志数据库实例上调用时返回其自身
+     */
+    public DatabaseManager getLogDatabase() {
+        return logDatabase != null ? logDatabase : this;
+    }
+    
+    /**
+     * 从读连接池借出只读连接，使用完毕后 close() 归还
+     * 仅供 executeRead 使用，DAO 通过 executeRead/executeWrite 访问数据库
+     */
+    private Connection getReadConnection() throws SQLException {
+        return connectionPool.getConnection();
+    }
+    
+    /**
+     * 获取连接池统计（等待时间、利用率等）
+     */
+    public ConnectionPool.Stats getPoolStats() {
+        return connectionPool.getStats();
+    }
+    
+    /**
+     * 获取语句级统计（延迟直方图和慢查询）
+     */
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+    
+    /**
+     * 获取写队列中等待执行的写操作数
+     */
+    public int getWriteQueueDepth() {
+        return writeExecutor.getQueueDepth();
+    }
+    
+    /**
+     * 获取读线程池各通道统计
+     */
+    public List<PriorityLaneExecutor.LaneStats> getReadLaneStats() {
+        return readExecutor.getStats();
+    }
+    
+    /**
+     * 获取写队列各通道统计
+     */
+    public List<PriorityLaneExecutor.LaneStats> getWriteLaneStats() {
+        return writeExecutor.getStats();
+    }
+    
+    /**
+     * 异步执行只读操作（交互通道）
+     */
+    public <T> CompletableFuture<T> executeRead(DatabaseOperation<T> operation) {
+        return executeRead(DatabasePriority.INTERACTIVE, operation);
+    }
+    
+    /**
+     * 异步执行只读操作（读线程池，可并发）
+     */
+    public <T> CompletableFuture<T> executeRead(DatabasePriority priority, DatabaseOperation<T> operation) {
+        long submitted = System.nanoTime();
         return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = getConnection()) {
+            queryMetrics.markQueueWait(System.nanoTime() - submitted);
+            try (Connection connection = getReadConnection()) {
                 return operation.execute(connection);
             } catch (Exception e) {
                 logger.error("数据库操作执行失败", e);
                 throw new RuntimeException(e);
             }
-        }, executorService);
+        }, readExecutor.lane(priority));
     }
     
     /**
-     * 异步执行事务操作
+     * 异步执行写操作（交互通道）
      */
-    public <T> CompletableFuture<T> executeTransactionAsync(DatabaseOperation<T> operation) {
+    public <T> CompletableFuture<T> executeWrite(DatabaseOperation<T> operation) {
+        return executeWrite(DatabasePriority.INTERACTIVE, operation);
+    }
+    
+    /**
+     * 异步执行写操作（写队列，单线程在事务中执行，同一通道内按提交顺序）
+     */
+    public <T> CompletableFuture<T> executeWrite(DatabasePriority priority, DatabaseOperation<T> operation) {
+        long submitted = System.nanoTime();
         return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = getConnection()) {
+            queryMetrics.markQueueWait(System.nanoTime() - submitted);
+            try (Connection connection = writerConnection.getConnection()) {
                 connection.setAutoCommit(false);
                 try {
                     T result = operation.execute(connection);
@@ -140,7 +293,75 @@ public class DatabaseManager {
                 logger.error("数据库事务执行失败", e);
                 throw new RuntimeException(e);
             }
-        }, executorService);
+        }, writeExecutor.lane(priority));
+    }
+    
+    /**
+     * 在写队列的后台通道上以自动提交模式执行维护操作（wal_checkpoint、VACUUM 等不能在事务中执行）
+     */
+    <T> CompletableFuture<T> executeMaintenance(DatabaseOperation<T> operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = writerConnection.getConnection()) {
+                return operation.execute(connection);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }, writeExecutor.lane(DatabasePriority.BACKGROUND));
+    }
+    
+    /**
+     * 启动后台维护（检查点、ANALYZE、增量回收），间隔为0时不启动
+     *
+     * @param tpsSupplier 当前服务器TPS，未知时返回null
+     */
+    public void startMaintenance(Supplier<Double> tpsSupplier) {
+        if (logDatabase != null) {
+            logDatabase.startMaintenance(tpsSupplier);
+        }
+        ConfigManager config = plugin.getConfigManager();
+        boolean logs = file == DatabaseFile.LOGS;
+        int interval = logs ? config.getLogDatabaseMaintenanceInterval() : config.getDatabaseMaintenanceInterval();
+        if (interval <= 0 || maintenance != null) {
+            return;
+        }
+        int vacuumPages = logs ? config.getLogDatabaseMaintenanceIncrementalVacuumPages()
+                : config.getDatabaseMaintenanceIncrementalVacuumPages();
+        DatabaseMaintenance scheduler = new DatabaseMaintenance(this, databasePath, tpsSupplier,
+                config.getDatabaseMaintenanceMinTps(), config.getDatabaseMaintenanceAnalyzeInterval(), vacuumPages);
+        scheduler.start(interval);
+        maintenance = scheduler;
+    }
+    
+    /**
+     * 把已有数据库切换为增量回收模式（auto_vacuum = INCREMENTAL）
+     * 切换需要执行一次完整 VACUUM 重写数据库文件，耗时与文件大小成正比，并临时需要约一倍的磁盘空间；
+     * 期间写线程上的其他写入排队等待，因此只由管理员在低峰期手动执行，后台维护不会自动切换
+     *
+     * @return VACUUM 耗时（毫秒），已是增量回收模式时返回 -1
+     */
+    public CompletableFuture<Double> enableIncrementalVacuum() {
+        return executeMaintenance(DatabaseMaintenance::enableIncrementalVacuum);
+    }
+    
+    /**
+     * 获取后台维护状态，未启用时返回null
+     */
+    public DatabaseMaintenance getMaintenance() {
+        return maintenance;
+    }
+    
+    /**
+     * 异步执行数据库操作，等同于 {@link #executeRead}
+     */
+    public <T> CompletableFuture<T> executeAsync(DatabaseOperation<T> operation) {
+        return executeRead(operation);
+    }
+    
+    /**
+     * 异步执行事务操作，等同于 {@link #executeWrite}
+     */
+    public <T> CompletableFuture<T> executeTransactionAsync(DatabaseOperation<T> operation) {
+        return executeWrite(operation);
     }
     
     /**
@@ -150,16 +371,7 @@ public class DatabaseManager {
         logger.info("开始创建数据库表...");
         
         // 读取SQL脚本并执行（简化版，只保留必要的表）
-        String[] sqlScripts = {
-            "schema/whitelist.sql",
-            "schema/sync_tasks.sql", 
-            "schema/operation_log.sql",
-            "schema/registration_tokens.sql",
-            "schema/admin_users.sql",
-            "schema/admin_sessions.sql",
-            "schema/auth_logs.sql",
-            "schema/indexes.sql"
-        };
+        String[] sqlScripts = file.scripts;
         
         int successCount = 0;
         for (String scriptPath : sqlScripts) {
@@ -248,7 +460,7 @@ public class DatabaseManager {
                 } else {
                     inString = false;
                 }
-            } else if (!inString && c == ';') {
+            } else if (!inString && c == ';' && !isInsideTriggerBody(currentStatement)) {
                 String statement = currentStatement.toString().trim();
                 if (!statement.isEmpty()) {
                     statements.add(statement);
@@ -269,6 +481,18 @@ public class DatabaseManager {
         return statements.toArray(new String[0]);
     }
     
+    /**
+     * 判断当前语句是否处于 CREATE TRIGGER ... BEGIN ... END 之间
+     * 触发器体内的分号不能作为语句分隔符
+     */
+    private boolean isInsideTriggerBody(StringBuilder statement) {
+        String upper = statement.toString().trim().toUpperCase();
+        if (!upper.startsWith("CREATE TRIGGER")) {
+            return false;
+        }
+        return !upper.matches("(?s).*\\bEND$");
+    }
+    
     /**
      * 插入初始数据（简化版）
      */
@@ -302,16 +526,12 @@ public class DatabaseManager {
             }
         }
         
-        // 获取当前版本
-        String getVersion = "SELECT version FROM database_version LIMIT 1";
+        // 获取当前版本：每次迁移都会插入一行新版本号，取最大值（空表时 MAX 为 NULL，getInt 返回0）
+        String getVersion = "SELECT MAX(version) FROM database_version";
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(getVersion)) {
             
-            if (rs.next()) {
-                return rs.getInt("version");
-            } else {
-                return 0;
-            }
+            return rs.next() ? rs.getInt(1) : 0;
         }
     }
     
@@ -330,16 +550,72 @@ public class DatabaseManager {
      * 数据库迁移
      */
     private void migrateDatabaseFrom(Connection connection, int fromVersion) throws SQLException {
-        logger.info("开始数据库迁移，从版本 {} 到版本 {}", fromVersion, CURRENT_VERSION);
+        logger.info("开始数据库迁移，从版本 {} 到版本 {}", fromVersion, file.version);
         
-        for (int version = fromVersion; version < CURRENT_VERSION; version++) {
-            String migrationScript = "migrations/migrate_" + version + "_to_" + (version + 1) + ".sql";
-            executeScript(connection, migrationScript);
+        for (int version = fromVersion; version < file.version; version++) {
+            if (file == DatabaseFile.MAIN && version == 3) {
+                // 需要附加日志库文件，无法用静态脚本表达
+                moveLogTables(connection);
+            } else {
+                String migrationScript = "migrations/" + file.migrationPrefix + version + "_to_" + (version + 1) + ".sql";
+                executeScript(connection, migrationScript);
+            }
             setDatabaseVersion(connection, version + 1);
             logger.info("数据库迁移完成: {} -> {}", version, version + 1);
         }
     }
     
+    /**
+     * 把日志类表的数据复制到 logs.db 并从白名单库删除
+     * WAL模式下跨附加数据库的事务只保证各文件分别原子，复制使用 INSERT OR IGNORE（保留原ID），
+     * 中途中断后重新执行不会产生重复记录
+     */
+    private void moveLogTables(Connection connection) throws SQLException {
+        try (PreparedStatement attach = connection.prepareStatement("ATTACH DATABASE ? AS logs")) {
+            attach.setString(1, logDatabase.databasePath);
+            attach.execute();
+        }
+        try {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                for (String table : LOG_TABLES) {
+                    List<String> columns = tableColumns(connection, "main", table);
+                    if (columns.isEmpty()) {
+                        continue;
+                    }
+                    // 只复制两边都存在的列，兼容旧版本表结构
+                    columns.retainAll(tableColumns(connection, "logs", table));
+                    String columnList = String.join(", ", columns);
+                    int copied = stmt.executeUpdate("INSERT OR IGNORE INTO logs." + table + " (" + columnList
+                            + ") SELECT " + columnList + " FROM main." + table);
+                    stmt.execute("DROP TABLE main." + table);
+                    logger.info("已将 {} 迁移到 {}，共 {} 条记录", table, logDatabase.file.fileName, copied);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("DETACH DATABASE logs");
+            }
+        }
+    }
+    
+    private static List<String> tableColumns(Connection connection, String schema, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA " + schema + ".table_info(" + table + ")")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name"));
+            }
+        }
+        return columns;
+    }
+    
     /**
      * 检查数据库是否已初始化
      */
@@ -351,8 +627,58 @@ public class DatabaseManager {
      * 关闭数据库管理器
      */
     public void shutdown() {
-        executorService.shutdown();
-        logger.info("数据库管理器已关闭");
+        if (logDatabase != null) {
+            logDatabase.shutdown();
+        }
+        if (maintenance != null) {
+            maintenance.stop();
+        }
+        readExecutor.shutdown();
+        // 等待已排队的写操作执行完毕
+        writeExecutor.shutdown();
+        try {
+            if (!writeExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("写队列未能在10秒内清空，剩余 {} 个写操作被放弃", writeExecutor.shutdownNow());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        connectionPool.close();
+        writerConnection.close();
+        logger.info("数据库管理器已关闭: {}", file.fileName);
+    }
+    
+    /**
+     * 数据库文件及其建表脚本
+     */
+    private enum DatabaseFile {
+        MAIN("whitelist.db", "DatabaseManager", "migrate_", CURRENT_VERSION,
+            "schema/whitelist.sql",
+            "schema/whitelist_changes.sql",
+            "schema/admin_users.sql",
+            "schema/admin_sessions.sql",
+            "schema/indexes.sql"),
+        LOGS("logs.db", "LogDatabase", "logs_migrate_", LOG_DATABASE_VERSION,
+            "schema/sync_tasks.sql",
+            "schema/operation_log.sql",
+            "schema/registration_tokens.sql",
+            "schema/auth_logs.sql",
+            "schema/log_rollups.sql",
+            "schema/log_indexes.sql");
+        
+        private final String fileName;
+        private final String threadPrefix;
+        private final String migrationPrefix;
+        private final int version;
+        private final String[] scripts;
+        
+        DatabaseFile(String fileName, String threadPrefix, String migrationPrefix, int version, String... scripts) {
+            this.fileName = fileName;
+            this.threadPrefix = threadPrefix;
+            this.migrationPrefix = migrationPrefix;
+            this.version = version;
+            this.scripts = scripts;
+        }
     }
     
     /**
@@ -0,0 +1,30 @@
+package com.xaoxiao.convenientaccess.database;
+
+/**
+ * 数据库操作优先级（执行通道）
+ * 空闲线程总是先取高优先级通道的任务，同一通道内按提交顺序执行
+ */
+public enum DatabasePriority {
+    /**
+     * 登录前检查等玩家正在等待结果的操作
+     */
+    LOGIN_CRITICAL("登录"),
+    /**
+     * API请求、命令等交互操作
+     */
+    INTERACTIVE("交互"),
+    /**
+     * 缓存加载、一致性检查、清理等后台维护操作
+     */
+    BACKGROUND("后台");
+
+    private final String displayName;
+
+    DatabasePriority(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,73 @@
+package com.xaoxiao.convenientaccess.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图
+ * 按微秒的2的幂分桶（第 i 个桶覆盖 [2^(i-1), 2^i) 微秒），记录无锁，百分位数取所在桶的上界，
+ * 误差不超过一倍，足以区分亚毫秒、毫秒和秒级的语句
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(Math.max(0, nanos));
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getTotalMs() {
+        return totalNanos.sum() / 1_000_000.0;
+    }
+
+    public double getAverageMs() {
+        long n = count.sum();
+        return n > 0 ? totalNanos.sum() / 1_000_000.0 / n : 0;
+    }
+
+    public double getMaxMs() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * 百分位数（毫秒），取所在桶的上界，不超过最大值
+     *
+     * @param percentile 0-1 之间
+     */
+    public double getPercentileMs(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(total * percentile));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= target) {
+                double upperMs = (1L << i) / 1000.0;
+                return Math.min(upperMs, getMaxMs());
+            }
+        }
+        return getMaxMs();
+    }
+}
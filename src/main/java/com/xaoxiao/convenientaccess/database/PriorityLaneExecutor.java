@@ -0,0 +1,328 @@
+package com.xaoxiao.convenientaccess.database;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 按优先级分通道的线程池
+ * 每个 {@link DatabasePriority} 一个FIFO队列，空闲线程按优先级从高到低取任务；
+ * 每个通道有并发上限，低优先级通道即使积压也只能占用部分线程，为登录检查保留执行能力。
+ * 统计每个通道的排队深度、执行中数量和排队等待时间
+ */
+public class PriorityLaneExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(PriorityLaneExecutor.class);
+    private static final DatabasePriority[] LANES = DatabasePriority.values();
+
+    private final String name;
+    private final int[] limits = new int[LANES.length];
+    private final Executor[] laneExecutors = new Executor[LANES.length];
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final List<Deque<Task>> queues = new ArrayList<>();
+    private final int[] running = new int[LANES.length];
+    private final int[] peakDepth = new int[LANES.length];
+    private final long[] completed = new long[LANES.length];
+    private final long[] totalWaitNanos = new long[LANES.length];
+    private final long[] maxWaitNanos = new long[LANES.length];
+    private boolean shutdown;
+
+    /**
+     * @param name 线程名
+     * @param threads 线程数
+     * @param laneLimits 各通道（按 {@link DatabasePriority} 顺序）的最大并发数，小于等于0或超过线程数时取线程数
+     */
+    public PriorityLaneExecutor(String name, int threads, int... laneLimits) {
+        this.name = name;
+        int threadCount = Math.max(1, threads);
+        for (DatabasePriority lane : LANES) {
+            int i = lane.ordinal();
+            int limit = i < laneLimits.length ? laneLimits[i] : 0;
+            limits[i] = limit <= 0 ? threadCount : Math.min(limit, threadCount);
+            queues.add(new ArrayDeque<>());
+            laneExecutors[i] = task -> submit(lane, task);
+        }
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(this::runWorker, name);
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * 获取指定通道的 Executor，用于 CompletableFuture.supplyAsync 等
+     */
+    public Executor lane(DatabasePriority priority) {
+        return laneExecutors[priority.ordinal()];
+    }
+
+    /**
+     * 提交任务到指定通道
+     *
+     * @throws RejectedExecutionException 已关闭
+     */
+    public void submit(DatabasePriority priority, Runnable runnable) {
+        int i = priority.ordinal();
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException(name + " 已关闭");
+            }
+            Deque<Task> queue = queues.get(i);
+            queue.addLast(new Task(i, runnable, System.nanoTime()));
+            if (queue.size() > peakDepth[i]) {
+                peakDepth[i] = queue.size();
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                while ((task = nextTask()) == null) {
+                    if (shutdown && isEmpty()) {
+                        return;
+                    }
+                    available.await();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.runnable.run();
+            } catch (RuntimeException e) {
+                logger.error("{} 执行任务失败", name, e);
+            } finally {
+                lock.lock();
+                try {
+                    running[task.lane]--;
+                    completed[task.lane]++;
+                    // 通道释放了并发名额，其他线程可能可以取到该通道的任务
+                    available.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * 按优先级取下一个任务，跳过已达到并发上限的通道（调用方持有锁）
+     */
+    private Task nextTask() {
+        for (int i = 0; i < LANES.length; i++) {
+            Deque<Task> queue = queues.get(i);
+            if (!queue.isEmpty() && running[i] < limits[i]) {
+                Task task = queue.pollFirst();
+                running[i]++;
+                long waited = System.nanoTime() - task.enqueuedAt;
+                totalWaitNanos[i] += waited;
+                maxWaitNanos[i] = Math.max(maxWaitNanos[i], waited);
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private boolean isEmpty() {
+        for (Deque<Task> queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 所有通道中排队的任务数
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            int depth = 0;
+            for (Deque<Task> queue : queues) {
+                depth += queue.size();
+            }
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取各通道统计
+     */
+    public List<LaneStats> getStats() {
+        lock.lock();
+        try {
+            List<LaneStats> stats = new ArrayList<>();
+            for (DatabasePriority lane : LANES) {
+                int i = lane.ordinal();
+                stats.add(new LaneStats(lane, queues.get(i).size(), peakDepth[i], running[i], limits[i],
+                        completed[i], totalWaitNanos[i], maxWaitNanos[i]));
+            }
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 停止接收新任务，已排队的任务继续执行
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 等待所有已排队的任务执行完毕
+     *
+     * @return 是否在超时前全部完成
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 丢弃所有排队中的任务并中断线程
+     *
+     * @return 被丢弃的任务数
+     */
+    public int shutdownNow() {
+        int dropped;
+        lock.lock();
+        try {
+            shutdown = true;
+            dropped = 0;
+            for (Deque<Task> queue : queues) {
+                dropped += queue.size();
+                queue.clear();
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        return dropped;
+    }
+
+    private static final class Task {
+        final int lane;
+        final Runnable runnable;
+        final long enqueuedAt;
+
+        Task(int lane, Runnable runnable, long enqueuedAt) {
+            this.lane = lane;
+            this.runnable = runnable;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * 单个通道的统计快照
+     */
+    public static class LaneStats {
+        private final DatabasePriority priority;
+        private final int queueDepth;
+        private final int peakQueueDepth;
+        private final int running;
+        private final int limit;
+        private final long completed;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+
+        LaneStats(DatabasePriority priority, int queueDepth, int peakQueueDepth, int running, int limit,
+                  long completed, long totalWaitNanos, long maxWaitNanos) {
+            this.priority = priority;
+            this.queueDepth = queueDepth;
+            this.peakQueueDepth = peakQueueDepth;
+            this.running = running;
+            this.limit = limit;
+            this.completed = completed;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public DatabasePriority getPriority() {
+            return priority;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getPeakQueueDepth() {
+            return peakQueueDepth;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        /**
+         * 平均排队时间（毫秒）
+         */
+        public double getAverageWaitMs() {
+            long started = completed + running;
+            return started > 0 ? totalWaitNanos / 1_000_000.0 / started : 0;
+        }
+
+        public double getMaxWaitMs() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s 排队 %d (峰值 %d), 执行 %d/%d, 完成 %d, 平均等待 %.2f ms, 最长等待 %.1f ms",
+                    priority.getDisplayName(), queueDepth, peakQueueDepth, running, limit, completed,
+                    getAverageWaitMs(), getMaxWaitMs());
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.xaoxiao.convenientaccess.database;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQL语句级统计
+ * 按语句模板（归一化后的SQL文本）分别记录排队等待和执行耗时的直方图；
+ * 执行超过阈值的语句记入慢查询日志，附带参数类型和 EXPLAIN QUERY PLAN 输出。
+ *
+ * 排队等待包括数据库任务在执行通道中的排队时间和借出连接的等待时间，记到该次借出执行的第一条语句上
+ */
+public class QueryMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetrics.class);
+    private static final int MAX_TEMPLATES = 512;
+    private static final int MAX_TEMPLATE_LENGTH = 500;
+    private static final int MAX_SLOW_QUERIES = 50;
+    private static final String OTHER_TEMPLATE = "<其他语句>";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // 多行 VALUES (...), (...) 和 IN (?, ?, ...) 的长度随数据变化，归并为同一模板
+    private static final Pattern REPEATED_GROUPS = Pattern.compile("(\\([^()]*\\))(\\s*,\\s*\\1)+");
+    private static final Pattern REPEATED_PARAMS = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    // 当前线程上数据库任务的排队时间，借出连接时取走
+    private static final ThreadLocal<long[]> QUEUE_WAIT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final long slowThresholdNanos;
+    private final Map<String, String> templateCache = new ConcurrentHashMap<>();
+    private final Map<String, TemplateStats> templates = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+    private final AtomicLong slowCount = new AtomicLong();
+
+    /**
+     * @param slowThresholdMs 慢查询阈值（毫秒），小于等于0表示不记录慢查询
+     */
+    public QueryMetrics(long slowThresholdMs) {
+        this.slowThresholdNanos = slowThresholdMs > 0 ? TimeUnit.MILLISECONDS.toNanos(slowThresholdMs) : 0;
+    }
+
+    /**
+     * 记录当前线程上数据库任务的排队时间
+     */
+    void markQueueWait(long nanos) {
+        QUEUE_WAIT.get()[0] = nanos;
+    }
+
+    /**
+     * 取走当前线程记录的排队时间
+     */
+    long takeQueueWait() {
+        long[] holder = QUEUE_WAIT.get();
+        long nanos = holder[0];
+        holder[0] = 0;
+        return nanos;
+    }
+
+    /**
+     * 记录一次语句执行
+     *
+     * @param waitNanos 排队等待时间，小于0表示不计入等待直方图
+     */
+    void record(String sql, long waitNanos, long execNanos, boolean failed) {
+        TemplateStats stats = statsFor(template(sql));
+        stats.exec.record(execNanos);
+        if (waitNanos >= 0) {
+            stats.wait.record(waitNanos);
+        }
+        if (failed) {
+            stats.errors.incrementAndGet();
+        }
+    }
+
+    boolean isSlow(long execNanos) {
+        return slowThresholdNanos > 0 && execNanos >= slowThresholdNanos;
+    }
+
+    void recordSlow(String sql, List<String> parameterTypes, long execNanos, String plan) {
+        SlowQuery slow = new SlowQuery(LocalDateTime.now(), template(sql), List.copyOf(parameterTypes),
+                execNanos / 1_000_000.0, plan);
+        slowCount.incrementAndGet();
+        synchronized (slowQueries) {
+            if (slowQueries.size() >= MAX_SLOW_QUERIES) {
+                slowQueries.pollFirst();
+            }
+            slowQueries.addLast(slow);
+        }
+        logger.warn("慢查询 {} ms: {} 参数类型 {} 执行计划: {}", String.format("%.1f", slow.getExecutionMs()),
+                slow.getTemplate(), slow.getParameterTypes(), plan);
+    }
+
+    private TemplateStats statsFor(String template) {
+        TemplateStats stats = templates.get(template);
+        if (stats != null) {
+            return stats;
+        }
+        if (templates.size() >= MAX_TEMPLATES) {
+            template = OTHER_TEMPLATE;
+        }
+        return templates.computeIfAbsent(template, TemplateStats::new);
+    }
+
+    /**
+     * 归一化SQL为模板：合并空白，重复的参数组和参数列表折叠为一个
+     */
+    public String template(String sql) {
+        String cached = templateCache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String template = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        template = REPEATED_GROUPS.matcher(template).replaceAll("$1, ...");
+        template = REPEATED_PARAMS.matcher(template).replaceAll("?, ...");
+        if (template.length() > MAX_TEMPLATE_LENGTH) {
+            template = template.substring(0, MAX_TEMPLATE_LENGTH) + "...";
+        }
+        if (templateCache.size() >= MAX_TEMPLATES * 4) {
+            templateCache.clear();
+        }
+        templateCache.put(sql, template);
+        return template;
+    }
+
+    /**
+     * 各模板统计，按累计执行时间降序
+     */
+    public List<TemplateStats> getTemplates() {
+        List<TemplateStats> list = new ArrayList<>(templates.values());
+        list.sort(Comparator.comparingDouble((TemplateStats stats) -> stats.getExecution().getTotalMs()).reversed());
+        return list;
+    }
+
+    /**
+     * 最近的慢查询，最新的在前
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            List<SlowQuery> list = new ArrayList<>(slowQueries);
+            Collections.reverse(list);
+            return list;
+        }
+    }
+
+    public long getSlowQueryCount() {
+        return slowCount.get();
+    }
+
+    public long getSlowThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    /**
+     * 一行摘要，用于 /ca status
+     */
+    public String summary() {
+        List<TemplateStats> list = getTemplates();
+        long executions = 0;
+        for (TemplateStats stats : list) {
+            executions += stats.getExecution().getCount();
+        }
+        String summary = String.format("模板 %d 个, 执行 %d 次, 慢查询 %d 次 (阈值 %d ms)",
+                list.size(), executions, slowCount.get(), getSlowThresholdMs());
+        if (!list.isEmpty()) {
+            TemplateStats top = list.get(0);
+            summary += String.format("; 耗时最多: %.1f ms 共 %d 次 p99 %.2f ms - %s", top.getExecution().getTotalMs(),
+                    top.getExecution().getCount(), top.getExecution().getPercentileMs(0.99), abbreviate(top.getTemplate()));
+        }
+        return summary;
+    }
+
+    private static String abbreviate(String template) {
+        return template.length() > 80 ? template.substring(0, 80) + "..." : template;
+    }
+
+    /**
+     * 单个语句模板的统计
+     */
+    public static class TemplateStats {
+        private final String template;
+        private final LatencyHistogram wait = new LatencyHistogram();
+        private final LatencyHistogram exec = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+
+        TemplateStats(String template) {
+            this.template = template;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        /**
+         * 排队等待（执行通道排队 + 借出连接等待）
+         */
+        public LatencyHistogram getQueueWait() {
+            return wait;
+        }
+
+        public LatencyHistogram getExecution() {
+            return exec;
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+    }
+
+    /**
+     * 一条慢查询记录
+     */
+    public static class SlowQuery {
+        private final LocalDateTime time;
+        private final String template;
+        private final List<String> parameterTypes;
+        private final double executionMs;
+        private final String plan;
+
+        SlowQuery(LocalDateTime time, String template, List<String> parameterTypes, double executionMs, String plan) {
+            this.time = time;
+            this.template = template;
+            this.parameterTypes = parameterTypes;
+            this.executionMs = executionMs;
+            this.plan = plan;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        public List<String> getParameterTypes() {
+            return parameterTypes;
+        }
+
+        public double getExecutionMs() {
+            return executionMs;
+        }
+
+        public String getPlan() {
+            return plan;
+        }
+    }
+}
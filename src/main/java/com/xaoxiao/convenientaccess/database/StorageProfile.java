@@ -0,0 +1,108 @@
+package com.xaoxiao.convenientaccess.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQLite存储配置档
+ * 统一决定每个连接上的 mmap_size、cache_size、temp_store、synchronous 以及新建数据库的 page_size。
+ * cache_size 是每个连接独占的页缓存，mmap 映射的页由操作系统页缓存在所有连接间共享，
+ * 因此内存较多时优先加大 mmap_size，而不是加大每个连接的 cache_size
+ */
+public enum StorageProfile {
+    /**
+     * 低内存：不使用内存映射，每个连接2MB页缓存，临时表写入磁盘
+     */
+    LOW_MEMORY("low-memory", 0, 2000, 4096, "DEFAULT", "NORMAL"),
+    /**
+     * 均衡（默认）：映射前128MB，每个连接8MB页缓存
+     */
+    BALANCED("balanced", 128L * 1024 * 1024, 8000, 4096, "MEMORY", "NORMAL"),
+    /**
+     * 高吞吐：映射前512MB，每个连接32MB页缓存，8KB页减少大表的B树层数
+     */
+    HIGH_THROUGHPUT("high-throughput", 512L * 1024 * 1024, 32000, 8192, "MEMORY", "NORMAL");
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageProfile.class);
+
+    private final String configName;
+    private final long mmapSize;
+    private final int cacheSizeKib;
+    private final int pageSize;
+    private final String tempStore;
+    private final String synchronous;
+
+    StorageProfile(String configName, long mmapSize, int cacheSizeKib, int pageSize, String tempStore, String synchronous) {
+        this.configName = configName;
+        this.mmapSize = mmapSize;
+        this.cacheSizeKib = cacheSizeKib;
+        this.pageSize = pageSize;
+        this.tempStore = tempStore;
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * 按配置名查找，未知名称时返回 {@link #BALANCED}
+     */
+    public static StorageProfile fromConfig(String name) {
+        if (name != null) {
+            for (StorageProfile profile : values()) {
+                if (profile.configName.equalsIgnoreCase(name.trim())) {
+                    return profile;
+                }
+            }
+            logger.warn("未知的数据库存储配置档: {}，使用 {}", name, BALANCED.configName);
+        }
+        return BALANCED;
+    }
+
+    /**
+     * 连接级 PRAGMA，每个连接创建时执行一次
+     */
+    public String[] connectionPragmas() {
+        List<String> pragmas = new ArrayList<>();
+        pragmas.add("PRAGMA busy_timeout = 30000"); // 设置30秒的锁等待超时
+        pragmas.add("PRAGMA synchronous = " + synchronous); // WAL模式下 NORMAL 在进程崩溃时不丢失已提交事务
+        pragmas.add("PRAGMA cache_size = -" + cacheSizeKib); // 负数表示以KiB为单位
+        pragmas.add("PRAGMA mmap_size = " + mmapSize);
+        pragmas.add("PRAGMA temp_store = " + tempStore);
+        pragmas.add("PRAGMA wal_autocheckpoint = 1000"); // WAL自动检查点
+        return pragmas.toArray(new String[0]);
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    public int getCacheSizeKib() {
+        return cacheSizeKib;
+    }
+
+    /**
+     * 新建数据库时使用的页大小，已有数据库的页大小不会改变（WAL模式下 VACUUM 也不能修改页大小）
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (mmap %d MB, 缓存 %d MB/连接, 页 %d B, temp_store %s, synchronous %s)", configName,
+                mmapSize / 1048576, cacheSizeKib / 1000, pageSize, tempStore, synchronous);
+    }
+}
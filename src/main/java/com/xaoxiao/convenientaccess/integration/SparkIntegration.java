@@ -460,6 +460,21 @@ public class SparkIntegration {
         return performanceData;
     }
     
+    /**
+     * 获取最近10秒的TPS，Spark不可用或读取失败时返回null
+     */
+    public Double getRecentTps() {
+        if (!isSparkAvailable()) {
+            return null;
+        }
+        try {
+            DoubleStatistic<StatisticWindow.TicksPerSecond> tpsStatistic = sparkApi.tps();
+            return tpsStatistic != null ? tpsStatistic.poll(StatisticWindow.TicksPerSecond.SECONDS_10) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
     /**
      * 获取Spark插件信息
      */
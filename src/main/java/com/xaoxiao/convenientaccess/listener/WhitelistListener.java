@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.xaoxiao.convenientaccess.ConvenientAccessPlugin;
+import com.xaoxiao.convenientaccess.operation.OperationLogDao;
 import com.xaoxiao.convenientaccess.whitelist.WhitelistManager;
 
 /**
@@ -76,8 +77,8 @@ public class WhitelistListener implements Listener {
             // 异步检查玩家是否在白名单中
             logger.info("开始检查玩家白名单状态...");
             
-            // 使用离线模式检查（同时检查用户名和UUID）
-            CompletableFuture<Boolean> whitelistCheck = whitelistManager.isPlayerWhitelistedOffline(playerName, playerUuid);
+            // 使用离线模式检查（同时检查用户名和UUID，直接传入UUID对象走原始类型索引）
+            CompletableFuture<Boolean> whitelistCheck = whitelistManager.isPlayerWhitelistedOffline(playerName, event.getUniqueId());
             
             // 等待结果（设置合理的超时时间）
             Boolean isWhitelisted = whitelistCheck.get(5, TimeUnit.SECONDS);
@@ -213,41 +214,20 @@ public class WhitelistListener implements Listener {
     private void logUnauthorizedAccess(String playerName, String playerUuid, String ipAddress) {
         logger.warn("未授权访问尝试 - 玩家: {} ({}), IP: {}", playerName, playerUuid, ipAddress);
         
-        // 异步写入数据库操作日志
-        plugin.getWhitelistSystem().getDatabaseManager().executeAsync(connection -> {
-            try {
-                String sql = """
-                    INSERT INTO operation_log 
-                    (operation_type, target_uuid, target_name, operator_ip, operator_agent, 
-                     request_data, response_status, execution_time)
-                    VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-                
-                try (var pstmt = connection.prepareStatement(sql)) {
-                    pstmt.setString(1, "UNAUTHORIZED_ACCESS");
-                    pstmt.setString(2, playerUuid);
-                    pstmt.setString(3, playerName);
-                    pstmt.setString(4, ipAddress);
-                    pstmt.setString(5, "Minecraft Client"); // 游戏客户端
-                    pstmt.setString(6, String.format("{\"reason\":\"not_in_whitelist\",\"player\":\"%s\",\"uuid\":\"%s\"}", 
-                                                     playerName, playerUuid));
-                    pstmt.setInt(7, 403); // HTTP 403 Forbidden 表示拒绝访问
-                    pstmt.setLong(8, 0); // 不需要记录执行时间
-                    
-                    int affected = pstmt.executeUpdate();
-                    if (affected > 0) {
-                        logger.info("✅ 已记录未授权访问日志: {} ({})", playerName, ipAddress);
-                    } else {
-                        logger.warn("❌ 记录未授权访问日志失败: {}", playerName);
-                    }
-                }
-                
-                return null;
-            } catch (java.sql.SQLException e) {
-                logger.error("记录未授权访问日志时发生SQL异常: {} ({})", playerName, ipAddress, e);
-                return null;
-            }
-        });
+        // 放入操作日志缓冲区，由后台线程批量写入
+        OperationLogDao operationLogDao = plugin.getWhitelistSystem().getOperationLogDao();
+        if (operationLogDao == null) {
+            return;
+        }
+        boolean accepted = operationLogDao.logOperation("UNAUTHORIZED_ACCESS", playerUuid, playerName, ipAddress,
+                "Minecraft Client", // 游戏客户端
+                String.format("{\"reason\":\"not_in_whitelist\",\"player\":\"%s\",\"uuid\":\"%s\"}",
+                        playerName, playerUuid),
+                403, // HTTP 403 Forbidden 表示拒绝访问
+                0); // 不需要记录执行时间
+        if (!accepted) {
+            logger.debug("未授权访问日志未能记录（缓冲区已满或已关闭）: {}", playerName);
+        }
     }
     
     /**
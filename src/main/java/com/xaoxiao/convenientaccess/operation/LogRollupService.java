@@ -0,0 +1,477 @@
+package com.xaoxiao.convenientaccess.operation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.xaoxiao.convenientaccess.database.DatabaseManager;
+import com.xaoxiao.convenientaccess.database.DatabasePriority;
+
+/**
+ * 日志汇总
+ * 后台定时把 operation_log 和 auth_logs 中已结束的小时按类型汇总到 log_rollup（数量、错误数、执行时间合计和最大值），
+ * 再由小时汇总重算所在的天；log_rollup_state 记录每个来源已汇总到的时刻，每轮只处理新结束的小时。
+ * 统计和时间线接口对已汇总的整点区间读取汇总表，只对未汇总的部分扫描原始日志。
+ * 汇总在整点过后等待 {@link #GRACE_MINUTES} 分钟再进行，以包含异步写入缓冲区中尚未落库的日志；
+ * 晚于此写入且时间早于汇总进度的日志不会计入汇总
+ */
+public class LogRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(LogRollupService.class);
+    private static final long GRACE_MINUTES = 5;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String HOUR_FORMAT = "%Y-%m-%d %H:00:00";
+    private static final String DAY_FORMAT = "%Y-%m-%d 00:00:00";
+
+    /**
+     * 汇总来源
+     */
+    public enum Source {
+        OPERATION("operation_log", "operation_type", "response_status >= 400", "execution_time"),
+        AUTH("auth_logs", "action_type", "success = 0", "0");
+
+        private final String table;
+        private final String typeColumn;
+        private final String errorCondition;
+        private final String executionTime;
+
+        Source(String table, String typeColumn, String errorCondition, String executionTime) {
+            this.table = table;
+            this.typeColumn = typeColumn;
+            this.errorCondition = errorCondition;
+            this.executionTime = executionTime;
+        }
+
+        /**
+         * 按时间段和类型聚合原始日志，参数依次为开始时间（含）、结束时间（不含）和可选的类型
+         */
+        private String aggregateSql(String bucketFormat, boolean filterType) {
+            return "SELECT strftime('" + bucketFormat + "', created_at) AS bucket, " + typeColumn + " AS type, "
+                    + "COUNT(*) AS count, SUM(CASE WHEN " + errorCondition + " THEN 1 ELSE 0 END) AS error_count, "
+                    + "COALESCE(SUM(" + executionTime + "), 0) AS total_execution_time, "
+                    + "COALESCE(MAX(" + executionTime + "), 0) AS max_execution_time "
+                    + "FROM " + table + " WHERE created_at >= ? AND created_at < ?"
+                    + (filterType ? " AND " + typeColumn + " = ?" : "")
+                    + " GROUP BY bucket, type";
+        }
+    }
+
+    /**
+     * 时间线的时间段粒度
+     */
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS, HOUR_FORMAT),
+        DAY(ChronoUnit.DAYS, DAY_FORMAT);
+
+        private final ChronoUnit unit;
+        private final String format;
+
+        Granularity(ChronoUnit unit, String format) {
+            this.unit = unit;
+            this.format = format;
+        }
+
+        /**
+         * 按名称查找，未知名称返回null
+         */
+        public static Granularity fromName(String name) {
+            for (Granularity granularity : values()) {
+                if (granularity.name().equalsIgnoreCase(name)) {
+                    return granularity;
+                }
+            }
+            return null;
+        }
+
+        public LocalDateTime floor(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        public LocalDateTime ceil(LocalDateTime time) {
+            LocalDateTime floor = floor(time);
+            return floor.equals(time) ? floor : floor.plus(1, unit);
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final Map<Source, LocalDateTime> rolledUntil = new EnumMap<>(Source.class);
+    private ScheduledExecutorService scheduler;
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunRows;
+    private volatile double lastRunMillis;
+
+    public LogRollupService(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * 读取汇总进度并启动定时汇总（启动后立即执行一轮）
+     * @param intervalMinutes 汇总间隔（分钟），小于等于0表示不启动，统计接口只读取原始日志
+     */
+    public synchronized void start(int intervalMinutes) {
+        if (intervalMinutes <= 0 || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ConvenientAccess-LogRollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runOnce, 0, intervalMinutes, TimeUnit.MINUTES);
+        logger.info("日志汇总已启动，间隔: {} 分钟", intervalMinutes);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 执行一轮汇总：每个来源从上次进度汇总到 (当前时间 - 等待时间) 所在小时的开始，每次事务最多处理一天
+     */
+    void runOnce() {
+        long start = System.nanoTime();
+        long rows = 0;
+        try {
+            LocalDateTime target = LocalDateTime.now(ZoneOffset.UTC).minusMinutes(GRACE_MINUTES)
+                    .truncatedTo(ChronoUnit.HOURS);
+            for (Source source : Source.values()) {
+                LocalDateTime from = getRolledUntil(source);
+                if (from == null) {
+                    from = loadProgress(source, target);
+                }
+                while (from.isBefore(target)) {
+                    LocalDateTime chunkStart = from;
+                    LocalDateTime chunkEnd = Granularity.DAY.floor(from).plusDays(1);
+                    LocalDateTime to = chunkEnd.isBefore(target) ? chunkEnd : target;
+                    rows += dbManager.executeWrite(DatabasePriority.BACKGROUND,
+                            connection -> rollup(connection, source, chunkStart, to)).get();
+                    setRolledUntil(source, to);
+                    from = to;
+                }
+            }
+            lastRunAt = LocalDateTime.now();
+            lastRunRows = rows;
+            lastRunMillis = (System.nanoTime() - start) / 1_000_000.0;
+            if (rows > 0) {
+                logger.debug("日志汇总完成，处理 {} 条日志，耗时 {} ms", rows, String.format("%.1f", lastRunMillis));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("日志汇总失败", e);
+        }
+    }
+
+    /**
+     * 读取汇总进度；没有进度时从最早一条日志所在的小时开始，没有日志时从 target 开始
+     */
+    private LocalDateTime loadProgress(Source source, LocalDateTime target) throws Exception {
+        LocalDateTime progress = dbManager.executeRead(DatabasePriority.BACKGROUND, connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "SELECT rolled_until FROM log_rollup_state WHERE source = ?")) {
+                pstmt.setString(1, source.name());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return parse(rs.getString(1));
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "SELECT strftime('" + HOUR_FORMAT + "', MIN(created_at)) FROM " + source.table);
+                 ResultSet rs = pstmt.executeQuery()) {
+                String earliest = rs.next() ? rs.getString(1) : null;
+                return earliest != null ? parse(earliest) : null;
+            }
+        }).get();
+        if (progress == null || progress.isAfter(target)) {
+            progress = target;
+        }
+        setRolledUntil(source, progress);
+        return progress;
+    }
+
+    /**
+     * 在一个写事务中汇总 [from, to) 内的小时并重算涉及的天，返回处理的日志条数
+     */
+    private long rollup(Connection connection, Source source, LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        long rows = 0;
+        replaceRange(connection, source, Granularity.HOUR, from, to);
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO log_rollup (source, granularity, bucket_start, type, count, error_count, "
+                + "total_execution_time, max_execution_time) SELECT ?, 'HOUR', * FROM ("
+                + source.aggregateSql(HOUR_FORMAT, false) + ")")) {
+            pstmt.setString(1, source.name());
+            pstmt.setString(2, format(from));
+            pstmt.setString(3, format(to));
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT COALESCE(SUM(count), 0) FROM log_rollup WHERE source = ? AND granularity = 'HOUR' "
+                + "AND bucket_start >= ? AND bucket_start < ?")) {
+            pstmt.setString(1, source.name());
+            pstmt.setString(2, format(from));
+            pstmt.setString(3, format(to));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rows = rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+
+        // 天汇总由该天的小时汇总重算，原始日志被清理后天汇总仍然完整
+        LocalDateTime dayFrom = Granularity.DAY.floor(from);
+        LocalDateTime dayTo = Granularity.DAY.ceil(to);
+        replaceRange(connection, source, Granularity.DAY, dayFrom, dayTo);
+        try (PreparedStatement pstmt = connection.prepareStatement("""
+                INSERT INTO log_rollup (source, granularity, bucket_start, type, count, error_count,
+                                        total_execution_time, max_execution_time)
+                SELECT source, 'DAY', strftime('%Y-%m-%d 00:00:00', bucket_start), type, SUM(count),
+                       SUM(error_count), SUM(total_execution_time), MAX(max_execution_time)
+                FROM log_rollup
+                WHERE source = ? AND granularity = 'HOUR' AND bucket_start >= ? AND bucket_start < ?
+                GROUP BY 3, type
+            """)) {
+            pstmt.setString(1, source.name());
+            pstmt.setString(2, format(dayFrom));
+            pstmt.setString(3, format(dayTo));
+            pstmt.executeUpdate();
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT OR REPLACE INTO log_rollup_state (source, rolled_until) VALUES (?, ?)")) {
+            pstmt.setString(1, source.name());
+            pstmt.setString(2, format(to));
+            pstmt.executeUpdate();
+        }
+        return rows;
+    }
+
+    private static void replaceRange(Connection connection, Source source, Granularity granularity,
+                                     LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "DELETE FROM log_rollup WHERE source = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ?")) {
+            pstmt.setString(1, source.name());
+            pstmt.setString(2, granularity.name());
+            pstmt.setString(3, format(from));
+            pstmt.setString(4, format(to));
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 已汇总到的时刻（不含），未启动或尚未读取进度时返回null
+     */
+    public LocalDateTime getRolledUntil(Source source) {
+        synchronized (rolledUntil) {
+            return rolledUntil.get(source);
+        }
+    }
+
+    private void setRolledUntil(Source source, LocalDateTime time) {
+        synchronized (rolledUntil) {
+            rolledUntil.put(source, time);
+        }
+    }
+
+    /**
+     * 按类型统计时间范围内的数量，已汇总的整点小时读取汇总表，其余部分扫描原始日志
+     * @param connection 日志库连接
+     * @param from 开始时间（含），null表示不限
+     * @param to 结束时间（不含），null表示不限
+     */
+    Map<String, Long> countByType(Connection connection, Source source, LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Bucket bucket : aggregate(connection, source, null, from, to, null)) {
+            counts.merge(bucket.getType(), bucket.getCount(), Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * 按时间段和类型聚合时间范围内的日志
+     * 整段落在已汇总区间内的时间段读取汇总表，其余时间段扫描原始日志（只扫描未汇总的部分）
+     * @param granularity 时间段粒度，null表示不分时间段（只按类型合计，时间段开始为null）
+     * @param from 开始时间（含），null表示不限
+     * @param to 结束时间（不含），null表示不限
+     * @param type 只统计该类型，null表示全部
+     */
+    List<Bucket> aggregate(Connection connection, Source source, Granularity granularity,
+                           LocalDateTime from, LocalDateTime to, String type) throws SQLException {
+        // 汇总表覆盖 [rollupFrom, rollupTo)，按所用粒度对齐
+        Granularity rollupGranularity = granularity != null ? granularity : Granularity.HOUR;
+        LocalDateTime rolled = getRolledUntil(source);
+        LocalDateTime rollupFrom = from != null ? rollupGranularity.ceil(from) : null;
+        LocalDateTime rollupTo = null;
+        if (rolled != null) {
+            rollupTo = rollupGranularity.floor(rolled);
+            if (to != null && to.isBefore(rollupTo)) {
+                rollupTo = rollupGranularity.floor(to);
+            }
+            if (rollupFrom != null && !rollupFrom.isBefore(rollupTo)) {
+                rollupTo = null;
+            }
+        }
+
+        Map<String, Bucket> buckets = new LinkedHashMap<>();
+        String bucketFormat = granularity != null ? granularity.format : HOUR_FORMAT;
+        if (rollupTo == null) {
+            scanRaw(connection, source, bucketFormat, from, to, type, granularity != null, buckets);
+        } else {
+            // 汇总区间之前和之后的原始日志
+            if (from != null && from.isBefore(rollupFrom)) {
+                scanRaw(connection, source, bucketFormat, from, rollupFrom, type, granularity != null, buckets);
+            }
+            readRollup(connection, source, rollupGranularity, rollupFrom, rollupTo, type, granularity != null, buckets);
+            if (to == null || rollupTo.isBefore(to)) {
+                scanRaw(connection, source, bucketFormat, rollupTo, to, type, granularity != null, buckets);
+            }
+        }
+        List<Bucket> result = new ArrayList<>(buckets.values());
+        result.sort((a, b) -> a.getStart() == null || b.getStart() == null ? 0 : a.getStart().compareTo(b.getStart()));
+        return result;
+    }
+
+    private void scanRaw(Connection connection, Source source, String bucketFormat, LocalDateTime from,
+                         LocalDateTime to, String type, boolean byBucket, Map<String, Bucket> buckets)
+            throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(source.aggregateSql(bucketFormat, type != null))) {
+            // 不限的一端使用覆盖所有时间的边界值
+            pstmt.setString(1, from != null ? format(from) : "0000-01-01 00:00:00");
+            pstmt.setString(2, to != null ? format(to) : "9999-12-31 23:59:59");
+            if (type != null) {
+                pstmt.setString(3, type);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                collect(rs, byBucket, buckets);
+            }
+        }
+    }
+
+    private void readRollup(Connection connection, Source source, Granularity granularity, LocalDateTime from,
+                            LocalDateTime to, String type, boolean byBucket, Map<String, Bucket> buckets)
+            throws SQLException {
+        String sql = """
+            SELECT bucket_start AS bucket, type, count, error_count, total_execution_time, max_execution_time
+            FROM log_rollup
+            WHERE source = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ?
+        """ + (type != null ? " AND type = ?" : "");
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, source.name());
+            pstmt.setString(2, granularity.name());
+            pstmt.setString(3, from != null ? format(from) : "0000-01-01 00:00:00");
+            pstmt.setString(4, format(to));
+            if (type != null) {
+                pstmt.setString(5, type);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                collect(rs, byBucket, buckets);
+            }
+        }
+    }
+
+    private static void collect(ResultSet rs, boolean byBucket, Map<String, Bucket> buckets) throws SQLException {
+        while (rs.next()) {
+            String bucketStart = byBucket ? rs.getString("bucket") : null;
+            String type = rs.getString("type");
+            Bucket bucket = buckets.computeIfAbsent(bucketStart + "|" + type,
+                    key -> new Bucket(bucketStart != null ? parse(bucketStart) : null, type));
+            bucket.merge(rs.getLong("count"), rs.getLong("error_count"), rs.getLong("total_execution_time"),
+                    rs.getLong("max_execution_time"));
+        }
+    }
+
+    private static String format(LocalDateTime time) {
+        return time.format(TIMESTAMP_FORMAT);
+    }
+
+    private static LocalDateTime parse(String text) {
+        return LocalDateTime.parse(text, TIMESTAMP_FORMAT);
+    }
+
+    /**
+     * 一行摘要，用于 /ca status
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (Source source : Source.values()) {
+            LocalDateTime progress = getRolledUntil(source);
+            summary.append(source.table).append(" 已汇总至 ").append(progress != null ? progress + " UTC" : "-").append("; ");
+        }
+        if (lastRunAt != null) {
+            summary.append(String.format("上次 %s 处理 %d 条, 耗时 %.1f ms", lastRunAt.withNano(0), lastRunRows,
+                    lastRunMillis));
+        } else {
+            summary.append("尚未执行");
+        }
+        return summary.toString();
+    }
+
+    /**
+     * 一个时间段内某个类型的聚合结果
+     */
+    public static class Bucket {
+        private final LocalDateTime start;
+        private final String type;
+        private long count;
+        private long errorCount;
+        private long totalExecutionTime;
+        private long maxExecutionTime;
+
+        Bucket(LocalDateTime start, String type) {
+            this.start = start;
+            this.type = type;
+        }
+
+        void merge(long count, long errorCount, long totalExecutionTime, long maxExecutionTime) {
+            this.count += count;
+            this.errorCount += errorCount;
+            this.totalExecutionTime += totalExecutionTime;
+            this.maxExecutionTime = Math.max(this.maxExecutionTime, maxExecutionTime);
+        }
+
+        /**
+         * 时间段开始（UTC），不分时间段时为null
+         */
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public double getAverageExecutionTime() {
+            return count > 0 ? (double) totalExecutionTime / count : 0;
+        }
+
+        public long getMaxExecutionTime() {
+            return maxExecutionTime;
+        }
+    }
+}
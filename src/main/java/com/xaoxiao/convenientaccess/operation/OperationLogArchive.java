@@ -0,0 +1,807 @@
+package com.xaoxiao.convenientaccess.operation;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.xaoxiao.convenientaccess.database.DatabaseManager;
+import com.xaoxiao.convenientaccess.database.DatabasePriority;
+
+/**
+ * 操作日志归档
+ * 定时把早于保留天数的操作日志按 (created_at, id) 顺序写入只追加的段文件，写完并落盘后再从数据库删除。
+ * 段文件由若干 Deflate 压缩块（每块 {@link #BLOCK_ROWS} 行）、块索引（偏移、行数、时间范围）和
+ * 目标UUID索引（UUID哈希 → 块号）组成，打开时只把索引读入内存，查询按时间范围和UUID从文件读取并解压可能命中的块。
+ * 段一经写入不再修改；删除数据库记录的条件与选取条件相同，中途崩溃后在下一轮重新执行删除
+ */
+final class OperationLogArchive {
+    private static final Logger logger = LoggerFactory.getLogger(OperationLogArchive.class);
+    private static final int MAGIC = 0x43415347; // "CASG"
+    private static final int FORMAT_VERSION = 1;
+    private static final int BLOCK_ROWS = 1024;
+    // 尾部：索引偏移、行数、最早/最晚时间、最后一行ID、归档截止时间、魔数、格式版本
+    private static final int FOOTER_SIZE = 8 * 6 + 4 + 4;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // 按 (created_at, id) 键集分页，每页一块
+    private static final String SELECT_SQL = """
+        SELECT * FROM operation_log
+        WHERE created_at < ? AND (created_at > ? OR (created_at = ? AND id > ?))
+        ORDER BY created_at ASC, id ASC
+        LIMIT ?
+    """;
+    // 与选取条件相同：截止时间之前、且不晚于段内最后一行的 (created_at, id)
+    private static final String DELETE_SQL = """
+        DELETE FROM operation_log
+        WHERE created_at < ? AND (created_at < ? OR (created_at = ? AND id <= ?))
+    """;
+
+    /**
+     * 归档查询的逐行回调，返回false时停止
+     */
+    @FunctionalInterface
+    interface RowVisitor {
+        boolean visit(OperationLog log) throws IOException;
+    }
+
+    /**
+     * 归档查询条件，与数据库查询的筛选条件含义相同（时间为UTC秒，包含两端）
+     */
+    static final class Query {
+        String operationType;
+        String targetUuid;
+        String targetName;
+        String operatorIp;
+        Long startSecond;
+        Long endSecond;
+        // 键集游标：只返回 (created_at, id) 小于该位置的行（仅用于降序）
+        Long afterSecond;
+        long afterId;
+
+        boolean matches(long second, long id, String type, String uuid, String name, String ip) {
+            if (startSecond != null && second < startSecond) {
+                return false;
+            }
+            if (endSecond != null && second > endSecond) {
+                return false;
+            }
+            if (afterSecond != null && (second > afterSecond || (second == afterSecond && id >= afterId))) {
+                return false;
+            }
+            return matchesText(operationType, type) && matchesText(targetUuid, uuid)
+                    && matchesText(targetName, name) && matchesText(operatorIp, ip);
+        }
+
+        boolean hasRowFilters() {
+            return !isEmpty(operationType) || !isEmpty(targetName) || !isEmpty(operatorIp) || !isEmpty(targetUuid)
+                    || afterSecond != null;
+        }
+
+        private static boolean matchesText(String filter, String value) {
+            return isEmpty(filter) || filter.equals(value);
+        }
+
+        private static boolean isEmpty(String value) {
+            return value == null || value.isEmpty();
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final LogRollupService rollups;
+    private final File directory;
+    private final int afterDays;
+    private final int segmentRows;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunRows;
+
+    /**
+     * @param rollups 日志汇总，归档不会越过其汇总进度，保证已归档的时间段都有汇总数据
+     * @param directory 段文件目录
+     * @param afterDays 早于该天数的日志被归档
+     * @param segmentRows 每个段文件最多包含的行数
+     */
+    OperationLogArchive(DatabaseManager dbManager, LogRollupService rollups, File directory, int afterDays,
+                        int segmentRows) {
+        this.dbManager = dbManager;
+        this.rollups = rollups;
+        this.directory = directory;
+        this.afterDays = Math.max(1, afterDays);
+        this.segmentRows = Math.max(BLOCK_ROWS, segmentRows);
+    }
+
+    /**
+     * 打开已有的段文件并启动定时归档
+     * @param intervalMinutes 归档间隔（分钟）
+     */
+    synchronized void start(int intervalMinutes) throws IOException {
+        if (scheduler != null) {
+            return;
+        }
+        openSegments();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ConvenientAccess-OperationLog-Archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runOnce, 1, Math.max(1, intervalMinutes), TimeUnit.MINUTES);
+        logger.info("操作日志归档已启动，归档 {} 天前的日志，已有 {} 个段文件", afterDays, segments.size());
+    }
+
+    /**
+     * 只打开已有的段文件供查询，不启动定时归档
+     */
+    synchronized void open() throws IOException {
+        if (segments.isEmpty()) {
+            openSegments();
+        }
+    }
+
+    /**
+     * 停止定时归档并关闭所有段文件
+     */
+    synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                // 等待正在进行的一轮归档结束，避免关闭后再打开新的段文件
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+        List<Segment> closing = new ArrayList<>(segments);
+        segments.clear();
+        for (Segment segment : closing) {
+            segment.close();
+        }
+    }
+
+    private void openSegments() throws IOException {
+        Files.createDirectories(directory.toPath());
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        List<Segment> opened = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().endsWith(".tmp")) {
+                // 上次写入中断的段，对应记录仍在数据库中
+                Files.deleteIfExists(file.toPath());
+            } else if (file.getName().endsWith(".seg")) {
+                try {
+                    opened.add(Segment.open(file));
+                } catch (IOException e) {
+                    logger.error("无法读取归档段文件 {}，已跳过", file.getName(), e);
+                }
+            }
+        }
+        segments.addAll(opened);
+    }
+
+    /**
+     * 执行一轮归档：先补做最新段的删除，再逐段写入截止时间之前的日志
+     */
+    void runOnce() {
+        long rows = 0;
+        try {
+            LocalDateTime cutoffTime = LocalDateTime.now(ZoneOffset.UTC).minusDays(afterDays);
+            LocalDateTime rolledUntil = rollups.getRolledUntil(LogRollupService.Source.OPERATION);
+            if (rolledUntil != null && rolledUntil.isBefore(cutoffTime)) {
+                cutoffTime = rolledUntil;
+            }
+            String cutoff = cutoffTime.format(TIMESTAMP_FORMAT);
+            if (!segments.isEmpty()) {
+                deleteArchived(segments.get(segments.size() - 1));
+            }
+            while (true) {
+                Segment segment = writeSegment(cutoff);
+                if (segment == null) {
+                    break;
+                }
+                // 先删除再加入查询列表：查询可能短暂看不到这批日志，但不会重复返回
+                deleteArchived(segment);
+                segments.add(segment);
+                rows += segment.rowCount;
+                logger.info("已归档 {} 条操作日志到 {} ({} KB)", segment.rowCount, segment.file.getName(),
+                        segment.file.length() / 1024);
+                if (segment.rowCount < segmentRows) {
+                    break;
+                }
+            }
+            lastRunAt = LocalDateTime.now(ZoneOffset.UTC);
+            lastRunRows = rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("操作日志归档失败", e);
+        }
+    }
+
+    /**
+     * 在写线程上删除已写入段文件的记录（可重复执行）
+     */
+    private void deleteArchived(Segment segment) throws Exception {
+        String cutoff = formatSecond(segment.cutoffSecond);
+        String last = formatSecond(segment.maxSecond);
+        int deleted = dbManager.executeWrite(DatabasePriority.BACKGROUND, connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(DELETE_SQL)) {
+                pstmt.setString(1, cutoff);
+                pstmt.setString(2, last);
+                pstmt.setString(3, last);
+                pstmt.setLong(4, segment.lastId);
+                return pstmt.executeUpdate();
+            }
+        }).get();
+        if (deleted > 0) {
+            logger.debug("从数据库删除已归档的操作日志 {} 条", deleted);
+        }
+    }
+
+    /**
+     * 读取最多 segmentRows 条截止时间之前的日志写入新段文件，没有需要归档的日志时返回null
+     * 每次在读线程池上读取一块，读完即归还连接，压缩和写文件不占用数据库连接
+     */
+    private Segment writeSegment(String cutoff) throws Exception {
+        int sequence = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).sequence + 1;
+        File file = new File(directory, String.format("segment-%08d.seg", sequence));
+        File temp = new File(directory, file.getName() + ".tmp");
+        SegmentWriter writer = new SegmentWriter(temp);
+        try {
+            while (writer.rowCount < segmentRows) {
+                int limit = (int) Math.min(BLOCK_ROWS, segmentRows - writer.rowCount);
+                int read = dbManager.executeRead(DatabasePriority.BACKGROUND, connection -> {
+                    try (PreparedStatement pstmt = connection.prepareStatement(SELECT_SQL,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                        pstmt.setString(1, cutoff);
+                        pstmt.setString(2, writer.lastCreatedAt);
+                        pstmt.setString(3, writer.lastCreatedAt);
+                        pstmt.setLong(4, writer.lastId);
+                        pstmt.setInt(5, limit);
+                        int rows = 0;
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            while (rs.next()) {
+                                writer.add(rs);
+                                rows++;
+                            }
+                        }
+                        return rows;
+                    }
+                }).get();
+                writer.flushFullBlock();
+                if (read < limit) {
+                    break;
+                }
+            }
+            if (writer.rowCount == 0) {
+                writer.closeQuietly();
+                Files.deleteIfExists(temp.toPath());
+                return null;
+            }
+            writer.finish(parseSecond(cutoff));
+        } finally {
+            writer.closeQuietly();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        return Segment.open(file);
+    }
+
+    /**
+     * 归档中是否可能有开始时间之后的日志
+     */
+    boolean mayContain(LocalDateTime startTime) {
+        if (segments.isEmpty()) {
+            return false;
+        }
+        if (startTime == null) {
+            return true;
+        }
+        long start = startTime.toEpochSecond(ZoneOffset.UTC);
+        for (Segment segment : segments) {
+            if (segment.maxSecond >= start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按时间顺序遍历符合条件的归档日志
+     * @param descending true 时从新到旧（与数据库查询的默认顺序相同）
+     */
+    void scan(Query query, boolean descending, RowVisitor visitor) throws IOException {
+        List<Segment> ordered = new ArrayList<>(segments);
+        if (descending) {
+            Collections.reverse(ordered);
+        }
+        for (Segment segment : ordered) {
+            if (!segment.overlaps(query)) {
+                continue;
+            }
+            BitSet blocks = segment.candidateBlocks(query);
+            int count = segment.blockCount();
+            for (int i = 0; i < count; i++) {
+                int block = descending ? count - 1 - i : i;
+                if (!blocks.get(block)) {
+                    continue;
+                }
+                List<OperationLog> rows = segment.readBlock(block, query);
+                for (int r = 0; r < rows.size(); r++) {
+                    if (!visitor.visit(rows.get(descending ? rows.size() - 1 - r : r))) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 统计符合条件的归档日志；只按时间筛选时，完全落在范围内的块直接使用块行数而不解压
+     */
+    long count(Query query) throws IOException {
+        long total = 0;
+        for (Segment segment : segments) {
+            if (!segment.overlaps(query)) {
+                continue;
+            }
+            BitSet blocks = segment.candidateBlocks(query);
+            for (int block = blocks.nextSetBit(0); block >= 0; block = blocks.nextSetBit(block + 1)) {
+                if (!query.hasRowFilters() && segment.blockInside(block, query)) {
+                    total += segment.blockRows[block];
+                } else {
+                    total += segment.readBlock(block, query).size();
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 一行摘要，用于 /ca status
+     */
+    String summary() {
+        long rows = 0;
+        long bytes = 0;
+        for (Segment segment : segments) {
+            rows += segment.rowCount;
+            bytes += segment.file.length();
+        }
+        String summary = String.format("%d 个段, %d 条, %.2f MB", segments.size(), rows, bytes / 1048576.0);
+        if (!segments.isEmpty()) {
+            summary += ", 最早 " + formatSecond(segments.get(0).minSecond) + " UTC";
+        }
+        if (lastRunAt != null) {
+            summary += String.format("; 上次 %s UTC 归档 %d 条", lastRunAt.withNano(0), lastRunRows);
+        }
+        return summary;
+    }
+
+    private static long parseSecond(String text) {
+        return LocalDateTime.parse(text, TIMESTAMP_FORMAT).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static String formatSecond(long second) {
+        return LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC).format(TIMESTAMP_FORMAT);
+    }
+
+    /**
+     * 目标UUID的64位 FNV-1a 哈希，哈希冲突只会多解压一个块，命中行仍按原值比较
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 段文件写入：逐行编码到当前块，满一块时压缩写出，最后写入索引和尾部并落盘
+     */
+    static final class SegmentWriter {
+        private final FileOutputStream fileStream;
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream(256 * 1024);
+        private final DataOutputStream block = new DataOutputStream(blockBuffer);
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final List<long[]> blockMeta = new ArrayList<>();
+        private final List<long[]> uuidEntries = new ArrayList<>();
+        private final Set<Long> blockUuids = new HashSet<>();
+        private long offset;
+        private int blockRows;
+        private long blockMin = Long.MAX_VALUE;
+        private long blockMax = Long.MIN_VALUE;
+        private long rowCount;
+        private long lastId;
+        // 最后一行的 created_at 原文，作为下一页的键集起点
+        private String lastCreatedAt = "";
+
+        SegmentWriter(File file) throws IOException {
+            this.fileStream = new FileOutputStream(file);
+            this.out = new DataOutputStream(new BufferedOutputStream(fileStream, 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            offset = 8;
+        }
+
+        /**
+         * 编码一行到当前块（只写内存，在读线程上调用），满块后由 {@link #flushFullBlock()} 写出
+         */
+        void add(ResultSet rs) throws SQLException {
+            try {
+                encode(rs);
+            } catch (IOException e) {
+                // 块缓冲区是内存流，不会发生
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void encode(ResultSet rs) throws SQLException, IOException {
+            long id = rs.getLong("id");
+            String createdAt = rs.getString("created_at");
+            long second = parseSecond(createdAt);
+            String uuid = rs.getString("target_uuid");
+            block.writeLong(id);
+            block.writeLong(second);
+            writeString(block, rs.getString("operation_type"));
+            writeString(block, uuid);
+            writeString(block, rs.getString("target_name"));
+            writeString(block, rs.getString("operator_ip"));
+            writeString(block, rs.getString("operator_agent"));
+            writeString(block, rs.getString("request_data"));
+            int status = rs.getInt("response_status");
+            block.writeInt(rs.wasNull() ? Integer.MIN_VALUE : status);
+            long executionTime = rs.getLong("execution_time");
+            block.writeLong(rs.wasNull() ? Long.MIN_VALUE : executionTime);
+
+            if (uuid != null && blockUuids.add(hash(uuid))) {
+                uuidEntries.add(new long[] {hash(uuid), blockMeta.size()});
+            }
+            blockMin = Math.min(blockMin, second);
+            blockMax = Math.max(blockMax, second);
+            lastId = id;
+            lastCreatedAt = createdAt;
+            rowCount++;
+            blockRows++;
+        }
+
+        void flushFullBlock() throws IOException {
+            if (blockRows >= BLOCK_ROWS) {
+                flushBlock();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (blockRows == 0) {
+                return;
+            }
+            byte[] raw = blockBuffer.toByteArray();
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] chunk = new byte[64 * 1024];
+            long start = offset;
+            while (!deflater.finished()) {
+                int length = deflater.deflate(chunk);
+                out.write(chunk, 0, length);
+                offset += length;
+            }
+            blockMeta.add(new long[] {start, offset - start, raw.length, blockRows, blockMin, blockMax});
+            blockBuffer.reset();
+            blockUuids.clear();
+            blockRows = 0;
+            blockMin = Long.MAX_VALUE;
+            blockMax = Long.MIN_VALUE;
+        }
+
+        void finish(long cutoffSecond) throws IOException {
+            flushBlock();
+            long indexOffset = offset;
+            out.writeInt(blockMeta.size());
+            long minSecond = Long.MAX_VALUE;
+            long maxSecond = Long.MIN_VALUE;
+            for (long[] meta : blockMeta) {
+                out.writeLong(meta[0]);
+                out.writeInt((int) meta[1]);
+                out.writeInt((int) meta[2]);
+                out.writeInt((int) meta[3]);
+                out.writeLong(meta[4]);
+                out.writeLong(meta[5]);
+                minSecond = Math.min(minSecond, meta[4]);
+                maxSecond = Math.max(maxSecond, meta[5]);
+            }
+            uuidEntries.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            out.writeInt(uuidEntries.size());
+            for (long[] entry : uuidEntries) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+            }
+            out.writeLong(indexOffset);
+            out.writeLong(rowCount);
+            out.writeLong(minSecond);
+            out.writeLong(maxSecond);
+            out.writeLong(lastId);
+            out.writeLong(cutoffSecond);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.flush();
+            // 段文件落盘后才删除数据库记录
+            fileStream.getFD().sync();
+            out.close();
+            deflater.end();
+        }
+
+        void closeQuietly() {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // 已关闭或写入失败，临时文件在下次启动时删除
+            }
+            deflater.end();
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * 已打开的段文件，块索引和UUID索引读入内存，块按需从文件通道读取
+     * 不使用内存映射：映射在 JDK 中无法主动释放，停止归档后文件会一直被占用
+     */
+    static final class Segment {
+        private final File file;
+        private final int sequence;
+        private final FileChannel channel;
+        private final long rowCount;
+        private final long minSecond;
+        private final long maxSecond;
+        private final long lastId;
+        private final long cutoffSecond;
+        private final long[] blockOffset;
+        private final int[] blockLength;
+        private final int[] blockRawLength;
+        private final int[] blockRows;
+        private final long[] blockMin;
+        private final long[] blockMax;
+        private final long[] uuidHashes;
+        private final int[] uuidBlocks;
+
+        private Segment(File file, FileChannel channel) throws IOException {
+            this.file = file;
+            this.sequence = parseSequence(file.getName());
+            this.channel = channel;
+            long size = channel.size();
+            if (size < 8 + FOOTER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("不是有效的归档段文件");
+            }
+            ByteBuffer header = read(0, 8);
+            ByteBuffer footer = read(size - FOOTER_SIZE, FOOTER_SIZE);
+            if (header.getInt(0) != MAGIC || footer.getInt(FOOTER_SIZE - 8) != MAGIC) {
+                throw new IOException("不是有效的归档段文件");
+            }
+            if (footer.getInt(FOOTER_SIZE - 4) != FORMAT_VERSION) {
+                throw new IOException("不支持的归档段格式版本: " + footer.getInt(FOOTER_SIZE - 4));
+            }
+            long indexOffset = footer.getLong();
+            this.rowCount = footer.getLong();
+            this.minSecond = footer.getLong();
+            this.maxSecond = footer.getLong();
+            this.lastId = footer.getLong();
+            this.cutoffSecond = footer.getLong();
+
+            if (indexOffset < 8 || indexOffset > size - FOOTER_SIZE - 4) {
+                throw new IOException("归档段 " + file.getName() + " 的索引位置无效");
+            }
+            ByteBuffer index = read(indexOffset, (int) (size - FOOTER_SIZE - indexOffset));
+            int blocks = index.getInt();
+            blockOffset = new long[blocks];
+            blockLength = new int[blocks];
+            blockRawLength = new int[blocks];
+            blockRows = new int[blocks];
+            blockMin = new long[blocks];
+            blockMax = new long[blocks];
+            for (int i = 0; i < blocks; i++) {
+                blockOffset[i] = index.getLong();
+                blockLength[i] = index.getInt();
+                blockRawLength[i] = index.getInt();
+                blockRows[i] = index.getInt();
+                blockMin[i] = index.getLong();
+                blockMax[i] = index.getLong();
+            }
+            int entries = index.getInt();
+            uuidHashes = new long[entries];
+            uuidBlocks = new int[entries];
+            for (int i = 0; i < entries; i++) {
+                uuidHashes[i] = index.getLong();
+                uuidBlocks[i] = index.getInt();
+            }
+        }
+
+        private static int parseSequence(String fileName) throws IOException {
+            if (!fileName.matches("segment-\\d{1,9}\\.seg")) {
+                throw new IOException("无效的段文件名: " + fileName);
+            }
+            return Integer.parseInt(fileName.substring("segment-".length(), fileName.length() - ".seg".length()));
+        }
+
+        static Segment open(File file) throws IOException {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                return new Segment(file, channel);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * 从文件指定位置读取固定长度（位置读取，多个查询线程可以并发使用同一通道）
+         */
+        private ByteBuffer read(long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("归档段 " + file.getName() + " 已被截断");
+                }
+            }
+            return buffer.flip();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("关闭归档段文件 {} 失败", file.getName(), e);
+            }
+        }
+
+        int blockCount() {
+            return blockOffset.length;
+        }
+
+        boolean overlaps(Query query) {
+            return (query.startSecond == null || maxSecond >= query.startSecond)
+                    && (query.endSecond == null || minSecond <= query.endSecond)
+                    && (query.afterSecond == null || minSecond <= query.afterSecond);
+        }
+
+        boolean blockInside(int block, Query query) {
+            return (query.startSecond == null || blockMin[block] >= query.startSecond)
+                    && (query.endSecond == null || blockMax[block] <= query.endSecond);
+        }
+
+        /**
+         * 时间范围和目标UUID可能命中的块
+         */
+        BitSet candidateBlocks(Query query) {
+            BitSet blocks = new BitSet(blockCount());
+            if (query.targetUuid != null && !query.targetUuid.isEmpty()) {
+                long target = hash(query.targetUuid);
+                int i = Arrays.binarySearch(uuidHashes, target);
+                if (i < 0) {
+                    return blocks;
+                }
+                while (i > 0 && uuidHashes[i - 1] == target) {
+                    i--;
+                }
+                for (; i < uuidHashes.length && uuidHashes[i] == target; i++) {
+                    blocks.set(uuidBlocks[i]);
+                }
+            } else {
+                blocks.set(0, blockCount());
+            }
+            for (int block = blocks.nextSetBit(0); block >= 0; block = blocks.nextSetBit(block + 1)) {
+                if ((query.startSecond != null && blockMax[block] < query.startSecond)
+                        || (query.endSecond != null && blockMin[block] > query.endSecond)
+                        || (query.afterSecond != null && blockMin[block] > query.afterSecond)) {
+                    blocks.clear(block);
+                }
+            }
+            return blocks;
+        }
+
+        /**
+         * 解压一个块并返回其中符合条件的行（按时间升序）
+         */
+        List<OperationLog> readBlock(int block, Query query) throws IOException {
+            byte[] raw = new byte[blockRawLength[block]];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(read(blockOffset[block], blockLength[block]));
+                int read = 0;
+                while (read < raw.length && !inflater.finished()) {
+                    int n = inflater.inflate(raw, read, raw.length - read);
+                    if (n == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    read += n;
+                }
+                if (read != raw.length) {
+                    throw new IOException("归档段 " + file.getName() + " 的第 " + block + " 块已损坏");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("归档段 " + file.getName() + " 的第 " + block + " 块已损坏", e);
+            } finally {
+                inflater.end();
+            }
+
+            ByteBuffer in = ByteBuffer.wrap(raw);
+            List<OperationLog> rows = new ArrayList<>();
+            for (int r = 0; r < blockRows[block]; r++) {
+                long id = in.getLong();
+                long second = in.getLong();
+                String type = readString(in);
+                String uuid = readString(in);
+                String name = readString(in);
+                String ip = readString(in);
+                String agent = readString(in);
+                String requestData = readString(in);
+                int status = in.getInt();
+                long executionTime = in.getLong();
+                if (!query.matches(second, id, type, uuid, name, ip)) {
+                    continue;
+                }
+                OperationLog log = new OperationLog(type, uuid, name, ip, agent, requestData,
+                        status == Integer.MIN_VALUE ? null : status,
+                        executionTime == Long.MIN_VALUE ? null : executionTime);
+                log.setId(id);
+                log.setCreatedAt(LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC));
+                rows.add(log);
+            }
+            return rows;
+        }
+
+        private static String readString(ByteBuffer in) {
+            int length = in.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
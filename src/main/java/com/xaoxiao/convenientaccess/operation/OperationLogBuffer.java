@@ -0,0 +1,260 @@
+package com.xaoxiao.convenientaccess.operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 操作日志环形缓冲区
+ * 调用方只把日志放入有界的内存环形缓冲区即返回，由后台写线程按批取出，在一个事务中批量插入；
+ * 缓冲区满时按 {@link OverflowPolicy} 处理。关闭时停止接收新日志，并把缓冲区中剩余的日志写完
+ */
+final class OperationLogBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(OperationLogBuffer.class);
+
+    /**
+     * 缓冲区满时的处理策略
+     */
+    enum OverflowPolicy {
+        /**
+         * 调用方等待空位，超过等待时间后丢弃新日志
+         */
+        BLOCK("block"),
+        /**
+         * 覆盖最旧的日志
+         */
+        DROP_OLDEST("drop-oldest"),
+        /**
+         * 缓冲区过半后只保留每 N 条中的1条，满时覆盖最旧的日志
+         */
+        SAMPLE("sample");
+
+        private final String configName;
+
+        OverflowPolicy(String configName) {
+            this.configName = configName;
+        }
+
+        static OverflowPolicy fromConfig(String name) {
+            for (OverflowPolicy policy : values()) {
+                if (policy.configName.equalsIgnoreCase(name)) {
+                    return policy;
+                }
+            }
+            logger.warn("未知的操作日志溢出策略: {}，使用 {}", name, DROP_OLDEST.configName);
+            return DROP_OLDEST;
+        }
+
+        String getConfigName() {
+            return configName;
+        }
+    }
+
+    /**
+     * 批量写入一批日志（在调用线程上同步完成，失败时抛出异常）
+     */
+    @FunctionalInterface
+    interface BatchWriter {
+        void write(List<OperationLog> batch) throws Exception;
+    }
+
+    private final OperationLog[] ring;
+    private final OverflowPolicy policy;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long blockTimeoutNanos;
+    private final int sampleRate;
+    private final BatchWriter writer;
+    private final Thread writerThread;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int head;
+    private int size;
+    private long sampleCounter;
+    private boolean closed;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    OperationLogBuffer(int capacity, OverflowPolicy policy, int batchSize, long flushIntervalMs, long blockTimeoutMs,
+                       int sampleRate, BatchWriter writer) {
+        this.ring = new OperationLog[Math.max(1, capacity)];
+        this.policy = policy;
+        this.batchSize = Math.max(1, Math.min(batchSize, ring.length));
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, blockTimeoutMs));
+        this.sampleRate = Math.max(1, sampleRate);
+        this.writer = writer;
+        this.writerThread = new Thread(this::runWriter, "ConvenientAccess-OperationLog-Writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * 放入一条日志
+     *
+     * @return 是否被接收（被丢弃或已关闭时返回false）
+     */
+    boolean offer(OperationLog log) {
+        lock.lock();
+        try {
+            if (closed) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            switch (policy) {
+                case BLOCK -> {
+                    long remaining = blockTimeoutNanos;
+                    while (size == ring.length && !closed && remaining > 0) {
+                        remaining = notFull.awaitNanos(remaining);
+                    }
+                    if (size == ring.length || closed) {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                }
+                case SAMPLE -> {
+                    if (size >= ring.length / 2 && sampleCounter++ % sampleRate != 0) {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                    evictOldestIfFull();
+                }
+                case DROP_OLDEST -> evictOldestIfFull();
+            }
+            ring[(head + size) % ring.length] = log;
+            size++;
+            accepted.incrementAndGet();
+            if (size == 1 || size == batchSize) {
+                notEmpty.signal();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictOldestIfFull() {
+        if (size == ring.length) {
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            List<OperationLog> batch = new ArrayList<>(batchSize);
+            lock.lock();
+            try {
+                while (size == 0 && !closed) {
+                    notEmpty.await();
+                }
+                if (size == 0) {
+                    return;
+                }
+                // 攒到一批或等到刷新间隔，关闭时立即写出
+                long remaining = flushIntervalNanos;
+                while (size < batchSize && !closed && remaining > 0) {
+                    remaining = notEmpty.awaitNanos(remaining);
+                }
+                while (size > 0 && batch.size() < batchSize) {
+                    batch.add(ring[head]);
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                    size--;
+                }
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                writer.write(batch);
+                flushed.addAndGet(batch.size());
+                batches.incrementAndGet();
+            } catch (Exception e) {
+                failed.addAndGet(batch.size());
+                logger.error("批量写入操作日志失败，丢弃 {} 条", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 停止接收新日志，等待缓冲区中剩余的日志写完
+     *
+     * @return 是否在超时前全部写完
+     */
+    boolean close(long timeoutMs) {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writerThread.join(Math.max(1, timeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+            logger.warn("操作日志缓冲区未能在 {} ms 内写完，剩余 {} 条被放弃", timeoutMs, getPending());
+            return false;
+        }
+        return true;
+    }
+
+    int getPending() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getAccepted() {
+        return accepted.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    long getFlushed() {
+        return flushed.get();
+    }
+
+    long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public String toString() {
+        long batchCount = batches.get();
+        return String.format("缓冲 %d/%d (%s), 接收 %d, 已写入 %d 条 / %d 批 (平均 %.1f 条/批), 丢弃 %d, 写入失败 %d",
+                getPending(), ring.length, policy.getConfigName(), accepted.get(), flushed.get(), batchCount,
+                batchCount > 0 ? (double) flushed.get() / batchCount : 0, dropped.get(), failed.get());
+    }
+}
@@ -1,27 +1,203 @@
 package com.xaoxiao.convenientaccess.operation;
 
-import java.sql.Connection;
+import java.io.File;
+import java.io.IOException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.xaoxiao.convenientaccess.database.DatabaseManager;
+import com.xaoxiao.convenientaccess.database.DatabasePriority;
 
 /**
  * 操作日志数据访问对象
+ * 启用异步写入后，{@link #logOperation} 只把日志放入内存缓冲区，由后台线程批量写入数据库；
+ * 写入成功的日志同时计入 {@link OperationLogStats} 的滚动计数；
+ * 按类型统计和时间线对已汇总的小时读取 {@link LogRollupService} 维护的汇总表；
+ * 启用归档后，早于保留天数的日志移入 {@link OperationLogArchive} 的段文件，查询、计数和导出自动包含归档部分
  */
 public class OperationLogDao {
     private static final Logger logger = LoggerFactory.getLogger(OperationLogDao.class);
+    private static final String INSERT_SQL = """
+        INSERT INTO operation_log 
+        (operation_type, target_uuid, target_name, operator_ip, operator_agent, 
+         request_data, response_status, execution_time, created_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+    // 与 SQLite CURRENT_TIMESTAMP 相同的格式（UTC）
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // 按分钟聚合最近7天的日志，用于补齐滚动计数
+    private static final String STATS_SEED_SQL = """
+        SELECT operation_type, CAST(strftime('%s', created_at) AS INTEGER) / 60 AS minute, COUNT(*) AS count
+        FROM operation_log
+        WHERE created_at >= ? AND created_at < ?
+        GROUP BY operation_type, minute
+    """;
+    // 导出时每页读取的行数，每页读完即归还连接
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    // 单页查询的最长等待时间（秒）
+    private static final long READ_TIMEOUT_SECONDS = 30;
+    
     private final DatabaseManager dbManager;
+    private final OperationLogStats stats = new OperationLogStats();
+    private final LogRollupService rollups;
+    private volatile OperationLogBuffer buffer;
+    private volatile OperationLogArchive archive;
     
     public OperationLogDao(DatabaseManager dbManager) {
         this.dbManager = dbManager;
+        this.rollups = new LogRollupService(dbManager);
+    }
+    
+    /**
+     * 启动后台日志汇总（操作日志和认证日志）
+     * @param intervalMinutes 汇总间隔（分钟），小于等于0时不启动，统计只读取原始日志
+     */
+    public void enableRollups(int intervalMinutes) {
+        rollups.start(intervalMinutes);
+    }
+    
+    /**
+     * 启用归档：定时把早于 afterDays 天的日志移入压缩段文件
+     * @param directory 段文件目录
+     * @param afterDays 归档天数，小于等于0时不启用
+     * @param intervalMinutes 归档间隔（分钟）
+     * @param segmentRows 每个段文件最多包含的行数
+     */
+    public void enableArchive(File directory, int afterDays, int intervalMinutes, int segmentRows) {
+        if (archive != null) {
+            return;
+        }
+        File[] existing = directory.listFiles((dir, name) -> name.endsWith(".seg"));
+        boolean hasSegments = existing != null && existing.length > 0;
+        if (afterDays <= 0 && !hasSegments) {
+            return;
+        }
+        OperationLogArchive created = new OperationLogArchive(dbManager, rollups, directory, afterDays,
+                segmentRows);
+        try {
+            if (afterDays > 0) {
+                created.start(intervalMinutes);
+            } else {
+                // 关闭归档后已有的段文件仍然可以查询，只是不再归档新的日志
+                created.open();
+                logger.info("操作日志归档未启用，已有 {} 个归档段文件仍可查询", existing.length);
+            }
+            archive = created;
+        } catch (IOException e) {
+            logger.error("操作日志归档启动失败，日志将保留在数据库中", e);
+        }
+    }
+    
+    /**
+     * 获取归档统计，未启用时返回null
+     */
+    public String getArchiveStats() {
+        OperationLogArchive current = archive;
+        return current != null ? current.summary() : null;
+    }
+    
+    /**
+     * 获取日志汇总
+     */
+    public LogRollupService getRollups() {
+        return rollups;
+    }
+    
+    /**
+     * 启用异步批量写入
+     * @param capacity 缓冲区容量，小于等于0时不启用（同步写入）
+     * @param overflowPolicy 缓冲区满时的策略：block / drop-oldest / sample
+     * @param batchSize 每个事务最多写入的条数
+     * @param flushIntervalMs 不足一批时最长等待时间(ms)
+     * @param blockTimeoutMs block 策略下调用方最长等待时间(ms)
+     * @param sampleRate sample 策略下缓冲区过半后每 N 条保留1条
+     */
+    public void enableAsyncWriter(int capacity, String overflowPolicy, int batchSize, long flushIntervalMs,
+                                  long blockTimeoutMs, int sampleRate) {
+        if (capacity <= 0 || buffer != null) {
+            return;
+        }
+        buffer = new OperationLogBuffer(capacity, OperationLogBuffer.OverflowPolicy.fromConfig(overflowPolicy),
+                batchSize, flushIntervalMs, blockTimeoutMs, sampleRate, this::writeBatch);
+        logger.info("操作日志异步写入已启用，缓冲区容量: {}, 溢出策略: {}", capacity, overflowPolicy);
+    }
+    
+    /**
+     * 在后台读线程上用一次聚合查询补齐滚动计数
+     * 只读取计数器创建之前的日志，之后写入的日志由写入路径计入，两者不重叠
+     */
+    public CompletableFuture<Void> initializeStats() {
+        long cutoff = stats.getCreatedAt();
+        LocalDateTime end = LocalDateTime.ofEpochSecond(Math.floorDiv(cutoff, 1000L), 0, ZoneOffset.UTC);
+        LocalDateTime start = end.minusDays(7);
+        return dbManager.executeRead(DatabasePriority.BACKGROUND, connection -> {
+            long rows = 0;
+            try (PreparedStatement pstmt = connection.prepareStatement(STATS_SEED_SQL)) {
+                pstmt.setString(1, start.format(TIMESTAMP_FORMAT));
+                pstmt.setString(2, end.format(TIMESTAMP_FORMAT));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        long count = rs.getLong("count");
+                        stats.add(rs.getString("operation_type"), rs.getLong("minute") * 60_000L, count);
+                        rows += count;
+                    }
+                }
+            }
+            return rows;
+        }).thenAccept(rows -> {
+            stats.markSeeded();
+            logger.info("操作日志滚动统计已加载，最近7天共 {} 条", rows);
+        }).exceptionally(throwable -> {
+            logger.error("加载操作日志滚动统计失败", throwable);
+            return null;
+        });
+    }
+    
+    /**
+     * 获取滚动计数
+     */
+    public OperationLogStats getStats() {
+        return stats;
+    }
+    
+    /**
+     * 获取异步写入统计，未启用时返回null
+     */
+    public String getAsyncWriterStats() {
+        OperationLogBuffer current = buffer;
+        return current != null ? current.toString() : null;
+    }
+    
+    /**
+     * 停止异步写入并把缓冲区中的日志写完
+     */
+    public void shutdown() {
+        rollups.stop();
+        if (archive != null) {
+            archive.stop();
+        }
+        OperationLogBuffer current = buffer;
+        if (current != null) {
+            current.close(10000);
+            logger.info("操作日志缓冲区已关闭: {}", current);
+        }
     }
     
     /**
@@ -34,38 +210,76 @@ public class OperationLogDao {
      * @param requestData 请求数据(JSON格式)
      * @param responseStatus 响应状态码
      * @param executionTime 执行时间(ms)
-     * @return 是否记录成功
+     * @return 是否记录成功（异步写入时表示是否已放入缓冲区）
      */
     public boolean logOperation(String operationType, String targetUuid, String targetName,
                                String operatorIp, String operatorAgent, String requestData,
                                int responseStatus, long executionTime) {
-        String sql = """
-            INSERT INTO operation_log 
-            (operation_type, target_uuid, target_name, operator_ip, operator_agent, 
-             request_data, response_status, execution_time)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-        """;
+        OperationLog log = new OperationLog(operationType, targetUuid, targetName, operatorIp, operatorAgent,
+                requestData, responseStatus, executionTime);
+        // 记录调用时刻，而不是写入数据库的时刻
+        log.setCreatedAt(LocalDateTime.now(ZoneOffset.UTC));
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, operationType);
-            pstmt.setString(2, targetUuid);
-            pstmt.setString(3, targetName);
-            pstmt.setString(4, operatorIp);
-            pstmt.setString(5, operatorAgent);
-            pstmt.setString(6, requestData);
-            pstmt.setInt(7, responseStatus);
-            pstmt.setLong(8, executionTime);
-            
-            int affected = pstmt.executeUpdate();
+        OperationLogBuffer current = buffer;
+        if (current != null) {
+            return current.offer(log);
+        }
+        
+        try {
+            int affected = dbManager.executeWrite(DatabasePriority.INTERACTIVE, connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(INSERT_SQL)) {
+                    bindInsert(pstmt, log);
+                    return pstmt.executeUpdate();
+                }
+            }).get();
+            if (affected > 0) {
+                recordStats(log);
+            }
             return affected > 0;
-        } catch (SQLException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
             logger.error("记录操作日志失败: {}", e.getMessage(), e);
             return false;
         }
     }
     
+    /**
+     * 在写线程上用一个事务批量插入（由缓冲区的后台线程调用，等待提交完成）
+     */
+    private void writeBatch(List<OperationLog> batch) throws Exception {
+        dbManager.executeWrite(DatabasePriority.BACKGROUND, connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(INSERT_SQL)) {
+                for (OperationLog log : batch) {
+                    bindInsert(pstmt, log);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            return null;
+        }).get();
+        for (OperationLog log : batch) {
+            recordStats(log);
+        }
+    }
+    
+    private void recordStats(OperationLog log) {
+        stats.record(log.getOperationType(), log.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+    
+    private void bindInsert(PreparedStatement pstmt, OperationLog log) throws SQLException {
+        pstmt.setString(1, log.getOperationType());
+        pstmt.setString(2, log.getTargetUuid());
+        pstmt.setString(3, log.getTargetName());
+        pstmt.setString(4, log.getOperatorIp());
+        pstmt.setString(5, log.getOperatorAgent());
+        pstmt.setString(6, log.getRequestData());
+        pstmt.setInt(7, log.getResponseStatus());
+        pstmt.setLong(8, log.getExecutionTime());
+        pstmt.setString(9, log.getCreatedAt().format(TIMESTAMP_FORMAT));
+    }
+    
     /**
      * 查询操作日志
      * @param operationType 操作类型(可选)
@@ -81,78 +295,234 @@ public class OperationLogDao {
     public List<OperationLog> queryLogs(String operationType, String targetUuid, String targetName, String operatorIp,
                                        LocalDateTime startTime, LocalDateTime endTime,
                                        int limit, int offset) {
-        List<OperationLog> logs = new ArrayList<>();
         StringBuilder sql = new StringBuilder("SELECT * FROM operation_log WHERE 1=1");
         List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, operationType, targetUuid, targetName, operatorIp, startTime, endTime);
         
-        if (operationType != null && !operationType.isEmpty()) {
-            sql.append(" AND operation_type = ?");
-            params.add(operationType);
-        }
-        
-        if (targetUuid != null && !targetUuid.isEmpty()) {
-            sql.append(" AND target_uuid = ?");
-            params.add(targetUuid);
-        }
-        
-        if (targetName != null && !targetName.isEmpty()) {
-            sql.append(" AND target_name = ?");
-            params.add(targetName);
-        }
-        
-        if (operatorIp != null && !operatorIp.isEmpty()) {
-            sql.append(" AND operator_ip = ?");
-            params.add(operatorIp);
-        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?");
+        params.add(limit);
+        params.add(offset);
         
-        if (startTime != null) {
-            sql.append(" AND created_at >= ?");
-            params.add(java.sql.Timestamp.valueOf(startTime));
+        List<OperationLog> logs = executeQuery(sql.toString(), params);
+        OperationLogArchive current = archive;
+        if (current != null && logs.size() < limit && current.mayContain(startTime)) {
+            // 归档日志都早于数据库中的日志，降序排在数据库结果之后；本页未取满说明已越过数据库部分
+            long databaseMatches = !logs.isEmpty() ? offset + logs.size() : offset > 0
+                    ? countDatabase(operationType, targetUuid, targetName, operatorIp, startTime, endTime) : 0;
+            appendArchived(current, archiveQuery(operationType, targetUuid, targetName, operatorIp, startTime, endTime),
+                    Math.max(0, offset - databaseMatches), limit, logs);
         }
+        return logs;
+    }
+    
+    /**
+     * 按游标查询操作日志（键集分页）
+     * 从上一页最后一条记录之后继续读取，不使用 OFFSET，深翻页的成本与第一页相同
+     * @param operationType 操作类型(可选)
+     * @param targetUuid 目标UUID(可选)
+     * @param targetName 目标名称(可选)
+     * @param operatorIp 操作者IP(可选)
+     * @param startTime 开始时间(可选)
+     * @param endTime 结束时间(可选)
+     * @param afterCreatedAt 上一页最后一条记录的创建时间（数据库原始文本，null表示从第一页开始）
+     * @param afterId 上一页最后一条记录的ID
+     * @param limit 查询数量限制
+     * @return 操作日志列表
+     */
+    public List<OperationLog> queryLogsAfter(String operationType, String targetUuid, String targetName, String operatorIp,
+                                            LocalDateTime startTime, LocalDateTime endTime,
+                                            String afterCreatedAt, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM operation_log WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, operationType, targetUuid, targetName, operatorIp, startTime, endTime);
         
-        if (endTime != null) {
-            sql.append(" AND created_at <= ?");
-            params.add(java.sql.Timestamp.valueOf(endTime));
+        if (afterCreatedAt != null) {
+            sql.append(" AND (created_at < ? OR (created_at = ? AND id < ?))");
+            params.add(afterCreatedAt);
+            params.add(afterCreatedAt);
+            params.add(afterId);
         }
         
-        sql.append(" ORDER BY created_at DESC LIMIT ? OFFSET ?");
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
         params.add(limit);
-        params.add(offset);
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-            
-            for (int i = 0; i < params.size(); i++) {
-                pstmt.setObject(i + 1, params.get(i));
-            }
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    logs.add(mapResultSetToLog(rs));
+        List<OperationLog> logs = executeQuery(sql.toString(), params);
+        OperationLogArchive current = archive;
+        if (current != null && logs.size() < limit && current.mayContain(startTime)) {
+            OperationLogArchive.Query query = archiveQuery(operationType, targetUuid, targetName, operatorIp,
+                    startTime, endTime);
+            if (logs.isEmpty() && afterCreatedAt != null) {
+                // 游标已经进入归档部分
+                try {
+                    query.afterSecond = LocalDateTime.parse(afterCreatedAt, TIMESTAMP_FORMAT)
+                            .toEpochSecond(ZoneOffset.UTC);
+                    query.afterId = afterId;
+                } catch (DateTimeParseException e) {
+                    return logs;
                 }
             }
-        } catch (SQLException e) {
-            logger.error("查询操作日志失败: {}", e.getMessage(), e);
+            appendArchived(current, query, 0, limit, logs);
         }
-        
         return logs;
     }
     
     /**
-     * 统计操作日志数量
+     * 从归档中跳过 skip 条后补足到 limit 条（按时间降序）
+     */
+    private void appendArchived(OperationLogArchive current, OperationLogArchive.Query query, long skip, int limit,
+                                List<OperationLog> logs) {
+        long[] skipped = {0};
+        try {
+            current.scan(query, true, log -> {
+                if (skipped[0] < skip) {
+                    skipped[0]++;
+                    return true;
+                }
+                logs.add(log);
+                return logs.size() < limit;
+            });
+        } catch (IOException e) {
+            logger.error("查询归档操作日志失败: {}", e.getMessage(), e);
+        }
+    }
+    
+    private static OperationLogArchive.Query archiveQuery(String operationType, String targetUuid, String targetName,
+                                                          String operatorIp, LocalDateTime startTime,
+                                                          LocalDateTime endTime) {
+        OperationLogArchive.Query query = new OperationLogArchive.Query();
+        query.operationType = operationType;
+        query.targetUuid = targetUuid;
+        query.targetName = targetName;
+        query.operatorIp = operatorIp;
+        query.startSecond = startTime != null ? startTime.toEpochSecond(ZoneOffset.UTC) : null;
+        query.endSecond = endTime != null ? endTime.toEpochSecond(ZoneOffset.UTC) : null;
+        return query;
+    }
+    
+    /**
+     * 逐行读取的日志处理器
+     */
+    @FunctionalInterface
+    public interface LogConsumer {
+        void accept(OperationLog log) throws IOException;
+    }
+    
+    /**
+     * 流式导出操作日志
+     * 按 (created_at, id) 键集分页，每页在读线程池上读取后立即归还连接，再逐条交给处理器，
+     * 内存占用只与页大小有关；客户端下载缓慢时不占用连接，也不会让长时间的读事务阻止WAL检查点。
+     * 各页分别读取，导出期间新写入的日志在升序导出时可能出现在末尾。
+     * 处理器抛出异常（如客户端断开）时立即停止读取。
+     * 启用归档时包含归档部分（降序时排在数据库结果之后，升序时排在之前）
      * @param operationType 操作类型(可选)
      * @param targetUuid 目标UUID(可选)
      * @param targetName 目标名称(可选)
      * @param operatorIp 操作者IP(可选)
      * @param startTime 开始时间(可选)
      * @param endTime 结束时间(可选)
-     * @return 日志总数
+     * @param ascending 是否按时间升序，否则与 {@link #queryLogs} 相同按时间降序
+     * @param consumer 行处理器
+     * @return 导出的行数
      */
-    public long countLogs(String operationType, String targetUuid, String targetName, String operatorIp,
-                         LocalDateTime startTime, LocalDateTime endTime) {
-        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM operation_log WHERE 1=1");
-        List<Object> params = new ArrayList<>();
-        
+    public long exportLogs(String operationType, String targetUuid, String targetName, String operatorIp,
+                           LocalDateTime startTime, LocalDateTime endTime, boolean ascending,
+                           LogConsumer consumer) throws SQLException, IOException {
+        OperationLogArchive current = archive;
+        boolean withArchive = current != null && current.mayContain(startTime);
+        OperationLogArchive.Query query = archiveQuery(operationType, targetUuid, targetName, operatorIp,
+                startTime, endTime);
+        long[] archived = {0};
+        OperationLogArchive.RowVisitor visitor = log -> {
+            consumer.accept(log);
+            archived[0]++;
+            return true;
+        };
+        if (withArchive && ascending) {
+            current.scan(query, false, visitor);
+        }
+        long rows = exportDatabase(operationType, targetUuid, targetName, operatorIp, startTime, endTime,
+                ascending, consumer);
+        if (withArchive && !ascending) {
+            current.scan(query, true, visitor);
+        }
+        return rows + archived[0];
+    }
+    
+    private long exportDatabase(String operationType, String targetUuid, String targetName, String operatorIp,
+                                LocalDateTime startTime, LocalDateTime endTime, boolean ascending,
+                                LogConsumer consumer) throws SQLException, IOException {
+        long rows = 0;
+        String afterCreatedAt = null;
+        long afterId = 0;
+        while (true) {
+            StringBuilder sql = new StringBuilder("SELECT * FROM operation_log WHERE 1=1");
+            List<Object> params = new ArrayList<>();
+            appendFilters(sql, params, operationType, targetUuid, targetName, operatorIp, startTime, endTime);
+            if (afterCreatedAt != null) {
+                sql.append(ascending
+                        ? " AND (created_at > ? OR (created_at = ? AND id > ?))"
+                        : " AND (created_at < ? OR (created_at = ? AND id < ?))");
+                params.add(afterCreatedAt);
+                params.add(afterCreatedAt);
+                params.add(afterId);
+            }
+            sql.append(ascending ? " ORDER BY created_at ASC, id ASC" : " ORDER BY created_at DESC, id DESC");
+            sql.append(" LIMIT ?");
+            params.add(EXPORT_PAGE_SIZE);
+            
+            List<OperationLog> page = readLogs(sql.toString(), params);
+            for (OperationLog log : page) {
+                consumer.accept(log);
+            }
+            rows += page.size();
+            if (page.size() < EXPORT_PAGE_SIZE) {
+                return rows;
+            }
+            OperationLog last = page.get(page.size() - 1);
+            afterCreatedAt = last.getCreatedAt().format(TIMESTAMP_FORMAT);
+            afterId = last.getId();
+        }
+    }
+    
+    /**
+     * 在读线程池上执行日志查询并等待结果
+     */
+    private List<OperationLog> readLogs(String sql, List<Object> params) throws SQLException {
+        return read(conn -> {
+            List<OperationLog> logs = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.size(); i++) {
+                    pstmt.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        logs.add(mapResultSetToLog(rs));
+                    }
+                }
+            }
+            return logs;
+        });
+    }
+    
+    /**
+     * 在读线程池上执行只读操作并等待结果，失败或超时统一转换为 SQLException
+     */
+    private <T> T read(DatabaseManager.DatabaseOperation<T> operation) throws SQLException {
+        try {
+            return dbManager.executeRead(operation).get(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("查询操作日志被中断", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("查询操作日志失败", e.getCause());
+        } catch (TimeoutException e) {
+            throw new SQLException("查询操作日志超时（" + READ_TIMEOUT_SECONDS + " 秒）", e);
+        }
+    }
+    
+    private void appendFilters(StringBuilder sql, List<Object> params,
+                               String operationType, String targetUuid, String targetName, String operatorIp,
+                               LocalDateTime startTime, LocalDateTime endTime) {
         if (operationType != null && !operationType.isEmpty()) {
             sql.append(" AND operation_type = ?");
             params.add(operationType);
@@ -173,34 +543,119 @@ public class OperationLogDao {
             params.add(operatorIp);
         }
         
+        // created_at 以文本保存，按相同格式的文本比较
         if (startTime != null) {
             sql.append(" AND created_at >= ?");
-            params.add(java.sql.Timestamp.valueOf(startTime));
+            params.add(startTime.format(TIMESTAMP_FORMAT));
         }
         
         if (endTime != null) {
             sql.append(" AND created_at <= ?");
-            params.add(java.sql.Timestamp.valueOf(endTime));
+            params.add(endTime.format(TIMESTAMP_FORMAT));
         }
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-            
-            for (int i = 0; i < params.size(); i++) {
-                pstmt.setObject(i + 1, params.get(i));
-            }
-            
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getLong(1);
+    }
+    
+    private List<OperationLog> executeQuery(String sql, List<Object> params) {
+        try {
+            return readLogs(sql, params);
+        } catch (SQLException e) {
+            logger.error("查询操作日志失败: {}", e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * 统计操作日志数量
+     * @param operationType 操作类型(可选)
+     * @param targetUuid 目标UUID(可选)
+     * @param targetName 目标名称(可选)
+     * @param operatorIp 操作者IP(可选)
+     * @param startTime 开始时间(可选)
+     * @param endTime 结束时间(可选)
+     * @return 日志总数（包含归档部分）
+     */
+    public long countLogs(String operationType, String targetUuid, String targetName, String operatorIp,
+                         LocalDateTime startTime, LocalDateTime endTime) {
+        long count = countDatabase(operationType, targetUuid, targetName, operatorIp, startTime, endTime);
+        OperationLogArchive current = archive;
+        if (current != null && current.mayContain(startTime)) {
+            try {
+                count += current.count(archiveQuery(operationType, targetUuid, targetName, operatorIp,
+                        startTime, endTime));
+            } catch (IOException e) {
+                logger.error("统计归档操作日志失败: {}", e.getMessage(), e);
             }
-            return 0;
+        }
+        return count;
+    }
+    
+    private long countDatabase(String operationType, String targetUuid, String targetName, String operatorIp,
+                               LocalDateTime startTime, LocalDateTime endTime) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM operation_log WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, operationType, targetUuid, targetName, operatorIp, startTime, endTime);
+        
+        try {
+            return read(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < params.size(); i++) {
+                        pstmt.setObject(i + 1, params.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        return rs.next() ? rs.getLong(1) : 0L;
+                    }
+                }
+            });
         } catch (SQLException e) {
             logger.error("统计操作日志失败: {}", e.getMessage(), e);
             return 0;
         }
     }
     
+    /**
+     * 按操作类型统计日志数量
+     * 已汇总的整点小时读取汇总表，其余部分用一次 GROUP BY 扫描原始日志
+     * @param startTime 开始时间(可选)
+     * @param endTime 结束时间(可选，包含)
+     * @return 操作类型到数量的映射，没有日志的类型不包含在内
+     */
+    public Map<String, Long> countByType(LocalDateTime startTime, LocalDateTime endTime) {
+        try {
+            return read(conn -> rollups.countByType(conn, LogRollupService.Source.OPERATION, startTime,
+                    exclusiveEnd(endTime)));
+        } catch (SQLException e) {
+            logger.error("统计操作日志失败: {}", e.getMessage(), e);
+            return new LinkedHashMap<>();
+        }
+    }
+    
+    /**
+     * 按时间段和类型聚合日志（数量、错误数、平均和最大执行时间）
+     * @param source 操作日志或认证日志
+     * @param granularity 时间段粒度（小时/天）
+     * @param startTime 开始时间
+     * @param endTime 结束时间（包含）
+     * @param type 类型(可选)
+     * @return 按时间段排序的聚合结果，没有日志的时间段不包含在内
+     */
+    public List<LogRollupService.Bucket> queryTimeline(LogRollupService.Source source,
+                                                       LogRollupService.Granularity granularity,
+                                                       LocalDateTime startTime, LocalDateTime endTime, String type) {
+        try {
+            return read(conn -> rollups.aggregate(conn, source, granularity, startTime, exclusiveEnd(endTime), type));
+        } catch (SQLException e) {
+            logger.error("查询日志时间线失败: {}", e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * 包含的结束时间转换为不包含的结束时间（created_at 精确到秒）
+     */
+    private static LocalDateTime exclusiveEnd(LocalDateTime endTime) {
+        return endTime != null ? endTime.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1) : null;
+    }
+    
     /**
      * 清理旧的操作日志
      * @param daysToKeep 保留天数
@@ -209,18 +664,23 @@ public class OperationLogDao {
     public int cleanOldLogs(int daysToKeep) {
         String sql = "DELETE FROM operation_log WHERE created_at < datetime('now', '-' || ? || ' days')";
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, daysToKeep);
-            int affected = pstmt.executeUpdate();
+        try {
+            int affected = dbManager.executeWrite(DatabasePriority.BACKGROUND, conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, daysToKeep);
+                    return pstmt.executeUpdate();
+                }
+            }).get();
             
             if (affected > 0) {
                 logger.info("清理了 {} 条旧操作日志(保留{}天)", affected, daysToKeep);
             }
             
             return affected;
-        } catch (SQLException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
             logger.error("清理旧操作日志失败: {}", e.getMessage(), e);
             return 0;
         }
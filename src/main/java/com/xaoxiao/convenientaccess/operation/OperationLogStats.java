@@ -0,0 +1,178 @@
+package com.xaoxiao.convenientaccess.operation;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 操作日志滚动计数
+ * 按分钟（最近60分钟）、小时（最近24小时）、天（最近7天）三级分桶，按操作类型计数，
+ * 由日志写入成功后更新，启动时用一次聚合查询补齐历史；最近一小时/一天/一周的统计直接从内存返回，无需查询数据库。
+ * 时间按UTC对齐到桶边界，窗口包含当前未满的桶，精度为对应的桶宽
+ */
+public class OperationLogStats {
+    static final String[] TYPES = {
+        "ADD", "REMOVE", "QUERY", "BATCH_ADD", "BATCH_REMOVE", "SYNC", "UNAUTHORIZED_ACCESS"
+    };
+
+    /**
+     * 内存统计支持的时间窗口
+     */
+    public enum Window {
+        HOUR("hour", TimeUnit.HOURS.toMillis(1)),
+        DAY("day", TimeUnit.DAYS.toMillis(1)),
+        WEEK("week", TimeUnit.DAYS.toMillis(7));
+
+        private final String name;
+        private final long millis;
+
+        Window(String name, long millis) {
+            this.name = name;
+            this.millis = millis;
+        }
+
+        /**
+         * 按名称查找，未知名称返回null
+         */
+        public static Window fromName(String name) {
+            for (Window window : values()) {
+                if (window.name.equalsIgnoreCase(name)) {
+                    return window;
+                }
+            }
+            return null;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    private final RollingCounter minutes = new RollingCounter(60, TimeUnit.MINUTES.toMillis(1));
+    private final RollingCounter hours = new RollingCounter(24, TimeUnit.HOURS.toMillis(1));
+    private final RollingCounter days = new RollingCounter(7, TimeUnit.DAYS.toMillis(1));
+    private final long createdAt = System.currentTimeMillis();
+    private volatile boolean seeded;
+
+    /**
+     * 记录一条已写入数据库的日志
+     *
+     * @param epochMillis 日志的创建时间
+     */
+    void record(String operationType, long epochMillis) {
+        add(operationType, epochMillis, 1);
+    }
+
+    /**
+     * 累加历史计数（启动时从数据库补齐）
+     */
+    void add(String operationType, long epochMillis, long count) {
+        int type = typeIndex(operationType);
+        if (type < 0) {
+            return;
+        }
+        minutes.add(type, epochMillis, count);
+        hours.add(type, epochMillis, count);
+        days.add(type, epochMillis, count);
+    }
+
+    void markSeeded() {
+        seeded = true;
+    }
+
+    /**
+     * 历史计数是否已补齐，补齐前内存统计只包含本次启动后写入的日志
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * 开始计数的时刻，早于该时刻的日志由启动时的聚合查询补齐
+     */
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * 时间窗口内各操作类型的数量（只包含数量大于0的类型）
+     */
+    public Map<String, Long> count(Window window) {
+        return count(window, System.currentTimeMillis());
+    }
+
+    Map<String, Long> count(Window window, long now) {
+        long[] totals = switch (window) {
+            case HOUR -> minutes.sum(now);
+            case DAY -> hours.sum(now);
+            case WEEK -> days.sum(now);
+        };
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < TYPES.length; i++) {
+            if (totals[i] > 0) {
+                counts.put(TYPES[i], totals[i]);
+            }
+        }
+        return counts;
+    }
+
+    private static int typeIndex(String operationType) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(operationType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 固定数量的时间桶，桶按序号取模复用，复用前清零
+     */
+    private static final class RollingCounter {
+        private final int bucketCount;
+        private final long bucketMillis;
+        private final long[] bucketIndex;
+        private final long[][] counts;
+
+        RollingCounter(int bucketCount, long bucketMillis) {
+            this.bucketCount = bucketCount;
+            this.bucketMillis = bucketMillis;
+            this.bucketIndex = new long[bucketCount];
+            this.counts = new long[bucketCount][TYPES.length];
+            Arrays.fill(bucketIndex, -1);
+        }
+
+        synchronized void add(int type, long epochMillis, long count) {
+            long index = epochMillis / bucketMillis;
+            int slot = (int) (index % bucketCount);
+            if (bucketIndex[slot] != index) {
+                if (bucketIndex[slot] > index) {
+                    // 比该槽位当前的桶更旧，已滚出窗口
+                    return;
+                }
+                bucketIndex[slot] = index;
+                Arrays.fill(counts[slot], 0);
+            }
+            counts[slot][type] += count;
+        }
+
+        synchronized long[] sum(long nowMillis) {
+            long current = nowMillis / bucketMillis;
+            long[] totals = new long[TYPES.length];
+            for (int slot = 0; slot < bucketCount; slot++) {
+                long index = bucketIndex[slot];
+                if (index > current - bucketCount && index <= current) {
+                    for (int type = 0; type < TYPES.length; type++) {
+                        totals[type] += counts[slot][type];
+                    }
+                }
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.xaoxiao.convenientaccess.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * 分页游标（键集分页）
+ * 记录上一页最后一行的排序列值和ID，下一页从该位置之后继续读取，
+ * 查询成本不随页码增长，也不需要 OFFSET 跳过前面的行。
+ * 对客户端不透明：编码为 Base64URL 的 JSON
+ */
+public final class PageCursor {
+    private final String sort;
+    private final boolean ascending;
+    // 排序列的值：字符串、整数（数据库中以毫秒存储的时间）或null
+    private final Object value;
+    private final long id;
+
+    public PageCursor(String sort, boolean ascending, Object value, long id) {
+        if (value != null && !(value instanceof String) && !(value instanceof Long)) {
+            throw new IllegalArgumentException("游标值只能是字符串或整数: " + value.getClass().getSimpleName());
+        }
+        this.sort = sort;
+        this.ascending = ascending;
+        this.value = value;
+        this.id = id;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        JsonObject json = new JsonObject();
+        json.addProperty("s", sort);
+        json.addProperty("d", ascending ? "asc" : "desc");
+        if (value instanceof Long) {
+            json.addProperty("v", (Long) value);
+        } else if (value != null) {
+            json.addProperty("v", (String) value);
+        }
+        json.addProperty("i", id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @throws IllegalArgumentException 游标格式无效
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            JsonObject object = JsonParser.parseString(json).getAsJsonObject();
+
+            Object value = null;
+            JsonElement element = object.get("v");
+            if (element != null && !element.isJsonNull()) {
+                JsonPrimitive primitive = element.getAsJsonPrimitive();
+                value = primitive.isNumber() ? (Object) primitive.getAsLong() : primitive.getAsString();
+            }
+            return new PageCursor(object.get("s").getAsString(), "asc".equals(object.get("d").getAsString()),
+                    value, object.get("i").getAsLong());
+        } catch (JsonParseException | IllegalStateException | NullPointerException | UnsupportedOperationException
+                 | IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+}
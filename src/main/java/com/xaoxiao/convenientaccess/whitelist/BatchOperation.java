@@ -145,6 +145,8 @@ public class BatchOperation {
         private final List<String> errors;
         private final List<String> successfulUuids;
         private final List<String> failedUuids;
+        // 整个事务执行失败（如数据库错误）时的错误信息，区别于逐条被拒绝的记录
+        private final String transactionError;
         
         public BatchResult(int totalRequested) {
             this.totalRequested = totalRequested;
@@ -153,16 +155,24 @@ public class BatchOperation {
             this.errors = new ArrayList<>();
             this.successfulUuids = new ArrayList<>();
             this.failedUuids = new ArrayList<>();
+            this.transactionError = null;
         }
         
         public BatchResult(int totalRequested, int successCount, int failureCount, 
                           List<String> errors, List<String> successfulUuids, List<String> failedUuids) {
+            this(totalRequested, successCount, failureCount, errors, successfulUuids, failedUuids, null);
+        }
+        
+        public BatchResult(int totalRequested, int successCount, int failureCount, 
+                          List<String> errors, List<String> successfulUuids, List<String> failedUuids,
+                          String transactionError) {
             this.totalRequested = totalRequested;
             this.successCount = successCount;
             this.failureCount = failureCount;
             this.errors = errors != null ? new ArrayList<>(errors) : new ArrayList<>();
             this.successfulUuids = successfulUuids != null ? new ArrayList<>(successfulUuids) : new ArrayList<>();
             this.failedUuids = failedUuids != null ? new ArrayList<>(failedUuids) : new ArrayList<>();
+            this.transactionError = transactionError;
         }
         
         public int getTotalRequested() {
@@ -189,6 +199,17 @@ public class BatchOperation {
             return failedUuids;
         }
         
+        /**
+         * 事务是否整体执行失败（没有任何记录写入）
+         */
+        public boolean isTransactionFailed() {
+            return transactionError != null;
+        }
+        
+        public String getTransactionError() {
+            return transactionError;
+        }
+        
         public boolean isCompleteSuccess() {
             return failureCount == 0 && successCount == totalRequested;
         }
@@ -0,0 +1,49 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+/**
+ * 缓存内存占用估算常量（64位JVM，开启压缩指针）
+ * 仅用于状态报告，数值为近似值
+ */
+final class MemoryEstimates {
+    /** 数组对象头（含长度字段） */
+    static final int ARRAY_HEADER = 16;
+    /** 压缩指针引用 */
+    static final int REFERENCE = 4;
+    /** ConcurrentHashMap.Node：对象头 + hash + key/val/next 三个引用 */
+    static final int CHM_NODE = 32;
+    /** String 对象本身（不含内部 byte[]） */
+    static final int STRING = 24;
+    /** UUID 字符串长度 */
+    static final int UUID_STRING_LENGTH = 36;
+
+    private MemoryEstimates() {
+    }
+
+    /**
+     * 估算旧实现（ConcurrentHashMap&lt;String, WhitelistEntry&gt;，UUID字符串为键，
+     * 仅按名称的条目使用 "name:" + 小写名 为键）的内存占用，不含条目对象本身
+     *
+     * @param uuidEntries 以UUID为键的条目数
+     * @param nameEntries 以名称为键的条目数
+     * @param averageNameLength 平均玩家名长度
+     */
+    static long legacyMapBytes(int uuidEntries, int nameEntries, int averageNameLength) {
+        int entries = uuidEntries + nameEntries;
+        // ConcurrentHashMap 在 0.75 负载因子下扩容，表长为2的幂
+        int table = 16;
+        while (table * 3L / 4 < entries) {
+            table <<= 1;
+        }
+
+        long tableBytes = ARRAY_HEADER + (long) table * REFERENCE;
+        long nodeBytes = (long) entries * CHM_NODE;
+        long uuidKeyBytes = (long) uuidEntries * (STRING + align(ARRAY_HEADER + UUID_STRING_LENGTH));
+        // "name:" 前缀 + 拼接生成的小写名
+        long nameKeyBytes = (long) nameEntries * (STRING + align(ARRAY_HEADER + 5 + averageNameLength));
+        return tableBytes + nodeBytes + uuidKeyBytes + nameKeyBytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,294 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 玩家名称索引（忽略大小写）
+ * 开放寻址表只保存条目引用和32位哈希，不再为每个玩家额外保存 "name:" + 小写名 的字符串键；
+ * 查询时直接对原始名称逐字符计算忽略大小写的哈希，不会调用 toLowerCase 产生新字符串
+ *
+ * 与 {@link UuidIndex} 一样按块写时复制，一次发布只复制块引用表和被修改的块。
+ * 非线程安全：写入只发生在复制出的新索引上，发布到 {@link WhitelistSnapshot} 后不再修改
+ */
+final class NameIndex {
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // 每个索引实例的代号，块只允许被创建它的那一代索引修改
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    private final long generation = GENERATIONS.incrementAndGet();
+    private Chunk[] chunks;
+    private int capacity;
+    private int size;
+    private int pendingUuidCount;
+    private int threshold;
+
+    NameIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    NameIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private NameIndex(NameIndex source) {
+        this.chunks = source.chunks.clone();
+        this.capacity = source.capacity;
+        this.size = source.size;
+        this.pendingUuidCount = source.pendingUuidCount;
+        this.threshold = source.threshold;
+    }
+
+    /**
+     * 复制索引（写时复制，块延迟复制）
+     */
+    NameIndex copy() {
+        return new NameIndex(this);
+    }
+
+    /**
+     * 按名称查找条目（忽略大小写），不存在时返回null
+     */
+    WhitelistEntry get(String name) {
+        int slot = indexOf(name);
+        return slot >= 0 ? valueAt(slot) : null;
+    }
+
+    boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * 写入条目，同名（忽略大小写）的旧条目会被替换并返回
+     */
+    WhitelistEntry put(WhitelistEntry entry) {
+        String name = entry.getName();
+        int h = hashIgnoreCase(name);
+        int mask = capacity - 1;
+        int slot = h & mask;
+
+        WhitelistEntry current;
+        while ((current = valueAt(slot)) != null) {
+            if (chunks[slot >>> CHUNK_SHIFT].hashes[slot & CHUNK_MASK] == h
+                    && name.equalsIgnoreCase(current.getName())) {
+                owned(slot).values[slot & CHUNK_MASK] = entry;
+                trackPending(current, -1);
+                trackPending(entry, 1);
+                return current;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        set(slot, h, entry);
+        trackPending(entry, 1);
+        if (++size > threshold) {
+            rehash(capacity << 1);
+        }
+        return null;
+    }
+
+    /**
+     * 按名称移除条目，返回被移除的条目
+     */
+    WhitelistEntry remove(String name) {
+        int slot = indexOf(name);
+        if (slot < 0) {
+            return null;
+        }
+        return removeAt(slot);
+    }
+
+    /**
+     * 仅当索引中保存的正是该条目时才移除（避免误删同名的其他条目）
+     */
+    boolean removeExact(WhitelistEntry entry) {
+        int slot = indexOf(entry.getName());
+        if (slot < 0 || valueAt(slot) != entry) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * UUID待补充（仅按名称添加）的条目数
+     */
+    int pendingUuidCount() {
+        return pendingUuidCount;
+    }
+
+    /**
+     * 遍历所有条目
+     */
+    void forEach(Consumer<WhitelistEntry> action) {
+        for (Chunk chunk : chunks) {
+            for (WhitelistEntry value : chunk.values) {
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 估算索引占用的堆内存（字节，按64位JVM + 压缩指针计算）
+     */
+    long estimateBytes() {
+        return MemoryEstimates.ARRAY_HEADER
+                + (long) chunks.length * (MemoryEstimates.REFERENCE + 24 + 2L * MemoryEstimates.ARRAY_HEADER)
+                + (long) capacity * (4 + MemoryEstimates.REFERENCE);
+    }
+
+    private WhitelistEntry valueAt(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT].values[slot & CHUNK_MASK];
+    }
+
+    private int indexOf(String name) {
+        int h = hashIgnoreCase(name);
+        Chunk[] cs = chunks;
+        int mask = capacity - 1;
+        int slot = h & mask;
+
+        while (true) {
+            Chunk chunk = cs[slot >>> CHUNK_SHIFT];
+            int i = slot & CHUNK_MASK;
+            WhitelistEntry value = chunk.values[i];
+            if (value == null) {
+                return -1;
+            }
+            if (chunk.hashes[i] == h && name.equalsIgnoreCase(value.getName())) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 获取本代可修改的块，继承自上一代的块先复制
+     */
+    private Chunk owned(int slot) {
+        int index = slot >>> CHUNK_SHIFT;
+        Chunk chunk = chunks[index];
+        if (chunk.generation != generation) {
+            chunk = chunk.copy(generation);
+            chunks[index] = chunk;
+        }
+        return chunk;
+    }
+
+    private void set(int slot, int hash, WhitelistEntry entry) {
+        Chunk chunk = owned(slot);
+        chunk.hashes[slot & CHUNK_MASK] = hash;
+        chunk.values[slot & CHUNK_MASK] = entry;
+    }
+
+    private WhitelistEntry removeAt(int slot) {
+        WhitelistEntry removed = valueAt(slot);
+        int mask = capacity - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+
+        WhitelistEntry moving;
+        while ((moving = valueAt(next)) != null) {
+            int h = chunks[next >>> CHUNK_SHIFT].hashes[next & CHUNK_MASK];
+            int home = h & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                set(hole, h, moving);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        owned(hole).values[hole & CHUNK_MASK] = null;
+        size--;
+        trackPending(removed, -1);
+        return removed;
+    }
+
+    private void trackPending(WhitelistEntry entry, int delta) {
+        if (entry.getUuid() == null) {
+            pendingUuidCount += delta;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        Chunk[] old = chunks;
+
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (Chunk chunk : old) {
+            for (int i = 0; i < chunk.values.length; i++) {
+                if (chunk.values[i] != null) {
+                    int slot = chunk.hashes[i] & mask;
+                    while (valueAt(slot) != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    set(slot, chunk.hashes[i], chunk.values[i]);
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        int chunkLength = Math.min(capacity, CHUNK_SIZE);
+        chunks = new Chunk[capacity / chunkLength];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk(generation, chunkLength);
+        }
+        this.capacity = capacity;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR) + 1;
+        int capacity = Integer.highestOneBit(Math.max(needed, MIN_CAPACITY) - 1) << 1;
+        return Math.max(capacity, MIN_CAPACITY);
+    }
+
+    /**
+     * 与 String.equalsIgnoreCase 一致的大小写折叠哈希
+     */
+    static int hashIgnoreCase(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        // 扰动高位，减少低位掩码下的聚集
+        return h ^ (h >>> 16) ^ (h >>> 7);
+    }
+
+    /**
+     * 一块连续槽位
+     */
+    private static final class Chunk {
+        final long generation;
+        final int[] hashes;
+        final WhitelistEntry[] values;
+
+        Chunk(long generation, int length) {
+            this(generation, new int[length], new WhitelistEntry[length]);
+        }
+
+        private Chunk(long generation, int[] hashes, WhitelistEntry[] values) {
+            this.generation = generation;
+            this.hashes = hashes;
+            this.values = values;
+        }
+
+        Chunk copy(long newGeneration) {
+            return new Chunk(newGeneration, hashes.clone(), values.clone());
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 玩家名前缀树（压缩基数树）
+ * 以大小写折叠后的名称为键，用于名称自动补全；单链路径压缩为一条边，节点数不超过条目数的两倍
+ *
+ * 节点不可变，写入时只复制根到目标节点的路径，{@link #copy()} 只复制根引用。
+ * 非线程安全：写入只发生在复制出的新实例上，发布到 {@link WhitelistSnapshot} 后不再修改
+ */
+final class NameTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private Node root;
+
+    NameTrie() {
+        this.root = new Node("", null, NO_CHILDREN);
+    }
+
+    private NameTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 复制（共享全部节点）
+     */
+    NameTrie copy() {
+        return new NameTrie(root);
+    }
+
+    /**
+     * 写入条目，同名（忽略大小写）的旧条目被替换
+     */
+    void put(WhitelistEntry entry) {
+        root = insert(root, fold(entry.getName()), 0, entry);
+    }
+
+    /**
+     * 仅当名称对应的正是该条目时才移除
+     */
+    void remove(WhitelistEntry entry) {
+        root = delete(root, fold(entry.getName()), 0, entry);
+    }
+
+    /**
+     * 条目数
+     */
+    int size() {
+        return root.count;
+    }
+
+    /**
+     * 以指定前缀开头（忽略大小写）的条目数
+     */
+    int count(String prefix) {
+        Node node = find(fold(prefix));
+        return node != null ? node.count : 0;
+    }
+
+    /**
+     * 按名称字典序返回以指定前缀开头（忽略大小写）的前 limit 个条目
+     */
+    List<WhitelistEntry> suggest(String prefix, int limit) {
+        List<WhitelistEntry> results = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        Node node = find(fold(prefix));
+        if (node != null && limit > 0) {
+            collect(node, results, limit);
+        }
+        return results;
+    }
+
+    /**
+     * 估算占用的堆内存（字节，按64位JVM + 压缩指针计算）
+     */
+    long estimateBytes() {
+        return estimateBytes(root);
+    }
+
+    private static long estimateBytes(Node node) {
+        // 节点对象（对象头 + 三个引用 + count）+ 标签字符串 + 子节点数组
+        long bytes = 24 + MemoryEstimates.STRING + MemoryEstimates.ARRAY_HEADER + node.label.length()
+                + (node.children.length > 0 ? MemoryEstimates.ARRAY_HEADER + (long) node.children.length * MemoryEstimates.REFERENCE : 0);
+        for (Node child : node.children) {
+            bytes += estimateBytes(child);
+        }
+        return bytes;
+    }
+
+    /**
+     * 找到覆盖前缀的节点：前缀在该节点的边标签内或恰好在其末尾结束
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = childIndex(node.children, prefix.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private static void collect(Node node, List<WhitelistEntry> results, int limit) {
+        if (node.value != null) {
+            results.add(node.value);
+        }
+        for (Node child : node.children) {
+            if (results.size() >= limit) {
+                return;
+            }
+            collect(child, results, limit);
+        }
+    }
+
+    private static Node insert(Node node, String key, int i, WhitelistEntry entry) {
+        if (i == key.length()) {
+            return new Node(node.label, entry, node.children);
+        }
+
+        int index = childIndex(node.children, key.charAt(i));
+        if (index < 0) {
+            Node leaf = new Node(key.substring(i), entry, NO_CHILDREN);
+            return new Node(node.label, node.value, insertChild(node.children, -index - 1, leaf));
+        }
+
+        Node child = node.children[index];
+        int common = commonPrefix(child.label, key, i);
+        Node replacement;
+        if (common == child.label.length()) {
+            replacement = insert(child, key, i + common, entry);
+        } else {
+            // 在公共前缀处拆分边
+            Node tail = new Node(child.label.substring(common), child.value, child.children);
+            Node split = new Node(child.label.substring(0, common), null, new Node[]{tail});
+            replacement = insert(split, key, i + common, entry);
+        }
+        return new Node(node.label, node.value, replaceChild(node.children, index, replacement));
+    }
+
+    /**
+     * @return 删除后的节点；节点不再包含任何条目时返回null（根节点除外）；未发生变化时返回原节点
+     */
+    private static Node delete(Node node, String key, int i, WhitelistEntry entry) {
+        Node updated;
+        if (i == key.length()) {
+            if (node.value != entry) {
+                return node;
+            }
+            updated = new Node(node.label, null, node.children);
+        } else {
+            int index = childIndex(node.children, key.charAt(i));
+            if (index < 0) {
+                return node;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                return node;
+            }
+            Node replacement = delete(child, key, i + common, entry);
+            if (replacement == child) {
+                return node;
+            }
+            Node[] children = replacement != null
+                    ? replaceChild(node.children, index, replacement)
+                    : removeChild(node.children, index);
+            updated = new Node(node.label, node.value, children);
+        }
+
+        // 根节点没有边标签，其余节点的标签至少一个字符；根节点不参与删除与合并
+        if (updated.value == null && !updated.label.isEmpty()) {
+            if (updated.children.length == 0) {
+                return null;
+            }
+            if (updated.children.length == 1) {
+                // 没有条目的单子节点与子节点合并为一条边
+                Node only = updated.children[0];
+                return new Node(updated.label + only.label, only.value, only.children);
+            }
+        }
+        return updated;
+    }
+
+    private static int childIndex(Node[] children, char first) {
+        int low = 0;
+        int high = children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char c = children[mid].label.charAt(0);
+            if (c < first) {
+                low = mid + 1;
+            } else if (c > first) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static Node[] insertChild(Node[] children, int position, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, position);
+        result[position] = child;
+        System.arraycopy(children, position, result, position + 1, children.length - position);
+        return result;
+    }
+
+    private static Node[] replaceChild(Node[] children, int index, Node child) {
+        Node[] result = children.clone();
+        result[index] = child;
+        return result;
+    }
+
+    private static Node[] removeChild(Node[] children, int index) {
+        if (children.length == 1) {
+            return NO_CHILDREN;
+        }
+        Node[] result = new Node[children.length - 1];
+        System.arraycopy(children, 0, result, 0, index);
+        System.arraycopy(children, index + 1, result, index, children.length - index - 1);
+        return result;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 大小写折叠，与 {@link NameIndex#hashIgnoreCase} 一致
+     */
+    private static String fold(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static final class Node {
+        final String label;
+        final WhitelistEntry value;
+        final Node[] children;
+        // 子树中的条目数
+        final int count;
+
+        Node(String label, WhitelistEntry value, Node[] children) {
+            this.label = label;
+            this.value = value;
+            this.children = children;
+            int total = value != null ? 1 : 0;
+            for (Node child : children) {
+                total += child.count;
+            }
+            this.count = total;
+        }
+    }
+}
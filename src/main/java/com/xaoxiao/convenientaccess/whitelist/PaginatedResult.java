@@ -6,11 +6,19 @@ import java.util.List;
  * 分页结果类
  */
 public class PaginatedResult<T> {
+    public static final String SERVED_BY_MEMORY = "memory";
+    public static final String SERVED_BY_SQL = "sql";
+    
     private final List<T> items;
     private final int page;
     private final int size;
-    private final long total;
-    private final int pages;
+    // 未统计总数时为null（序列化时省略）
+    private final Long total;
+    private final Integer pages;
+    // 下一页的游标，没有更多数据时为null
+    private String nextCursor;
+    // 处理本次查询的路径（内存快照或SQL）
+    private String servedBy;
     
     public PaginatedResult(List<T> items, int page, int size, long total) {
         this.items = items;
@@ -20,6 +28,21 @@ public class PaginatedResult<T> {
         this.pages = (int) Math.ceil((double) total / size);
     }
     
+    private PaginatedResult(List<T> items, int page, int size) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.total = null;
+        this.pages = null;
+    }
+    
+    /**
+     * 创建不含总数的分页结果（跳过 COUNT 查询）
+     */
+    public static <T> PaginatedResult<T> withoutTotal(List<T> items, int page, int size) {
+        return new PaginatedResult<>(items, page, size);
+    }
+    
     public List<T> getItems() {
         return items;
     }
@@ -32,16 +55,39 @@ public class PaginatedResult<T> {
         return size;
     }
     
+    /**
+     * 总数，未统计时返回-1
+     */
     public long getTotal() {
-        return total;
+        return total != null ? total : -1;
     }
     
     public int getPages() {
-        return pages;
+        return pages != null ? pages : -1;
+    }
+    
+    public boolean isTotalCounted() {
+        return total != null;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public String getServedBy() {
+        return servedBy;
+    }
+    
+    public void setServedBy(String servedBy) {
+        this.servedBy = servedBy;
     }
     
     public boolean hasNext() {
-        return page < pages;
+        return pages != null ? page < pages : nextCursor != null;
     }
     
     public boolean hasPrevious() {
@@ -60,6 +106,7 @@ public class PaginatedResult<T> {
                 ", total=" + total +
                 ", pages=" + pages +
                 ", itemCount=" + (items != null ? items.size() : 0) +
+                ", servedBy=" + servedBy +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,412 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 三元组（trigram）子串索引
+ * 对玩家名和添加者名的每个连续三字符片段（大小写折叠后）建立倒排表，
+ * 子串查询只需遍历查询词中最稀有片段的倒排表并逐条校验，无需扫描全部条目
+ *
+ * 与 {@link UuidIndex}、{@link NameIndex} 一样按块写时复制：{@link #copy()} 只复制外层哈希表的块引用表，
+ * 块和倒排表在新索引第一次修改时才复制；倒排表本身也分块存放，覆盖几乎所有条目的热门片段
+ * （如常见的添加者名）每次也只复制块引用表和被修改的块，因此一次发布的成本与变更涉及的片段数成正比。
+ * 非线程安全：写入只发生在复制出的新索引上，发布到 {@link WhitelistSnapshot} 后不再修改
+ */
+final class TrigramIndex {
+    private static final int MIN_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int GRAM = 3;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // 每个索引实例的代号，块和倒排表只允许被创建它的那一代索引修改
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    /**
+     * 被索引的字段
+     */
+    enum Field {
+        NAME, ADDED_BY
+    }
+
+    private final long generation = GENERATIONS.incrementAndGet();
+    private Chunk[] chunks;
+    private int capacity;
+    private int size;
+    private int threshold;
+
+    TrigramIndex() {
+        this(0);
+    }
+
+    TrigramIndex(int expectedEntries) {
+        // 玩家名只含字母、数字和下划线，名称片段最多 37^3 种，条目再多片段数也有上限
+        allocate(capacityFor(Math.min(expectedEntries * 4, 1 << 16)));
+    }
+
+    private TrigramIndex(TrigramIndex source) {
+        this.chunks = source.chunks.clone();
+        this.capacity = source.capacity;
+        this.size = source.size;
+        this.threshold = source.threshold;
+    }
+
+    /**
+     * 复制索引（写时复制，块和倒排表延迟复制）
+     */
+    TrigramIndex copy() {
+        return new TrigramIndex(this);
+    }
+
+    void add(WhitelistEntry entry) {
+        index(entry, Field.NAME, entry.getName(), true);
+        index(entry, Field.ADDED_BY, entry.getAddedByName(), true);
+    }
+
+    void remove(WhitelistEntry entry) {
+        index(entry, Field.NAME, entry.getName(), false);
+        index(entry, Field.ADDED_BY, entry.getAddedByName(), false);
+    }
+
+    /**
+     * 获取子串查询的候选条目：查询词所有片段中最短的倒排表
+     * 候选条目仍需调用方逐条校验是否真正包含查询词
+     *
+     * @return 候选集合；查询词短于三个字符（无法使用索引）时返回null
+     */
+    Postings candidates(Field field, String needle) {
+        if (needle == null || needle.length() < GRAM) {
+            return null;
+        }
+
+        Postings best = null;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            int slot = indexOf(key(field, needle, i));
+            Postings posting = slot >= 0 ? postingsAt(slot) : null;
+            if (posting == null || posting.size == 0) {
+                return Postings.EMPTY;
+            }
+            if (best == null || posting.size < best.size) {
+                best = posting;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 不同片段数
+     */
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 估算索引占用的堆内存（字节，按64位JVM + 压缩指针计算）
+     */
+    long estimateBytes() {
+        long bytes = MemoryEstimates.ARRAY_HEADER
+                + (long) chunks.length * (MemoryEstimates.REFERENCE + 24 + 2L * MemoryEstimates.ARRAY_HEADER)
+                + (long) capacity * (8 + MemoryEstimates.REFERENCE);
+        for (Chunk chunk : chunks) {
+            for (Postings posting : chunk.postings) {
+                if (posting != null) {
+                    bytes += posting.estimateBytes();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private void index(WhitelistEntry entry, Field field, String value, boolean add) {
+        if (value == null || value.length() < GRAM) {
+            return;
+        }
+
+        int count = value.length() - GRAM + 1;
+        long[] seen = new long[count];
+        int distinct = 0;
+        outer:
+        for (int i = 0; i < count; i++) {
+            long key = key(field, value, i);
+            // 同一个值中重复出现的片段只记录一次
+            for (int j = 0; j < distinct; j++) {
+                if (seen[j] == key) {
+                    continue outer;
+                }
+            }
+            seen[distinct++] = key;
+
+            if (add) {
+                ownedPostings(slotFor(key)).add(entry);
+            } else {
+                int slot = indexOf(key);
+                if (slot >= 0) {
+                    ownedPostings(slot).remove(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取本代可修改的倒排表，继承自上一代的倒排表先复制
+     */
+    private Postings ownedPostings(int slot) {
+        Postings posting = postingsAt(slot);
+        if (posting.generation != generation) {
+            posting = posting.copy(generation);
+            owned(slot).postings[slot & CHUNK_MASK] = posting;
+        }
+        return posting;
+    }
+
+    /**
+     * 获取本代可修改的块，继承自上一代的块先复制
+     */
+    private Chunk owned(int slot) {
+        int index = slot >>> CHUNK_SHIFT;
+        Chunk chunk = chunks[index];
+        if (chunk.generation != generation) {
+            chunk = chunk.copy(generation);
+            chunks[index] = chunk;
+        }
+        return chunk;
+    }
+
+    private Postings postingsAt(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT].postings[slot & CHUNK_MASK];
+    }
+
+    private int slotFor(long key) {
+        int mask = capacity - 1;
+        int slot = hash(key) & mask;
+        while (postingsAt(slot) != null) {
+            if (chunks[slot >>> CHUNK_SHIFT].keys[slot & CHUNK_MASK] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        set(slot, key, new Postings(generation));
+        if (++size > threshold) {
+            rehash(capacity << 1);
+            return indexOf(key);
+        }
+        return slot;
+    }
+
+    private int indexOf(long key) {
+        Chunk[] cs = chunks;
+        int mask = capacity - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            Chunk chunk = cs[slot >>> CHUNK_SHIFT];
+            int i = slot & CHUNK_MASK;
+            if (chunk.postings[i] == null) {
+                return -1;
+            }
+            if (chunk.keys[i] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void set(int slot, long key, Postings posting) {
+        Chunk chunk = owned(slot);
+        chunk.keys[slot & CHUNK_MASK] = key;
+        chunk.postings[slot & CHUNK_MASK] = posting;
+    }
+
+    private void rehash(int newCapacity) {
+        Chunk[] old = chunks;
+
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (Chunk chunk : old) {
+            for (int i = 0; i < chunk.postings.length; i++) {
+                if (chunk.postings[i] != null) {
+                    int slot = hash(chunk.keys[i]) & mask;
+                    while (postingsAt(slot) != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    set(slot, chunk.keys[i], chunk.postings[i]);
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        int chunkLength = Math.min(capacity, CHUNK_SIZE);
+        chunks = new Chunk[capacity / chunkLength];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk(generation, chunkLength);
+        }
+        this.capacity = capacity;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR) + 1;
+        int capacity = Integer.highestOneBit(Math.max(needed, MIN_CAPACITY) - 1) << 1;
+        return Math.max(capacity, MIN_CAPACITY);
+    }
+
+    /**
+     * 片段键：字段序号 + 三个大小写折叠后的字符（各16位）
+     * 折叠方式与 String.regionMatches(true, ...) 一致，保证索引命中与校验结果相同
+     */
+    private static long key(Field field, String value, int start) {
+        long key = field.ordinal();
+        for (int i = start; i < start + GRAM; i++) {
+            key = (key << 16) | Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+        return key;
+    }
+
+    /**
+     * MurmurHash3 fmix64 混淆
+     */
+    private static int hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * 外层哈希表的一块连续槽位
+     */
+    private static final class Chunk {
+        final long generation;
+        final long[] keys;
+        final Postings[] postings;
+
+        Chunk(long generation, int length) {
+            this(generation, new long[length], new Postings[length]);
+        }
+
+        private Chunk(long generation, long[] keys, Postings[] postings) {
+            this.generation = generation;
+            this.keys = keys;
+            this.postings = postings;
+        }
+
+        Chunk copy(long newGeneration) {
+            return new Chunk(newGeneration, keys.clone(), postings.clone());
+        }
+    }
+
+    /**
+     * 倒排表，条目无序存放
+     * 条目按 {@value #BLOCK_SIZE} 个一块存放，复制时只复制块引用表，块在新一代第一次修改时才复制；
+     * 第一块从小数组开始按需扩大，只有少量条目的片段不会占用整块。
+     * 发布后只读；读线程通过 {@link #size()} 和 {@link #get(int)} 遍历
+     */
+    static final class Postings {
+        static final Postings EMPTY = new Postings(0);
+
+        private static final int BLOCK_SHIFT = 8;
+        private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+        private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+        private final long generation;
+        private WhitelistEntry[][] blocks;
+        // 每块所属的代号
+        private long[] owners;
+        private int size;
+
+        private Postings(long generation) {
+            this.generation = generation;
+            this.blocks = new WhitelistEntry[][] {new WhitelistEntry[4]};
+            this.owners = new long[] {generation};
+        }
+
+        private Postings(long generation, Postings source) {
+            this.generation = generation;
+            this.blocks = source.blocks.clone();
+            this.owners = source.owners.clone();
+            this.size = source.size;
+        }
+
+        private Postings copy(long newGeneration) {
+            return new Postings(newGeneration, this);
+        }
+
+        int size() {
+            return size;
+        }
+
+        WhitelistEntry get(int index) {
+            return blocks[index >>> BLOCK_SHIFT][index & BLOCK_MASK];
+        }
+
+        private void add(WhitelistEntry entry) {
+            int block = size >>> BLOCK_SHIFT;
+            int offset = size & BLOCK_MASK;
+            if (block == blocks.length) {
+                blocks = Arrays.copyOf(blocks, block * 2);
+                owners = Arrays.copyOf(owners, block * 2);
+            }
+            WhitelistEntry[] target = blocks[block];
+            if (target == null) {
+                target = new WhitelistEntry[BLOCK_SIZE];
+            } else if (offset == target.length) {
+                target = Arrays.copyOf(target, Math.min(BLOCK_SIZE, target.length * 2));
+            } else {
+                target = ownedBlock(block);
+            }
+            blocks[block] = target;
+            owners[block] = generation;
+            target[offset] = entry;
+            size++;
+        }
+
+        /**
+         * 按引用移除条目，用最后一个条目填补空位
+         */
+        private void remove(WhitelistEntry entry) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (get(i) == entry) {
+                    int last = size - 1;
+                    WhitelistEntry moved = get(last);
+                    ownedBlock(i >>> BLOCK_SHIFT)[i & BLOCK_MASK] = moved;
+                    ownedBlock(last >>> BLOCK_SHIFT)[last & BLOCK_MASK] = null;
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        private WhitelistEntry[] ownedBlock(int block) {
+            WhitelistEntry[] target = blocks[block];
+            if (owners[block] != generation) {
+                target = target.clone();
+                blocks[block] = target;
+                owners[block] = generation;
+            }
+            return target;
+        }
+
+        /**
+         * 估算占用的堆内存（对象头 + 字段 + 块引用表 + 代号表 + 各块）
+         */
+        private long estimateBytes() {
+            long bytes = 32 + 2L * MemoryEstimates.ARRAY_HEADER + (long) blocks.length * (MemoryEstimates.REFERENCE + 8);
+            for (WhitelistEntry[] block : blocks) {
+                if (block != null) {
+                    bytes += MemoryEstimates.ARRAY_HEADER + (long) block.length * MemoryEstimates.REFERENCE;
+                }
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * UUID 原始类型索引
+ * 将 UUID 拆成两个 long 存放在开放寻址（线性探测）哈希表中，
+ * 查询时不创建任何对象，也不需要把 UUID 转成字符串
+ *
+ * 槽位按 {@value #CHUNK_SIZE} 个一块存放，写时复制以块为单位：{@link #copy()} 只复制块引用表，
+ * 块在新索引第一次修改时才复制，因此一次发布的成本与变更涉及的块数成正比，而不是与容量成正比。
+ * 非线程安全：写入只发生在复制出的新索引上，发布到 {@link WhitelistSnapshot} 后不再修改
+ */
+final class UuidIndex {
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // 每个索引实例的代号，块只允许被创建它的那一代索引修改
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    private final long generation = GENERATIONS.incrementAndGet();
+    private Chunk[] chunks;
+    private int capacity;
+    private int size;
+    private int threshold;
+
+    UuidIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    UuidIndex(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private UuidIndex(UuidIndex source) {
+        this.chunks = source.chunks.clone();
+        this.capacity = source.capacity;
+        this.size = source.size;
+        this.threshold = source.threshold;
+    }
+
+    /**
+     * 复制索引（写时复制，块延迟复制）
+     */
+    UuidIndex copy() {
+        return new UuidIndex(this);
+    }
+
+    /**
+     * 检查UUID是否存在（不分配对象）
+     */
+    boolean contains(long msb, long lsb) {
+        return indexOf(msb, lsb) >= 0;
+    }
+
+    boolean contains(UUID uuid) {
+        return contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * 获取UUID对应的条目，不存在时返回null
+     */
+    WhitelistEntry get(long msb, long lsb) {
+        int slot = indexOf(msb, lsb);
+        return slot >= 0 ? chunks[slot >>> CHUNK_SHIFT].values[slot & CHUNK_MASK] : null;
+    }
+
+    WhitelistEntry get(UUID uuid) {
+        return get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * 写入条目，返回被替换的旧条目
+     */
+    WhitelistEntry put(UUID uuid, WhitelistEntry entry) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int mask = capacity - 1;
+        int slot = hash(msb, lsb) & mask;
+
+        while (true) {
+            Chunk chunk = chunks[slot >>> CHUNK_SHIFT];
+            int i = slot & CHUNK_MASK;
+            if (chunk.values[i] == null) {
+                break;
+            }
+            if (chunk.mostBits[i] == msb && chunk.leastBits[i] == lsb) {
+                Chunk owned = owned(slot);
+                WhitelistEntry previous = owned.values[i];
+                owned.values[i] = entry;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        set(slot, msb, lsb, entry);
+        if (++size > threshold) {
+            rehash(capacity << 1);
+        }
+        return null;
+    }
+
+    /**
+     * 移除条目，返回被移除的条目
+     */
+    WhitelistEntry remove(UUID uuid) {
+        int slot = indexOf(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (slot < 0) {
+            return null;
+        }
+
+        WhitelistEntry removed = chunks[slot >>> CHUNK_SHIFT].values[slot & CHUNK_MASK];
+        shiftBack(slot);
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 遍历所有条目
+     */
+    void forEach(Consumer<WhitelistEntry> action) {
+        for (Chunk chunk : chunks) {
+            for (WhitelistEntry value : chunk.values) {
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 估算索引占用的堆内存（字节，按64位JVM + 压缩指针计算）
+     */
+    long estimateBytes() {
+        return MemoryEstimates.ARRAY_HEADER
+                + (long) chunks.length * (MemoryEstimates.REFERENCE + 24 + 3L * MemoryEstimates.ARRAY_HEADER)
+                + (long) capacity * (8 + 8 + MemoryEstimates.REFERENCE);
+    }
+
+    private int indexOf(long msb, long lsb) {
+        Chunk[] cs = chunks;
+        int mask = capacity - 1;
+        int slot = hash(msb, lsb) & mask;
+
+        while (true) {
+            Chunk chunk = cs[slot >>> CHUNK_SHIFT];
+            int i = slot & CHUNK_MASK;
+            if (chunk.values[i] == null) {
+                return -1;
+            }
+            if (chunk.mostBits[i] == msb && chunk.leastBits[i] == lsb) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 获取本代可修改的块，继承自上一代的块先复制
+     */
+    private Chunk owned(int slot) {
+        int index = slot >>> CHUNK_SHIFT;
+        Chunk chunk = chunks[index];
+        if (chunk.generation != generation) {
+            chunk = chunk.copy(generation);
+            chunks[index] = chunk;
+        }
+        return chunk;
+    }
+
+    private void set(int slot, long msb, long lsb, WhitelistEntry entry) {
+        Chunk chunk = owned(slot);
+        int i = slot & CHUNK_MASK;
+        chunk.mostBits[i] = msb;
+        chunk.leastBits[i] = lsb;
+        chunk.values[i] = entry;
+    }
+
+    /**
+     * 线性探测的回移删除，保证后续探测链不断裂
+     */
+    private void shiftBack(int slot) {
+        int mask = capacity - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+
+        while (true) {
+            Chunk chunk = chunks[next >>> CHUNK_SHIFT];
+            int i = next & CHUNK_MASK;
+            if (chunk.values[i] == null) {
+                break;
+            }
+            int home = hash(chunk.mostBits[i], chunk.leastBits[i]) & mask;
+            // 只有当 home 不在 (hole, next] 区间内时才能把 next 移到 hole
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                set(hole, chunk.mostBits[i], chunk.leastBits[i], chunk.values[i]);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        owned(hole).values[hole & CHUNK_MASK] = null;
+    }
+
+    private void rehash(int newCapacity) {
+        Chunk[] old = chunks;
+
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (Chunk chunk : old) {
+            for (int i = 0; i < chunk.values.length; i++) {
+                if (chunk.values[i] != null) {
+                    int slot = hash(chunk.mostBits[i], chunk.leastBits[i]) & mask;
+                    while (chunks[slot >>> CHUNK_SHIFT].values[slot & CHUNK_MASK] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    set(slot, chunk.mostBits[i], chunk.leastBits[i], chunk.values[i]);
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        int chunkLength = Math.min(capacity, CHUNK_SIZE);
+        chunks = new Chunk[capacity / chunkLength];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk(generation, chunkLength);
+        }
+        this.capacity = capacity;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR) + 1;
+        int capacity = Integer.highestOneBit(Math.max(needed, MIN_CAPACITY) - 1) << 1;
+        return Math.max(capacity, MIN_CAPACITY);
+    }
+
+    /**
+     * MurmurHash3 fmix64 混淆，离线UUID（版本3）与正版UUID（版本4）都能均匀分布
+     */
+    private static int hash(long msb, long lsb) {
+        long h = msb * 31 + lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * 一块连续槽位
+     */
+    private static final class Chunk {
+        final long generation;
+        final long[] mostBits;
+        final long[] leastBits;
+        final WhitelistEntry[] values;
+
+        Chunk(long generation, int length) {
+            this(generation, new long[length], new long[length], new WhitelistEntry[length]);
+        }
+
+        private Chunk(long generation, long[] mostBits, long[] leastBits, WhitelistEntry[] values) {
+            this.generation = generation;
+            this.mostBits = mostBits;
+            this.leastBits = leastBits;
+            this.values = values;
+        }
+
+        Chunk copy(long newGeneration) {
+            return new Chunk(newGeneration, mostBits.clone(), leastBits.clone(), values.clone());
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 白名单内存缓存
+ * 由 UUID 原始类型索引和名称索引组成，取代原先以字符串为键的 ConcurrentHashMap；
+ * 三元组索引和名称前缀树与名称索引同步维护，包含名称索引中的每个条目，分别用于子串搜索和名称补全
+ *
+ * 读线程通过 volatile 引用读取不可变的 {@link WhitelistSnapshot}，不加锁也不与写线程竞争。
+ * 写入先进入待处理队列，持有写锁的线程一次性取出队列中的所有变更，
+ * 在复制出的新索引上应用后发布新快照，并发写入因此合并为一次复制和一次切换。
+ * 各索引按块写时复制，一次复制只复制块引用表和变更涉及的块，单条写入的成本不随白名单规模线性增长
+ */
+class WhitelistCache {
+    private final Object writeLock = new Object();
+    private final ConcurrentLinkedQueue<Change> pending = new ConcurrentLinkedQueue<>();
+    private volatile WhitelistSnapshot snapshot = WhitelistSnapshot.EMPTY;
+
+    // 重新加载期间发布的变更，在新快照切换前重放，避免丢失加载过程中的写入
+    private List<Change> reloadJournal;
+    private int activeReloads;
+
+    /**
+     * 获取当前快照，多次读取需要一致视图时使用
+     */
+    WhitelistSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 检查UUID是否在缓存中（登录前检查的热路径，不分配对象）
+     */
+    boolean containsUuid(UUID uuid) {
+        return snapshot.containsUuid(uuid);
+    }
+
+    WhitelistEntry getByUuid(UUID uuid) {
+        return snapshot.getByUuid(uuid);
+    }
+
+    /**
+     * 按名称查找（忽略大小写）
+     */
+    WhitelistEntry getByName(String name) {
+        return snapshot.getByName(name);
+    }
+
+    boolean containsName(String name) {
+        return snapshot.containsName(name);
+    }
+
+    /**
+     * 缓存的条目数（有UUID的条目 + UUID待补充的条目）
+     */
+    int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * 当前快照版本号，每次发布递增
+     * 一致性检查用它判断检查期间是否有并发写入
+     */
+    long version() {
+        return snapshot.version();
+    }
+
+    /**
+     * 写入条目，同UUID或同名的旧条目会被替换
+     */
+    void put(WhitelistEntry entry) {
+        apply(List.of(Change.put(entry)));
+    }
+
+    /**
+     * 批量写入条目，只发布一次快照
+     */
+    void putAll(Collection<WhitelistEntry> entries) {
+        List<Change> changes = new ArrayList<>(entries.size());
+        for (WhitelistEntry entry : entries) {
+            changes.add(Change.put(entry));
+        }
+        apply(changes);
+    }
+
+    /**
+     * 按UUID移除条目，同时移除其名称索引
+     *
+     * @return 移除前快照中的条目
+     */
+    WhitelistEntry removeByUuid(UUID uuid) {
+        WhitelistEntry existing = snapshot.getByUuid(uuid);
+        apply(List.of(Change.removeUuid(uuid)));
+        return existing;
+    }
+
+    /**
+     * 按名称移除条目（忽略大小写），同时移除其UUID索引
+     *
+     * @return 移除前快照中的条目
+     */
+    WhitelistEntry removeByName(String name) {
+        WhitelistEntry existing = snapshot.getByName(name);
+        apply(List.of(Change.removeName(name)));
+        return existing;
+    }
+
+    /**
+     * 应用一组变更
+     * 返回时这些变更一定已经发布（由本线程或先拿到写锁的线程发布）
+     */
+    void apply(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        pending.addAll(changes);
+        synchronized (writeLock) {
+            publishPending();
+        }
+    }
+
+    /**
+     * 开始重新加载
+     * 从此刻起发布的变更会被记录，在 {@link #replaceAll} 切换快照前重放
+     */
+    void beginReload() {
+        synchronized (writeLock) {
+            if (activeReloads++ == 0) {
+                reloadJournal = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * 放弃重新加载（加载失败时调用）
+     */
+    void abortReload() {
+        synchronized (writeLock) {
+            endReload();
+        }
+    }
+
+    /**
+     * 用完整数据替换缓存
+     * 新索引在锁外构建，重放加载期间的写入后一次性切换，读线程不会看到空缓存
+     */
+    void replaceAll(Collection<WhitelistEntry> entries) {
+        replaceAll(entries, List.of());
+    }
+
+    /**
+     * 用完整数据替换缓存，并在其上应用尚未落盘的变更（写后队列中已预先写入缓存的写入）
+     * 应用顺序：数据库中的数据、未落盘的变更、加载期间发布的变更
+     */
+    void replaceAll(Collection<WhitelistEntry> entries, List<Change> unflushed) {
+        int withUuid = 0;
+        for (WhitelistEntry entry : entries) {
+            if (entry.getUuid() != null) {
+                withUuid++;
+            }
+        }
+
+        Indexes indexes = new Indexes(new UuidIndex(withUuid), new NameIndex(entries.size()),
+                new TrigramIndex(entries.size()), new NameTrie(), new WhitelistCounts());
+        for (WhitelistEntry entry : entries) {
+            indexes.put(entry);
+        }
+        for (Change change : unflushed) {
+            change.applyTo(indexes);
+        }
+
+        synchronized (writeLock) {
+            publishPending();
+            if (reloadJournal != null) {
+                for (Change change : reloadJournal) {
+                    change.applyTo(indexes);
+                }
+            }
+            endReload();
+            snapshot = indexes.publish(snapshot.version() + 1);
+        }
+    }
+
+    void clear() {
+        synchronized (writeLock) {
+            publishPending();
+            snapshot = new WhitelistSnapshot(new UuidIndex(), new NameIndex(), new TrigramIndex(), new NameTrie(),
+                    new WhitelistCounts(), snapshot.version() + 1);
+        }
+    }
+
+    /**
+     * 生成内存占用报告，并与旧的 ConcurrentHashMap 实现进行对比
+     */
+    String memoryReport() {
+        WhitelistSnapshot current = snapshot;
+        UuidIndex uuidIndex = current.uuidIndex();
+        NameIndex nameIndex = current.nameIndex();
+        TrigramIndex trigramIndex = current.trigramIndex();
+        NameTrie nameTrie = current.nameTrie();
+        int uuidEntries = uuidIndex.size();
+        int pendingEntries = nameIndex.pendingUuidCount();
+
+        long[] nameLength = new long[1];
+        nameIndex.forEach(entry -> nameLength[0] += entry.getName().length());
+        int averageNameLength = nameIndex.size() > 0 ? (int) (nameLength[0] / nameIndex.size()) : 0;
+
+        long uuidBytes = uuidIndex.estimateBytes();
+        long nameBytes = nameIndex.estimateBytes();
+        long trigramBytes = trigramIndex.estimateBytes();
+        long trieBytes = nameTrie.estimateBytes();
+        long legacyBytes = MemoryEstimates.legacyMapBytes(uuidEntries, pendingEntries, averageNameLength);
+
+        return String.format("UUID索引 %d 条/%d 槽 %s, 名称索引 %d 条/%d 槽 %s, 合计 %s (原ConcurrentHashMap约 %s，不含条目对象); 三元组索引 %d 个片段 %s, 名称前缀树 %s",
+                uuidEntries, uuidIndex.capacity(), formatBytes(uuidBytes),
+                nameIndex.size(), nameIndex.capacity(), formatBytes(nameBytes),
+                formatBytes(uuidBytes + nameBytes), formatBytes(legacyBytes),
+                trigramIndex.size(), formatBytes(trigramBytes), formatBytes(trieBytes));
+    }
+
+    /**
+     * 取出所有待处理变更，复制当前索引并应用后发布新快照（调用方须持有写锁）
+     */
+    private void publishPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        WhitelistSnapshot current = snapshot;
+        Indexes indexes = Indexes.copyOf(current);
+
+        Change change;
+        while ((change = pending.poll()) != null) {
+            change.applyTo(indexes);
+            if (reloadJournal != null) {
+                reloadJournal.add(change);
+            }
+        }
+        snapshot = indexes.publish(current.version() + 1);
+    }
+
+    private void endReload() {
+        if (activeReloads > 0 && --activeReloads == 0) {
+            reloadJournal = null;
+        }
+    }
+
+
+    /**
+     * 解析UUID字符串，格式无效时返回null
+     */
+    static UUID parseUuid(String uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(uuid);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * 缓存变更
+     */
+    static final class Change {
+        private enum Type {
+            PUT, REMOVE_UUID, REMOVE_NAME, REMOVE_ROW
+        }
+
+        private final Type type;
+        private final WhitelistEntry entry;
+        private final UUID uuid;
+        private final String name;
+        private final long rowId;
+
+        private Change(Type type, WhitelistEntry entry, UUID uuid, String name, long rowId) {
+            this.type = type;
+            this.entry = entry;
+            this.uuid = uuid;
+            this.name = name;
+            this.rowId = rowId;
+        }
+
+        static Change put(WhitelistEntry entry) {
+            return new Change(Type.PUT, entry, null, null, 0);
+        }
+
+        static Change removeUuid(UUID uuid) {
+            return new Change(Type.REMOVE_UUID, null, uuid, null, 0);
+        }
+
+        static Change removeName(String name) {
+            return new Change(Type.REMOVE_NAME, null, null, name, 0);
+        }
+
+        /**
+         * 移除某一数据库行在变更前的身份（UUID和名称）
+         * 只移除属于该行的条目，同名或同UUID的其他行不受影响；没有ID的条目视为属于该行
+         */
+        static Change removeRow(long rowId, UUID uuid, String name) {
+            return new Change(Type.REMOVE_ROW, null, uuid, name, rowId);
+        }
+
+        void applyTo(Indexes indexes) {
+            switch (type) {
+                case PUT -> indexes.put(entry);
+                case REMOVE_UUID -> {
+                    WhitelistEntry removed = indexes.removeUuid(uuid);
+                    if (removed != null) {
+                        indexes.removeName(removed);
+                    }
+                }
+                case REMOVE_NAME -> {
+                    WhitelistEntry existing = indexes.names.get(name);
+                    if (existing != null) {
+                        indexes.removeName(existing);
+                        removeUuidOf(indexes, existing);
+                    }
+                }
+                case REMOVE_ROW -> {
+                    if (uuid != null) {
+                        WhitelistEntry existing = indexes.uuids.get(uuid);
+                        if (existing != null && belongsToRow(existing)) {
+                            indexes.removeUuid(uuid);
+                            indexes.removeName(existing);
+                        }
+                    }
+                    if (name != null) {
+                        WhitelistEntry existing = indexes.names.get(name);
+                        if (existing != null && belongsToRow(existing)) {
+                            indexes.removeName(existing);
+                            removeUuidOf(indexes, existing);
+                        }
+                    }
+                }
+            }
+        }
+
+        private boolean belongsToRow(WhitelistEntry existing) {
+            return existing.getId() == null || existing.getId() == rowId;
+        }
+
+        private static void removeUuidOf(Indexes indexes, WhitelistEntry removed) {
+            UUID removedUuid = parseUuid(removed.getUuid());
+            if (removedUuid != null && indexes.uuids.get(removedUuid) == removed) {
+                indexes.removeUuid(removedUuid);
+            }
+        }
+    }
+
+    /**
+     * 正在构建的一组索引
+     * 三元组索引和名称前缀树只在名称索引实际增删条目时同步修改，三者始终包含相同的条目；
+     * 计数器与 {@link WhitelistSnapshot#size()} 的口径一致：UUID索引中的条目加上名称索引中UUID为空的条目
+     */
+    static final class Indexes {
+        final UuidIndex uuids;
+        final NameIndex names;
+        final TrigramIndex trigrams;
+        final NameTrie trie;
+        final WhitelistCounts counts;
+
+        Indexes(UuidIndex uuids, NameIndex names, TrigramIndex trigrams, NameTrie trie, WhitelistCounts counts) {
+            this.uuids = uuids;
+            this.names = names;
+            this.trigrams = trigrams;
+            this.trie = trie;
+            this.counts = counts;
+        }
+
+        /**
+         * 复制快照中的索引（写时复制，只复制块引用表，块在修改时才复制）
+         */
+        static Indexes copyOf(WhitelistSnapshot snapshot) {
+            return new Indexes(snapshot.uuidIndex().copy(), snapshot.nameIndex().copy(),
+                    snapshot.trigramIndex().copy(), snapshot.nameTrie().copy(), snapshot.counts().copy());
+        }
+
+        WhitelistSnapshot publish(long version) {
+            return new WhitelistSnapshot(uuids, names, trigrams, trie, counts, version);
+        }
+
+        void put(WhitelistEntry entry) {
+            UUID uuid = parseUuid(entry.getUuid());
+            if (uuid != null) {
+                WhitelistEntry previous = uuids.put(uuid, entry);
+                if (previous != entry) {
+                    counts.add(entry);
+                    if (previous != null) {
+                        counts.remove(previous);
+                        // 玩家改名后旧名称不应继续命中
+                        removeName(previous);
+                    }
+                }
+            }
+            WhitelistEntry replaced = names.put(entry);
+            if (replaced != entry) {
+                if (replaced != null) {
+                    trigrams.remove(replaced);
+                    if (replaced.getUuid() == null) {
+                        counts.remove(replaced);
+                    }
+                }
+                trigrams.add(entry);
+                trie.put(entry);
+                if (entry.getUuid() == null) {
+                    counts.add(entry);
+                }
+            }
+        }
+
+        WhitelistEntry removeUuid(UUID uuid) {
+            WhitelistEntry removed = uuids.remove(uuid);
+            if (removed != null) {
+                counts.remove(removed);
+            }
+            return removed;
+        }
+
+        /**
+         * 仅当名称索引中保存的正是该条目时才移除
+         */
+        void removeName(WhitelistEntry entry) {
+            if (names.removeExact(entry)) {
+                trigrams.remove(entry);
+                trie.remove(entry);
+                if (entry.getUuid() == null) {
+                    counts.remove(entry);
+                }
+            }
+        }
+    }
+}
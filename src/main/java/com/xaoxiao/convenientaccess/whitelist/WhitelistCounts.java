@@ -0,0 +1,104 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 白名单计数器
+ * 随缓存写入增量维护条目总数、按来源的条目数和最近24小时新增数，统计接口直接读取，不再执行聚合查询
+ *
+ * 与其他索引一样随快照发布：{@link #copy()} 复制出新实例后修改，发布到 {@link WhitelistSnapshot} 后不再修改。
+ * 最近新增按创建时间（UTC）的分钟分桶，环形数组只保留最近24小时的桶，更早的条目不再计入
+ */
+final class WhitelistCounts {
+    static final int RECENT_MINUTES = 24 * 60;
+
+    private int size;
+    private final Map<String, Integer> sourceCounts;
+    // 每个桶对应的分钟（自纪元起），以及该分钟内创建的条目数
+    private final long[] bucketMinutes;
+    private final int[] bucketCounts;
+
+    WhitelistCounts() {
+        this.sourceCounts = new HashMap<>();
+        this.bucketMinutes = new long[RECENT_MINUTES];
+        this.bucketCounts = new int[RECENT_MINUTES];
+    }
+
+    private WhitelistCounts(WhitelistCounts source) {
+        this.size = source.size;
+        this.sourceCounts = new HashMap<>(source.sourceCounts);
+        this.bucketMinutes = source.bucketMinutes.clone();
+        this.bucketCounts = source.bucketCounts.clone();
+    }
+
+    WhitelistCounts copy() {
+        return new WhitelistCounts(this);
+    }
+
+    void add(WhitelistEntry entry) {
+        size++;
+        sourceCounts.merge(entry.getSource(), 1, Integer::sum);
+
+        long minute = minuteOf(entry.getCreatedAt());
+        if (minute < 0) {
+            return;
+        }
+        int slot = (int) (minute % RECENT_MINUTES);
+        if (bucketMinutes[slot] < minute) {
+            // 桶中是24小时之前的分钟，直接复用
+            bucketMinutes[slot] = minute;
+            bucketCounts[slot] = 1;
+        } else if (bucketMinutes[slot] == minute) {
+            bucketCounts[slot]++;
+        }
+    }
+
+    void remove(WhitelistEntry entry) {
+        size--;
+        sourceCounts.computeIfPresent(entry.getSource(), (source, count) -> count > 1 ? count - 1 : null);
+
+        long minute = minuteOf(entry.getCreatedAt());
+        if (minute < 0) {
+            return;
+        }
+        int slot = (int) (minute % RECENT_MINUTES);
+        if (bucketMinutes[slot] == minute && bucketCounts[slot] > 0) {
+            bucketCounts[slot]--;
+        }
+    }
+
+    /**
+     * 条目数，与 {@link WhitelistSnapshot#size()} 一致
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 按来源的条目数（副本）
+     */
+    Map<String, Integer> sourceCounts() {
+        return new HashMap<>(sourceCounts);
+    }
+
+    /**
+     * 最近24小时内创建的条目数（分钟精度）
+     */
+    int recentAdditions(long nowMillis) {
+        long oldest = nowMillis / 60_000 - RECENT_MINUTES;
+        int total = 0;
+        for (int i = 0; i < RECENT_MINUTES; i++) {
+            if (bucketMinutes[i] > oldest) {
+                total += bucketCounts[i];
+            }
+        }
+        return total;
+    }
+
+    private static long minuteOf(LocalDateTime createdAt) {
+        return createdAt != null ? createdAt.toEpochSecond(ZoneOffset.UTC) / 60 : -1;
+    }
+}
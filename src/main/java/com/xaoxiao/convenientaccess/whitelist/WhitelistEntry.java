@@ -39,7 +39,23 @@ public class WhitelistEntry {
         this.isActive = true;
         this.addedAt = addedAt;
     }
-    
+
+    /**
+     * 复制构造函数（缓存中的条目只替换不修改，更新时先复制）
+     */
+    public WhitelistEntry(WhitelistEntry other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.uuid = other.uuid;
+        this.addedByName = other.addedByName;
+        this.addedByUuid = other.addedByUuid;
+        this.addedAt = other.addedAt;
+        this.source = other.source;
+        this.isActive = other.isActive;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -1,22 +1,36 @@
 package com.xaoxiao.convenientaccess.whitelist;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.xaoxiao.convenientaccess.database.DatabaseManager;
+import com.xaoxiao.convenientaccess.database.DatabasePriority;
+import com.xaoxiao.convenientaccess.utils.PageCursor;
 
 /**
  * 白名单管理器
@@ -24,10 +38,28 @@ import com.xaoxiao.convenientaccess.database.DatabaseManager;
  */
 public class WhitelistManager {
     private static final Logger logger = LoggerFactory.getLogger(WhitelistManager.class);
+    private static final CompletableFuture<Boolean> COMPLETED_TRUE = CompletableFuture.completedFuture(true);
+    private static final CompletableFuture<Boolean> COMPLETED_FALSE = CompletableFuture.completedFuture(false);
+    // 批量写入时每条多行 INSERT/DELETE 语句的行数（插入每行7个参数，远低于 SQLite 的参数上限）
+    private static final int MULTI_ROW_CHUNK = 500;
+    private static final long CONSISTENCY_RECHECK_DELAY_MS = 10_000;
+    private static final int MAX_INCREMENTAL_CHANGES = 10_000;
+    private static final int SQL_IN_CHUNK = 500;
+    private static final long CHANGE_PRUNE_INTERVAL_MINUTES = 60;
     
     private final DatabaseManager databaseManager;
-    private final ConcurrentHashMap<String, WhitelistEntry> cache = new ConcurrentHashMap<>();
+    private final WhitelistCache cache = new WhitelistCache();
     private volatile boolean cacheLoaded = false;
+    // 非活跃行数，在加载缓存和统计校对时更新
+    private volatile int inactiveRows;
+    private volatile int statsDriftCount;
+    private volatile boolean authoritative = false;
+    private final Object refreshLock = new Object();
+    private volatile long lastChangeSeq = 0;
+    private volatile boolean incrementalRefresh = false;
+    private ScheduledExecutorService cacheTaskExecutor;
+    // 写后队列，未启用时为null，添加/移除直接写入数据库
+    private volatile WhitelistWriteBehind writeBehind;
     
     public WhitelistManager(DatabaseManager databaseManager) {
         this.databaseManager = databaseManager;
@@ -40,6 +72,7 @@ public class WhitelistManager {
         return loadCache().thenApply(success -> {
             if (success) {
                 logger.info("白名单管理器初始化完成，缓存了 {} 个条目", cache.size());
+                logger.info("白名单缓存内存占用: {}", cache.memoryReport());
                 return true;
             } else {
                 logger.error("白名单管理器初始化失败");
@@ -82,7 +115,7 @@ public class WhitelistManager {
             // UUID留空，等玩家登录时补充
             WhitelistEntry entry = new WhitelistEntry(name, null, addedByName, addedByUuid, source.getValue(), addedAt);
             
-            return databaseManager.executeTransactionAsync(connection -> {
+            return databaseManager.executeWrite(connection -> {
                 String sql = """
                     INSERT INTO whitelist (name, uuid, added_by_name, added_by_uuid, added_at, source, is_active)
                     VALUES (?, ?, ?, ?, ?, ?, ?)
@@ -105,8 +138,9 @@ public class WhitelistManager {
                             }
                         }
                         
-                        // 缓存使用玩家名作为key（因为UUID为空）
-                        cache.put("name:" + name.toLowerCase(), entry);
+                        // UUID为空，仅进入名称索引
+                        stampInsertTime(entry);
+                        cache.put(entry);
                         logger.info("添加玩家到白名单（仅用户名）: {}", name);
                         return true;
                     }
@@ -148,7 +182,12 @@ public class WhitelistManager {
         
         WhitelistEntry entry = new WhitelistEntry(name, uuid, addedByName, addedByUuid, source.getValue(), addedAt);
         
-        return databaseManager.executeTransactionAsync(connection -> {
+        WhitelistWriteBehind queue = writeBehind;
+        if (queue != null && cacheLoaded) {
+            return addPlayerWriteBehind(queue, entry);
+        }
+        
+        return databaseManager.executeWrite(connection -> {
             String sql = """
                 INSERT INTO whitelist (name, uuid, added_by_name, added_by_uuid, added_at, source, is_active)
                 VALUES (?, ?, ?, ?, ?, ?, ?)
@@ -172,7 +211,8 @@ public class WhitelistManager {
                     }
                     
                     // 更新缓存
-                    cache.put(uuid, entry);
+                    stampInsertTime(entry);
+                    cache.put(entry);
                     logger.info("添加玩家到白名单: {} ({})", name, uuid);
                     return true;
                 }
@@ -192,7 +232,12 @@ public class WhitelistManager {
             return CompletableFuture.completedFuture(false);
         }
         
-        return databaseManager.executeTransactionAsync(connection -> {
+        WhitelistWriteBehind queue = writeBehind;
+        if (queue != null && cacheLoaded) {
+            return removePlayerWriteBehind(queue, uuid);
+        }
+        
+        return databaseManager.executeWrite(connection -> {
             String sql = "DELETE FROM whitelist WHERE uuid = ?";
             
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -201,7 +246,7 @@ public class WhitelistManager {
                 int affected = stmt.executeUpdate();
                 if (affected > 0) {
                     // 更新缓存
-                    WhitelistEntry removed = cache.remove(uuid);
+                    WhitelistEntry removed = cache.removeByUuid(UUID.fromString(uuid));
                     if (removed != null) {
                         logger.info("从白名单移除玩家: {} ({})", removed.getName(), uuid);
                     }
@@ -215,6 +260,125 @@ public class WhitelistManager {
         });
     }
     
+    /**
+     * 写后模式添加：先写入缓存，所在批次提交后返回数据库的实际结果
+     */
+    private CompletableFuture<Boolean> addPlayerWriteBehind(WhitelistWriteBehind queue, WhitelistEntry entry) {
+        if (cache.containsUuid(UUID.fromString(entry.getUuid()))) {
+            logger.info("玩家 {} ({}) 已在白名单中", entry.getName(), entry.getUuid());
+            return COMPLETED_FALSE;
+        }
+        
+        stampInsertTime(entry);
+        cache.put(entry);
+        return queue.submit(WhitelistWriteBehind.PendingWrite.add(entry)).thenApply(added -> {
+            if (added) {
+                logger.info("添加玩家到白名单: {} ({})", entry.getName(), entry.getUuid());
+            }
+            return added;
+        });
+    }
+    
+    /**
+     * 写后模式移除：先从缓存移除，所在批次提交后返回数据库的实际结果
+     */
+    private CompletableFuture<Boolean> removePlayerWriteBehind(WhitelistWriteBehind queue, String uuid) {
+        WhitelistEntry removed = cache.removeByUuid(UUID.fromString(uuid));
+        return queue.submit(WhitelistWriteBehind.PendingWrite.remove(uuid)).thenApply(deleted -> {
+            if (deleted) {
+                logger.info("从白名单移除玩家: {} ({})", removed != null ? removed.getName() : "?", uuid);
+            }
+            return deleted;
+        });
+    }
+    
+    /**
+     * 在一个事务中执行一批写后队列中的写入
+     * 插入被忽略（UUID已存在或违反约束）时，用数据库中的实际行修正预先写入缓存的条目；
+     * 已存在的行未激活时与全量加载一致，不放入缓存
+     */
+    private void writeBehindBatch(Connection connection, List<WhitelistWriteBehind.PendingWrite> batch) throws SQLException {
+        String insertSql = """
+            INSERT OR IGNORE INTO whitelist (name, uuid, added_by_name, added_by_uuid, added_at, source, is_active)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            RETURNING id
+        """;
+        try (PreparedStatement insert = connection.prepareStatement(insertSql);
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM whitelist WHERE uuid = ?");
+             PreparedStatement select = connection.prepareStatement("SELECT * FROM whitelist WHERE uuid = ? AND is_active = 1")) {
+            for (WhitelistWriteBehind.PendingWrite write : batch) {
+                if (write.type == WhitelistWriteBehind.PendingWrite.Type.REMOVE) {
+                    delete.setString(1, write.uuid);
+                    write.succeeded = delete.executeUpdate() > 0;
+                    continue;
+                }
+                
+                WhitelistEntry entry = write.entry;
+                insert.setString(1, entry.getName());
+                insert.setString(2, entry.getUuid());
+                insert.setString(3, entry.getAddedByName());
+                insert.setString(4, entry.getAddedByUuid());
+                insert.setTimestamp(5, Timestamp.valueOf(entry.getAddedAt()));
+                insert.setString(6, entry.getSource());
+                insert.setBoolean(7, entry.isActive());
+                try (ResultSet rs = insert.executeQuery()) {
+                    write.succeeded = rs.next();
+                    if (write.succeeded) {
+                        entry.setId(rs.getLong(1));
+                        continue;
+                    }
+                }
+                
+                select.setString(1, entry.getUuid());
+                try (ResultSet rs = select.executeQuery()) {
+                    if (rs.next()) {
+                        WhitelistEntry existing = mapResultSetToEntry(rs);
+                        cache.put(existing);
+                    } else {
+                        cache.removeByUuid(UUID.fromString(entry.getUuid()));
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * 组提交失败时缓存中已包含未落盘的修改，重新加载以恢复一致
+     * 失败批次已移出未完成集合，其他仍在队列中的写入在重新加载时重新应用到缓存
+     */
+    private void onWriteBehindFailed(List<WhitelistWriteBehind.PendingWrite> batch, Throwable cause) {
+        reloadCache();
+    }
+    
+    /**
+     * 启用写后模式（组提交）
+     * @param maxDelayMs 写入在队列中等待的最长时间（毫秒），小于等于0时不启用
+     * @param maxBatchSize 队列达到该数量时立即提交
+     */
+    public synchronized void enableWriteBehind(long maxDelayMs, int maxBatchSize) {
+        if (maxDelayMs <= 0 || writeBehind != null) {
+            return;
+        }
+        writeBehind = new WhitelistWriteBehind(databaseManager::executeWrite, this::writeBehindBatch, this::onWriteBehindFailed,
+                maxDelayMs, maxBatchSize);
+        logger.info("白名单写后模式已启用，最大延迟: {} ms，批大小: {}", maxDelayMs, maxBatchSize);
+    }
+    
+    /**
+     * 写后模式统计，未启用时返回null
+     */
+    public String getWriteBehindStats() {
+        WhitelistWriteBehind queue = writeBehind;
+        if (queue == null) {
+            return null;
+        }
+        long batches = queue.getBatchCount();
+        return String.format("批次 %d, 写入 %d, 平均批大小 %.1f, 失败批次 %d, 排队 %d",
+                batches, queue.getOperationCount(),
+                batches > 0 ? (double) queue.getOperationCount() / batches : 0.0,
+                queue.getFailedBatchCount(), queue.getPendingCount());
+    }
+    
     /**
      * 通过玩家名称从白名单移除玩家
      */
@@ -223,7 +387,7 @@ public class WhitelistManager {
             return CompletableFuture.completedFuture(false);
         }
         
-        return databaseManager.executeTransactionAsync(connection -> {
+        return databaseManager.executeWrite(connection -> {
             String sql = "DELETE FROM whitelist WHERE name = ?";
             
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -231,20 +395,10 @@ public class WhitelistManager {
                 
                 int affected = stmt.executeUpdate();
                 if (affected > 0) {
-                    // 更新缓存 - 需要找到对应的UUID
-                    String uuidToRemove = null;
-                    for (Map.Entry<String, WhitelistEntry> entry : cache.entrySet()) {
-                        if (name.equals(entry.getValue().getName())) {
-                            uuidToRemove = entry.getKey();
-                            break;
-                        }
-                    }
-                    
-                    if (uuidToRemove != null) {
-                        WhitelistEntry removed = cache.remove(uuidToRemove);
-                        if (removed != null) {
-                            logger.info("从白名单移除玩家(按名称): {}", name);
-                        }
+                    // 更新缓存 - 名称索引直接定位，同时移除对应的UUID索引
+                    WhitelistEntry removed = cache.removeByName(name);
+                    if (removed != null) {
+                        logger.info("从白名单移除玩家(按名称): {}", name);
                     } else {
                         logger.info("从白名单移除玩家(按名称,未缓存): {}", name);
                     }
@@ -267,13 +421,17 @@ public class WhitelistManager {
         }
         
         // 先检查缓存
-        if (cacheLoaded && cache.containsKey(uuid)) {
-            WhitelistEntry entry = cache.get(uuid);
-            return CompletableFuture.completedFuture(entry != null && entry.isActive());
+        if (cacheLoaded && cache.containsUuid(UUID.fromString(uuid))) {
+            return COMPLETED_TRUE;
+        }
+        
+        // 权威模式下缓存未命中即为否定结果
+        if (isCacheAuthoritative()) {
+            return COMPLETED_FALSE;
         }
         
         // 查询数据库
-        return databaseManager.executeAsync(connection -> {
+        return databaseManager.executeRead(DatabasePriority.LOGIN_CRITICAL, connection -> {
             String sql = "SELECT is_active FROM whitelist WHERE uuid = ? AND is_active = 1";
             
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -299,14 +457,18 @@ public class WhitelistManager {
         
         String normalizedName = playerName.trim().toLowerCase();
         
-        // 先检查缓存（检查基于名称的缓存）
-        if (cacheLoaded && cache.containsKey("name:" + normalizedName)) {
-            WhitelistEntry entry = cache.get("name:" + normalizedName);
-            return CompletableFuture.completedFuture(entry != null && entry.isActive());
+        // 先检查缓存（名称索引忽略大小写）
+        if (cacheLoaded && cache.containsName(playerName.trim())) {
+            return COMPLETED_TRUE;
+        }
+        
+        // 权威模式下缓存未命中即为否定结果
+        if (isCacheAuthoritative()) {
+            return COMPLETED_FALSE;
         }
         
         // 查询数据库
-        return databaseManager.executeAsync(connection -> {
+        return databaseManager.executeRead(DatabasePriority.LOGIN_CRITICAL, connection -> {
             String sql = "SELECT is_active FROM whitelist WHERE LOWER(name) = ? AND is_active = 1";
             
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -332,16 +494,48 @@ public class WhitelistManager {
         
         // 先检查 UUID（如果有效）
         if (isValidUuid(uuid)) {
-            if (cacheLoaded && cache.containsKey(uuid)) {
-                WhitelistEntry entry = cache.get(uuid);
-                if (entry != null && entry.isActive()) {
-                    return CompletableFuture.completedFuture(true);
-                }
+            return isPlayerWhitelistedOffline(playerName, UUID.fromString(uuid));
+        }
+        
+        if (cacheLoaded && cache.containsName(playerName.trim())) {
+            return COMPLETED_TRUE;
+        }
+        if (isCacheAuthoritative()) {
+            return COMPLETED_FALSE;
+        }
+        
+        return queryWhitelistedOffline(playerName, uuid);
+    }
+    
+    /**
+     * 检查玩家是否在白名单中（登录前检查使用）
+     * 直接使用事件提供的UUID查询原始类型索引，命中时不产生任何字符串或包装对象
+     */
+    public CompletableFuture<Boolean> isPlayerWhitelistedOffline(String playerName, UUID uuid) {
+        if (playerName == null || playerName.isEmpty()) {
+            return COMPLETED_FALSE;
+        }
+        
+        if (cacheLoaded) {
+            WhitelistSnapshot snapshot = cache.snapshot();
+            if (snapshot.containsUuid(uuid) || snapshot.containsName(playerName)) {
+                return COMPLETED_TRUE;
             }
         }
         
-        // 查询数据库 - 同时检查用户名和UUID
-        return databaseManager.executeAsync(connection -> {
+        // 权威模式下缓存未命中即为否定结果，未知账号不会打到数据库
+        if (isCacheAuthoritative()) {
+            return COMPLETED_FALSE;
+        }
+        
+        return queryWhitelistedOffline(playerName, uuid.toString());
+    }
+    
+    /**
+     * 查询数据库 - 同时检查用户名和UUID
+     */
+    private CompletableFuture<Boolean> queryWhitelistedOffline(String playerName, String uuid) {
+        return databaseManager.executeRead(DatabasePriority.LOGIN_CRITICAL, connection -> {
             String sql = """
                 SELECT is_active FROM whitelist 
                 WHERE (LOWER(name) = LOWER(?) OR uuid = ?) 
@@ -376,12 +570,13 @@ public class WhitelistManager {
         }
         
         // 先检查缓存
-        if (cacheLoaded && cache.containsKey(uuid)) {
-            return CompletableFuture.completedFuture(Optional.ofNullable(cache.get(uuid)));
+        WhitelistEntry cached = cacheLoaded ? cache.getByUuid(UUID.fromString(uuid)) : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
         }
         
         // 查询数据库
-        return databaseManager.executeAsync(connection -> {
+        return databaseManager.executeRead(DatabasePriority.LOGIN_CRITICAL, connection -> {
             String sql = "SELECT * FROM whitelist WHERE uuid = ?";
             
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -390,9 +585,9 @@ public class WhitelistManager {
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
                         WhitelistEntry entry = mapResultSetToEntry(rs);
-                        // 更新缓存
-                        if (cacheLoaded) {
-                            cache.put(uuid, entry);
+                        // 更新缓存（缓存只保存活跃条目）
+                        if (cacheLoaded && entry.isActive()) {
+                            cache.put(entry);
                         }
                         return Optional.of(entry);
                     }
@@ -407,13 +602,18 @@ public class WhitelistManager {
     
     /**
      * 根据玩家名称搜索白名单条目
+     * 缓存已加载时通过三元组索引搜索，结果按相关度排序（完全匹配优先，其次前缀匹配）
      */
     public CompletableFuture<List<WhitelistEntry>> searchPlayersByName(String name, int limit) {
         if (name == null || name.trim().isEmpty()) {
             return CompletableFuture.completedFuture(new ArrayList<>());
         }
-        
-        return databaseManager.executeAsync(connection -> {
+
+        if (cacheLoaded) {
+            return CompletableFuture.completedFuture(WhitelistQueryEngine.searchByName(cache.snapshot(), name, limit));
+        }
+
+        return databaseManager.executeRead(connection -> {
             String sql = """
                 SELECT * FROM whitelist 
                 WHERE name LIKE ? AND is_active = 1 
@@ -448,7 +648,7 @@ public class WhitelistManager {
             return CompletableFuture.completedFuture(false);
         }
         
-        return databaseManager.executeTransactionAsync(connection -> {
+        return databaseManager.executeWrite(DatabasePriority.LOGIN_CRITICAL, connection -> {
             String sql = "UPDATE whitelist SET uuid = ?, updated_at = CURRENT_TIMESTAMP WHERE LOWER(name) = ? AND uuid IS NULL";
             
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -457,15 +657,12 @@ public class WhitelistManager {
                 
                 int affected = stmt.executeUpdate();
                 if (affected > 0) {
-                    // 更新缓存
-                    String nameKey = "name:" + playerName.toLowerCase();
-                    WhitelistEntry entry = cache.get(nameKey);
-                    if (entry != null) {
-                        entry.setUuid(uuid);
-                        // 添加基于UUID的缓存
-                        cache.put(uuid, entry);
-                        // 可以选择保留基于名称的缓存或移除
-                        // cache.remove(nameKey);
+                    // 更新缓存 - 替换为补充了UUID的新条目，不修改读线程可能正在使用的旧对象
+                    WhitelistEntry entry = cache.getByName(playerName);
+                    if (entry != null && entry.getUuid() == null) {
+                        WhitelistEntry updated = new WhitelistEntry(entry);
+                        updated.setUuid(uuid);
+                        cache.put(updated);
                     }
                     
                     logger.info("更新玩家UUID: {} -> {}", playerName, uuid);
@@ -490,12 +687,13 @@ public class WhitelistManager {
         String normalizedName = playerName.toLowerCase();
         
         // 先检查缓存
-        if (cacheLoaded && cache.containsKey("name:" + normalizedName)) {
-            return CompletableFuture.completedFuture(Optional.ofNullable(cache.get("name:" + normalizedName)));
+        WhitelistEntry cached = cacheLoaded ? cache.getByName(playerName) : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
         }
         
         // 查询数据库
-        return databaseManager.executeAsync(connection -> {
+        return databaseManager.executeRead(DatabasePriority.LOGIN_CRITICAL, connection -> {
             String sql = "SELECT * FROM whitelist WHERE LOWER(name) = ?";
             
             try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -504,12 +702,9 @@ public class WhitelistManager {
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
                         WhitelistEntry entry = mapResultSetToEntry(rs);
-                        // 更新缓存
-                        if (cacheLoaded) {
-                            cache.put("name:" + normalizedName, entry);
-                            if (entry.getUuid() != null) {
-                                cache.put(entry.getUuid(), entry);
-                            }
+                        // 更新缓存（缓存只保存活跃条目）
+                        if (cacheLoaded && entry.isActive()) {
+                            cache.put(entry);
                         }
                         return Optional.of(entry);
                     }
@@ -524,55 +719,79 @@ public class WhitelistManager {
 
     /**
      * 获取白名单统计信息
+     * 缓存已加载时直接读取随写入增量维护的计数器，缓存未加载时回退到聚合查询
      */
     public CompletableFuture<WhitelistStats> getStats() {
-        return databaseManager.executeAsync(connection -> {
-            WhitelistStats stats = new WhitelistStats();
-            
-            // 总玩家数
-            String totalSql = "SELECT COUNT(*) FROM whitelist";
-            try (Statement stmt = connection.createStatement();
-                 ResultSet rs = stmt.executeQuery(totalSql)) {
-                if (rs.next()) {
-                    stats.setTotalPlayers(rs.getInt(1));
-                }
+        if (cacheLoaded) {
+            return CompletableFuture.completedFuture(statsFromCache(cache.snapshot()));
+        }
+        
+        return databaseManager.executeRead(this::queryStats).exceptionally(throwable -> {
+            logger.error("获取白名单统计信息失败", throwable);
+            return new WhitelistStats();
+        });
+    }
+    
+    /**
+     * 由快照计数器生成统计信息
+     * 非活跃条目不在缓存中，总数加上最近一次加载或校对时统计的非活跃行数
+     */
+    private WhitelistStats statsFromCache(WhitelistSnapshot snapshot) {
+        WhitelistCounts counts = snapshot.counts();
+        WhitelistStats stats = new WhitelistStats();
+        stats.setActivePlayers(counts.size());
+        stats.setTotalPlayers(counts.size() + inactiveRows);
+        stats.setSourceCounts(counts.sourceCounts());
+        stats.setRecentAdditions(counts.recentAdditions(System.currentTimeMillis()));
+        return stats;
+    }
+    
+    /**
+     * 通过聚合查询统计白名单
+     */
+    private WhitelistStats queryStats(Connection connection) throws SQLException {
+        WhitelistStats stats = new WhitelistStats();
+        
+        // 总玩家数
+        String totalSql = "SELECT COUNT(*) FROM whitelist";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(totalSql)) {
+            if (rs.next()) {
+                stats.setTotalPlayers(rs.getInt(1));
             }
-            
-            // 活跃玩家数
-            String activeSql = "SELECT COUNT(*) FROM whitelist WHERE is_active = 1";
-            try (Statement stmt = connection.createStatement();
-                 ResultSet rs = stmt.executeQuery(activeSql)) {
-                if (rs.next()) {
-                    stats.setActivePlayers(rs.getInt(1));
-                }
+        }
+        
+        // 活跃玩家数
+        String activeSql = "SELECT COUNT(*) FROM whitelist WHERE is_active = 1";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(activeSql)) {
+            if (rs.next()) {
+                stats.setActivePlayers(rs.getInt(1));
             }
-            
-            // 按来源统计
-            String sourceSql = "SELECT source, COUNT(*) FROM whitelist WHERE is_active = 1 GROUP BY source";
-            try (Statement stmt = connection.createStatement();
-                 ResultSet rs = stmt.executeQuery(sourceSql)) {
-                while (rs.next()) {
-                    stats.addSourceCount(rs.getString(1), rs.getInt(2));
-                }
+        }
+        
+        // 按来源统计
+        String sourceSql = "SELECT source, COUNT(*) FROM whitelist WHERE is_active = 1 GROUP BY source";
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sourceSql)) {
+            while (rs.next()) {
+                stats.addSourceCount(rs.getString(1), rs.getInt(2));
             }
-            
-            // 最近24小时新增
-            String recentSql = """
-                SELECT COUNT(*) FROM whitelist 
-                WHERE created_at > datetime('now', '-1 day')
-            """;
-            try (Statement stmt = connection.createStatement();
-                 ResultSet rs = stmt.executeQuery(recentSql)) {
-                if (rs.next()) {
-                    stats.setRecentAdditions(rs.getInt(1));
-                }
+        }
+        
+        // 最近24小时新增
+        String recentSql = """
+            SELECT COUNT(*) FROM whitelist 
+            WHERE created_at > datetime('now', '-1 day')
+        """;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(recentSql)) {
+            if (rs.next()) {
+                stats.setRecentAdditions(rs.getInt(1));
             }
-            
-            return stats;
-        }).exceptionally(throwable -> {
-            logger.error("获取白名单统计信息失败", throwable);
-            return new WhitelistStats();
-        });
+        }
+        
+        return stats;
     }
     
     /**
@@ -583,45 +802,28 @@ public class WhitelistManager {
             return CompletableFuture.completedFuture(0);
         }
         
-        return databaseManager.executeTransactionAsync(connection -> {
-            String sql = """
-                INSERT OR IGNORE INTO whitelist (name, uuid, added_by_name, added_by_uuid, added_at, source, is_active)
-                VALUES (?, ?, ?, ?, ?, ?, ?)
-            """;
-            
-            int successCount = 0;
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                for (WhitelistEntry entry : entries) {
-                    if (!isValidPlayerName(entry.getName()) || !isValidUuid(entry.getUuid())) {
-                        continue;
-                    }
-                    
-                    stmt.setString(1, entry.getName());
-                    stmt.setString(2, entry.getUuid());
-                    stmt.setString(3, entry.getAddedByName());
-                    stmt.setString(4, entry.getAddedByUuid());
-                    stmt.setTimestamp(5, Timestamp.valueOf(entry.getAddedAt()));
-                    stmt.setString(6, entry.getSource());
-                    stmt.setBoolean(7, entry.isActive());
-                    
-                    stmt.addBatch();
-                }
-                
-                int[] results = stmt.executeBatch();
-                for (int result : results) {
-                    if (result > 0) {
-                        successCount++;
-                    }
+        return databaseManager.executeWrite(DatabasePriority.BACKGROUND, connection -> {
+            List<WhitelistEntry> valid = new ArrayList<>(entries.size());
+            for (WhitelistEntry entry : entries) {
+                if (isValidPlayerName(entry.getName()) && isValidUuid(entry.getUuid())) {
+                    valid.add(entry);
                 }
-                
-                // 更新缓存
-                if (cacheLoaded) {
-                    for (WhitelistEntry entry : entries) {
-                        if (isValidUuid(entry.getUuid())) {
-                            cache.put(entry.getUuid(), entry);
-                        }
+            }
+            
+            Map<WhitelistEntry, String> insertErrors = new IdentityHashMap<>();
+            Set<WhitelistEntry> inserted = insertEntries(connection, valid, insertErrors);
+            int successCount = inserted.size();
+            
+            // 只缓存实际插入的条目（一次发布）
+            if (cacheLoaded && !inserted.isEmpty()) {
+                List<WhitelistEntry> cacheable = new ArrayList<>(inserted.size());
+                for (WhitelistEntry entry : valid) {
+                    if (inserted.contains(entry)) {
+                        stampInsertTime(entry);
+                        cacheable.add(entry);
                     }
                 }
+                cache.putAll(cacheable);
             }
             
             logger.info("批量添加玩家完成，成功: {}, 总数: {}", successCount, entries.size());
@@ -636,23 +838,32 @@ public class WhitelistManager {
      * 加载缓存
      */
     private CompletableFuture<Boolean> loadCache() {
-        return databaseManager.executeAsync(connection -> {
+        return databaseManager.executeRead(DatabasePriority.BACKGROUND, connection -> {
             String sql = "SELECT * FROM whitelist WHERE is_active = 1";
             
-            try (Statement stmt = connection.createStatement();
-                 ResultSet rs = stmt.executeQuery(sql)) {
+            // 加载期间的写入会在切换快照前重放
+            cache.beginReload();
+            try (Statement stmt = connection.createStatement()) {
+                // 先记录变更序号再读取全表，期间发生的变更会在下次增量刷新时重复应用（幂等）
+                long changeSeq = queryLatestChangeSeq(stmt);
+                int inactive = queryInactiveRows(stmt);
                 
-                cache.clear();
-                while (rs.next()) {
-                    WhitelistEntry entry = mapResultSetToEntry(rs);
-                    // 只缓存有 UUID 的条目，UUID 待补充的条目不放入缓存
-                    if (entry.getUuid() != null) {
-                        cache.put(entry.getUuid(), entry);
+                List<WhitelistEntry> entries = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    while (rs.next()) {
+                        // UUID 待补充的条目只进入名称索引
+                        entries.add(mapResultSetToEntry(rs));
                     }
                 }
                 
+                cache.replaceAll(entries, unflushedChanges());
+                inactiveRows = inactive;
+                lastChangeSeq = changeSeq;
                 cacheLoaded = true;
                 return true;
+            } catch (SQLException | RuntimeException e) {
+                cache.abortReload();
+                throw e;
             }
         }).exceptionally(throwable -> {
             logger.error("加载白名单缓存失败", throwable);
@@ -660,6 +871,285 @@ public class WhitelistManager {
         });
     }
     
+    /**
+     * 写后队列中尚未完成的写入对应的缓存变更，全量加载时重新应用，避免丢失已预先写入缓存的修改
+     */
+    private List<WhitelistCache.Change> unflushedChanges() {
+        WhitelistWriteBehind queue = writeBehind;
+        if (queue == null) {
+            return List.of();
+        }
+        List<WhitelistCache.Change> changes = new ArrayList<>();
+        for (WhitelistWriteBehind.PendingWrite write : queue.outstandingWrites()) {
+            if (write.type == WhitelistWriteBehind.PendingWrite.Type.ADD) {
+                changes.add(WhitelistCache.Change.put(write.entry));
+            } else {
+                UUID uuid = WhitelistCache.parseUuid(write.uuid);
+                if (uuid != null) {
+                    changes.add(WhitelistCache.Change.removeUuid(uuid));
+                }
+            }
+        }
+        return changes;
+    }
+    
+    /**
+     * 查询非活跃行数（不进入缓存，只用于统计总数）
+     */
+    private int queryInactiveRows(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM whitelist WHERE is_active = 0")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+    
+    /**
+     * 查询当前最新的变更序号
+     */
+    private long queryLatestChangeSeq(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM whitelist_changes")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+    
+    /**
+     * 增量刷新缓存
+     * 只读取上次刷新之后的变更序列（包括删除墓碑），开销与变更量成正比而不是与白名单大小成正比。
+     * 变更过多或缓存尚未加载时退化为全量加载。
+     * 刷新在单写线程上执行：读到的数据与写线程上已经更新缓存的写入顺序一致，
+     * 不会用写入之前的旧快照覆盖缓存（例如把刚移除的玩家重新放回）；
+     * 写后队列中尚未提交的UUID已预先写入缓存，刷新时跳过，由所在批次提交后保持一致
+     */
+    public CompletableFuture<Boolean> refreshCache() {
+        if (!cacheLoaded) {
+            return loadCache();
+        }
+        
+        WhitelistWriteBehind queue = writeBehind;
+        return databaseManager.executeWrite(DatabasePriority.BACKGROUND, connection -> {
+            synchronized (refreshLock) {
+                long fromSeq = lastChangeSeq;
+                String changesSql = """
+                    SELECT seq, whitelist_id, name, uuid FROM whitelist_changes
+                    WHERE seq > ?
+                    ORDER BY seq ASC
+                    LIMIT ?
+                """;
+                
+                List<WhitelistCache.Change> changes = new ArrayList<>();
+                Set<Long> touchedIds = new LinkedHashSet<>();
+                long maxSeq = fromSeq;
+                try (PreparedStatement stmt = connection.prepareStatement(changesSql)) {
+                    stmt.setLong(1, fromSeq);
+                    stmt.setInt(2, MAX_INCREMENTAL_CHANGES + 1);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            long rowId = rs.getLong("whitelist_id");
+                            maxSeq = rs.getLong("seq");
+                            if (queue != null && queue.isOutstanding(rs.getString("uuid"))) {
+                                continue;
+                            }
+                            // 先移除变更前的身份，再按当前行重新写入（被删除或停用的行不会再写入）
+                            changes.add(WhitelistCache.Change.removeRow(rowId, 
+                                    WhitelistCache.parseUuid(rs.getString("uuid")), rs.getString("name")));
+                            touchedIds.add(rowId);
+                        }
+                    }
+                }
+                
+                if (touchedIds.isEmpty()) {
+                    lastChangeSeq = maxSeq;
+                    return true;
+                }
+                if (changes.size() > MAX_INCREMENTAL_CHANGES) {
+                    logger.info("白名单变更过多（超过 {} 条），改为全量重新加载缓存", MAX_INCREMENTAL_CHANGES);
+                    return false;
+                }
+                
+                // 读取受影响行的当前状态
+                List<Long> ids = new ArrayList<>(touchedIds);
+                for (int offset = 0; offset < ids.size(); offset += SQL_IN_CHUNK) {
+                    List<Long> chunk = ids.subList(offset, Math.min(offset + SQL_IN_CHUNK, ids.size()));
+                    String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                    String rowsSql = "SELECT * FROM whitelist WHERE is_active = 1 AND id IN (" + placeholders + ")";
+                    try (PreparedStatement stmt = connection.prepareStatement(rowsSql)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setLong(i + 1, chunk.get(i));
+                        }
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                WhitelistEntry entry = mapResultSetToEntry(rs);
+                                if (queue == null || !queue.isOutstanding(entry.getUuid())) {
+                                    changes.add(WhitelistCache.Change.put(entry));
+                                }
+                            }
+                        }
+                    }
+                }
+                
+                cache.apply(changes);
+                lastChangeSeq = maxSeq;
+                
+                logger.debug("白名单缓存增量刷新: {} 行变更，序号 {} -> {}", touchedIds.size(), fromSeq, maxSeq);
+                return true;
+            }
+        }).thenCompose(applied -> applied ? CompletableFuture.completedFuture(true) : loadCache())
+          .exceptionally(throwable -> {
+            logger.error("增量刷新白名单缓存失败", throwable);
+            return false;
+        });
+    }
+    
+    /**
+     * 清理超过保留期（1天）的变更记录
+     * 增量刷新开启时只清理已应用的变更；关闭时变更记录只在一致性检查中作为快速路径使用，按保留期全部清理
+     */
+    private void pruneChanges() {
+        long maxSeq = incrementalRefresh ? lastChangeSeq : Long.MAX_VALUE;
+        try {
+            int deleted = databaseManager.executeWrite(DatabasePriority.BACKGROUND, connection -> {
+                String sql = "DELETE FROM whitelist_changes WHERE seq <= ? AND changed_at < datetime('now', '-1 day')";
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setLong(1, maxSeq);
+                    return stmt.executeUpdate();
+                }
+            }).get();
+            if (deleted > 0) {
+                logger.debug("已清理白名单变更记录 {} 条", deleted);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("清理白名单变更记录失败", e);
+        }
+    }
+    
+    /**
+     * 多行插入白名单条目（INSERT OR IGNORE ... RETURNING）
+     * 每条语句写入最多 {@value #MULTI_ROW_CHUNK} 行，UUID已存在或违反约束的行被忽略；
+     * 同一UUID在批次中出现多次时只有第一次插入。某条语句执行失败时该块退回逐行插入，以便定位失败的条目
+     *
+     * @param errors 逐行插入时失败的条目及原因
+     * @return 实际插入的条目（按对象身份），已设置ID
+     */
+    static Set<WhitelistEntry> insertEntries(Connection connection, List<WhitelistEntry> entries,
+                                             Map<WhitelistEntry, String> errors) throws SQLException {
+        Set<WhitelistEntry> inserted = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int from = 0; from < entries.size(); from += MULTI_ROW_CHUNK) {
+            List<WhitelistEntry> chunk = entries.subList(from, Math.min(from + MULTI_ROW_CHUNK, entries.size()));
+            try {
+                insertChunk(connection, chunk, inserted);
+            } catch (SQLException e) {
+                logger.debug("多行插入失败，改为逐行插入: {}", e.getMessage());
+                for (WhitelistEntry entry : chunk) {
+                    try {
+                        insertChunk(connection, List.of(entry), inserted);
+                    } catch (SQLException rowError) {
+                        errors.put(entry, rowError.getMessage());
+                    }
+                }
+            }
+        }
+        return inserted;
+    }
+    
+    private static void insertChunk(Connection connection, List<WhitelistEntry> chunk, Set<WhitelistEntry> inserted) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "INSERT OR IGNORE INTO whitelist (name, uuid, added_by_name, added_by_uuid, added_at, source, is_active) VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?, ?)");
+        }
+        sql.append(" RETURNING id, uuid");
+        
+        Map<String, Long> ids = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (WhitelistEntry entry : chunk) {
+                stmt.setString(index++, entry.getName());
+                stmt.setString(index++, entry.getUuid());
+                stmt.setString(index++, entry.getAddedByName());
+                stmt.setString(index++, entry.getAddedByUuid());
+                stmt.setTimestamp(index++, Timestamp.valueOf(entry.getAddedAt()));
+                stmt.setString(index++, entry.getSource());
+                stmt.setBoolean(index++, entry.isActive());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.put(rs.getString("uuid"), rs.getLong("id"));
+                }
+            }
+        }
+        
+        // 行按 VALUES 的顺序插入，同一UUID的重复条目中只有第一条会被插入
+        for (WhitelistEntry entry : chunk) {
+            Long id = ids.remove(entry.getUuid());
+            if (id != null) {
+                entry.setId(id);
+                inserted.add(entry);
+            }
+        }
+    }
+    
+    /**
+     * 按UUID多行删除（DELETE ... WHERE uuid IN (...) RETURNING uuid）
+     * 某条语句执行失败时该块退回逐行删除
+     *
+     * @param errors 逐行删除时失败的UUID及原因
+     * @return 实际删除的UUID
+     */
+    static Set<String> deleteByUuids(Connection connection, List<String> uuids,
+                                     Map<String, String> errors) throws SQLException {
+        Set<String> deleted = new HashSet<>();
+        for (int from = 0; from < uuids.size(); from += MULTI_ROW_CHUNK) {
+            List<String> chunk = uuids.subList(from, Math.min(from + MULTI_ROW_CHUNK, uuids.size()));
+            try {
+                deleteChunk(connection, chunk, deleted);
+            } catch (SQLException e) {
+                logger.debug("多行删除失败，改为逐行删除: {}", e.getMessage());
+                for (String uuid : chunk) {
+                    try {
+                        deleteChunk(connection, List.of(uuid), deleted);
+                    } catch (SQLException rowError) {
+                        errors.put(uuid, rowError.getMessage());
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+    
+    private static void deleteChunk(Connection connection, List<String> chunk, Set<String> deleted) throws SQLException {
+        StringBuilder sql = new StringBuilder("DELETE FROM whitelist WHERE uuid IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") RETURNING uuid");
+        
+        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < chunk.size(); i++) {
+                stmt.setString(i + 1, chunk.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    deleted.add(rs.getString(1));
+                }
+            }
+        }
+    }
+    
+    /**
+     * 为新插入的条目补充创建/更新时间
+     * 数据库以 CURRENT_TIMESTAMP（UTC）填充这两列，缓存中的条目需要相同的值才能按它们排序和分页
+     */
+    private static void stampInsertTime(WhitelistEntry entry) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).withNano(0);
+        if (entry.getCreatedAt() == null) {
+            entry.setCreatedAt(now);
+        }
+        if (entry.getUpdatedAt() == null) {
+            entry.setUpdatedAt(now);
+        }
+    }
+
     /**
      * 将ResultSet映射为WhitelistEntry
      */
@@ -692,6 +1182,244 @@ public class WhitelistManager {
         return uuid != null && uuid.matches("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
     }
     
+    /**
+     * 设置是否以缓存为准
+     * 开启后，缓存加载完成时白名单检查的否定结果直接返回，不再回源查询数据库。
+     * 前提是所有写入都经过 WhitelistManager
+     */
+    public void setAuthoritativeCache(boolean authoritative) {
+        this.authoritative = authoritative;
+    }
+    
+    /**
+     * 缓存当前是否处于权威模式（已开启且缓存已加载）
+     */
+    public boolean isCacheAuthoritative() {
+        return authoritative && cacheLoaded;
+    }
+    
+    /**
+     * 启动后台一致性检查
+     * @param intervalMinutes 检查间隔（分钟），小于等于0时不启动
+     */
+    public synchronized void startConsistencyCheck(int intervalMinutes) {
+        if (intervalMinutes <= 0) {
+            return;
+        }
+        
+        getCacheTaskExecutor().scheduleAtFixedRate(this::runConsistencyCheck, 
+                intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        logger.info("白名单缓存一致性检查已启动，间隔: {} 分钟", intervalMinutes);
+    }
+    
+    /**
+     * 启动定时增量刷新
+     * @param intervalSeconds 刷新间隔（秒），小于等于0时不启动
+     */
+    public synchronized void startIncrementalRefresh(int intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        
+        incrementalRefresh = true;
+        getCacheTaskExecutor().scheduleWithFixedDelay(() -> {
+            try {
+                refreshCache().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("白名单缓存增量刷新失败", e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        logger.info("白名单缓存增量刷新已启动，间隔: {} 秒", intervalSeconds);
+    }
+    
+    /**
+     * 启动变更记录定时清理
+     * 变更触发器在每次写入时都会记录，与是否开启增量刷新无关，因此清理任务始终运行
+     */
+    public synchronized void startChangePruning() {
+        getCacheTaskExecutor().scheduleWithFixedDelay(this::pruneChanges, 
+                CHANGE_PRUNE_INTERVAL_MINUTES, CHANGE_PRUNE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+    
+    /**
+     * 启动统计计数器定时校对
+     * @param intervalMinutes 校对间隔（分钟），小于等于0时不启动
+     */
+    public synchronized void startStatsReconciliation(int intervalMinutes) {
+        if (intervalMinutes <= 0) {
+            return;
+        }
+        
+        getCacheTaskExecutor().scheduleAtFixedRate(this::runStatsReconciliation, 
+                intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        logger.info("白名单统计校对已启动，间隔: {} 分钟", intervalMinutes);
+    }
+    
+    private ScheduledExecutorService getCacheTaskExecutor() {
+        if (cacheTaskExecutor == null) {
+            cacheTaskExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "ConvenientAccess-Whitelist-Cache");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return cacheTaskExecutor;
+    }
+    
+    /**
+     * 停止后台任务
+     */
+    public synchronized void shutdown() {
+        if (writeBehind != null) {
+            writeBehind.close();
+            writeBehind = null;
+        }
+        if (cacheTaskExecutor != null) {
+            cacheTaskExecutor.shutdownNow();
+            cacheTaskExecutor = null;
+        }
+    }
+    
+    /**
+     * 定时一致性检查
+     * 首次发现不一致时先做一次增量刷新并延迟复查，排除写入恰好处于提交过程中的情况，复查仍不一致才全量重新加载缓存
+     */
+    private void runConsistencyCheck() {
+        try {
+            if (verifyCacheConsistency().get()) {
+                return;
+            }
+            
+            refreshCache().get();
+            Thread.sleep(CONSISTENCY_RECHECK_DELAY_MS);
+            if (!verifyCacheConsistency().get()) {
+                logger.warn("白名单缓存与数据库不一致，正在重新加载缓存");
+                reloadCache().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("白名单缓存一致性检查失败", e);
+        }
+    }
+    
+    /**
+     * 定时统计校对
+     * 用聚合查询的结果校对内存计数器并更新非活跃行数；活跃条目数或来源分布出现偏差说明缓存本身与数据库不一致，
+     * 交给一致性检查处理。最近新增按分钟分桶统计，与查询结果的差异只记录调试日志
+     */
+    private void runStatsReconciliation() {
+        if (!cacheLoaded) {
+            return;
+        }
+        
+        try {
+            long versionBefore = cache.version();
+            WhitelistStats expected = databaseManager.executeRead(DatabasePriority.BACKGROUND, this::queryStats).get();
+            WhitelistSnapshot snapshot = cache.snapshot();
+            if (snapshot.version() != versionBefore) {
+                logger.debug("统计校对期间缓存有写入，跳过本次结果");
+                return;
+            }
+            
+            inactiveRows = expected.getTotalPlayers() - expected.getActivePlayers();
+            WhitelistStats actual = statsFromCache(snapshot);
+            if (actual.getActivePlayers() != expected.getActivePlayers()
+                    || !actual.getSourceCounts().equals(expected.getSourceCounts())) {
+                statsDriftCount++;
+                logger.warn("白名单统计与数据库存在偏差: 内存 {} 条 {}，数据库 {} 条 {}",
+                        actual.getActivePlayers(), actual.getSourceCounts(),
+                        expected.getActivePlayers(), expected.getSourceCounts());
+                runConsistencyCheck();
+                return;
+            }
+            if (actual.getRecentAdditions() != expected.getRecentAdditions()) {
+                logger.debug("最近24小时新增: 内存 {}，数据库 {}", actual.getRecentAdditions(), expected.getRecentAdditions());
+            }
+            logger.debug("白名单统计校对通过: {} 条", expected.getActivePlayers());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("白名单统计校对失败", e);
+        }
+    }
+    
+    /**
+     * 获取统计校对发现偏差的次数
+     */
+    public int getStatsDriftCount() {
+        return statsDriftCount;
+    }
+    
+    /**
+     * 校验缓存与 whitelist 表是否一致
+     * 检查期间如有并发写入则视为无法判断，返回true，等待下一轮检查
+     * 
+     * @return 一致时返回true
+     */
+    public CompletableFuture<Boolean> verifyCacheConsistency() {
+        if (!cacheLoaded) {
+            return CompletableFuture.completedFuture(true);
+        }
+        
+        long versionBefore = cache.version();
+        return databaseManager.executeRead(DatabasePriority.BACKGROUND, connection -> {
+            String sql = "SELECT name, uuid FROM whitelist WHERE is_active = 1";
+            WhitelistSnapshot snapshot = cache.snapshot();
+            
+            int rows = 0;
+            int missing = 0;
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    rows++;
+                    String name = rs.getString("name");
+                    UUID uuid = WhitelistCache.parseUuid(rs.getString("uuid"));
+                    WhitelistEntry cached = uuid != null ? snapshot.getByUuid(uuid) : snapshot.getByName(name);
+                    if (cached == null || (uuid == null && cached.getUuid() != null)) {
+                        missing++;
+                    }
+                }
+            }
+            
+            if (cache.version() != versionBefore) {
+                logger.debug("一致性检查期间缓存有写入，跳过本次结果");
+                return true;
+            }
+            
+            int cached = snapshot.size();
+            if (missing > 0 || cached != rows) {
+                logger.warn("白名单缓存一致性检查: 数据库 {} 条，缓存 {} 条，缓存缺失 {} 条", rows, cached, missing);
+                return false;
+            }
+            
+            logger.debug("白名单缓存一致性检查通过: {} 条", rows);
+            return true;
+        }).exceptionally(throwable -> {
+            logger.error("白名单缓存一致性检查失败", throwable);
+            return true;
+        });
+    }
+    
+    /**
+     * 按前缀补全白名单玩家名（忽略大小写，按字典序）
+     * 直接读取内存中的名称前缀树，可在主线程调用；缓存未加载时返回空列表
+     */
+    public List<String> suggestPlayerNames(String prefix, int limit) {
+        if (!cacheLoaded || prefix == null) {
+            return Collections.emptyList();
+        }
+        
+        List<WhitelistEntry> entries = cache.snapshot().nameTrie().suggest(prefix.trim(), limit);
+        List<String> names = new ArrayList<>(entries.size());
+        for (WhitelistEntry entry : entries) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
+    
     /**
      * 获取缓存大小
      */
@@ -699,6 +1427,20 @@ public class WhitelistManager {
         return cache.size();
     }
     
+    /**
+     * 获取缓存快照版本号
+     */
+    public long getCacheVersion() {
+        return cache.version();
+    }
+    
+    /**
+     * 获取缓存内存占用报告
+     */
+    public String getCacheMemoryReport() {
+        return cache.memoryReport();
+    }
+    
     /**
      * 清空缓存
      */
@@ -713,12 +1455,57 @@ public class WhitelistManager {
     public CompletableFuture<PaginatedResult<WhitelistEntry>> getWhitelistPaginated(
             int page, int size, String search, String source, String addedBy, 
             String sort, String order, String startDate, String endDate) {
+        return getWhitelistPaginated(page, size, search, source, addedBy, sort, order, startDate, endDate, null, true);
+    }
+    
+    /**
+     * 分页查询白名单条目（支持键集分页）
+     * 指定游标时从游标之后读取，排序字段和方向以游标为准，忽略页码；
+     * 不需要总数时跳过 COUNT 查询，结果中只返回下一页游标
+     *
+     * @throws IllegalArgumentException 游标中的排序值无效
+     */
+    public CompletableFuture<PaginatedResult<WhitelistEntry>> getWhitelistPaginated(
+            int page, int size, String search, String source, String addedBy, 
+            String sort, String order, String startDate, String endDate,
+            PageCursor cursor, boolean includeTotal) {
         
-        return databaseManager.executeAsync(connection -> {
+        // 缓存已加载时在内存快照上完成过滤、排序和分页
+        WhitelistQuery query = cacheLoaded
+                ? WhitelistQuery.parse(page, size, search, source, addedBy, sort, order, startDate, endDate)
+                : null;
+        if (query != null) {
+            if (cursor != null) {
+                query = query.withCursor(cursor);
+            }
+            long startNanos = System.nanoTime();
+            PaginatedResult<WhitelistEntry> result = WhitelistQueryEngine.execute(cache.snapshot(), query, page, size);
+            if (!includeTotal) {
+                String nextCursor = result.getNextCursor();
+                result = PaginatedResult.withoutTotal(result.getItems(), page, size);
+                result.setNextCursor(nextCursor);
+            }
+            result.setServedBy(PaginatedResult.SERVED_BY_MEMORY);
+            logger.debug("分页查询由内存快照处理: 返回 {} 条，耗时 {} μs",
+                    result.getItems().size(), (System.nanoTime() - startNanos) / 1000);
+            return CompletableFuture.completedFuture(result);
+        }
+        
+        // 游标中的排序字段和方向优先；未指定排序时默认按创建时间降序
+        WhitelistQuery.SortField sortField = cursor != null
+                ? WhitelistQuery.SortField.fromString(cursor.getSort())
+                : sort != null && !sort.trim().isEmpty()
+                        ? WhitelistQuery.SortField.fromString(sort.trim())
+                        : WhitelistQuery.SortField.CREATED_AT;
+        boolean ascending = cursor != null
+                ? cursor.isAscending()
+                : sort != null && !sort.trim().isEmpty() && order != null && "asc".equalsIgnoreCase(order.trim());
+        int limit = size < 1 ? 20 : Math.min(size, 999999);
+        
+        return databaseManager.executeRead(connection -> {
             // 构建查询条件
             WhitelistQueryBuilder queryBuilder = new WhitelistQueryBuilder()
-                    .filterByActive(true)
-                    .paginate(page, size);
+                    .filterByActive(true);
             
             // 添加搜索条件
             if (search != null && !search.trim().isEmpty()) {
@@ -737,38 +1524,59 @@ public class WhitelistManager {
                 queryBuilder.filterByDateRange(startDate, endDate);
             }
             
-            // 设置排序
-            if (sort != null && !sort.trim().isEmpty()) {
-                queryBuilder.orderBy(sort, order);
-            }
-            
-            // 执行查询
-            WhitelistQueryBuilder.QueryResult queryResult = queryBuilder.build();
-            WhitelistQueryBuilder.QueryResult countResult = queryBuilder.buildCount();
-            
-            // 获取总数
-            long total = 0;
-            try (PreparedStatement countStmt = connection.prepareStatement(countResult.getSql())) {
-                setParameters(countStmt, countResult.getParameters());
-                try (ResultSet rs = countStmt.executeQuery()) {
-                    if (rs.next()) {
-                        total = rs.getLong(1);
+            // 获取总数（在加入游标条件之前统计）
+            Long total = null;
+            if (includeTotal) {
+                WhitelistQueryBuilder.QueryResult countResult = queryBuilder.buildCount();
+                try (PreparedStatement countStmt = connection.prepareStatement(countResult.getSql())) {
+                    setParameters(countStmt, countResult.getParameters());
+                    try (ResultSet rs = countStmt.executeQuery()) {
+                        total = rs.next() ? rs.getLong(1) : 0L;
                     }
                 }
             }
             
+            // 设置排序与分页：多读一行用于判断是否还有下一页
+            queryBuilder.orderBy(sortField.column(), ascending ? "asc" : "desc");
+            if (cursor != null) {
+                queryBuilder.after(sortField.column(), ascending, cursor.getValue(), cursor.getId());
+                queryBuilder.limit(limit + 1);
+            } else {
+                queryBuilder.paginate(page, size).limit(limit + 1);
+            }
+            WhitelistQueryBuilder.QueryResult queryResult = queryBuilder.build();
+            
             // 获取数据
             List<WhitelistEntry> items = new ArrayList<>();
+            Object lastSortValue = null;
+            boolean more = false;
             try (PreparedStatement stmt = connection.prepareStatement(queryResult.getSql())) {
                 setParameters(stmt, queryResult.getParameters());
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
+                        if (items.size() == limit) {
+                            more = true;
+                            break;
+                        }
                         items.add(mapResultSetToEntry(rs));
+                        lastSortValue = rs.getObject(sortField.column());
                     }
                 }
             }
             
-            return new PaginatedResult<>(items, page, size, total);
+            PaginatedResult<WhitelistEntry> result = total != null
+                    ? new PaginatedResult<>(items, page, size, total)
+                    : PaginatedResult.withoutTotal(items, page, size);
+            if (more) {
+                // 游标使用数据库中的原始值（文本或毫秒数），与下一次查询的比较方式一致
+                Object cursorValue = lastSortValue instanceof Number
+                        ? (Object) ((Number) lastSortValue).longValue()
+                        : lastSortValue != null ? lastSortValue.toString() : null;
+                result.setNextCursor(new PageCursor(sortField.column(), ascending, cursorValue,
+                        items.get(items.size() - 1).getId()).encode());
+            }
+            result.setServedBy(PaginatedResult.SERVED_BY_SQL);
+            return result;
         }).exceptionally(throwable -> {
             logger.error("分页查询白名单失败", throwable);
             return new PaginatedResult<>(new ArrayList<>(), page, size, 0);
@@ -782,7 +1590,7 @@ public class WhitelistManager {
             String namePattern, String uuidPattern, String sourceFilter, 
             String addedByFilter, int limit) {
         
-        return databaseManager.executeAsync(connection -> {
+        return databaseManager.executeRead(connection -> {
             WhitelistQueryBuilder queryBuilder = new WhitelistQueryBuilder()
                     .filterByActive(true);
             
@@ -859,91 +1667,82 @@ public class WhitelistManager {
             );
         }
         
-        return databaseManager.executeTransactionAsync(connection -> {
+        return databaseManager.executeWrite(connection -> {
             List<String> errors = new ArrayList<>();
             List<String> successfulUuids = new ArrayList<>();
             List<String> failedUuids = new ArrayList<>();
+            List<WhitelistCache.Change> cacheChanges = new ArrayList<>();
             int successCount = 0;
             int failureCount = 0;
             
             if (batchOperation.getOperationType() == BatchOperation.OperationType.ADD) {
-                // 批量添加
-                String sql = """
-                    INSERT OR IGNORE INTO whitelist (name, uuid, added_by_name, added_by_uuid, added_at, source, is_active)
-                    VALUES (?, ?, ?, ?, ?, ?, ?)
-                """;
+                // 批量添加：先校验，再以多行 INSERT 写入，RETURNING 返回实际插入的行
+                List<WhitelistEntry> valid = new ArrayList<>(batchOperation.getSize());
+                for (WhitelistEntry entry : batchOperation.getEntries()) {
+                    if (isValidPlayerName(entry.getName()) && isValidUuid(entry.getUuid())) {
+                        valid.add(entry);
+                    }
+                }
                 
-                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    for (WhitelistEntry entry : batchOperation.getEntries()) {
-                        try {
-                            // 验证数据
-                            if (!isValidPlayerName(entry.getName()) || !isValidUuid(entry.getUuid())) {
-                                errors.add("无效的玩家数据: " + entry.getName() + " (" + entry.getUuid() + ")");
-                                failedUuids.add(entry.getUuid());
-                                failureCount++;
-                                continue;
-                            }
-                            
-                            stmt.setString(1, entry.getName());
-                            stmt.setString(2, entry.getUuid());
-                            stmt.setString(3, entry.getAddedByName());
-                            stmt.setString(4, entry.getAddedByUuid());
-                            stmt.setTimestamp(5, Timestamp.valueOf(entry.getAddedAt()));
-                            stmt.setString(6, entry.getSource());
-                            stmt.setBoolean(7, entry.isActive());
-                            
-                            int affected = stmt.executeUpdate();
-                            if (affected > 0) {
-                                successfulUuids.add(entry.getUuid());
-                                successCount++;
-                                
-                                // 更新缓存
-                                if (cacheLoaded) {
-                                    cache.put(entry.getUuid(), entry);
-                                }
-                            } else {
-                                errors.add("玩家已存在: " + entry.getName() + " (" + entry.getUuid() + ")");
-                                failedUuids.add(entry.getUuid());
-                                failureCount++;
-                            }
-                        } catch (SQLException e) {
-                            errors.add("添加玩家失败: " + entry.getName() + " - " + e.getMessage());
-                            failedUuids.add(entry.getUuid());
-                            failureCount++;
-                        }
+                Map<WhitelistEntry, String> insertErrors = new IdentityHashMap<>();
+                Set<WhitelistEntry> inserted = insertEntries(connection, valid, insertErrors);
+                
+                for (WhitelistEntry entry : batchOperation.getEntries()) {
+                    if (inserted.contains(entry)) {
+                        successfulUuids.add(entry.getUuid());
+                        successCount++;
+                        
+                        // 缓存变更在批次结束后一次发布
+                        stampInsertTime(entry);
+                        cacheChanges.add(WhitelistCache.Change.put(entry));
+                        continue;
                     }
+                    
+                    if (!isValidPlayerName(entry.getName()) || !isValidUuid(entry.getUuid())) {
+                        errors.add("无效的玩家数据: " + entry.getName() + " (" + entry.getUuid() + ")");
+                    } else if (insertErrors.containsKey(entry)) {
+                        errors.add("添加玩家失败: " + entry.getName() + " - " + insertErrors.get(entry));
+                    } else {
+                        errors.add("玩家已存在: " + entry.getName() + " (" + entry.getUuid() + ")");
+                    }
+                    failedUuids.add(entry.getUuid());
+                    failureCount++;
                 }
                 
             } else if (batchOperation.getOperationType() == BatchOperation.OperationType.REMOVE) {
-                // 批量删除
-                String sql = "DELETE FROM whitelist WHERE uuid = ?";
+                // 批量删除：多行 DELETE ... IN，RETURNING 返回实际删除的UUID
+                List<String> uuids = new ArrayList<>(batchOperation.getSize());
+                for (WhitelistEntry entry : batchOperation.getEntries()) {
+                    uuids.add(entry.getUuid());
+                }
                 
-                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    for (WhitelistEntry entry : batchOperation.getEntries()) {
-                        try {
-                            stmt.setString(1, entry.getUuid());
-                            
-                            int affected = stmt.executeUpdate();
-                            if (affected > 0) {
-                                successfulUuids.add(entry.getUuid());
-                                successCount++;
-                                
-                                // 更新缓存
-                                cache.remove(entry.getUuid());
-                            } else {
-                                errors.add("玩家不存在: " + entry.getUuid());
-                                failedUuids.add(entry.getUuid());
-                                failureCount++;
-                            }
-                        } catch (SQLException e) {
-                            errors.add("删除玩家失败: " + entry.getUuid() + " - " + e.getMessage());
-                            failedUuids.add(entry.getUuid());
-                            failureCount++;
+                Map<String, String> deleteErrors = new HashMap<>();
+                Set<String> deleted = deleteByUuids(connection, uuids, deleteErrors);
+                
+                for (WhitelistEntry entry : batchOperation.getEntries()) {
+                    // 同一UUID出现多次时只有第一次计为成功
+                    if (entry.getUuid() != null && deleted.remove(entry.getUuid())) {
+                        successfulUuids.add(entry.getUuid());
+                        successCount++;
+                        
+                        // 缓存变更在批次结束后一次发布
+                        UUID removedUuid = WhitelistCache.parseUuid(entry.getUuid());
+                        if (removedUuid != null) {
+                            cacheChanges.add(WhitelistCache.Change.removeUuid(removedUuid));
                         }
+                    } else {
+                        String error = deleteErrors.get(entry.getUuid());
+                        errors.add(error != null
+                                ? "删除玩家失败: " + entry.getUuid() + " - " + error
+                                : "玩家不存在: " + entry.getUuid());
+                        failedUuids.add(entry.getUuid());
+                        failureCount++;
                     }
                 }
             }
             
+            cache.apply(cacheChanges);
+            
             logger.info("批量操作完成: {} - 成功: {}, 失败: {}", 
                     batchOperation.getOperationType(), successCount, failureCount);
             
@@ -954,17 +1753,27 @@ public class WhitelistManager {
             
         }).exceptionally(throwable -> {
             logger.error("批量操作执行失败", throwable);
-            List<String> errorList = List.of("批量操作执行失败: " + throwable.getMessage());
-            List<String> allUuids = batchOperation.getEntries().stream()
-                    .map(WhitelistEntry::getUuid)
-                    .toList();
-            return new BatchOperation.BatchResult(
-                batchOperation.getSize(), 0, batchOperation.getSize(), 
-                errorList, new ArrayList<>(), allUuids
-            );
+            return transactionFailure(batchOperation, throwable);
         });
     }
     
+    /**
+     * 事务执行失败（如数据库错误）时的批量结果：全部条目计为失败，并标记为事务失败，
+     * 调用方据此区分数据库错误和被拒绝的记录
+     */
+    static BatchOperation.BatchResult transactionFailure(BatchOperation batchOperation, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        String error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        List<String> allUuids = batchOperation.getEntries().stream()
+                .map(WhitelistEntry::getUuid)
+                .toList();
+        return new BatchOperation.BatchResult(
+            batchOperation.getSize(), 0, batchOperation.getSize(), 
+            List.of("批量操作执行失败: " + error), new ArrayList<>(), allUuids, error
+        );
+    }
+    
     /**
      * 批量删除玩家（通过UUID列表）
      */
@@ -0,0 +1,311 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.xaoxiao.convenientaccess.utils.PageCursor;
+
+/**
+ * 白名单内存查询条件
+ * 与 {@link WhitelistQueryBuilder} 生成的SQL保持相同的语义（只查询活跃条目，名称和添加者为忽略大小写的子串匹配）
+ */
+final class WhitelistQuery {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // 按相关度排序的排序参数值，SQL查询不支持时按默认排序处理
+    static final String RELEVANCE = "relevance";
+
+    final String search;
+    final String source;
+    final String addedBy;
+    final LocalDateTime startDate;
+    final LocalDateTime endDate;
+    final SortField sortField;
+    final boolean ascending;
+    // 按与搜索词的相关度排序（仅在有搜索词时生效）
+    final boolean relevance;
+    final int offset;
+    final int limit;
+    // 键集分页游标对应的探针条目（只含排序字段和ID），结果从它之后开始
+    final WhitelistEntry after;
+
+    private WhitelistQuery(String search, String source, String addedBy, LocalDateTime startDate,
+                           LocalDateTime endDate, SortField sortField, boolean ascending, boolean relevance,
+                           int offset, int limit, WhitelistEntry after) {
+        this.search = search;
+        this.source = source;
+        this.addedBy = addedBy;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.sortField = sortField;
+        this.ascending = ascending;
+        this.relevance = relevance;
+        this.offset = offset;
+        this.limit = limit;
+        this.after = after;
+    }
+
+    /**
+     * 解析查询参数
+     *
+     * @return 查询条件；日期参数无法解析时返回null，由调用方回退到SQL查询
+     */
+    static WhitelistQuery parse(int page, int size, String search, String source, String addedBy,
+                                String sort, String order, String startDate, String endDate) {
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        try {
+            if (startDate != null && !startDate.trim().isEmpty()) {
+                start = parseDate(startDate.trim(), false);
+            }
+            if (endDate != null && !endDate.trim().isEmpty()) {
+                end = parseDate(endDate.trim(), true);
+            }
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+
+        // 分页参数校验与 WhitelistQueryBuilder.paginate 一致
+        int validPage = page < 1 ? 1 : page;
+        int validSize = size < 1 ? 20 : Math.min(size, 999999);
+
+        // 未指定排序字段时默认按创建时间降序
+        SortField sortField = SortField.CREATED_AT;
+        boolean ascending = false;
+        boolean relevance = false;
+        String normalizedSearch = normalize(search);
+        if (sort != null && !sort.trim().isEmpty()) {
+            if (RELEVANCE.equalsIgnoreCase(sort.trim())) {
+                relevance = normalizedSearch != null;
+            } else {
+                sortField = SortField.fromString(sort.trim());
+                ascending = order != null && "asc".equalsIgnoreCase(order.trim());
+            }
+        }
+
+        return new WhitelistQuery(
+                normalizedSearch,
+                source != null && !source.trim().isEmpty() ? source.trim().toUpperCase(Locale.ROOT) : null,
+                normalize(addedBy), start, end, sortField, ascending, relevance,
+                (int) Math.min((long) (validPage - 1) * validSize, Integer.MAX_VALUE), validSize, null);
+    }
+
+    /**
+     * 改为从游标之后读取：排序字段和方向以游标为准，忽略页码
+     *
+     * @throws IllegalArgumentException 游标中的值无法解析
+     */
+    WhitelistQuery withCursor(PageCursor cursor) {
+        SortField field = SortField.fromString(cursor.getSort());
+        return new WhitelistQuery(search, source, addedBy, startDate, endDate, field, cursor.isAscending(), false,
+                0, limit, field.probe(cursor.getValue(), cursor.getId()));
+    }
+
+    /**
+     * 按本查询的排序方向比较条目
+     */
+    Comparator<WhitelistEntry> directionalComparator() {
+        return ascending ? sortField.comparator() : sortField.comparator().reversed();
+    }
+
+    /**
+     * 生成指向该条目之后的游标
+     */
+    PageCursor cursorAfter(WhitelistEntry last) {
+        return new PageCursor(sortField.column(), ascending, sortField.cursorValue(last),
+                last.getId() != null ? last.getId() : Long.MAX_VALUE);
+    }
+
+    /**
+     * 条目是否满足过滤条件
+     */
+    boolean matches(WhitelistEntry entry) {
+        if (source != null && !source.equals(entry.getSource())) {
+            return false;
+        }
+        if (search != null && !containsIgnoreCase(entry.getName(), search)) {
+            return false;
+        }
+        if (addedBy != null && !containsIgnoreCase(entry.getAddedByName(), addedBy)) {
+            return false;
+        }
+        if (startDate != null || endDate != null) {
+            LocalDateTime addedAt = entry.getAddedAt();
+            if (addedAt == null) {
+                return false;
+            }
+            if (startDate != null && addedAt.isBefore(startDate)) {
+                return false;
+            }
+            if (endDate != null && addedAt.isAfter(endDate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean hasFilters() {
+        return search != null || source != null || addedBy != null || startDate != null || endDate != null;
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 忽略大小写的子串匹配（needle 已转为小写），不创建新字符串
+     */
+    static boolean containsIgnoreCase(String haystack, String needle) {
+        if (haystack == null) {
+            return false;
+        }
+        int max = haystack.length() - needle.length();
+        for (int i = 0; i <= max; i++) {
+            if (haystack.regionMatches(true, i, needle, 0, needle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 支持 yyyy-MM-dd、yyyy-MM-dd HH:mm:ss 和 ISO-8601 格式，仅日期的结束时间包含当天
+     */
+    private static LocalDateTime parseDate(String value, boolean endOfDay) {
+        if (value.length() == 10) {
+            LocalDate date = LocalDate.parse(value);
+            return endOfDay ? date.atTime(LocalTime.MAX) : date.atStartOfDay();
+        }
+        if (value.indexOf('T') > 0) {
+            return LocalDateTime.parse(value);
+        }
+        return LocalDateTime.parse(value, DATE_TIME);
+    }
+
+    /**
+     * 排序字段，与 WhitelistQueryBuilder.validateSortField 支持的字段一致
+     * 空值按SQLite的规则排在升序的最前面
+     *
+     * 游标中的时间值采用与数据库相同的存储形式，使游标在内存查询和SQL查询之间通用：
+     * added_at 由插件通过 setTimestamp 写入，存为毫秒数；created_at/updated_at 由 CURRENT_TIMESTAMP 填充，存为文本
+     */
+    enum SortField {
+        NAME("name", WhitelistEntry::getName, WhitelistEntry::setName),
+        UUID("uuid", WhitelistEntry::getUuid, WhitelistEntry::setUuid),
+        ADDED_BY("added_by_name", WhitelistEntry::getAddedByName, WhitelistEntry::setAddedByName),
+        ADDED_AT("added_at", WhitelistEntry::getAddedAt, WhitelistEntry::setAddedAt, true),
+        SOURCE("source", WhitelistEntry::getSource, WhitelistEntry::setSource),
+        CREATED_AT("created_at", WhitelistEntry::getCreatedAt, WhitelistEntry::setCreatedAt, false),
+        UPDATED_AT("updated_at", WhitelistEntry::getUpdatedAt, WhitelistEntry::setUpdatedAt, false);
+
+        private final String column;
+        private final Comparator<WhitelistEntry> comparator;
+        private final Function<WhitelistEntry, Object> cursorValue;
+        private final BiConsumer<WhitelistEntry, Object> probeSetter;
+
+        SortField(String column, Function<WhitelistEntry, String> key, BiConsumer<WhitelistEntry, String> setter) {
+            this.column = column;
+            this.comparator = comparing(key);
+            this.cursorValue = key::apply;
+            this.probeSetter = (entry, value) -> {
+                if (value != null && !(value instanceof String)) {
+                    throw new IllegalArgumentException("无效的游标值: " + value);
+                }
+                setter.accept(entry, (String) value);
+            };
+        }
+
+        SortField(String column, Function<WhitelistEntry, LocalDateTime> key,
+                  BiConsumer<WhitelistEntry, LocalDateTime> setter, boolean storedAsMillis) {
+            this.column = column;
+            this.comparator = comparing(key);
+            this.cursorValue = entry -> {
+                LocalDateTime time = key.apply(entry);
+                if (time == null) {
+                    return null;
+                }
+                return storedAsMillis ? (Object) Timestamp.valueOf(time).getTime() : time.format(DATE_TIME);
+            };
+            this.probeSetter = (entry, value) -> setter.accept(entry, toDateTime(value));
+        }
+
+        private static <T extends Comparable<? super T>> Comparator<WhitelistEntry> comparing(Function<WhitelistEntry, T> key) {
+            // 相同排序值时按ID排序，保证分页结果稳定
+            return Comparator.comparing(key, Comparator.nullsFirst(Comparator.<T>naturalOrder()))
+                    .thenComparing(entry -> entry.getId() != null ? entry.getId() : Long.MAX_VALUE);
+        }
+
+        private static LocalDateTime toDateTime(Object value) {
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof Long) {
+                return new Timestamp((Long) value).toLocalDateTime();
+            }
+            String text = value.toString();
+            try {
+                return text.indexOf('T') > 0 ? LocalDateTime.parse(text) : Timestamp.valueOf(text).toLocalDateTime();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("无效的游标时间: " + text, e);
+            }
+        }
+
+        Comparator<WhitelistEntry> comparator() {
+            return comparator;
+        }
+
+        /**
+         * 数据库列名
+         */
+        String column() {
+            return column;
+        }
+
+        /**
+         * 条目在该字段上的游标值（字符串或毫秒数）
+         */
+        Object cursorValue(WhitelistEntry entry) {
+            return cursorValue.apply(entry);
+        }
+
+        /**
+         * 构建只含该字段和ID的探针条目，用于在排序视图中定位游标
+         */
+        WhitelistEntry probe(Object value, long id) {
+            WhitelistEntry probe = new WhitelistEntry();
+            probeSetter.accept(probe, value);
+            probe.setId(id);
+            return probe;
+        }
+
+        static SortField fromString(String field) {
+            switch (field.toLowerCase(Locale.ROOT)) {
+                case "name":
+                    return NAME;
+                case "uuid":
+                    return UUID;
+                case "added_by":
+                case "added_by_name":
+                    return ADDED_BY;
+                case "added_at":
+                    return ADDED_AT;
+                case "source":
+                    return SOURCE;
+                case "updated_at":
+                    return UPDATED_AT;
+                default:
+                    return CREATED_AT;
+            }
+        }
+    }
+}
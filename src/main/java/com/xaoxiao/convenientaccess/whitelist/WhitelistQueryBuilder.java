@@ -10,7 +10,8 @@ import java.util.List;
 public class WhitelistQueryBuilder {
     private final List<String> conditions = new ArrayList<>();
     private final List<Object> parameters = new ArrayList<>();
-    private String orderBy = "created_at DESC";
+    // 排序列相同时按ID排序，保证分页稳定且可用于键集分页
+    private String orderBy = "created_at DESC, id DESC";
     private Integer limit;
     private Integer offset;
     
@@ -89,11 +90,46 @@ public class WhitelistQueryBuilder {
         if (field != null && !field.trim().isEmpty()) {
             String validField = validateSortField(field.trim());
             String validDirection = validateSortDirection(direction);
-            this.orderBy = validField + " " + validDirection;
+            this.orderBy = validField + " " + validDirection + ", id " + validDirection;
         }
         return this;
     }
     
+    /**
+     * 键集分页：只返回排在游标（上一页最后一行的排序列值和ID）之后的行
+     * 空值按SQLite的规则在升序时排在最前、降序时排在最后
+     */
+    public WhitelistQueryBuilder after(String field, boolean ascending, Object value, long id) {
+        String column = validateSortField(field);
+        if (ascending) {
+            if (value != null) {
+                conditions.add("(" + column + " > ? OR (" + column + " = ? AND id > ?))");
+                parameters.add(value);
+                parameters.add(value);
+            } else {
+                conditions.add("(" + column + " IS NOT NULL OR id > ?)");
+            }
+        } else {
+            if (value != null) {
+                conditions.add("(" + column + " < ? OR (" + column + " = ? AND id < ?) OR " + column + " IS NULL)");
+                parameters.add(value);
+                parameters.add(value);
+            } else {
+                conditions.add("(" + column + " IS NULL AND id < ?)");
+            }
+        }
+        parameters.add(id);
+        return this;
+    }
+    
+    /**
+     * 只设置返回行数，不设置偏移量（用于键集分页）
+     */
+    public WhitelistQueryBuilder limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+    
     /**
      * 设置分页
      */
@@ -0,0 +1,328 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 白名单内存查询引擎
+ * 在快照的排序视图上完成过滤、排序和分页，替代 COUNT(*) + LIMIT/OFFSET 的SQL查询。
+ * 无文本过滤时直接按下标截取分页；按添加时间排序时日期范围通过二分查找定位；
+ * 名称和添加者的子串过滤通过三元组索引缩小候选集合
+ */
+final class WhitelistQueryEngine {
+    // 候选条目不超过待扫描区间的 1/4 时改用候选集合，否则顺序扫描排序视图更快
+    private static final int CANDIDATE_RATIO = 4;
+
+    private static final Comparator<Ranked> RANKING = Comparator
+            .comparingLong((Ranked ranked) -> ranked.rank)
+            .thenComparing(ranked -> ranked.entry.getName(), String.CASE_INSENSITIVE_ORDER);
+
+    private WhitelistQueryEngine() {
+    }
+
+    static PaginatedResult<WhitelistEntry> execute(WhitelistSnapshot snapshot, WhitelistQuery query, int page, int size) {
+        if (query.source != null && !isKnownSource(query.source)) {
+            // 来源字段受约束限制，未知来源不会有任何匹配
+            return new PaginatedResult<>(new ArrayList<>(), page, size, 0);
+        }
+
+        WhitelistEntry[] view = snapshot.sortedView(query.sortField, query.source);
+        int from = 0;
+        int to = view.length;
+
+        boolean dateFilter = query.startDate != null || query.endDate != null;
+        boolean dateResolved = false;
+        if (dateFilter && query.sortField == WhitelistQuery.SortField.ADDED_AT) {
+            from = query.startDate != null ? firstNotBefore(view, query.startDate) : firstWithAddedAt(view);
+            to = query.endDate != null ? firstAfter(view, query.endDate) : view.length;
+            to = Math.max(from, to);
+            dateResolved = true;
+        }
+
+        TrigramIndex.Postings candidates = selectCandidates(snapshot.trigramIndex(), query);
+        if (query.relevance || (candidates != null && (long) candidates.size() * CANDIDATE_RATIO <= to - from)) {
+            return collect(view, from, to, candidates, query, page, size);
+        }
+
+        List<WhitelistEntry> items = new ArrayList<>(Math.min(query.limit, Math.max(to - from, 0)));
+        long total;
+        boolean more;
+        // 游标之前的条目数（按遍历顺序），键集分页从这里开始
+        int cursorSkip = query.after != null ? countUpToCursor(view, from, to, query) : 0;
+
+        if (query.search == null && query.addedBy == null && (!dateFilter || dateResolved)) {
+            // 视图中的每个条目都满足条件，直接截取
+            total = to - from;
+            long start = query.after != null ? cursorSkip : query.offset;
+            for (long i = start; i < total && items.size() < query.limit; i++) {
+                items.add(view[query.ascending ? from + (int) i : to - 1 - (int) i]);
+            }
+            more = start + items.size() < total;
+        } else {
+            total = 0;
+            more = false;
+            for (int i = 0; i < to - from; i++) {
+                WhitelistEntry entry = view[query.ascending ? from + i : to - 1 - i];
+                if (!query.matches(entry)) {
+                    continue;
+                }
+                boolean inPage = query.after != null ? i >= cursorSkip : total >= query.offset;
+                if (inPage) {
+                    if (items.size() < query.limit) {
+                        items.add(entry);
+                    } else {
+                        more = true;
+                    }
+                }
+                total++;
+            }
+        }
+
+        return result(items, total, more, query, page, size);
+    }
+
+    /**
+     * 按名称子串搜索，结果按相关度排序：完全匹配、前缀匹配、其他位置匹配，
+     * 同级按匹配位置、名称长度和名称排序
+     */
+    static List<WhitelistEntry> searchByName(WhitelistSnapshot snapshot, String term, int limit) {
+        String needle = term.trim().toLowerCase(Locale.ROOT);
+        List<Ranked> matches = new ArrayList<>();
+        TrigramIndex.Postings candidates = snapshot.trigramIndex().candidates(TrigramIndex.Field.NAME, needle);
+        if (candidates != null) {
+            for (int i = 0; i < candidates.size(); i++) {
+                addIfMatches(matches, candidates.get(i), needle);
+            }
+        } else {
+            // 搜索词不足三个字符，无法使用索引
+            snapshot.forEach(entry -> addIfMatches(matches, entry, needle));
+        }
+
+        matches.sort(RANKING);
+        List<WhitelistEntry> results = new ArrayList<>(Math.min(matches.size(), Math.max(limit, 0)));
+        for (int i = 0; i < matches.size() && results.size() < limit; i++) {
+            results.add(matches.get(i).entry);
+        }
+        return results;
+    }
+
+    /**
+     * 选择最小的候选集合（名称和添加者过滤中片段最稀有的一个），无法使用索引时返回null
+     */
+    private static TrigramIndex.Postings selectCandidates(TrigramIndex index, WhitelistQuery query) {
+        TrigramIndex.Postings byName = index.candidates(TrigramIndex.Field.NAME, query.search);
+        TrigramIndex.Postings byAddedBy = index.candidates(TrigramIndex.Field.ADDED_BY, query.addedBy);
+        if (byName == null) {
+            return byAddedBy;
+        }
+        if (byAddedBy == null) {
+            return byName;
+        }
+        return byName.size() <= byAddedBy.size() ? byName : byAddedBy;
+    }
+
+    /**
+     * 从候选集合（或排序视图区间）中收集全部匹配条目后排序分页
+     */
+    private static PaginatedResult<WhitelistEntry> collect(WhitelistEntry[] view, int from, int to,
+                                                           TrigramIndex.Postings candidates, WhitelistQuery query,
+                                                           int page, int size) {
+        List<WhitelistEntry> matches = new ArrayList<>();
+        if (candidates != null) {
+            for (int i = 0; i < candidates.size(); i++) {
+                WhitelistEntry entry = candidates.get(i);
+                if (query.matches(entry)) {
+                    matches.add(entry);
+                }
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                if (query.matches(view[i])) {
+                    matches.add(view[i]);
+                }
+            }
+        }
+
+        List<WhitelistEntry> sorted;
+        int start;
+        if (query.relevance) {
+            List<Ranked> ranked = new ArrayList<>(matches.size());
+            for (WhitelistEntry entry : matches) {
+                ranked.add(new Ranked(entry, rank(entry.getName(), query.search)));
+            }
+            ranked.sort(RANKING);
+            sorted = new ArrayList<>(ranked.size());
+            for (Ranked item : ranked) {
+                sorted.add(item.entry);
+            }
+            start = Math.min(query.offset, sorted.size());
+        } else {
+            Comparator<WhitelistEntry> comparator = query.directionalComparator();
+            matches.sort(comparator);
+            sorted = matches;
+            start = query.after != null
+                    ? firstPastCursor(sorted, comparator, query.after)
+                    : Math.min(query.offset, sorted.size());
+        }
+
+        int end = (int) Math.min((long) start + query.limit, sorted.size());
+        return result(new ArrayList<>(sorted.subList(start, end)), sorted.size(), end < sorted.size(), query, page, size);
+    }
+
+    /**
+     * 组装分页结果；还有后续数据时附带指向本页最后一条之后的游标（相关度排序不支持游标）
+     */
+    private static PaginatedResult<WhitelistEntry> result(List<WhitelistEntry> items, long total, boolean more,
+                                                          WhitelistQuery query, int page, int size) {
+        PaginatedResult<WhitelistEntry> result = new PaginatedResult<>(items, page, size, total);
+        if (more && !items.isEmpty() && !query.relevance) {
+            result.setNextCursor(query.cursorAfter(items.get(items.size() - 1)).encode());
+        }
+        return result;
+    }
+
+    /**
+     * 排序视图区间内按遍历方向排在游标之前（含游标本身）的条目数
+     */
+    private static int countUpToCursor(WhitelistEntry[] view, int from, int to, WhitelistQuery query) {
+        Comparator<WhitelistEntry> comparator = query.sortField.comparator();
+        int low = from;
+        int high = to;
+        if (query.ascending) {
+            // 第一个大于游标的位置
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparator.compare(view[mid], query.after) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - from;
+        }
+        // 降序遍历：第一个不小于游标的位置及之后的条目都已读过
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(view[mid], query.after) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return to - low;
+    }
+
+    /**
+     * 已排序列表中第一个排在游标之后的位置
+     */
+    private static int firstPastCursor(List<WhitelistEntry> sorted, Comparator<WhitelistEntry> comparator, WhitelistEntry after) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(sorted.get(mid), after) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void addIfMatches(List<Ranked> matches, WhitelistEntry entry, String needle) {
+        long rank = rank(entry.getName(), needle);
+        if (rank >= 0) {
+            matches.add(new Ranked(entry, rank));
+        }
+    }
+
+    /**
+     * 相关度（越小越相关），不包含搜索词时返回-1
+     * 高位为匹配级别（0 完全匹配，1 前缀，2 其他位置），其后依次为匹配位置和名称长度
+     */
+    private static long rank(String name, String needle) {
+        if (name == null) {
+            return -1;
+        }
+        int max = name.length() - needle.length();
+        for (int i = 0; i <= max; i++) {
+            if (name.regionMatches(true, i, needle, 0, needle.length())) {
+                long level = i > 0 ? 2 : name.length() == needle.length() ? 0 : 1;
+                return (level << 40) | ((long) i << 20) | name.length();
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isKnownSource(String source) {
+        for (WhitelistEntry.Source value : WhitelistEntry.Source.values()) {
+            if (value.getValue().equals(source)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 第一个 addedAt 不早于 start 的位置（空值排在最前且不满足日期条件）
+     */
+    private static int firstNotBefore(WhitelistEntry[] view, LocalDateTime start) {
+        int low = 0;
+        int high = view.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            LocalDateTime addedAt = view[mid].getAddedAt();
+            if (addedAt == null || addedAt.isBefore(start)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第一个 addedAt 晚于 end 的位置
+     */
+    private static int firstAfter(WhitelistEntry[] view, LocalDateTime end) {
+        int low = 0;
+        int high = view.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            LocalDateTime addedAt = view[mid].getAddedAt();
+            if (addedAt == null || !addedAt.isAfter(end)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstWithAddedAt(WhitelistEntry[] view) {
+        int low = 0;
+        int high = view.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (view[mid].getAddedAt() == null) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class Ranked {
+        final WhitelistEntry entry;
+        final long rank;
+
+        Ranked(WhitelistEntry entry, long rank) {
+            this.entry = entry;
+            this.rank = rank;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 白名单不可变快照
+ * 由 {@link WhitelistCache} 构建后通过 volatile 引用发布，发布后索引不再修改，
+ * 读线程无需加锁，也不会看到写入或重新加载的中间状态
+ */
+final class WhitelistSnapshot {
+    static final WhitelistSnapshot EMPTY = new WhitelistSnapshot(new UuidIndex(), new NameIndex(), new TrigramIndex(),
+            new NameTrie(), new WhitelistCounts(), 0);
+
+    private final UuidIndex uuidIndex;
+    private final NameIndex nameIndex;
+    private final TrigramIndex trigramIndex;
+    private final NameTrie nameTrie;
+    private final WhitelistCounts counts;
+    private final long version;
+    // 按需构建的排序视图，随快照一起失效
+    private final ConcurrentHashMap<String, WhitelistEntry[]> sortedViews = new ConcurrentHashMap<>();
+
+    WhitelistSnapshot(UuidIndex uuidIndex, NameIndex nameIndex, TrigramIndex trigramIndex, NameTrie nameTrie,
+                      WhitelistCounts counts, long version) {
+        this.uuidIndex = uuidIndex;
+        this.nameIndex = nameIndex;
+        this.trigramIndex = trigramIndex;
+        this.nameTrie = nameTrie;
+        this.counts = counts;
+        this.version = version;
+    }
+
+    /**
+     * 检查UUID是否存在（登录前检查的热路径，不分配对象）
+     */
+    boolean containsUuid(UUID uuid) {
+        return uuidIndex.contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    WhitelistEntry getByUuid(UUID uuid) {
+        return uuidIndex.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * 按名称查找（忽略大小写）
+     */
+    WhitelistEntry getByName(String name) {
+        return nameIndex.get(name);
+    }
+
+    boolean containsName(String name) {
+        return nameIndex.contains(name);
+    }
+
+    /**
+     * 条目数（有UUID的条目 + UUID待补充的条目）
+     */
+    int size() {
+        return uuidIndex.size() + nameIndex.pendingUuidCount();
+    }
+
+    /**
+     * 快照版本号，每次发布递增
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * 遍历快照中的所有条目（每个条目只访问一次）
+     */
+    void forEach(Consumer<WhitelistEntry> action) {
+        uuidIndex.forEach(action);
+        nameIndex.forEach(entry -> {
+            if (entry.getUuid() == null) {
+                action.accept(entry);
+            }
+        });
+    }
+
+    /**
+     * 获取按指定字段升序排列的条目视图
+     * 指定来源时返回该来源的子视图（来源二级索引），由全量视图过滤得到，保持相同顺序。
+     * 视图在首次访问时构建，在快照生命周期内复用，调用方不得修改返回的数组
+     */
+    WhitelistEntry[] sortedView(WhitelistQuery.SortField field, String source) {
+        if (source == null) {
+            return sortedViews.computeIfAbsent(field.name(), key -> {
+                List<WhitelistEntry> entries = new ArrayList<>(size());
+                forEach(entries::add);
+                WhitelistEntry[] view = entries.toArray(new WhitelistEntry[0]);
+                Arrays.sort(view, field.comparator());
+                return view;
+            });
+        }
+
+        WhitelistEntry[] all = sortedView(field, null);
+        return sortedViews.computeIfAbsent(source + ":" + field.name(), key -> {
+            List<WhitelistEntry> entries = new ArrayList<>();
+            for (WhitelistEntry entry : all) {
+                if (source.equals(entry.getSource())) {
+                    entries.add(entry);
+                }
+            }
+            return entries.toArray(new WhitelistEntry[0]);
+        });
+    }
+
+    UuidIndex uuidIndex() {
+        return uuidIndex;
+    }
+
+    NameIndex nameIndex() {
+        return nameIndex;
+    }
+
+    TrigramIndex trigramIndex() {
+        return trigramIndex;
+    }
+
+    NameTrie nameTrie() {
+        return nameTrie;
+    }
+
+    WhitelistCounts counts() {
+        return counts;
+    }
+}
@@ -1,5 +1,6 @@
 package com.xaoxiao.convenientaccess.whitelist;
 
+import java.io.File;
 import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
@@ -8,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import com.xaoxiao.convenientaccess.ConvenientAccessPlugin;
 import com.xaoxiao.convenientaccess.api.AdminAuthController;
 import com.xaoxiao.convenientaccess.api.ApiRouter;
+import com.xaoxiao.convenientaccess.api.DatabaseApiController;
 import com.xaoxiao.convenientaccess.api.OperationLogApiController;
 import com.xaoxiao.convenientaccess.api.PlayerDataApiController;
 import com.xaoxiao.convenientaccess.api.UserApiController;
@@ -30,6 +32,7 @@ public class WhitelistSystem {
     private DatabaseManager databaseManager;
     private WhitelistManager whitelistManager;
     private RegistrationTokenManager registrationTokenManager;
+    private OperationLogDao operationLogDao;
     private InitialPasswordGenerator passwordGenerator;
     
     // API组件
@@ -58,19 +61,40 @@ public class WhitelistSystem {
                 if (!dbInit) {
                     throw new RuntimeException("数据库初始化失败");
                 }
+                databaseManager.startMaintenance(() -> plugin.getSparkIntegration() != null
+                        ? plugin.getSparkIntegration().getRecentTps() : null);
                 
                 // 初始化白名单管理器
                 whitelistManager = new WhitelistManager(databaseManager);
+                whitelistManager.setAuthoritativeCache(plugin.getConfigManager().isWhitelistCacheAuthoritative());
                 boolean whitelistInit = whitelistManager.initialize().get();
                 if (!whitelistInit) {
                     throw new RuntimeException("白名单管理器初始化失败");
                 }
+                whitelistManager.startConsistencyCheck(plugin.getConfigManager().getWhitelistConsistencyCheckInterval());
+                whitelistManager.startIncrementalRefresh(plugin.getConfigManager().getWhitelistIncrementalRefreshInterval());
+                whitelistManager.startChangePruning();
+                whitelistManager.startStatsReconciliation(plugin.getConfigManager().getWhitelistStatsReconcileInterval());
+                whitelistManager.enableWriteBehind(plugin.getConfigManager().getWhitelistWriteBehindMaxDelay(),
+                        plugin.getConfigManager().getWhitelistWriteBehindBatchSize());
                 
                 // 初始化注册令牌管理器
-                registrationTokenManager = new RegistrationTokenManager(databaseManager);
+                registrationTokenManager = new RegistrationTokenManager(databaseManager.getLogDatabase());
                 
                 // 初始化操作日志DAO
-                OperationLogDao operationLogDao = new OperationLogDao(databaseManager);
+                operationLogDao = new OperationLogDao(databaseManager.getLogDatabase());
+                operationLogDao.enableAsyncWriter(plugin.getConfigManager().getOperationLogBufferCapacity(),
+                        plugin.getConfigManager().getOperationLogOverflowPolicy(),
+                        plugin.getConfigManager().getOperationLogBatchSize(),
+                        plugin.getConfigManager().getOperationLogFlushInterval(),
+                        plugin.getConfigManager().getOperationLogBlockTimeout(),
+                        plugin.getConfigManager().getOperationLogSampleRate());
+                operationLogDao.initializeStats();
+                operationLogDao.enableRollups(plugin.getConfigManager().getLogRollupInterval());
+                operationLogDao.enableArchive(new File(plugin.getDataFolder(), "archive/operation_log"),
+                        plugin.getConfigManager().getOperationLogArchiveAfterDays(),
+                        plugin.getConfigManager().getOperationLogArchiveInterval(),
+                        plugin.getConfigManager().getOperationLogArchiveSegmentRows());
                 
                 // 检查配置文件中是否已有管理员密码
                 String existingPassword = plugin.getConfigManager().getAdminPassword();
@@ -93,6 +117,7 @@ public class WhitelistSystem {
                 userApiController = new UserApiController(registrationTokenManager, whitelistManager);
                 PlayerDataApiController playerDataApiController = new PlayerDataApiController(plugin);
                 OperationLogApiController operationLogApiController = new OperationLogApiController(operationLogDao);
+                DatabaseApiController databaseApiController = new DatabaseApiController(databaseManager);
                 
                 // 设置管理员密码到UserApiController
                 userApiController.setAdminPassword(adminPassword);
@@ -101,7 +126,8 @@ public class WhitelistSystem {
                 AdminAuthController adminAuthController = null;
                 
                 apiRouter = new ApiRouter(whitelistApiController, userApiController, playerDataApiController, 
-                                        operationLogApiController, adminAuthController, plugin.getConfigManager());
+                                        operationLogApiController, databaseApiController, adminAuthController,
+                                        plugin.getConfigManager());
                 
                 initialized = true;
                 logger.info("白名单管理系统（简化版）初始化完成");
@@ -121,6 +147,16 @@ public class WhitelistSystem {
         logger.info("正在关闭白名单管理系统...");
         
         try {
+            // 停止白名单后台任务
+            if (whitelistManager != null) {
+                whitelistManager.shutdown();
+            }
+            
+            // 写完缓冲区中的操作日志
+            if (operationLogDao != null) {
+                operationLogDao.shutdown();
+            }
+            
             // 关闭数据库管理器
             if (databaseManager != null) {
                 databaseManager.shutdown();
@@ -138,6 +174,10 @@ public class WhitelistSystem {
         return databaseManager;
     }
     
+    public OperationLogDao getOperationLogDao() {
+        return operationLogDao;
+    }
+    
     public WhitelistManager getWhitelistManager() {
         return whitelistManager;
     }
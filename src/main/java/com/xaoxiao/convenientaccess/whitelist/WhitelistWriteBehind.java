@@ -0,0 +1,252 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.xaoxiao.convenientaccess.database.DatabaseManager.DatabaseOperation;
+
+/**
+ * 白名单写后队列（组提交）
+ * 添加/移除先更新内存缓存，再进入队列；队列达到批大小或等待超过最大延迟时，
+ * 整批在写线程上的一个事务中提交，一次提交只做一次同步落盘。
+ * 每个调用方的 Future 在所在批次提交后才完成，结果以数据库为准
+ */
+final class WhitelistWriteBehind {
+    private static final Logger logger = LoggerFactory.getLogger(WhitelistWriteBehind.class);
+
+    /**
+     * 把一次写操作交给数据库写线程在事务中执行，即 {@code DatabaseManager::executeWrite}
+     */
+    @FunctionalInterface
+    interface WriteExecutor {
+        CompletableFuture<Void> executeWrite(DatabaseOperation<Void> operation);
+    }
+
+    /**
+     * 在一个事务中执行整批写入，逐条设置 {@link PendingWrite#succeeded}
+     */
+    @FunctionalInterface
+    interface BatchWriter {
+        void write(Connection connection, List<PendingWrite> batch) throws SQLException;
+    }
+
+    /**
+     * 整批提交失败（事务已回滚）时的回调，用于让内存缓存重新与数据库一致
+     */
+    @FunctionalInterface
+    interface FailureHandler {
+        void onBatchFailed(List<PendingWrite> batch, Throwable cause);
+    }
+
+    /**
+     * 一次排队中的写入
+     */
+    static final class PendingWrite {
+        enum Type { ADD, REMOVE }
+
+        final Type type;
+        final WhitelistEntry entry;
+        final String uuid;
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        boolean succeeded;
+
+        private PendingWrite(Type type, WhitelistEntry entry, String uuid) {
+            this.type = type;
+            this.entry = entry;
+            this.uuid = uuid;
+        }
+
+        static PendingWrite add(WhitelistEntry entry) {
+            return new PendingWrite(Type.ADD, entry, entry.getUuid());
+        }
+
+        static PendingWrite remove(String uuid) {
+            return new PendingWrite(Type.REMOVE, null, uuid);
+        }
+    }
+
+    private final WriteExecutor writeExecutor;
+    private final BatchWriter writer;
+    private final FailureHandler failureHandler;
+    private final long maxDelayMs;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private List<PendingWrite> pending = new ArrayList<>();
+    // 已入队但所在批次尚未完成的写入（按入队顺序），以及按UUID（小写）的计数，缓存刷新跳过这些UUID
+    private final Set<PendingWrite> inFlight = new LinkedHashSet<>();
+    private final Map<String, Integer> outstanding = new HashMap<>();
+    private boolean flushScheduled;
+    private boolean closed;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong operations = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    WhitelistWriteBehind(WriteExecutor writeExecutor, BatchWriter writer, FailureHandler failureHandler,
+                         long maxDelayMs, int maxBatchSize) {
+        this.writeExecutor = writeExecutor;
+        this.writer = writer;
+        this.failureHandler = failureHandler;
+        this.maxDelayMs = Math.max(1, maxDelayMs);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ConvenientAccess-Whitelist-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 加入队列，返回该写入所在批次提交后完成的 Future
+     */
+    CompletableFuture<Boolean> submit(PendingWrite write) {
+        synchronized (lock) {
+            if (closed) {
+                write.future.complete(false);
+                return write.future;
+            }
+            pending.add(write);
+            inFlight.add(write);
+            outstanding.merge(key(write.uuid), 1, Integer::sum);
+            if (pending.size() >= maxBatchSize) {
+                commit(drain());
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        return write.future;
+    }
+
+    /**
+     * 立即提交当前队列中的写入
+     */
+    void flush() {
+        synchronized (lock) {
+            flushScheduled = false;
+            commit(drain());
+        }
+    }
+
+    /**
+     * 提交剩余写入并停止接收新的写入
+     * 批次进入数据库写队列即返回，由数据库管理器关闭时等待写队列清空
+     */
+    void close() {
+        synchronized (lock) {
+            closed = true;
+            commit(drain());
+        }
+        scheduler.shutdownNow();
+    }
+
+    private List<PendingWrite> drain() {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        List<PendingWrite> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    /**
+     * 已预先写入缓存、但所在批次尚未完成的写入（按入队顺序），缓存全量重新加载后重新应用
+     */
+    List<PendingWrite> outstandingWrites() {
+        synchronized (lock) {
+            return new ArrayList<>(inFlight);
+        }
+    }
+
+    /**
+     * 该UUID是否有已预先写入缓存、但所在批次尚未完成的写入
+     */
+    boolean isOutstanding(String uuid) {
+        if (uuid == null) {
+            return false;
+        }
+        synchronized (lock) {
+            return outstanding.containsKey(key(uuid));
+        }
+    }
+
+    private static String key(String uuid) {
+        return uuid.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 批次进入单写线程（调用方持有锁）
+     * 取出批次和进入写队列在同一个锁内完成，批次在写线程上的执行顺序与入队顺序一致
+     */
+    private void commit(List<PendingWrite> batch) {
+        if (batch == null) {
+            return;
+        }
+        writeExecutor.executeWrite(connection -> {
+            writer.write(connection, batch);
+            return null;
+        }).whenComplete((ignored, throwable) -> {
+            // 先移出未完成集合：失败时重新加载缓存不应重新应用这批已回滚的写入
+            synchronized (lock) {
+                for (PendingWrite write : batch) {
+                    inFlight.remove(write);
+                    outstanding.computeIfPresent(key(write.uuid), (uuid, count) -> count > 1 ? count - 1 : null);
+                }
+            }
+            if (throwable != null) {
+                failedBatches.incrementAndGet();
+                logger.error("白名单组提交失败，{} 个写入已回滚", batch.size(), throwable);
+                for (PendingWrite write : batch) {
+                    write.succeeded = false;
+                }
+                try {
+                    failureHandler.onBatchFailed(batch, throwable);
+                } catch (Exception e) {
+                    logger.error("处理组提交失败时出错", e);
+                }
+            } else {
+                batches.incrementAndGet();
+                operations.addAndGet(batch.size());
+                logger.debug("白名单组提交完成: {} 个写入", batch.size());
+            }
+            for (PendingWrite write : batch) {
+                write.future.complete(write.succeeded);
+            }
+        });
+    }
+
+    long getBatchCount() {
+        return batches.get();
+    }
+
+    long getOperationCount() {
+        return operations.get();
+    }
+
+    long getFailedBatchCount() {
+        return failedBatches.get();
+    }
+
+    int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+-- 日志库迁移脚本: 版本 1 到版本 2
+
+-- 日志汇总表（按小时/天、按类型，由后台汇总任务维护）
+CREATE TABLE IF NOT EXISTS log_rollup (
+    source VARCHAR(10) NOT NULL,                  -- 来源: OPERATION (operation_log) / AUTH (auth_logs)
+    granularity VARCHAR(4) NOT NULL,              -- 粒度: HOUR / DAY
+    bucket_start TIMESTAMP NOT NULL,              -- 时间段开始 (UTC)
+    type VARCHAR(20) NOT NULL,                    -- 操作类型 / 认证操作类型
+    count INTEGER NOT NULL,                       -- 日志数量
+    error_count INTEGER NOT NULL,                 -- 错误数量 (响应状态码>=400 / 认证失败)
+    total_execution_time INTEGER NOT NULL,        -- 执行时间合计(ms)，平均值 = 合计 / 数量
+    max_execution_time INTEGER NOT NULL,          -- 最大执行时间(ms)
+    
+    PRIMARY KEY (source, granularity, bucket_start, type),
+    CONSTRAINT chk_rollup_source CHECK (source IN ('OPERATION', 'AUTH')),
+    CONSTRAINT chk_rollup_granularity CHECK (granularity IN ('HOUR', 'DAY'))
+) WITHOUT ROWID;
+
+-- 汇总进度：每个来源在 rolled_until 之前的整点小时已汇总
+CREATE TABLE IF NOT EXISTS log_rollup_state (
+    source VARCHAR(10) PRIMARY KEY,
+    rolled_until TIMESTAMP NOT NULL
+);
@@ -0,0 +1,35 @@
+-- 迁移脚本: 版本 2 到版本 3
+-- 添加白名单变更序列表和触发器，支持缓存增量刷新
+
+-- 白名单变更序列表（由触发器维护，供缓存增量刷新使用）
+-- 删除操作以 DELETE 记录作为墓碑保留，name/uuid 记录变更前的身份
+CREATE TABLE IF NOT EXISTS whitelist_changes (
+    seq INTEGER PRIMARY KEY AUTOINCREMENT,        -- 单调递增的变更序号
+    whitelist_id INTEGER NOT NULL,                -- 白名单条目ID
+    name VARCHAR(16),                             -- 变更前的玩家名称
+    uuid VARCHAR(36),                             -- 变更前的玩家UUID
+    change_type VARCHAR(6) NOT NULL,              -- 变更类型: UPSERT / DELETE
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    CONSTRAINT chk_change_type CHECK (change_type IN ('UPSERT', 'DELETE'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_whitelist_changes_time ON whitelist_changes(changed_at);
+
+CREATE TRIGGER IF NOT EXISTS trg_whitelist_after_insert AFTER INSERT ON whitelist
+BEGIN
+    INSERT INTO whitelist_changes (whitelist_id, name, uuid, change_type)
+    VALUES (NEW.id, NEW.name, NEW.uuid, 'UPSERT');
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_whitelist_after_update AFTER UPDATE ON whitelist
+BEGIN
+    INSERT INTO whitelist_changes (whitelist_id, name, uuid, change_type)
+    VALUES (NEW.id, OLD.name, OLD.uuid, 'UPSERT');
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_whitelist_after_delete AFTER DELETE ON whitelist
+BEGIN
+    INSERT INTO whitelist_changes (whitelist_id, name, uuid, change_type)
+    VALUES (OLD.id, OLD.name, OLD.uuid, 'DELETE');
+END;
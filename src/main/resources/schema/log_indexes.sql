@@ -0,0 +1,18 @@
+-- 日志库 (logs.db) 索引
+
+-- 同步任务表索引
+CREATE INDEX IF NOT EXISTS idx_sync_tasks_status ON sync_tasks(status);
+CREATE INDEX IF NOT EXISTS idx_sync_tasks_type ON sync_tasks(task_type);
+CREATE INDEX IF NOT EXISTS idx_sync_tasks_priority ON sync_tasks(priority DESC, created_at ASC);
+CREATE INDEX IF NOT EXISTS idx_sync_tasks_scheduled ON sync_tasks(scheduled_at);
+
+-- 操作日志表索引
+CREATE INDEX IF NOT EXISTS idx_operation_log_type ON operation_log(operation_type);
+CREATE INDEX IF NOT EXISTS idx_operation_log_target ON operation_log(target_uuid);
+CREATE INDEX IF NOT EXISTS idx_operation_log_time ON operation_log(created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_operation_log_ip ON operation_log(operator_ip);
+
+-- 注册令牌表索引
+CREATE INDEX IF NOT EXISTS idx_registration_tokens_hash ON registration_tokens(token_hash);
+CREATE INDEX IF NOT EXISTS idx_registration_tokens_expires ON registration_tokens(expires_at);
+CREATE INDEX IF NOT EXISTS idx_registration_tokens_used ON registration_tokens(is_used);
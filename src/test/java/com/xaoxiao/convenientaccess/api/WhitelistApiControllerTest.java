@@ -0,0 +1,116 @@
+package com.xaoxiao.convenientaccess.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.xaoxiao.convenientaccess.utils.UuidUtils;
+import com.xaoxiao.convenientaccess.whitelist.BatchOperation;
+import com.xaoxiao.convenientaccess.whitelist.WhitelistEntry;
+
+class WhitelistApiControllerTest {
+    private static final String UUID_A = "0f8fad5b-d9cb-469f-a165-70867728950e";
+    private static final LocalDateTime ADDED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private static BatchOperation chunk(BatchOperation.OperationType type) {
+        return new BatchOperation(type, "API", "00000000-0000-0000-0000-000000000000");
+    }
+
+    private static String add(BatchOperation chunk, String json, int record) {
+        return WhitelistApiController.addImportRecord(chunk, JsonParser.parseString(json), record,
+                WhitelistEntry.Source.ADMIN, ADDED_AT);
+    }
+
+    private static JsonObject line(StringWriter output, int index) {
+        String[] lines = output.toString().split("\\R");
+        return JsonParser.parseString(lines[index]).getAsJsonObject();
+    }
+
+    @Test
+    void addRecordKeepsProvidedUuidOrGeneratesOne() {
+        BatchOperation chunk = chunk(BatchOperation.OperationType.ADD);
+
+        assertNull(add(chunk, "{\"name\":\"Steve\",\"uuid\":\"" + UUID_A + "\"}", 1));
+        assertNull(add(chunk, "{\"name\":\"Alex\"}", 2));
+        assertNull(add(chunk, "{\"name\":\"Herobrine\",\"uuid\":null}", 3));
+
+        List<WhitelistEntry> entries = chunk.getEntries();
+        assertEquals(3, entries.size());
+        assertEquals(UUID_A, entries.get(0).getUuid());
+        assertEquals(UuidUtils.generateUuidFromPlayerName("Alex"), entries.get(1).getUuid());
+        assertEquals("ADMIN", entries.get(1).getSource());
+        assertEquals(ADDED_AT, entries.get(1).getAddedAt());
+        assertEquals(UuidUtils.generateUuidFromPlayerName("Herobrine"), entries.get(2).getUuid());
+    }
+
+    @Test
+    void invalidRecordsAreRejectedWithRecordNumber() {
+        BatchOperation chunk = chunk(BatchOperation.OperationType.ADD);
+
+        assertEquals("第 4 条记录不是JSON对象", add(chunk, "[1,2]", 4));
+        assertEquals("第 5 条记录玩家名无效: null", add(chunk, "{\"uuid\":\"" + UUID_A + "\"}", 5));
+        assertEquals("第 6 条记录玩家名无效: ", add(chunk, "{\"name\":\"\"}", 6));
+        assertTrue(chunk.isEmpty());
+    }
+
+    @Test
+    void removeRecordRequiresValidUuid() {
+        BatchOperation chunk = chunk(BatchOperation.OperationType.REMOVE);
+
+        assertNull(add(chunk, "{\"uuid\":\"" + UUID_A + "\"}", 1));
+        assertEquals("第 2 条记录UUID无效: not-a-uuid", add(chunk, "{\"uuid\":\"not-a-uuid\"}", 2));
+        assertEquals("第 3 条记录UUID无效: null", add(chunk, "{\"name\":\"Steve\"}", 3));
+
+        assertEquals(1, chunk.getSize());
+        assertEquals(UUID_A, chunk.getEntries().get(0).getUuid());
+    }
+
+    @Test
+    void rejectedRowsDoNotStopImport() {
+        WhitelistApiController.ImportProgress progress = new WhitelistApiController.ImportProgress(System.currentTimeMillis());
+        StringWriter output = new StringWriter();
+        BatchOperation.BatchResult result = new BatchOperation.BatchResult(3, 2, 1,
+                List.of("玩家已存在: Steve"), List.of(UUID_A), List.of(UUID_A));
+
+        assertTrue(progress.await(CompletableFuture.completedFuture(result), new PrintWriter(output)));
+
+        JsonObject progressLine = line(output, 0);
+        assertEquals(2, progressLine.get("chunk_success").getAsInt());
+        assertEquals(1, progressLine.get("chunk_failure").getAsInt());
+        assertFalse(progressLine.has("error"));
+        JsonObject summary = progress.toJson("complete", true);
+        assertEquals(2, summary.get("success_count").getAsInt());
+        assertEquals(1, summary.get("failure_count").getAsInt());
+        assertEquals("玩家已存在: Steve", summary.getAsJsonArray("errors").get(0).getAsString());
+    }
+
+    @Test
+    void transactionFailureStopsImport() {
+        WhitelistApiController.ImportProgress progress = new WhitelistApiController.ImportProgress(System.currentTimeMillis());
+        StringWriter output = new StringWriter();
+        BatchOperation.BatchResult failed = new BatchOperation.BatchResult(2, 0, 2,
+                List.of("批量操作执行失败: database is locked"), List.of(), List.of(UUID_A, UUID_A), "database is locked");
+
+        assertFalse(progress.await(CompletableFuture.completedFuture(failed), new PrintWriter(output)));
+
+        JsonObject progressLine = line(output, 0);
+        assertEquals(1, progressLine.get("chunk").getAsInt());
+        assertEquals(0, progressLine.get("chunk_success").getAsInt());
+        assertNotNull(progressLine.get("error"));
+        assertEquals("第 1 块写入失败: database is locked", progressLine.get("error").getAsString());
+        JsonObject summary = progress.toJson("complete", true);
+        assertEquals("第 1 块写入失败: database is locked", summary.getAsJsonArray("errors").get(0).getAsString());
+    }
+}
@@ -0,0 +1,265 @@
+package com.xaoxiao.convenientaccess.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolTest {
+    private static final String URL = "jdbc:pooltest:memory";
+
+    private FakeDriver driver;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        driver = new FakeDriver();
+        DriverManager.registerDriver(driver);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (pool != null) {
+            pool.close();
+        }
+        DriverManager.deregisterDriver(driver);
+    }
+
+    private ConnectionPool pool(int statementCacheSize) {
+        pool = new ConnectionPool(URL, new String[0], 1, 1000, 0, 60_000, 0, statementCacheSize, null);
+        return pool;
+    }
+
+    private static void assertStats(ConnectionPool pool, long hits, long misses, long evictions) {
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(hits, stats.getStatementHits());
+        assertEquals(misses, stats.getStatementMisses());
+        assertEquals(evictions, stats.getStatementEvictions());
+    }
+
+    @Test
+    void closedStatementIsReusedOnSameConnection() throws SQLException {
+        ConnectionPool pool = pool(4);
+        try (Connection connection = pool.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT a")) {
+                stmt.setString(1, "x");
+            }
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT a")) {
+                assertFalse(stmt.isClosed());
+            }
+        }
+        // 归还后再次借出，仍是同一个物理连接和缓存
+        try (Connection connection = pool.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("SELECT a")) {
+            assertFalse(stmt.isClosed());
+        }
+
+        assertEquals(1, driver.prepared.size());
+        FakeStatement physical = driver.prepared.get(0);
+        assertFalse(physical.closed);
+        assertEquals(3, physical.clearParameterCalls);
+        assertStats(pool, 2, 1, 0);
+    }
+
+    @Test
+    void leastRecentlyUsedStatementIsEvicted() throws SQLException {
+        ConnectionPool pool = pool(2);
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("SELECT a").close();
+            connection.prepareStatement("SELECT b").close();
+            // 访问 a 使 b 成为最久未使用
+            connection.prepareStatement("SELECT a").close();
+            connection.prepareStatement("SELECT c").close();
+
+            assertTrue(driver.find("SELECT b").closed);
+            assertFalse(driver.find("SELECT a").closed);
+            assertStats(pool, 1, 3, 1);
+
+            connection.prepareStatement("SELECT b").close();
+            assertStats(pool, 1, 4, 2);
+            assertTrue(driver.find("SELECT a").closed);
+            assertFalse(driver.find("SELECT c").closed);
+        }
+    }
+
+    @Test
+    void nestedUseOfSameSqlGetsUncachedStatement() throws SQLException {
+        ConnectionPool pool = pool(4);
+        try (Connection connection = pool.getConnection();
+             PreparedStatement outer = connection.prepareStatement("SELECT a")) {
+            PreparedStatement inner = connection.prepareStatement("SELECT a");
+            inner.close();
+
+            assertEquals(2, driver.prepared.size());
+            assertFalse(driver.prepared.get(0).closed);
+            assertTrue(driver.prepared.get(1).closed);
+            assertFalse(outer.isClosed());
+            assertStats(pool, 0, 2, 0);
+        }
+    }
+
+    @Test
+    void statementLeftOpenIsDiscardedWhenConnectionReturns() throws SQLException {
+        ConnectionPool pool = pool(4);
+        Connection connection = pool.getConnection();
+        connection.prepareStatement("SELECT a");
+        connection.close();
+
+        assertTrue(driver.find("SELECT a").closed);
+        try (Connection again = pool.getConnection()) {
+            again.prepareStatement("SELECT a").close();
+        }
+        assertEquals(2, driver.prepared.size());
+        assertStats(pool, 0, 2, 0);
+    }
+
+    @Test
+    void zeroCacheSizeClosesEveryStatement() throws SQLException {
+        ConnectionPool pool = pool(0);
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("SELECT a").close();
+            connection.prepareStatement("SELECT a").close();
+        }
+
+        assertEquals(2, driver.prepared.size());
+        assertTrue(driver.prepared.get(0).closed);
+        assertTrue(driver.prepared.get(1).closed);
+        assertStats(pool, 0, 2, 0);
+    }
+
+    @Test
+    void uncacheableCallFormIsNotCounted() throws SQLException {
+        ConnectionPool pool = pool(4);
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("INSERT a", new int[]{1}).close();
+            connection.prepareStatement("INSERT a", Statement.RETURN_GENERATED_KEYS).close();
+            connection.prepareStatement("INSERT a", Statement.RETURN_GENERATED_KEYS).close();
+        }
+
+        assertTrue(driver.prepared.get(0).closed);
+        assertEquals(2, driver.prepared.size());
+        assertStats(pool, 1, 1, 0);
+    }
+
+    /**
+     * 记录物理语句的最小驱动
+     */
+    private static final class FakeDriver implements Driver {
+        final List<FakeStatement> prepared = new ArrayList<>();
+
+        FakeStatement find(String sql) {
+            for (FakeStatement statement : prepared) {
+                if (statement.sql.equals(sql)) {
+                    return statement;
+                }
+            }
+            throw new AssertionError("未准备过: " + sql);
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            boolean[] closed = {false};
+            boolean[] autoCommit = {true};
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "prepareStatement" -> {
+                            FakeStatement statement = new FakeStatement((String) args[0]);
+                            prepared.add(statement);
+                            yield statement.proxy(PreparedStatement.class);
+                        }
+                        case "createStatement" -> new FakeStatement(null).proxy(Statement.class);
+                        case "close" -> {
+                            closed[0] = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed[0];
+                        case "getAutoCommit" -> autoCommit[0];
+                        case "setAutoCommit" -> {
+                            autoCommit[0] = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return URL.equals(url);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+
+    private static final class FakeStatement {
+        final String sql;
+        boolean closed;
+        int clearParameterCalls;
+
+        FakeStatement(String sql) {
+            this.sql = sql;
+        }
+
+        <T> T proxy(Class<T> type) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "clearParameters" -> {
+                            clearParameterCalls++;
+                            yield null;
+                        }
+                        case "execute" -> false;
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    }));
+        }
+    }
+}
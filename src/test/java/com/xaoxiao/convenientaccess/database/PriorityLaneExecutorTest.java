@@ -0,0 +1,133 @@
+package com.xaoxiao.convenientaccess.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PriorityLaneExecutorTest {
+    private PriorityLaneExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static PriorityLaneExecutor.LaneStats stats(PriorityLaneExecutor executor, DatabasePriority priority) {
+        return executor.getStats().get(priority.ordinal());
+    }
+
+    @Test
+    void higherPriorityLaneRunsFirst() throws Exception {
+        executor = new PriorityLaneExecutor("test-order", 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        executor.submit(DatabasePriority.BACKGROUND, () -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        executor.submit(DatabasePriority.BACKGROUND, () -> order.add("background-1"));
+        executor.submit(DatabasePriority.INTERACTIVE, () -> order.add("interactive"));
+        executor.submit(DatabasePriority.BACKGROUND, () -> order.add("background-2"));
+        executor.submit(DatabasePriority.LOGIN_CRITICAL, () -> order.add("login"));
+        assertEquals(4, executor.getQueueDepth());
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(List.of("login", "interactive", "background-1", "background-2"), order);
+        assertEquals(3, stats(executor, DatabasePriority.BACKGROUND).getCompleted());
+        assertEquals(2, stats(executor, DatabasePriority.BACKGROUND).getPeakQueueDepth());
+    }
+
+    @Test
+    void laneLimitLeavesThreadsForOtherLanes() throws Exception {
+        executor = new PriorityLaneExecutor("test-limit", 2, 0, 0, 1);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(DatabasePriority.BACKGROUND, () -> {
+            firstStarted.countDown();
+            await(release);
+        });
+        executor.submit(DatabasePriority.BACKGROUND, () -> await(release));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+
+        // 第二个后台任务受通道上限限制继续排队，登录检查仍能拿到空闲线程
+        CompletableFuture<String> login = CompletableFuture.supplyAsync(() -> "ok",
+                executor.lane(DatabasePriority.LOGIN_CRITICAL));
+        assertEquals("ok", login.get(5, TimeUnit.SECONDS));
+
+        PriorityLaneExecutor.LaneStats background = stats(executor, DatabasePriority.BACKGROUND);
+        assertEquals(1, background.getLimit());
+        assertEquals(1, background.getRunning());
+        assertEquals(1, background.getQueueDepth());
+        assertEquals(2, stats(executor, DatabasePriority.LOGIN_CRITICAL).getLimit());
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, stats(executor, DatabasePriority.BACKGROUND).getCompleted());
+    }
+
+    @Test
+    void failingTaskDoesNotStopWorker() throws Exception {
+        executor = new PriorityLaneExecutor("test-failure", 1);
+        executor.submit(DatabasePriority.INTERACTIVE, () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Integer> next = CompletableFuture.supplyAsync(() -> 42,
+                executor.lane(DatabasePriority.INTERACTIVE));
+
+        assertEquals(Integer.valueOf(42), next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shutdownRejectsNewTasksAndShutdownNowDropsQueued() throws Exception {
+        executor = new PriorityLaneExecutor("test-shutdown", 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        boolean[] ranQueued = {false};
+
+        executor.submit(DatabasePriority.INTERACTIVE, () -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.submit(DatabasePriority.INTERACTIVE, () -> ranQueued[0] = true);
+        executor.submit(DatabasePriority.BACKGROUND, () -> ranQueued[0] = true);
+
+        executor.shutdown();
+        assertThrows(RejectedExecutionException.class,
+                () -> executor.submit(DatabasePriority.LOGIN_CRITICAL, () -> { }));
+        assertEquals(2, executor.shutdownNow());
+        release.countDown();
+
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertFalse(ranQueued[0]);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
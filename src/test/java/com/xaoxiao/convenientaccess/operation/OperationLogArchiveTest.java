@@ -0,0 +1,231 @@
+package com.xaoxiao.convenientaccess.operation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OperationLogArchiveTest {
+    private static final int BLOCK_ROWS = 1024;
+    private static final int ROWS = 2500;
+    private static final long BASE_SECOND = LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private File directory;
+    private OperationLogArchive archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("archive-test").toFile();
+        archive = new OperationLogArchive(null, null, directory, 30, BLOCK_ROWS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.stop();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * 第 id 行：每秒一行，偶数行有目标UUID，每7行一次空的响应状态和耗时
+     */
+    private static ResultSet row(long id) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("created_at", LocalDateTime.ofEpochSecond(BASE_SECOND + id, 0, ZoneOffset.UTC).format(TIMESTAMP_FORMAT));
+        values.put("operation_type", id % 3 == 0 ? "WHITELIST_ADD" : "WHITELIST_REMOVE");
+        values.put("target_uuid", id % 2 == 0 ? "uuid-" + (id % 10) : null);
+        values.put("target_name", "Player" + id);
+        values.put("operator_ip", "10.0.0." + (id % 4));
+        values.put("operator_agent", "agent");
+        values.put("request_data", "{\"id\":" + id + ",\"名称\":\"玩家\"}");
+        values.put("response_status", id % 7 == 0 ? null : 200);
+        values.put("execution_time", id % 7 == 0 ? null : id * 3);
+
+        boolean[] wasNull = {false};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if ("wasNull".equals(method.getName())) {
+                        return wasNull[0];
+                    }
+                    Object value = values.get((String) args[0]);
+                    wasNull[0] = value == null;
+                    return switch (method.getName()) {
+                        case "getString" -> (String) value;
+                        case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                        case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+
+    private File writeSegment(int sequence, long firstId, long lastId) throws Exception {
+        File file = new File(directory, String.format("segment-%08d.seg", sequence));
+        File temp = new File(directory, file.getName() + ".tmp");
+        OperationLogArchive.SegmentWriter writer = new OperationLogArchive.SegmentWriter(temp);
+        try {
+            for (long id = firstId; id <= lastId; id++) {
+                writer.add(row(id));
+                writer.flushFullBlock();
+            }
+            writer.finish(BASE_SECOND + lastId + 1);
+        } finally {
+            writer.closeQuietly();
+        }
+        Files.move(temp.toPath(), file.toPath());
+        return file;
+    }
+
+    private List<Long> scanIds(OperationLogArchive.Query query, boolean descending) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        archive.scan(query, descending, log -> ids.add(log.getId()));
+        return ids;
+    }
+
+    @Test
+    void segmentRoundTripsRowsInOrder() throws Exception {
+        writeSegment(1, 1, ROWS);
+        archive.open();
+
+        List<OperationLog> rows = new ArrayList<>();
+        archive.scan(new OperationLogArchive.Query(), false, rows::add);
+        assertEquals(ROWS, rows.size());
+        for (int i = 0; i < ROWS; i++) {
+            long id = i + 1;
+            OperationLog log = rows.get(i);
+            assertEquals(Long.valueOf(id), log.getId());
+            assertEquals("Player" + id, log.getTargetName());
+            assertEquals(id % 2 == 0 ? "uuid-" + (id % 10) : null, log.getTargetUuid());
+            assertEquals("{\"id\":" + id + ",\"名称\":\"玩家\"}", log.getRequestData());
+            assertEquals(LocalDateTime.ofEpochSecond(BASE_SECOND + id, 0, ZoneOffset.UTC), log.getCreatedAt());
+            if (id % 7 == 0) {
+                assertNull(log.getResponseStatus());
+                assertNull(log.getExecutionTime());
+            } else {
+                assertEquals(Integer.valueOf(200), log.getResponseStatus());
+                assertEquals(Long.valueOf(id * 3), log.getExecutionTime());
+            }
+        }
+
+        List<Long> descending = scanIds(new OperationLogArchive.Query(), true);
+        assertEquals(Long.valueOf(ROWS), descending.get(0));
+        assertEquals(Long.valueOf(1), descending.get(ROWS - 1));
+        assertEquals(ROWS, archive.count(new OperationLogArchive.Query()));
+    }
+
+    @Test
+    void blockIndexesSelectCandidateBlocks() throws Exception {
+        OperationLogArchive.Segment segment = OperationLogArchive.Segment.open(writeSegment(1, 1, ROWS));
+        try {
+            assertEquals(3, segment.blockCount());
+
+            OperationLogArchive.Query byTime = new OperationLogArchive.Query();
+            byTime.startSecond = BASE_SECOND + BLOCK_ROWS + 10;
+            byTime.endSecond = BASE_SECOND + BLOCK_ROWS + 20;
+            BitSet timeBlocks = segment.candidateBlocks(byTime);
+            assertEquals(1, timeBlocks.cardinality());
+            assertTrue(timeBlocks.get(1));
+
+            OperationLogArchive.Query byUuid = new OperationLogArchive.Query();
+            byUuid.targetUuid = "uuid-4";
+            assertEquals(3, segment.candidateBlocks(byUuid).cardinality());
+            byUuid.targetUuid = "uuid-missing";
+            assertTrue(segment.candidateBlocks(byUuid).isEmpty());
+        } finally {
+            segment.close();
+        }
+    }
+
+    @Test
+    void queriesFilterAcrossSegments() throws Exception {
+        writeSegment(1, 1, ROWS);
+        writeSegment(2, ROWS + 1, ROWS + 100);
+        archive.open();
+
+        OperationLogArchive.Query range = new OperationLogArchive.Query();
+        range.startSecond = BASE_SECOND + 1000;
+        range.endSecond = BASE_SECOND + 2999;
+        // id 1000 ~ 2600，跨两个段
+        assertEquals(1601, archive.count(range));
+
+        OperationLogArchive.Query uuid = new OperationLogArchive.Query();
+        uuid.targetUuid = "uuid-4";
+        // id % 10 == 4
+        assertEquals((ROWS + 100) / 10, archive.count(uuid));
+
+        OperationLogArchive.Query page = new OperationLogArchive.Query();
+        page.afterSecond = BASE_SECOND + ROWS + 5;
+        page.afterId = ROWS + 5;
+        List<Long> ids = new ArrayList<>();
+        archive.scan(page, true, log -> ids.add(log.getId()) && ids.size() < 3);
+        assertEquals(List.of((long) ROWS + 4, (long) ROWS + 3, (long) ROWS + 2), ids);
+
+        assertTrue(archive.mayContain(LocalDateTime.ofEpochSecond(BASE_SECOND + ROWS + 100, 0, ZoneOffset.UTC)));
+        assertFalse(archive.mayContain(LocalDateTime.ofEpochSecond(BASE_SECOND + ROWS + 101, 0, ZoneOffset.UTC)));
+    }
+
+    @Test
+    void invalidSegmentFilesAreSkippedOnOpen() throws Exception {
+        writeSegment(1, 1, 10);
+        File truncated = writeSegment(2, 11, 20);
+        try (RandomAccessFile file = new RandomAccessFile(truncated, "rw")) {
+            file.setLength(file.length() - 4);
+        }
+        File badMagic = writeSegment(3, 21, 30);
+        try (RandomAccessFile file = new RandomAccessFile(badMagic, "rw")) {
+            file.writeInt(0);
+        }
+        Files.writeString(new File(directory, "segment-x.seg").toPath(), "not a segment");
+        File interrupted = new File(directory, "segment-00000004.seg.tmp");
+        Files.writeString(interrupted.toPath(), "partial");
+
+        archive.open();
+
+        assertEquals(10, archive.count(new OperationLogArchive.Query()));
+        assertFalse(interrupted.exists());
+        assertThrows(IOException.class, () -> OperationLogArchive.Segment.open(truncated));
+        assertThrows(IOException.class, () -> OperationLogArchive.Segment.open(badMagic));
+    }
+
+    @Test
+    void corruptBlockFailsOnRead() throws Exception {
+        File file = writeSegment(1, 1, ROWS);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(8 + 16);
+            raf.write(new byte[64]);
+        }
+        archive.open();
+
+        assertThrows(IOException.class, () -> scanIds(new OperationLogArchive.Query(), false));
+        // 其他块不受影响
+        OperationLogArchive.Query later = new OperationLogArchive.Query();
+        later.startSecond = BASE_SECOND + BLOCK_ROWS + 1;
+        assertEquals(ROWS - BLOCK_ROWS, scanIds(later, false).size());
+    }
+}
@@ -0,0 +1,174 @@
+package com.xaoxiao.convenientaccess.operation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.xaoxiao.convenientaccess.operation.OperationLogBuffer.OverflowPolicy;
+
+class OperationLogBufferTest {
+    private static final int CAPACITY = 4;
+
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private OperationLogBuffer buffer;
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        if (buffer != null) {
+            buffer.close(5000);
+        }
+    }
+
+    private static OperationLog log(int n) {
+        return new OperationLog("TEST", null, "log-" + n, "127.0.0.1", null, null, 200, 1L);
+    }
+
+    private static List<String> names(int... numbers) {
+        List<String> names = new ArrayList<>();
+        for (int n : numbers) {
+            names.add("log-" + n);
+        }
+        return names;
+    }
+
+    /**
+     * 创建每批一条的缓冲区，写线程取走第一条日志后停在 gate 上，随后放入的日志填满环形缓冲区
+     */
+    private OperationLogBuffer fullBuffer(OverflowPolicy policy, long blockTimeoutMs, int sampleRate) throws Exception {
+        buffer = new OperationLogBuffer(CAPACITY, policy, 1, 1, blockTimeoutMs, sampleRate, batch -> {
+            gate.await(5, TimeUnit.SECONDS);
+            for (OperationLog log : batch) {
+                written.add(log.getTargetName());
+            }
+        });
+        assertTrue(buffer.offer(log(0)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (buffer.getPending() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, buffer.getPending());
+        return buffer;
+    }
+
+    private void fill(int from, int to) {
+        for (int n = from; n <= to; n++) {
+            assertTrue(buffer.offer(log(n)));
+        }
+    }
+
+    private void drain() {
+        gate.countDown();
+        assertTrue(buffer.close(5000));
+    }
+
+    @Test
+    void dropOldestOverwritesOldestEntry() throws Exception {
+        fullBuffer(OverflowPolicy.DROP_OLDEST, 0, 1);
+        fill(1, CAPACITY);
+
+        assertTrue(buffer.offer(log(5)));
+        assertTrue(buffer.offer(log(6)));
+        assertEquals(CAPACITY, buffer.getPending());
+        assertEquals(2, buffer.getDropped());
+
+        drain();
+        assertEquals(names(0, 3, 4, 5, 6), written);
+        assertEquals(7, buffer.getAccepted());
+        assertEquals(5, buffer.getFlushed());
+    }
+
+    @Test
+    void blockDropsNewEntryAfterTimeout() throws Exception {
+        fullBuffer(OverflowPolicy.BLOCK, 50, 1);
+        fill(1, CAPACITY);
+
+        long start = System.nanoTime();
+        assertFalse(buffer.offer(log(5)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(1, buffer.getDropped());
+
+        drain();
+        assertEquals(names(0, 1, 2, 3, 4), written);
+    }
+
+    @Test
+    void blockWaitsForWriterToFreeSpace() throws Exception {
+        fullBuffer(OverflowPolicy.BLOCK, 5000, 1);
+        fill(1, CAPACITY);
+
+        CompletableFuture<Boolean> offered = CompletableFuture.supplyAsync(() -> buffer.offer(log(5)));
+        Thread.sleep(50);
+        assertFalse(offered.isDone());
+        gate.countDown();
+
+        assertTrue(offered.get(5, TimeUnit.SECONDS));
+        drain();
+        assertEquals(names(0, 1, 2, 3, 4, 5), written);
+        assertEquals(0, buffer.getDropped());
+    }
+
+    @Test
+    void sampleKeepsEveryNthOnceHalfFull() throws Exception {
+        fullBuffer(OverflowPolicy.SAMPLE, 0, 2);
+        // 前两条未过半全部保留；之后每2条保留1条，满时覆盖最旧的日志
+        fill(1, 2);
+        assertTrue(buffer.offer(log(3)));
+        assertFalse(buffer.offer(log(4)));
+        assertTrue(buffer.offer(log(5)));
+        assertFalse(buffer.offer(log(6)));
+        assertTrue(buffer.offer(log(7)));
+        assertEquals(CAPACITY, buffer.getPending());
+        assertEquals(3, buffer.getDropped());
+
+        drain();
+        assertEquals(names(0, 2, 3, 5, 7), written);
+    }
+
+    @Test
+    void closeFlushesPendingAndRejectsNewEntries() {
+        buffer = new OperationLogBuffer(16, OverflowPolicy.DROP_OLDEST, 10, 60_000, 0, 1, batch -> {
+            for (OperationLog log : batch) {
+                written.add(log.getTargetName());
+            }
+        });
+        fill(1, 3);
+
+        assertTrue(buffer.close(5000));
+        assertEquals(names(1, 2, 3), written);
+        assertFalse(buffer.offer(log(4)));
+        assertEquals(1, buffer.getDropped());
+    }
+
+    @Test
+    void failedBatchIsCountedAndWriterContinues() {
+        buffer = new OperationLogBuffer(16, OverflowPolicy.DROP_OLDEST, 1, 1, 0, 1, batch -> {
+            if ("log-1".equals(batch.get(0).getTargetName())) {
+                throw new IllegalStateException("boom");
+            }
+            written.add(batch.get(0).getTargetName());
+        });
+        fill(1, 2);
+
+        assertTrue(buffer.close(5000));
+        assertEquals(1, buffer.getFailed());
+        assertEquals(names(2), written);
+    }
+
+    @Test
+    void unknownPolicyFallsBackToDropOldest() {
+        assertEquals(OverflowPolicy.SAMPLE, OverflowPolicy.fromConfig("Sample"));
+        assertEquals(OverflowPolicy.DROP_OLDEST, OverflowPolicy.fromConfig("unknown"));
+    }
+}
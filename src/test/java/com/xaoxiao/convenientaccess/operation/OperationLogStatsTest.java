@@ -0,0 +1,82 @@
+package com.xaoxiao.convenientaccess.operation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class OperationLogStatsTest {
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    // 2024-06-01T12:30:30Z，不在任何桶边界上
+    private static final long NOW = Instant.parse("2024-06-01T12:30:30Z").toEpochMilli();
+
+    @Test
+    void countsByTypeWithinEachWindow() {
+        OperationLogStats stats = new OperationLogStats();
+        stats.record("ADD", NOW);
+        stats.record("ADD", NOW - 10 * MINUTE);
+        stats.record("REMOVE", NOW - 2 * HOUR);
+        stats.record("QUERY", NOW - 3 * DAY);
+        stats.record("UNKNOWN", NOW);
+
+        assertEquals(Map.of("ADD", 2L), stats.count(OperationLogStats.Window.HOUR, NOW));
+        assertEquals(Map.of("ADD", 2L, "REMOVE", 1L), stats.count(OperationLogStats.Window.DAY, NOW));
+        assertEquals(Map.of("ADD", 2L, "REMOVE", 1L, "QUERY", 1L), stats.count(OperationLogStats.Window.WEEK, NOW));
+    }
+
+    @Test
+    void windowIncludesCurrentBucketAndDropsExpiredOnes() {
+        OperationLogStats stats = new OperationLogStats();
+        long minuteStart = NOW - NOW % MINUTE;
+        // 最早仍在窗口内的分钟桶，以及刚滚出窗口的分钟桶
+        stats.record("ADD", minuteStart - 59 * MINUTE);
+        stats.record("REMOVE", minuteStart - 60 * MINUTE);
+
+        assertEquals(Map.of("ADD", 1L), stats.count(OperationLogStats.Window.HOUR, NOW));
+        // 一分钟后最早的桶也滚出窗口
+        assertTrue(stats.count(OperationLogStats.Window.HOUR, NOW + MINUTE).isEmpty());
+        // 小时窗口仍然包含它们
+        assertEquals(Map.of("ADD", 1L, "REMOVE", 1L), stats.count(OperationLogStats.Window.DAY, NOW + MINUTE));
+    }
+
+    @Test
+    void reusedSlotIsClearedAndOlderWritesAreDropped() {
+        OperationLogStats stats = new OperationLogStats();
+        stats.add("SYNC", NOW - 2 * HOUR, 5);
+        // 同一分钟槽位（相差60分钟的整数倍），新桶覆盖旧桶
+        stats.record("ADD", NOW);
+        assertEquals(Map.of("ADD", 1L), stats.count(OperationLogStats.Window.HOUR, NOW));
+
+        // 比槽位当前桶更旧的计数不再写入
+        stats.record("REMOVE", NOW - HOUR);
+        assertEquals(Map.of("ADD", 1L), stats.count(OperationLogStats.Window.HOUR, NOW));
+        assertEquals(Map.of("SYNC", 5L, "ADD", 1L, "REMOVE", 1L), stats.count(OperationLogStats.Window.DAY, NOW));
+    }
+
+    @Test
+    void seededHistoryIsAddedInBulk() {
+        OperationLogStats stats = new OperationLogStats();
+        stats.add("BATCH_ADD", NOW - 5 * DAY, 1200);
+        stats.add("BATCH_ADD", NOW - 8 * DAY, 300);
+        stats.markSeeded();
+
+        assertTrue(stats.isSeeded());
+        assertEquals(Map.of("BATCH_ADD", 1200L), stats.count(OperationLogStats.Window.WEEK, NOW));
+        assertNull(stats.count(OperationLogStats.Window.DAY, NOW).get("BATCH_ADD"));
+    }
+
+    @Test
+    void windowLookupByName() {
+        assertSame(OperationLogStats.Window.HOUR, OperationLogStats.Window.fromName("hour"));
+        assertSame(OperationLogStats.Window.WEEK, OperationLogStats.Window.fromName("WEEK"));
+        assertNull(OperationLogStats.Window.fromName("month"));
+        assertEquals(DAY, OperationLogStats.Window.DAY.getMillis());
+    }
+}
@@ -0,0 +1,61 @@
+package com.xaoxiao.convenientaccess.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class PageCursorTest {
+
+    private static String encodeRaw(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTripsStringValue() {
+        PageCursor cursor = PageCursor.decode(new PageCursor("name", true, "Steve_01", 42).encode());
+
+        assertEquals("name", cursor.getSort());
+        assertTrue(cursor.isAscending());
+        assertEquals("Steve_01", cursor.getValue());
+        assertEquals(42, cursor.getId());
+    }
+
+    @Test
+    void roundTripsLongAndNullValues() {
+        PageCursor time = PageCursor.decode(new PageCursor("added_at", false, 1_700_000_000_123L, 7).encode());
+        assertFalse(time.isAscending());
+        assertEquals(1_700_000_000_123L, time.getValue());
+
+        PageCursor empty = PageCursor.decode(new PageCursor("uuid", true, null, Long.MAX_VALUE).encode());
+        assertNull(empty.getValue());
+        assertEquals(Long.MAX_VALUE, empty.getId());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new PageCursor("name", true, "??>>~~ü", 1).encode();
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+    }
+
+    @Test
+    void rejectsUnsupportedValueType() {
+        assertThrows(IllegalArgumentException.class, () -> new PageCursor("name", true, 1.5d, 1));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encodeRaw("not json {")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encodeRaw("[1,2]")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encodeRaw("{\"d\":\"asc\",\"i\":1}")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encodeRaw("{\"s\":\"name\",\"d\":\"asc\",\"i\":\"x\"}")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encodeRaw("{\"s\":\"name\",\"d\":\"asc\",\"v\":{},\"i\":1}")));
+    }
+}
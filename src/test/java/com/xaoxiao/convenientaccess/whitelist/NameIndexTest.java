@@ -0,0 +1,104 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class NameIndexTest {
+
+    private static WhitelistEntry entry(String name, boolean withUuid) {
+        return new WhitelistEntry(name, withUuid ? UUID.randomUUID().toString() : null, "admin", null, "ADMIN");
+    }
+
+    @Test
+    void lookupIgnoresCase() {
+        NameIndex index = new NameIndex();
+        WhitelistEntry steve = entry("Steve_01", true);
+        index.put(steve);
+
+        assertSame(steve, index.get("steve_01"));
+        assertSame(steve, index.get("STEVE_01"));
+        assertTrue(index.contains("sTeVe_01"));
+        assertNull(index.get("steve_0"));
+    }
+
+    @Test
+    void putReplacesSameNameAndTracksPendingUuid() {
+        NameIndex index = new NameIndex();
+        WhitelistEntry pending = entry("Alex", false);
+        WhitelistEntry resolved = entry("alex", true);
+
+        assertNull(index.put(pending));
+        assertEquals(1, index.pendingUuidCount());
+        assertSame(pending, index.put(resolved));
+        assertEquals(0, index.pendingUuidCount());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removeExactOnlyRemovesSameInstance() {
+        NameIndex index = new NameIndex();
+        WhitelistEntry current = entry("Notch", true);
+        index.put(current);
+
+        assertFalse(index.removeExact(entry("notch", true)));
+        assertSame(current, index.get("notch"));
+        assertTrue(index.removeExact(current));
+        assertNull(index.get("notch"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void randomOperationsMatchModelAcrossResizes() {
+        NameIndex index = new NameIndex();
+        Map<String, WhitelistEntry> model = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 30000; i++) {
+            String name = "Player" + random.nextInt(8000);
+            String key = name.toLowerCase(Locale.ROOT);
+            if (random.nextInt(3) == 0) {
+                assertSame(model.remove(key), index.remove(random.nextBoolean() ? name : name.toUpperCase(Locale.ROOT)));
+            } else {
+                WhitelistEntry value = entry(random.nextBoolean() ? name : key, random.nextInt(10) != 0);
+                assertSame(model.put(key, value), index.put(value));
+            }
+        }
+
+        assertEquals(model.size(), index.size());
+        long pending = model.values().stream().filter(e -> e.getUuid() == null).count();
+        assertEquals(pending, index.pendingUuidCount());
+        for (Map.Entry<String, WhitelistEntry> e : model.entrySet()) {
+            assertSame(e.getValue(), index.get(e.getKey()));
+        }
+    }
+
+    @Test
+    void copyIsIsolatedFromLaterWrites() {
+        NameIndex original = new NameIndex();
+        for (int i = 0; i < 3000; i++) {
+            original.put(entry("Player" + i, true));
+        }
+
+        NameIndex copy = original.copy();
+        copy.remove("player5");
+        copy.put(entry("Newcomer", false));
+
+        assertTrue(original.contains("Player5"));
+        assertFalse(original.contains("Newcomer"));
+        assertEquals(0, original.pendingUuidCount());
+        assertFalse(copy.contains("Player5"));
+        assertEquals(1, copy.pendingUuidCount());
+        assertEquals(3000, copy.size());
+    }
+}
@@ -0,0 +1,134 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class NameTrieTest {
+
+    private static WhitelistEntry entry(String name) {
+        return new WhitelistEntry(name, UUID.randomUUID().toString(), "admin", null, "ADMIN");
+    }
+
+    private static List<String> names(List<WhitelistEntry> entries) {
+        List<String> names = new ArrayList<>();
+        for (WhitelistEntry entry : entries) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
+
+    @Test
+    void suggestIsCaseInsensitiveAndLexicographic() {
+        NameTrie trie = new NameTrie();
+        trie.put(entry("Steve"));
+        trie.put(entry("stan"));
+        trie.put(entry("STEPHEN"));
+        trie.put(entry("Alex"));
+
+        assertEquals(List.of("stan", "STEPHEN", "Steve"), names(trie.suggest("ST", 10)));
+        assertEquals(List.of("stan", "STEPHEN"), names(trie.suggest("st", 2)));
+        assertEquals(List.of("STEPHEN", "Steve"), names(trie.suggest("stE", 10)));
+        assertEquals(3, trie.count("s"));
+        assertEquals(4, trie.count(""));
+        assertEquals(0, trie.count("stx"));
+        assertTrue(trie.suggest("st", 0).isEmpty());
+    }
+
+    @Test
+    void putReplacesSameNameAndSplitsEdges() {
+        NameTrie trie = new NameTrie();
+        trie.put(entry("steve"));
+        // 插入较短的前缀会拆分已压缩的边
+        trie.put(entry("ste"));
+        WhitelistEntry replacement = entry("STEVE");
+        trie.put(replacement);
+
+        assertEquals(2, trie.size());
+        assertEquals(List.of("ste", "STEVE"), names(trie.suggest("s", 10)));
+        assertSame(replacement, trie.suggest("steve", 1).get(0));
+    }
+
+    @Test
+    void removeOnlyRemovesSameInstanceAndMergesPath() {
+        NameTrie trie = new NameTrie();
+        WhitelistEntry ste = entry("ste");
+        WhitelistEntry steve = entry("steve");
+        trie.put(ste);
+        trie.put(steve);
+
+        trie.remove(entry("steve"));
+        assertEquals(2, trie.size());
+
+        trie.remove(ste);
+        assertEquals(1, trie.size());
+        assertEquals(0, trie.count("stx"));
+        assertEquals(List.of("steve"), names(trie.suggest("st", 10)));
+
+        trie.remove(steve);
+        assertEquals(0, trie.size());
+        assertTrue(trie.suggest("", 10).isEmpty());
+    }
+
+    @Test
+    void copyIsIsolatedFromLaterWrites() {
+        NameTrie trie = new NameTrie();
+        trie.put(entry("alpha"));
+        NameTrie copy = trie.copy();
+        trie.put(entry("alphabet"));
+        trie.remove(copy.suggest("alpha", 1).get(0));
+
+        assertEquals(1, copy.size());
+        assertEquals(List.of("alpha"), names(copy.suggest("al", 10)));
+        assertEquals(List.of("alphabet"), names(trie.suggest("al", 10)));
+    }
+
+    @Test
+    void randomOperationsMatchModel() {
+        Random random = new Random(7);
+        NameTrie trie = new NameTrie();
+        TreeMap<String, WhitelistEntry> model = new TreeMap<>();
+        String alphabet = "abAB_1";
+
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String key = name.toString().toLowerCase(Locale.ROOT);
+            if (random.nextInt(3) == 0) {
+                WhitelistEntry existing = model.remove(key);
+                if (existing != null) {
+                    trie.remove(existing);
+                }
+            } else {
+                WhitelistEntry entry = entry(name.toString());
+                model.put(key, entry);
+                trie.put(entry);
+            }
+        }
+
+        assertEquals(model.size(), trie.size());
+        for (String prefix : List.of("", "a", "ab", "b_", "1a")) {
+            List<WhitelistEntry> expected = new ArrayList<>();
+            for (var e : model.tailMap(prefix).entrySet()) {
+                if (!e.getKey().startsWith(prefix)) {
+                    break;
+                }
+                expected.add(e.getValue());
+            }
+            assertEquals(expected.size(), trie.count(prefix), prefix);
+            assertEquals(expected, trie.suggest(prefix, Integer.MAX_VALUE), prefix);
+        }
+    }
+}
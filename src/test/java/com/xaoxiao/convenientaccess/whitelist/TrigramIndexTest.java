@@ -0,0 +1,114 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    private static WhitelistEntry entry(String name, String addedBy) {
+        return new WhitelistEntry(name, null, addedBy, null, "ADMIN");
+    }
+
+    /**
+     * 按引用比较的集合（WhitelistEntry 的 equals 按UUID比较）
+     */
+    private static Set<WhitelistEntry> identitySet(List<WhitelistEntry> entries) {
+        Set<WhitelistEntry> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(entries);
+        return set;
+    }
+
+    private static Set<WhitelistEntry> toSet(TrigramIndex.Postings postings) {
+        Set<WhitelistEntry> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < postings.size(); i++) {
+            set.add(postings.get(i));
+        }
+        return set;
+    }
+
+    @Test
+    void candidatesUseRarestGramAndIgnoreCase() {
+        TrigramIndex index = new TrigramIndex();
+        WhitelistEntry steve = entry("Steve", "admin");
+        WhitelistEntry steven = entry("Steven", "admin");
+        WhitelistEntry alex = entry("Alex", "console");
+        index.add(steve);
+        index.add(steven);
+        index.add(alex);
+
+        assertEquals(identitySet(List.of(steve, steven)), toSet(index.candidates(TrigramIndex.Field.NAME, "STEV")));
+        assertEquals(identitySet(List.of(steven)), toSet(index.candidates(TrigramIndex.Field.NAME, "even")));
+        assertEquals(identitySet(List.of(alex)), toSet(index.candidates(TrigramIndex.Field.ADDED_BY, "sol")));
+        assertEquals(0, index.candidates(TrigramIndex.Field.NAME, "xyz").size());
+        // 查询词短于三个字符时无法使用索引
+        assertNull(index.candidates(TrigramIndex.Field.NAME, "st"));
+    }
+
+    @Test
+    void removeDropsEntryFromEveryGram() {
+        TrigramIndex index = new TrigramIndex();
+        WhitelistEntry entry = entry("aaaa", "admin");
+        index.add(entry);
+        index.remove(entry);
+
+        assertEquals(0, index.candidates(TrigramIndex.Field.NAME, "aaa").size());
+        assertEquals(0, index.candidates(TrigramIndex.Field.ADDED_BY, "adm").size());
+    }
+
+    /**
+     * 热门片段（所有条目共同的添加者）跨越多个倒排块，复制后的修改不影响旧一代
+     */
+    @Test
+    void hotPostingsSpanBlocksAndCopiesStayIsolated() {
+        TrigramIndex original = new TrigramIndex();
+        List<WhitelistEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            WhitelistEntry entry = entry("Player" + i, "admin");
+            entries.add(entry);
+            original.add(entry);
+        }
+
+        TrigramIndex copy = original.copy();
+        for (int i = 0; i < 700; i++) {
+            copy.remove(entries.get(i));
+        }
+        WhitelistEntry extra = entry("Extra", "admin");
+        copy.add(extra);
+
+        Set<WhitelistEntry> before = toSet(original.candidates(TrigramIndex.Field.ADDED_BY, "admin"));
+        assertEquals(2000, before.size());
+        assertTrue(before.containsAll(entries));
+
+        Set<WhitelistEntry> after = toSet(copy.candidates(TrigramIndex.Field.ADDED_BY, "admin"));
+        assertEquals(1301, after.size());
+        assertTrue(after.contains(extra));
+        assertTrue(after.containsAll(entries.subList(700, 2000)));
+        assertFalse(after.contains(entries.get(0)));
+    }
+
+    @Test
+    void growsOuterTableWithManyDistinctGrams() {
+        TrigramIndex index = new TrigramIndex();
+        List<WhitelistEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            WhitelistEntry entry = entry(Integer.toString(i * 7919, 36) + "xq", "op" + (i % 50));
+            entries.add(entry);
+            index.add(entry);
+        }
+
+        assertTrue(index.capacity() > 1024);
+        for (WhitelistEntry entry : entries) {
+            assertTrue(toSet(index.candidates(TrigramIndex.Field.NAME, entry.getName())).contains(entry));
+        }
+    }
+}
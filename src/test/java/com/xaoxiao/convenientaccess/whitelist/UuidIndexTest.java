@@ -0,0 +1,149 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class UuidIndexTest {
+
+    private static WhitelistEntry entry(UUID uuid) {
+        return new WhitelistEntry("p" + Long.toHexString(uuid.getLeastSignificantBits()), uuid.toString(),
+                "admin", null, "ADMIN");
+    }
+
+    @Test
+    void putGetAndReplace() {
+        UuidIndex index = new UuidIndex();
+        UUID uuid = UUID.randomUUID();
+        WhitelistEntry first = entry(uuid);
+        WhitelistEntry second = entry(uuid);
+
+        assertNull(index.put(uuid, first));
+        assertSame(first, index.put(uuid, second));
+        assertSame(second, index.get(uuid));
+        assertTrue(index.contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * 所有键落在同一个起始槽位，回移删除后探测链中剩余的键必须仍然可达
+     */
+    @Test
+    void removeKeepsCollidingProbeChainReachable() {
+        UuidIndex index = new UuidIndex(8);
+        int mask = index.capacity() - 1;
+        List<UUID> colliding = new ArrayList<>();
+        Random random = new Random(1);
+        int home = -1;
+        while (colliding.size() < 6) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            int slot = homeSlot(uuid, mask);
+            if (home < 0) {
+                home = slot;
+            }
+            if (slot == home) {
+                colliding.add(uuid);
+            }
+        }
+        for (UUID uuid : colliding) {
+            index.put(uuid, entry(uuid));
+        }
+
+        assertEquals(colliding.get(1).toString(), index.remove(colliding.get(1)).getUuid());
+        assertNull(index.get(colliding.get(1)));
+        for (UUID uuid : colliding) {
+            if (!uuid.equals(colliding.get(1))) {
+                assertEquals(uuid.toString(), index.get(uuid).getUuid());
+            }
+        }
+        assertNull(index.remove(colliding.get(1)));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void growsPastChunkBoundaryAndMatchesModel() {
+        UuidIndex index = new UuidIndex();
+        Map<UUID, WhitelistEntry> model = new HashMap<>();
+        Random random = new Random(42);
+        List<UUID> keys = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            if (keys.isEmpty() || random.nextInt(4) != 0) {
+                UUID uuid = new UUID(random.nextLong(), random.nextLong());
+                WhitelistEntry value = entry(uuid);
+                keys.add(uuid);
+                assertSame(model.put(uuid, value), index.put(uuid, value));
+            } else {
+                UUID uuid = keys.remove(random.nextInt(keys.size()));
+                assertSame(model.remove(uuid), index.remove(uuid));
+            }
+        }
+
+        assertEquals(model.size(), index.size());
+        assertTrue(index.capacity() > 4096, "应当跨越多个块");
+        for (Map.Entry<UUID, WhitelistEntry> e : model.entrySet()) {
+            assertSame(e.getValue(), index.get(e.getKey()));
+        }
+        int[] visited = {0};
+        index.forEach(value -> visited[0]++);
+        assertEquals(model.size(), visited[0]);
+    }
+
+    @Test
+    void copyIsIsolatedFromLaterWrites() {
+        UuidIndex original = new UuidIndex();
+        List<UUID> keys = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            UUID uuid = UUID.randomUUID();
+            keys.add(uuid);
+            original.put(uuid, entry(uuid));
+        }
+
+        UuidIndex copy = original.copy();
+        UUID added = UUID.randomUUID();
+        copy.put(added, entry(added));
+        for (int i = 0; i < 100; i++) {
+            copy.remove(keys.get(i));
+        }
+        // 再复制一代并扩容，旧的两代都不受影响
+        UuidIndex grown = copy.copy();
+        for (int i = 0; i < 5000; i++) {
+            UUID uuid = UUID.randomUUID();
+            grown.put(uuid, entry(uuid));
+        }
+
+        assertEquals(5000, original.size());
+        assertFalse(original.contains(added));
+        for (UUID uuid : keys) {
+            assertTrue(original.contains(uuid));
+        }
+        assertEquals(4901, copy.size());
+        assertTrue(copy.contains(added));
+        assertFalse(copy.contains(keys.get(0)));
+        assertEquals(9901, grown.size());
+    }
+
+    /**
+     * 与 UuidIndex.hash 相同的起始槽位计算
+     */
+    private static int homeSlot(UUID uuid, int mask) {
+        long h = uuid.getMostSignificantBits() * 31 + uuid.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
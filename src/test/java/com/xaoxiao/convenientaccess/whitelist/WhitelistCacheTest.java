@@ -0,0 +1,111 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class WhitelistCacheTest {
+
+    private static WhitelistEntry row(long id, String name, UUID uuid) {
+        WhitelistEntry entry = new WhitelistEntry(name, uuid != null ? uuid.toString() : null, "admin", null, "ADMIN");
+        entry.setId(id);
+        return entry;
+    }
+
+    @Test
+    void refreshAppliesRenameAsRemoveRowThenPut() {
+        WhitelistCache cache = new WhitelistCache();
+        UUID uuid = UUID.randomUUID();
+        cache.replaceAll(List.of(row(1, "Steve", uuid)));
+        long version = cache.version();
+
+        WhitelistEntry renamed = row(1, "Steve_2", uuid);
+        cache.apply(List.of(WhitelistCache.Change.removeRow(1, uuid, "Steve"), WhitelistCache.Change.put(renamed)));
+
+        assertNull(cache.getByName("steve"));
+        assertSame(renamed, cache.getByName("STEVE_2"));
+        assertSame(renamed, cache.getByUuid(uuid));
+        assertEquals(1, cache.size());
+        // 一次刷新只发布一个新版本
+        assertEquals(version + 1, cache.version());
+    }
+
+    @Test
+    void refreshDropsDeletedOrDeactivatedRow() {
+        WhitelistCache cache = new WhitelistCache();
+        UUID uuid = UUID.randomUUID();
+        cache.replaceAll(List.of(row(1, "Steve", uuid), row(2, "Alex", UUID.randomUUID())));
+
+        // 停用的行不会被重新读到，只剩移除变更
+        cache.apply(List.of(WhitelistCache.Change.removeRow(1, uuid, "Steve")));
+
+        assertFalse(cache.containsUuid(uuid));
+        assertFalse(cache.containsName("Steve"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void removeRowLeavesOtherRowsWithSameIdentity() {
+        WhitelistCache cache = new WhitelistCache();
+        UUID oldUuid = UUID.randomUUID();
+        WhitelistEntry other = row(2, "Alex", UUID.randomUUID());
+        cache.replaceAll(List.of(other));
+
+        // 行1变更前叫 Alex，该名称现在属于行2
+        cache.apply(List.of(WhitelistCache.Change.removeRow(1, oldUuid, "Alex")));
+
+        assertSame(other, cache.getByName("alex"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void reloadReplaysWritesPublishedDuringLoad() {
+        WhitelistCache cache = new WhitelistCache();
+        UUID kept = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+        UUID added = UUID.randomUUID();
+        cache.replaceAll(List.of(row(1, "Kept", kept), row(2, "Removed", removed)));
+
+        cache.beginReload();
+        // 加载期间的写入：读到的全表数据里还没有这些修改
+        cache.apply(List.of(WhitelistCache.Change.put(row(3, "Added", added))));
+        cache.apply(List.of(WhitelistCache.Change.removeUuid(removed)));
+        cache.replaceAll(List.of(row(1, "Kept", kept), row(2, "Removed", removed)));
+
+        assertTrue(cache.containsUuid(kept));
+        assertTrue(cache.containsUuid(added));
+        assertFalse(cache.containsUuid(removed));
+        assertFalse(cache.containsName("Removed"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void reloadAppliesUnflushedChangesAndStopsJournaling() {
+        WhitelistCache cache = new WhitelistCache();
+        UUID pendingAdd = UUID.randomUUID();
+        UUID pendingRemove = UUID.randomUUID();
+
+        cache.beginReload();
+        cache.replaceAll(List.of(row(1, "Removing", pendingRemove)), List.of(
+                WhitelistCache.Change.put(row(2, "Adding", pendingAdd)),
+                WhitelistCache.Change.removeUuid(pendingRemove)));
+        assertTrue(cache.containsUuid(pendingAdd));
+        assertFalse(cache.containsUuid(pendingRemove));
+
+        // 加载失败后不再记录写入
+        cache.beginReload();
+        cache.abortReload();
+        UUID later = UUID.randomUUID();
+        cache.apply(List.of(WhitelistCache.Change.put(row(3, "Later", later))));
+        cache.replaceAll(List.of());
+        assertFalse(cache.containsUuid(later));
+        assertEquals(0, cache.size());
+    }
+}
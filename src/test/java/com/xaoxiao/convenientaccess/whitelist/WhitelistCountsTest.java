@@ -0,0 +1,125 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class WhitelistCountsTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0, 30);
+    private static final long NOW_MILLIS = NOW.toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    private static WhitelistEntry entry(String source, LocalDateTime createdAt) {
+        WhitelistEntry entry = new WhitelistEntry("Steve", null, "admin", null, source);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+
+    @Test
+    void tracksSizeAndSourceCounts() {
+        WhitelistCounts counts = new WhitelistCounts();
+        WhitelistEntry admin = entry("ADMIN", NOW);
+        counts.add(admin);
+        counts.add(entry("ADMIN", NOW));
+        WhitelistEntry player = entry("PLAYER", NOW);
+        counts.add(player);
+
+        assertEquals(3, counts.size());
+        assertEquals(Map.of("ADMIN", 2, "PLAYER", 1), counts.sourceCounts());
+
+        counts.remove(admin);
+        counts.remove(player);
+        assertEquals(1, counts.size());
+        // 计数归零的来源不再出现
+        assertEquals(Map.of("ADMIN", 1), counts.sourceCounts());
+    }
+
+    @Test
+    void recentAdditionsOnlyCountsLast24Hours() {
+        WhitelistCounts counts = new WhitelistCounts();
+        counts.add(entry("ADMIN", NOW));
+        counts.add(entry("ADMIN", NOW.minusMinutes(1)));
+        counts.add(entry("ADMIN", NOW.minusHours(23).minusMinutes(59)));
+        counts.add(entry("ADMIN", NOW.minusHours(24)));
+        counts.add(entry("ADMIN", NOW.minusDays(3)));
+        counts.add(entry("ADMIN", null));
+
+        assertEquals(6, counts.size());
+        assertEquals(3, counts.recentAdditions(NOW_MILLIS));
+        // 时间推移后旧桶自然过期
+        assertEquals(1, counts.recentAdditions(NOW_MILLIS + 24 * 3_600_000L - 60_000L));
+        assertEquals(0, counts.recentAdditions(NOW_MILLIS + 24 * 3_600_000L));
+    }
+
+    @Test
+    void newerMinuteReusesExpiredBucket() {
+        WhitelistCounts counts = new WhitelistCounts();
+        LocalDateTime old = NOW.minusDays(1);
+        counts.add(entry("ADMIN", old));
+        counts.add(entry("ADMIN", old));
+        // 同一槽位，新分钟覆盖旧计数
+        counts.add(entry("ADMIN", NOW));
+        assertEquals(1, counts.recentAdditions(NOW_MILLIS));
+
+        // 早于桶中分钟的条目不会回写进桶
+        counts.add(entry("ADMIN", old));
+        assertEquals(1, counts.recentAdditions(NOW_MILLIS));
+
+        // 删除旧条目不影响新分钟的计数
+        counts.remove(entry("ADMIN", old));
+        assertEquals(1, counts.recentAdditions(NOW_MILLIS));
+        counts.remove(entry("ADMIN", NOW));
+        assertEquals(0, counts.recentAdditions(NOW_MILLIS));
+    }
+
+    @Test
+    void copyIsIndependent() {
+        WhitelistCounts original = new WhitelistCounts();
+        original.add(entry("ADMIN", NOW));
+
+        WhitelistCounts copy = original.copy();
+        copy.add(entry("PLAYER", NOW));
+        copy.remove(entry("ADMIN", NOW));
+
+        assertEquals(1, original.size());
+        assertEquals(Map.of("ADMIN", 1), original.sourceCounts());
+        assertEquals(1, original.recentAdditions(NOW_MILLIS));
+        assertEquals(1, copy.size());
+        assertNull(copy.sourceCounts().get("ADMIN"));
+        assertEquals(1, copy.recentAdditions(NOW_MILLIS));
+    }
+
+    @Test
+    void cacheKeepsCountsInStepWithEntries() {
+        WhitelistCache cache = new WhitelistCache();
+        UUID uuid = UUID.randomUUID();
+        WhitelistEntry steve = new WhitelistEntry("Steve", uuid.toString(), "admin", null, "ADMIN");
+        steve.setId(1L);
+        steve.setCreatedAt(NOW);
+        cache.put(steve);
+        WhitelistEntry alex = new WhitelistEntry("Alex", UUID.randomUUID().toString(), "admin", null, "PLAYER");
+        alex.setId(2L);
+        alex.setCreatedAt(NOW);
+        cache.put(alex);
+
+        // 同一UUID改名后重新写入，不重复计数
+        WhitelistEntry renamed = new WhitelistEntry(steve);
+        renamed.setName("Steve2");
+        cache.put(renamed);
+        WhitelistCounts counts = cache.snapshot().counts();
+        assertEquals(cache.size(), counts.size());
+        assertEquals(Map.of("ADMIN", 1, "PLAYER", 1), counts.sourceCounts());
+        assertEquals(2, counts.recentAdditions(NOW_MILLIS));
+
+        cache.removeByUuid(uuid);
+        counts = cache.snapshot().counts();
+        assertEquals(1, counts.size());
+        assertEquals(Map.of("PLAYER", 1), counts.sourceCounts());
+        assertEquals(1, counts.recentAdditions(NOW_MILLIS));
+    }
+}
@@ -0,0 +1,225 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+class WhitelistManagerTest {
+    private static final String UUID_A = "0f8fad5b-d9cb-469f-a165-70867728950e";
+    private static final String UUID_B = "7c9e6679-7425-40de-944b-e07fc1f90ae7";
+    private static final String UUID_C = "16fd2706-8baf-433b-82eb-8c7fada847da";
+
+    /**
+     * 以内存表模拟 SQLite 的 INSERT OR IGNORE / DELETE ... RETURNING
+     * RETURNING 的行按倒序返回，确认映射不依赖返回顺序；包含 failing 中UUID的语句整条失败
+     */
+    private static final class FakeTable {
+        final Map<String, Long> rows = new LinkedHashMap<>();
+        final Set<String> failing = new HashSet<>();
+        final List<Integer> statementRows = new ArrayList<>();
+        long nextId = 100;
+
+        Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "prepareStatement" -> statement((String) args[0]);
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private PreparedStatement statement(String sql) {
+            Map<Integer, Object> params = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "setString", "setTimestamp", "setBoolean" -> {
+                            params.put((Integer) args[0], args[1]);
+                            yield null;
+                        }
+                        case "executeQuery" -> execute(sql, new ArrayList<>(params.values()));
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private ResultSet execute(String sql, List<Object> params) throws SQLException {
+            boolean insert = sql.startsWith("INSERT OR IGNORE INTO whitelist");
+            int width = insert ? 7 : 1;
+            List<String> uuids = new ArrayList<>();
+            for (int i = insert ? 1 : 0; i < params.size(); i += width) {
+                uuids.add((String) params.get(i));
+            }
+            statementRows.add(uuids.size());
+            for (String uuid : uuids) {
+                if (failing.contains(uuid)) {
+                    throw new SQLException("CHECK constraint failed: " + uuid);
+                }
+            }
+
+            List<Map<String, Object>> returned = new ArrayList<>();
+            for (String uuid : uuids) {
+                if (insert && !rows.containsKey(uuid)) {
+                    rows.put(uuid, nextId);
+                    returned.add(Map.of("id", nextId++, "uuid", uuid));
+                } else if (!insert && rows.remove(uuid) != null) {
+                    returned.add(Map.of("uuid", uuid));
+                }
+            }
+            Collections.reverse(returned);
+            return resultSet(returned);
+        }
+
+        private ResultSet resultSet(List<Map<String, Object>> returned) {
+            int[] cursor = {-1};
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "next" -> ++cursor[0] < returned.size();
+                        case "getString" -> args[0] instanceof Integer ? returned.get(cursor[0]).get("uuid")
+                                : returned.get(cursor[0]).get((String) args[0]);
+                        case "getLong" -> returned.get(cursor[0]).get((String) args[0]);
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+
+    private static WhitelistEntry entry(String name, String uuid) {
+        return new WhitelistEntry(name, uuid, "admin", null, "ADMIN", LocalDateTime.of(2024, 1, 1, 0, 0));
+    }
+
+    @Test
+    void transactionFailureIsDistinguishableFromRejectedRows() {
+        BatchOperation batch = new BatchOperation(BatchOperation.OperationType.ADD, "API", null)
+                .addEntry("Steve", UUID_A)
+                .addEntry("Alex", UUID_B);
+
+        BatchOperation.BatchResult failed = WhitelistManager.transactionFailure(batch,
+                new CompletionException(new SQLException("[SQLITE_BUSY] database is locked")));
+
+        assertTrue(failed.isTransactionFailed());
+        assertEquals("[SQLITE_BUSY] database is locked", failed.getTransactionError());
+        assertEquals(0, failed.getSuccessCount());
+        assertEquals(2, failed.getFailureCount());
+        assertEquals(List.of(UUID_A, UUID_B), failed.getFailedUuids());
+        assertEquals(List.of("批量操作执行失败: [SQLITE_BUSY] database is locked"), failed.getErrors());
+
+        BatchOperation.BatchResult rejected = new BatchOperation.BatchResult(2, 0, 2,
+                List.of("玩家已存在: Steve", "玩家已存在: Alex"), List.of(), List.of(UUID_A, UUID_B));
+        assertTrue(rejected.isCompleteFailure());
+        assertFalse(rejected.isTransactionFailed());
+    }
+
+    @Test
+    void insertEntriesMapsReturnedIdsByUuid() throws SQLException {
+        FakeTable table = new FakeTable();
+        table.rows.put(UUID_C, 1L);
+        WhitelistEntry steve = entry("Steve", UUID_A);
+        WhitelistEntry alex = entry("Alex", UUID_B);
+        WhitelistEntry duplicate = entry("Steve2", UUID_A);
+        WhitelistEntry existing = entry("Notch", UUID_C);
+        Map<WhitelistEntry, String> errors = new IdentityHashMap<>();
+
+        Set<WhitelistEntry> inserted = WhitelistManager.insertEntries(table.connection(),
+                List.of(steve, alex, duplicate, existing), errors);
+
+        assertEquals(List.of(4), table.statementRows);
+        assertEquals(2, inserted.size());
+        assertTrue(inserted.contains(steve));
+        assertTrue(inserted.contains(alex));
+        // 批次内重复的UUID只有第一条插入，已存在的UUID被忽略
+        assertFalse(inserted.contains(duplicate));
+        assertFalse(inserted.contains(existing));
+        assertEquals(Long.valueOf(100), steve.getId());
+        assertEquals(Long.valueOf(101), alex.getId());
+        assertNull(duplicate.getId());
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    void insertEntriesFallsBackToSingleRowsOnStatementFailure() throws SQLException {
+        FakeTable table = new FakeTable();
+        table.failing.add(UUID_B);
+        WhitelistEntry steve = entry("Steve", UUID_A);
+        WhitelistEntry bad = entry("Alex", UUID_B);
+        WhitelistEntry notch = entry("Notch", UUID_C);
+        Map<WhitelistEntry, String> errors = new IdentityHashMap<>();
+
+        Set<WhitelistEntry> inserted = WhitelistManager.insertEntries(table.connection(),
+                List.of(steve, bad, notch), errors);
+
+        assertEquals(List.of(3, 1, 1, 1), table.statementRows);
+        assertEquals(2, inserted.size());
+        assertTrue(inserted.contains(steve));
+        assertTrue(inserted.contains(notch));
+        assertEquals(Map.of(bad, "CHECK constraint failed: " + UUID_B), errors);
+        assertEquals(Set.of(UUID_A, UUID_C), table.rows.keySet());
+    }
+
+    @Test
+    void insertEntriesSplitsIntoChunks() throws SQLException {
+        FakeTable table = new FakeTable();
+        List<WhitelistEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 1201; i++) {
+            entries.add(entry("Player" + i, String.format("00000000-0000-4000-8000-%012d", i)));
+        }
+
+        Set<WhitelistEntry> inserted = WhitelistManager.insertEntries(table.connection(), entries, new HashMap<>());
+
+        assertEquals(List.of(500, 500, 201), table.statementRows);
+        assertEquals(1201, inserted.size());
+        assertEquals(Long.valueOf(100 + 1200), entries.get(1200).getId());
+    }
+
+    @Test
+    void deleteByUuidsReturnsOnlyDeletedRows() throws SQLException {
+        FakeTable table = new FakeTable();
+        table.rows.put(UUID_A, 1L);
+        table.rows.put(UUID_B, 2L);
+        Map<String, String> errors = new HashMap<>();
+
+        Set<String> deleted = WhitelistManager.deleteByUuids(table.connection(),
+                List.of(UUID_A, UUID_C, UUID_B, UUID_A), errors);
+
+        assertEquals(List.of(4), table.statementRows);
+        assertEquals(Set.of(UUID_A, UUID_B), deleted);
+        assertTrue(errors.isEmpty());
+        assertTrue(table.rows.isEmpty());
+    }
+
+    @Test
+    void deleteByUuidsFallsBackToSingleRowsOnStatementFailure() throws SQLException {
+        FakeTable table = new FakeTable();
+        table.rows.put(UUID_A, 1L);
+        table.rows.put(UUID_B, 2L);
+        table.failing.add(UUID_B);
+        Map<String, String> errors = new HashMap<>();
+
+        Set<String> deleted = WhitelistManager.deleteByUuids(table.connection(), List.of(UUID_A, UUID_B), errors);
+
+        assertEquals(List.of(2, 1, 1), table.statementRows);
+        assertEquals(Set.of(UUID_A), deleted);
+        assertEquals(Map.of(UUID_B, "CHECK constraint failed: " + UUID_B), errors);
+        assertEquals(Set.of(UUID_B), table.rows.keySet());
+    }
+}
@@ -0,0 +1,166 @@
+package com.xaoxiao.convenientaccess.whitelist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.xaoxiao.convenientaccess.database.DatabaseManager.DatabaseOperation;
+
+class WhitelistWriteBehindTest {
+    private static final String UUID_A = "0f8fad5b-d9cb-469f-a165-70867728950e";
+    private static final String UUID_B = "7c9e6679-7425-40de-944b-e07fc1f90ae7";
+    private static final String UUID_C = "16fd2706-8baf-433b-82eb-8c7fada847da";
+
+    /**
+     * 手动执行的写队列：批次先排队，由测试决定何时在“写线程”上执行
+     */
+    private static final class ManualWriter implements WhitelistWriteBehind.WriteExecutor {
+        final Deque<Runnable> queued = new ArrayDeque<>();
+
+        @Override
+        public CompletableFuture<Void> executeWrite(DatabaseOperation<Void> operation) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            queued.add(() -> {
+                try {
+                    future.complete(operation.execute(null));
+                } catch (Exception e) {
+                    future.completeExceptionally(new RuntimeException(e));
+                }
+            });
+            return future;
+        }
+
+        void runNext() {
+            queued.removeFirst().run();
+        }
+    }
+
+    private final ManualWriter executor = new ManualWriter();
+    private final List<List<WhitelistWriteBehind.PendingWrite>> written = new ArrayList<>();
+    private final List<List<WhitelistWriteBehind.PendingWrite>> failed = new ArrayList<>();
+    private final List<List<WhitelistWriteBehind.PendingWrite>> outstandingOnFailure = new ArrayList<>();
+    private boolean failNext;
+    private WhitelistWriteBehind queue;
+
+    private WhitelistWriteBehind queue(long maxDelayMs, int maxBatchSize) {
+        queue = new WhitelistWriteBehind(executor, (connection, batch) -> {
+            if (failNext) {
+                failNext = false;
+                throw new SQLException("database is locked");
+            }
+            written.add(batch);
+            for (WhitelistWriteBehind.PendingWrite write : batch) {
+                write.succeeded = !UUID_B.equals(write.uuid);
+            }
+        }, (batch, cause) -> {
+            failed.add(batch);
+            outstandingOnFailure.add(queue.outstandingWrites());
+        }, maxDelayMs, maxBatchSize);
+        return queue;
+    }
+
+    private static WhitelistWriteBehind.PendingWrite add(String uuid) {
+        return WhitelistWriteBehind.PendingWrite.add(new WhitelistEntry("Steve", uuid, "admin", null, "ADMIN"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    @Test
+    void fullBatchIsCommittedInOneTransaction() {
+        WhitelistWriteBehind queue = queue(60_000, 3);
+        CompletableFuture<Boolean> a = queue.submit(add(UUID_A));
+        CompletableFuture<Boolean> b = queue.submit(add(UUID_B));
+        assertTrue(executor.queued.isEmpty());
+        assertEquals(2, queue.getPendingCount());
+
+        CompletableFuture<Boolean> c = queue.submit(WhitelistWriteBehind.PendingWrite.remove(UUID_C));
+        assertEquals(1, executor.queued.size());
+        assertEquals(0, queue.getPendingCount());
+        // 批次提交前 Future 不完成，UUID 仍视为未落盘
+        assertFalse(a.isDone());
+        assertTrue(queue.isOutstanding(UUID_A.toUpperCase()));
+
+        executor.runNext();
+        assertEquals(1, written.size());
+        assertEquals(3, written.get(0).size());
+        assertTrue(a.join());
+        assertFalse(b.join());
+        assertTrue(c.join());
+        assertFalse(queue.isOutstanding(UUID_A));
+        assertTrue(queue.outstandingWrites().isEmpty());
+        assertEquals(1, queue.getBatchCount());
+        assertEquals(3, queue.getOperationCount());
+    }
+
+    @Test
+    void partialBatchIsFlushedAfterMaxDelay() throws Exception {
+        WhitelistWriteBehind queue = queue(20, 100);
+        CompletableFuture<Boolean> a = queue.submit(add(UUID_A));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.queued.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, executor.queued.size());
+        executor.runNext();
+        assertTrue(a.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedBatchCompletesFalseAndReloadSkipsRolledBackWrites() {
+        WhitelistWriteBehind queue = queue(60_000, 2);
+        CompletableFuture<Boolean> a = queue.submit(add(UUID_A));
+        CompletableFuture<Boolean> c = queue.submit(add(UUID_C));
+        WhitelistWriteBehind.PendingWrite later = WhitelistWriteBehind.PendingWrite.remove(UUID_A);
+        CompletableFuture<Boolean> removeA = queue.submit(later);
+
+        failNext = true;
+        executor.runNext();
+
+        assertFalse(a.join());
+        assertFalse(c.join());
+        assertEquals(1, failed.size());
+        assertEquals(1, queue.getFailedBatchCount());
+        assertEquals(0, queue.getBatchCount());
+        // 失败回调（重新加载缓存）时，已回滚的批次不在未完成集合中，仍排队的写入在其中
+        assertEquals(1, outstandingOnFailure.get(0).size());
+        assertSame(later, outstandingOnFailure.get(0).get(0));
+        assertFalse(queue.isOutstanding(UUID_C));
+        assertTrue(queue.isOutstanding(UUID_A));
+
+        queue.flush();
+        executor.runNext();
+        assertTrue(removeA.join());
+        assertFalse(queue.isOutstanding(UUID_A));
+    }
+
+    @Test
+    void closeCommitsRemainingWritesAndRejectsNewOnes() {
+        WhitelistWriteBehind queue = queue(60_000, 100);
+        CompletableFuture<Boolean> a = queue.submit(add(UUID_A));
+
+        queue.close();
+        assertEquals(1, executor.queued.size());
+        assertFalse(queue.submit(add(UUID_C)).join());
+
+        executor.runNext();
+        assertTrue(a.join());
+    }
+}